@@ -0,0 +1,79 @@
+/**
+ * The ready queues of the scheduling strategies filled with processes for the benchmarks of the benchmarks package
+ */
+public class BenchmarkReadyQueue implements benchmarks.ReadyQueueOperations {
+
+    //processes: the state of the processes the queue holds the rows of
+    private ProcessStateTable processes;
+    //queue: the ready queue being measured
+    private ProcessQueue queue;
+    //spare: the row of a process that is not in the queue (swapped with the head of the queue)
+    private int spare;
+    //key: the last key given to a process (the keys follow a linear congruential sequence so they look random)
+    private int key = 1;
+
+    public BenchmarkReadyQueue(String queue, int size){
+        switch(queue){
+            case "fifo":
+                this.queue = new ProcessDeque();
+                break;
+            case "arrival":
+                this.queue = new IndexedProcessHeap(ProcessStateTable::getArrivalTime, false);
+                break;
+            case "heap":
+                this.queue = new IndexedProcessHeap(ProcessStateTable::getRemainingTime);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown ready queue: " + queue);
+        }
+        ProcessTable table = new ProcessTable();
+        for(int i = 0; i <= size; i++){
+            int key = nextKey();
+            table.add("p" + i, key, key, new int[0]);
+        }
+        this.processes = new ProcessStateTable(table);
+        this.queue.attach(this.processes);
+        for(int i = 0; i < size; i++){
+            this.queue.add(this.processes.acquire(i));
+        }
+        this.spare = this.processes.acquire(size);
+    }
+
+    @Override
+    public void pollAndOffer() {
+        int row = this.queue.poll();
+        rekey(row);
+        this.queue.add(row);
+    }
+
+    @Override
+    public void swapHead() {
+        int next;
+        if(this.queue instanceof IndexedProcessHeap){
+            next = ((IndexedProcessHeap) this.queue).replaceTop(this.spare);
+        }
+        else{
+            next = this.queue.poll();
+            this.queue.add(this.spare);
+        }
+        rekey(next);
+        this.spare = next;
+    }
+
+    @Override
+    public int peek() {
+        return this.queue.peek();
+    }
+
+    //a method that gives a process a new key (its arrival time and remaining time)
+    private void rekey(int row){
+        int key = nextKey();
+        this.processes.setArrivalTime(row, key);
+        this.processes.setRemainingTime(row, key);
+    }
+
+    private int nextKey(){
+        this.key = this.key * 1103515245 + 12345;
+        return (this.key >>> 16) & 0x7fff;
+    }
+}
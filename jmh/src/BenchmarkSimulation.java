@@ -0,0 +1,86 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Runs a scheduler for the benchmarks of the benchmarks package, it sits in the default package next to the simulator
+ * so that it can run the phases of a tick on their own
+ */
+public class BenchmarkSimulation implements benchmarks.Simulation {
+
+    //DISCARD: a stream that drops everything the schedulers print
+    private static final PrintStream DISCARD = new PrintStream(new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    });
+
+    //configuration: the strategy, quantum and number of cpus simulated
+    private SweepConfiguration configuration;
+    //workload: the processes simulated (read once, every simulation gets its own copy of their state)
+    private Workload workload;
+    //eventDriven: indicates whether the schedulers skip the ticks in which no process changes state
+    private boolean eventDriven;
+    //scheduler: the scheduler of the current simulation
+    private SchedulerStrategy scheduler;
+
+    public BenchmarkSimulation(String strategy, int quantum, String workloadFile, int numOfCPUs, boolean eventDriven)
+            throws IOException {
+        this.configuration = new SweepConfiguration(strategy, quantum, numOfCPUs);
+        this.workload = Workload.read(workloadFile, DISCARD);
+        this.eventDriven = eventDriven;
+        reset();
+    }
+
+    @Override
+    public void reset() {
+        this.scheduler = this.configuration.createScheduler(this.workload, DISCARD);
+        this.scheduler.setListener(SimulationListener.NO_OP);
+        this.scheduler.setEventDriven(this.eventDriven);
+    }
+
+    @Override
+    public int scheduleProcesses() {
+        reset();
+        this.scheduler.scheduleProcesses();
+        return this.scheduler.getTime();
+    }
+
+    @Override
+    public boolean step() {
+        return this.scheduler.step();
+    }
+
+    @Override
+    public void runPhase(int phase) {
+        switch(phase){
+            case ARRIVALS:
+                this.scheduler.addArrivedProcesses();
+                break;
+            case CPUS:
+                for(CPU cpu: this.scheduler.getCpus()){
+                    this.scheduler.runProcesses(cpu);
+                }
+                break;
+            default:
+                this.scheduler.runIO();
+        }
+    }
+
+    @Override
+    public void endTick() {
+        this.scheduler.time++;
+    }
+
+    @Override
+    public boolean isFinished() {
+        //the processes of the backlog of a workload (see BenchmarkWorkloads) never arrive
+        ArrivalQueue unarrived = this.scheduler.unarrivedProcesses;
+        return this.scheduler.readyProcessCount() == 0 && this.scheduler.processesAreRunning() == false &&
+                (unarrived.isEmpty() || unarrived.peekArrivalTime() >= benchmarks.BenchmarkWorkloads.BACKLOG_ARRIVAL);
+    }
+}
@@ -0,0 +1,68 @@
+package benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+/**
+ * Writes the input files the benchmarks run on, the same parameters always give the same file (the random numbers are
+ * seeded) so runs of the benchmarks can be compared with each other
+ */
+public class BenchmarkWorkloads {
+
+    //SEED: the seed of the random numbers used to generate every workload
+    private static final long SEED = 346;
+    //MAX_BURST: the longest execution time of a process (execution times are uniform between 1 and MAX_BURST)
+    private static final int MAX_BURST = 19;
+    //LOAD: the fraction of the cpus the arriving processes keep busy on average
+    private static final double LOAD = 0.9;
+    //BACKLOG_ARRIVAL: the arrival time of the backlog processes, which no benchmark ever reaches
+    public static final int BACKLOG_ARRIVAL = Integer.MAX_VALUE / 2;
+
+    //a method that returns an input file with the given number of processes, whose arrivals keep numOfCPUs cpus busy
+    //LOAD of the time and which request io at ioDensity of their execution time units
+    public static String file(int processes, int numOfCPUs, double ioDensity){
+        return file(processes, numOfCPUs, ioDensity, 0);
+    }
+
+    //a method that returns the same input file followed by a backlog of processes that arrive at BACKLOG_ARRIVAL, so
+    //they stay in unarrivedProcesses for the whole benchmark
+    public static String file(int processes, int numOfCPUs, double ioDensity, int backlog){
+        try{
+            File file = File.createTempFile("workload", ".txt");
+            file.deleteOnExit();
+            write(file, processes, numOfCPUs, ioDensity, backlog);
+            return file.getPath();
+        }
+        catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void write(File file, int processes, int numOfCPUs, double ioDensity, int backlog) throws IOException {
+        Random random = new Random(SEED);
+        double meanGap = (MAX_BURST + 1) / 2.0 / (numOfCPUs * LOAD);
+        try(BufferedWriter writer = Files.newBufferedWriter(file.toPath())){
+            writer.write("numOfCPUs: " + numOfCPUs + "\n");
+            long arrivalTime = 0;
+            for(int i = 1; i <= processes; i++){
+                //exponential gaps between arrivals (a poisson arrival process)
+                arrivalTime += Math.round(-Math.log(1 - random.nextDouble()) * meanGap);
+                int burst = 1 + random.nextInt(MAX_BURST);
+                writer.write("p" + i + " " + arrivalTime + " " + burst);
+                for(int t = 1; t < burst; t++){
+                    if(random.nextDouble() < ioDensity){
+                        writer.write(" " + t);
+                    }
+                }
+                writer.write('\n');
+            }
+            for(int i = 1; i <= backlog; i++){
+                writer.write("b" + i + " " + BACKLOG_ARRIVAL + " 1\n");
+            }
+        }
+    }
+}
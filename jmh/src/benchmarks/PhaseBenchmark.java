@@ -0,0 +1,102 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one phase of a tick on its own: releasing the arrived processes (addArrivedProcesses), running every cpu
+ * (runProcesses and runCPU) or running the io device (runIO), the other phases of the tick run before and after each
+ * operation without being measured
+ * The phases are short so the timer adds a few ns to every operation, compare the scores with earlier runs rather
+ * than reading them as absolute costs
+ * The backlog is a number of processes that never arrive during the benchmark, releasing the arrivals should cost the
+ * same whatever its size
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PhaseBenchmark {
+
+    @Param({"arrivals", "cpus", "io"})
+    public String phase;
+
+    @Param({"RR"})
+    public String strategy;
+
+    @Param({"4"})
+    public int quantum;
+
+    @Param({"10000"})
+    public int processes;
+
+    @Param({"1", "4"})
+    public int numOfCPUs;
+
+    @Param({"0.0", "0.2"})
+    public double ioDensity;
+
+    @Param({"0", "1000000"})
+    public int backlog;
+
+    //simulation: the simulation being measured
+    private Simulation simulation;
+    //phaseIndex: the phase being measured (Simulation.ARRIVALS, CPUS or IO)
+    private int phaseIndex;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        String file = BenchmarkWorkloads.file(this.processes, this.numOfCPUs, this.ioDensity, this.backlog);
+        this.simulation = Simulation.create(this.strategy, this.quantum, file, this.numOfCPUs, false);
+        switch(this.phase){
+            case "arrivals":
+                this.phaseIndex = Simulation.ARRIVALS;
+                break;
+            case "cpus":
+                this.phaseIndex = Simulation.CPUS;
+                break;
+            default:
+                this.phaseIndex = Simulation.IO;
+        }
+    }
+
+    //runs the phases of the tick that come before the measured one (starting over once the simulation finished)
+    @Setup(Level.Invocation)
+    public void before(){
+        if(this.simulation.isFinished()){
+            this.simulation.reset();
+        }
+        for(int phase = Simulation.ARRIVALS; phase < this.phaseIndex; phase++){
+            this.simulation.runPhase(phase);
+        }
+    }
+
+    @Benchmark
+    public void runPhase(){
+        this.simulation.runPhase(this.phaseIndex);
+    }
+
+    //runs the phases of the tick that come after the measured one
+    @TearDown(Level.Invocation)
+    public void after(){
+        for(int phase = this.phaseIndex + 1; phase <= Simulation.IO; phase++){
+            this.simulation.runPhase(phase);
+        }
+        this.simulation.endTick();
+    }
+}
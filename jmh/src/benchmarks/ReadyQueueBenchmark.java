@@ -0,0 +1,57 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the ready queue operations of the strategies as the number of queued processes grows: the fifo queue of
+ * RR, the arrival ordered queue of FCFS and the indexed heap of SJF and SRTF
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadyQueueBenchmark {
+
+    @Param({"fifo", "arrival", "heap"})
+    public String queue;
+
+    @Param({"16", "1024", "65536"})
+    public int size;
+
+    //readyQueue: the queue being measured
+    private ReadyQueueOperations readyQueue;
+
+    @Setup
+    public void setUp(){
+        this.readyQueue = ReadyQueueOperations.create(this.queue, this.size);
+    }
+
+    @Benchmark
+    public void pollAndOffer(){
+        this.readyQueue.pollAndOffer();
+    }
+
+    @Benchmark
+    public void swapHead(){
+        this.readyQueue.swapHead();
+    }
+
+    @Benchmark
+    public int peek(){
+        return this.readyQueue.peek();
+    }
+}
@@ -0,0 +1,30 @@
+package benchmarks;
+
+/**
+ * The ready queue operations the benchmarks run (see Simulation for why they go through an interface), implemented
+ * by BenchmarkReadyQueue in the default package
+ */
+public interface ReadyQueueOperations {
+
+    //a method that creates a ready queue holding the given number of processes, the queue is the one used by RR
+    //(fifo), FCFS (arrival) or SJF and SRTF (heap)
+    static ReadyQueueOperations create(String queue, int size){
+        try{
+            return (ReadyQueueOperations) Class.forName("BenchmarkReadyQueue")
+                    .getConstructor(String.class, int.class)
+                    .newInstance(queue, size);
+        }
+        catch(ReflectiveOperationException e){
+            throw new IllegalStateException("Could not create the ready queue", e);
+        }
+    }
+
+    //a method that takes the head of the queue and adds it back with a new key (a dispatch followed by a preemption)
+    void pollAndOffer();
+
+    //a method that swaps a process that is not queued with the head of the queue (what SRTF does when it preempts)
+    void swapHead();
+
+    //a method that returns the row of the head of the queue without removing it
+    int peek();
+}
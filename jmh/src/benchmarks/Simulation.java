@@ -0,0 +1,47 @@
+package benchmarks;
+
+/**
+ * The operations the benchmarks run on a scheduler
+ *
+ * JMH only accepts benchmarks declared in a package and a class in a package can't refer to the classes of the
+ * default package where the simulator lives, so the benchmarks go through this interface, implemented by
+ * BenchmarkSimulation in the default package (which can call the phases of a tick directly)
+ */
+public interface Simulation {
+
+    //ARRIVALS, CPUS and IO: the phases of a tick in the order they run (releasing the arrived processes, running every
+    //cpu and running the io device)
+    int ARRIVALS = 0;
+    int CPUS = 1;
+    int IO = 2;
+
+    //a method that creates a simulation of a strategy (FCFS, SJF, SRTF, RR, MLFQ or CFS) on the processes of a workload file
+    static Simulation create(String strategy, int quantum, String workloadFile, int numOfCPUs, boolean eventDriven){
+        try{
+            return (Simulation) Class.forName("BenchmarkSimulation")
+                    .getConstructor(String.class, int.class, String.class, int.class, boolean.class)
+                    .newInstance(strategy, quantum, workloadFile, numOfCPUs, eventDriven);
+        }
+        catch(ReflectiveOperationException e){
+            throw new IllegalStateException("Could not create the simulation", e);
+        }
+    }
+
+    //a method that starts a new simulation of the workload from time 0 (the workload is not read again)
+    void reset();
+
+    //a method that runs a new simulation from start to end (including its report) and returns the number of ticks
+    int scheduleProcesses();
+
+    //a method that simulates the next tick, returns false once every process has finished
+    boolean step();
+
+    //a method that runs one phase (ARRIVALS, CPUS or IO) of the current tick
+    void runPhase(int phase);
+
+    //a method that moves on to the next tick once its phases have run
+    void endTick();
+
+    //a method that indicates whether every process has finished
+    boolean isFinished();
+}
@@ -0,0 +1,72 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs whole simulations (creating the scheduler from an already read workload, simulating every tick and writing the
+ * report) of each strategy, one operation is one simulation and the ticks counter gives the simulated ticks per second
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StrategyBenchmark {
+
+    @Param({"FCFS", "SJF", "SRTF", "RR", "MLFQ", "CFS"})
+    public String strategy;
+
+    @Param({"4"})
+    public int quantum;
+
+    @Param({"1000", "10000"})
+    public int processes;
+
+    @Param({"1", "4"})
+    public int numOfCPUs;
+
+    @Param({"0.0", "0.2"})
+    public double ioDensity;
+
+    @Param({"false"})
+    public boolean eventDriven;
+
+    //simulation: the simulation being measured
+    private Simulation simulation;
+
+    /**
+     * The number of simulated ticks, reported by JMH as ticks per second next to the simulations per second
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Ticks {
+        public long ticks;
+
+        @Setup(Level.Iteration)
+        public void clean(){
+            this.ticks = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        String file = BenchmarkWorkloads.file(this.processes, this.numOfCPUs, this.ioDensity);
+        this.simulation = Simulation.create(this.strategy, this.quantum, file, this.numOfCPUs, this.eventDriven);
+    }
+
+    @Benchmark
+    public void simulate(Ticks ticks){
+        ticks.ticks += this.simulation.scheduleProcesses();
+    }
+}
@@ -0,0 +1,57 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Simulates one tick per operation (a new simulation of the same workload starts whenever one finishes), so the score
+ * is in simulated ticks per second and the gc profiler's gc.alloc.rate.norm is the number of bytes allocated per tick
+ *
+ * usage: java -jar target/benchmarks.jar TickBenchmark -prof gc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickBenchmark {
+
+    @Param({"FCFS", "SJF", "SRTF", "RR", "MLFQ", "CFS"})
+    public String strategy;
+
+    @Param({"4"})
+    public int quantum;
+
+    @Param({"10000"})
+    public int processes;
+
+    @Param({"1", "4"})
+    public int numOfCPUs;
+
+    @Param({"0.0", "0.2"})
+    public double ioDensity;
+
+    //simulation: the simulation being measured
+    private Simulation simulation;
+
+    @Setup
+    public void setUp(){
+        String file = BenchmarkWorkloads.file(this.processes, this.numOfCPUs, this.ioDensity);
+        this.simulation = Simulation.create(this.strategy, this.quantum, file, this.numOfCPUs, false);
+    }
+
+    @Benchmark
+    public void tick(){
+        if(this.simulation.step() == false){
+            this.simulation.reset();
+        }
+    }
+}
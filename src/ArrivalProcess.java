@@ -0,0 +1,11 @@
+/**
+ * The ways a WorkloadGenerator can spread the arrivals of processes over time
+ */
+public enum ArrivalProcess {
+    //POISSON: processes arrive independently of each other at a constant rate (exponential gaps between arrivals)
+    POISSON,
+    //BURSTY: processes arrive in bursts of several processes close together separated by longer quiet periods
+    BURSTY,
+    //DIURNAL: processes arrive independently at a rate that rises and falls over a period (like a day of traffic)
+    DIURNAL
+}
@@ -0,0 +1,106 @@
+/**
+ * The processes that haven't arrived yet, by process index, ordered by arrival time then by process index
+ *
+ * While the processes are added in that order (a workload sorted by arrival time or a streamed one) the queue is just
+ * the range of indexes between its head and its tail, otherwise it keeps the pending indexes in an array, which can
+ * be the arrival order of a Workload shared by every scheduler running it (it is copied before it is changed)
+ */
+public class ArrivalQueue {
+
+    //definitions: the definitions the arrival times are read from
+    private ProcessTable definitions;
+    //order: the pending indexes in arrival order between head and tail (null while they are the indexes from head to
+    //tail themselves)
+    private int[] order = null;
+    //shared: indicates whether order belongs to someone else and must be copied before it is changed
+    private boolean shared = false;
+    //head and tail: the position of the next process to arrive and the position after the last one
+    private int head = 0;
+    private int tail = 0;
+
+    //a constructor that creates an empty queue
+    public ArrivalQueue(ProcessTable definitions){
+        this.definitions = definitions;
+    }
+
+    //a constructor that creates a queue holding every process of the definitions, order is their arrival order (shared,
+    //not copied) or null if they are already in arrival order
+    public ArrivalQueue(ProcessTable definitions, int[] order){
+        this.definitions = definitions;
+        this.order = order;
+        this.shared = order != null;
+        this.tail = definitions.size();
+    }
+
+    //a method that adds a process (after every process with an earlier arrival time or the same one and a lower index)
+    public void add(int index){
+        if(this.order == null && index == this.tail &&
+                (this.head == this.tail || this.definitions.getArrivalTime(this.tail - 1) <= this.definitions.getArrivalTime(index))){
+            this.tail++;
+            return;
+        }
+        if(this.order == null || this.shared || this.tail == this.order.length){
+            //the pending indexes are moved to the start of an array of their own with room to grow
+            int size = size();
+            int[] order = new int[Math.max(16, 2 * size + 1)];
+            for(int i = 0; i < size; i++){
+                order[i] = this.order == null ? this.head + i : this.order[this.head + i];
+            }
+            this.order = order;
+            this.shared = false;
+            this.head = 0;
+            this.tail = size;
+        }
+        int position = this.tail++;
+        while(position > this.head && comesBefore(index, this.order[position - 1])){
+            this.order[position] = this.order[position - 1];
+            position--;
+        }
+        this.order[position] = index;
+    }
+
+    //a method that indicates whether process a arrives before process b
+    private boolean comesBefore(int a, int b){
+        int arrivalA = this.definitions.getArrivalTime(a);
+        int arrivalB = this.definitions.getArrivalTime(b);
+        return arrivalA < arrivalB || (arrivalA == arrivalB && a < b);
+    }
+
+    //a method that removes the next process to arrive and returns its index (only valid if the queue isn't empty)
+    public int poll(){
+        int index = peek();
+        this.head++;
+        return index;
+    }
+
+    //returns the index of the next process to arrive (only valid if the queue isn't empty)
+    public int peek(){
+        return this.order == null ? this.head : this.order[this.head];
+    }
+
+    //returns the arrival time of the next process to arrive (only valid if the queue isn't empty)
+    public int peekArrivalTime(){
+        return this.definitions.getArrivalTime(peek());
+    }
+
+    //returns the lowest index of the processes that haven't arrived (the number of processes in the definitions if
+    //every process arrived), the definitions of the processes below it are no longer needed by the queue
+    public int lowestPendingIndex(){
+        if(this.order == null){
+            return this.head;
+        }
+        int lowest = this.definitions.size();
+        for(int i = this.head; i < this.tail; i++){
+            lowest = Math.min(lowest, this.order[i]);
+        }
+        return lowest;
+    }
+
+    public int size(){
+        return this.tail - this.head;
+    }
+
+    public boolean isEmpty(){
+        return this.head == this.tail;
+    }
+}
@@ -0,0 +1,211 @@
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs every simulation event to a file, events are formatted into batches on the simulation thread and the batches
+ * are written by a background thread so the simulation does not wait on the disk (unless it gets far ahead of it)
+ */
+public class AsyncFileSimulationListener implements SimulationListener, AutoCloseable {
+
+    //BATCH_SIZE: the number of characters collected before a batch is handed to the writer thread
+    private static final int BATCH_SIZE = 1 << 16;
+    //MAX_PENDING_BATCHES: the number of batches that can wait for the writer thread before the simulation has to wait
+    private static final int MAX_PENDING_BATCHES = 8;
+    //END: the batch that tells the writer thread every batch has been handed to it
+    private static final StringBuilder END = new StringBuilder();
+
+    //writer: the file the events are written to
+    private Writer writer;
+    //pending: the batches waiting for the writer thread, when it is full the simulation thread waits for a free slot,
+    //which slows it down to the speed of the disk instead of letting the pending batches fill up the heap
+    private BlockingQueue<StringBuilder> pending = new ArrayBlockingQueue<>(MAX_PENDING_BATCHES);
+    //writerThread: the single thread that writes the batches in the order they were submitted
+    private Thread writerThread;
+    //batch: the events that have not been handed to the writer thread yet
+    private StringBuilder batch = new StringBuilder(BATCH_SIZE);
+    //closed: indicates whether close() was called, events can't be logged anymore
+    private boolean closed = false;
+    //failure: the first exception thrown while writing or handing a batch to the writer thread, rethrown by close()
+    private volatile IOException failure = null;
+
+    public AsyncFileSimulationListener(String fileName) throws IOException {
+        this.writer = Files.newBufferedWriter(Paths.get(fileName));
+        this.writerThread = new Thread(this::writeBatches, "simulation-event-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    @Override
+    public void onDispatch(int time, CPU cpu, CPUProcess process) {
+        ensureOpen();
+        this.batch.append(time).append("\tdispatch\t").append(process.getProcessID()).append("\tcpu ").append(cpu.getCpuID()).append('\n');
+        flushIfFull();
+    }
+
+    @Override
+    public void onRun(int start, int end, CPU cpu, CPUProcess process) {
+        ensureOpen();
+        this.batch.append(start).append("\trun\t").append(process.getProcessID()).append("\tcpu ").append(cpu.getCpuID())
+                .append("\tuntil ").append(end).append('\n');
+        flushIfFull();
+    }
+
+    @Override
+    public void onPreempt(int time, CPU cpu, CPUProcess process) {
+        ensureOpen();
+        this.batch.append(time).append("\tpreempt\t").append(process.getProcessID()).append("\tcpu ").append(cpu.getCpuID()).append('\n');
+        flushIfFull();
+    }
+
+    @Override
+    public void onMigrate(int time, CPU from, CPU to, CPUProcess process) {
+        ensureOpen();
+        this.batch.append(time).append("\tmigrate\t").append(process.getProcessID()).append("\tcpu ").append(from.getCpuID())
+                .append("\tcpu ").append(to.getCpuID()).append('\n');
+        flushIfFull();
+    }
+
+    @Override
+    public void onIoStart(int time, CPUProcess process) {
+        ensureOpen();
+        this.batch.append(time).append("\tio-start\t").append(process.getProcessID()).append('\n');
+        flushIfFull();
+    }
+
+    @Override
+    public void onIo(int start, int end, CPUProcess process) {
+        ensureOpen();
+        this.batch.append(start).append("\tio\t").append(process.getProcessID()).append("\tuntil ").append(end).append('\n');
+        flushIfFull();
+    }
+
+    @Override
+    public void onIoEnd(int time, CPUProcess process) {
+        ensureOpen();
+        this.batch.append(time).append("\tio-end\t").append(process.getProcessID()).append('\n');
+        flushIfFull();
+    }
+
+    @Override
+    public void onFinish(int time, CPUProcess process) {
+        ensureOpen();
+        this.batch.append(time).append("\tfinish\t").append(process.getProcessID()).append('\n');
+        flushIfFull();
+    }
+
+    @Override
+    public void onSimulationEnd(int time) {
+        ensureOpen();
+        this.batch.append(time).append("\tend\n");
+        submitBatch();
+    }
+
+    //a method that writes out every pending event and closes the file, events can't be logged once it is closed
+    @Override
+    public void close() throws IOException {
+        if(this.closed){
+            return;
+        }
+        submitBatch();
+        this.closed = true;
+        try{
+            if(handOver(END)){
+                this.writerThread.join();
+            }
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            recordFailure(new InterruptedIOException("Interrupted while the pending events were being written"));
+            this.writerThread.interrupt();
+        }
+        try{
+            this.writer.close();
+        }
+        catch(IOException e){
+            recordFailure(e);
+        }
+        if(this.failure != null){
+            throw this.failure;
+        }
+    }
+
+    //a method that throws an IllegalStateException if the listener is closed
+    private void ensureOpen(){
+        if(this.closed){
+            throw new IllegalStateException("The event log is closed");
+        }
+    }
+
+    //a method that hands the batch to the writer thread once it is big enough
+    private void flushIfFull(){
+        if(this.batch.length() >= BATCH_SIZE){
+            submitBatch();
+        }
+    }
+
+    //a method that hands the current batch to the writer thread and starts a new one, the simulation thread waits while
+    //MAX_PENDING_BATCHES batches are pending (being interrupted meanwhile is recorded as a failure rethrown by close())
+    private void submitBatch(){
+        if(this.batch.length() == 0){
+            return;
+        }
+        final StringBuilder full = this.batch;
+        this.batch = new StringBuilder(BATCH_SIZE);
+        try{
+            if(!handOver(full)){
+                recordFailure(new IOException("The event writer thread stopped, " + full.length() +
+                        " characters of events were not written"));
+            }
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            recordFailure(new InterruptedIOException("Interrupted while handing " + full.length() +
+                    " characters of events to the writer thread"));
+        }
+    }
+
+    //a method that waits for a free slot to hand a batch to the writer thread, false if the writer thread stopped
+    private boolean handOver(StringBuilder batch) throws InterruptedException {
+        while(!this.pending.offer(batch, 100, TimeUnit.MILLISECONDS)){
+            if(!this.writerThread.isAlive())
+                return false;
+        }
+        return true;
+    }
+
+    //the loop of the writer thread: write the batches in the order they were handed over until END, once a write fails
+    //the batches are still taken (and dropped) so the simulation thread never waits for a writer that stopped
+    private void writeBatches(){
+        try{
+            while(true){
+                StringBuilder next = this.pending.take();
+                if(next == END){
+                    return;
+                }
+                if(this.failure == null){
+                    try{
+                        this.writer.append(next);
+                    }
+                    catch(IOException e){
+                        recordFailure(e);
+                    }
+                }
+            }
+        }
+        catch(InterruptedException e){
+            recordFailure(new InterruptedIOException("The event writer thread was interrupted"));
+        }
+    }
+
+    //a method that keeps the first failure
+    private synchronized void recordFailure(IOException e){
+        if(this.failure == null)
+            this.failure = e;
+    }
+}
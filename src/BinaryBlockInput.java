@@ -0,0 +1,176 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads the records written by BinaryBlockOutput from a file, the file is memory mapped a window at a time and the
+ * records of a block stored raw are decoded straight from the mapping, a deflated block is inflated into a buffer
+ * reused for every block
+ *
+ * The fields of a record must be read in the order they were written, reading past the end of a block throws a
+ * BufferUnderflowException
+ */
+public class BinaryBlockInput {
+
+    //WINDOW_SIZE: the number of bytes of the file mapped at once (more for a bigger block)
+    private static final long WINDOW_SIZE = 64L << 20;
+
+    //channel: the file being read
+    private FileChannel channel;
+    //fileSize: the size of the file
+    private long fileSize;
+    //window and windowStart: the mapped part of the file and where it starts in the file
+    private ByteBuffer window = null;
+    private long windowStart = 0;
+    //position: where the next block starts in the file
+    private long position;
+    //block: the raw bytes of the current block, positioned at the next field
+    private ByteBuffer block = ByteBuffer.allocate(0);
+    //recordsLeft: the number of records of the current block that haven't been started yet
+    private int recordsLeft = 0;
+    //atBlockStart: indicates whether the current record is the first of its block
+    private boolean atBlockStart = false;
+    //ended: indicates whether the empty block that ends the blocks was read
+    private boolean ended = false;
+    //inflater, stored and inflated: inflate the deflated blocks
+    private Inflater inflater = new Inflater();
+    private byte[] stored = new byte[0];
+    private byte[] inflated = new byte[0];
+
+    //a constructor that reads the blocks of the file that start at the given position
+    public BinaryBlockInput(FileChannel channel, long position) throws IOException {
+        this.channel = channel;
+        this.fileSize = channel.size();
+        this.position = position;
+    }
+
+    //a method that moves on to the next record, returns false once every record was read
+    public boolean nextRecord() throws IOException {
+        this.atBlockStart = false;
+        while(this.recordsLeft == 0){
+            if(this.ended || readBlock() == false){
+                return false;
+            }
+            this.atBlockStart = true;
+        }
+        this.recordsLeft--;
+        return true;
+    }
+
+    //a method that reads the next int written by writeVarint
+    public int readVarint(){
+        int value = 0;
+        for(int shift = 0; shift < 35; shift += 7){
+            byte b = this.block.get();
+            value |= (b & 0x7F) << shift;
+            if(b >= 0){
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    //a method that reads the next int written by writeSignedVarint
+    public int readSignedVarint(){
+        int value = readVarint();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public double readDouble(){
+        return this.block.getDouble();
+    }
+
+    //a method that reads the next bytes written by writeBytes into bytes (which must have room for them) and returns
+    //their number
+    public int readBytes(byte[] bytes){
+        int length = readVarint();
+        this.block.get(bytes, 0, length);
+        return length;
+    }
+
+    //a method that returns the number of bytes the next readBytes reads without reading anything
+    public int peekBytesLength(){
+        int position = this.block.position();
+        int length = readVarint();
+        this.block.position(position);
+        return length;
+    }
+
+    public String readString(){
+        byte[] bytes = new byte[peekBytesLength()];
+        readBytes(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    //a method that indicates whether the current record is the first of its block (the fields delta encoded against
+    //the previous record start over, see BinaryBlockOutput.isAtBlockStart)
+    public boolean isAtBlockStart(){
+        return this.atBlockStart;
+    }
+
+    //a method that loads the next block, returns false if it's the empty block that ends the blocks
+    private boolean readBlock() throws IOException {
+        ByteBuffer header = map(this.position, BinaryBlockOutput.BLOCK_HEADER_SIZE);
+        int rawLength = header.getInt();
+        int storedLength = header.getInt();
+        int records = header.getInt();
+        if(records == 0){
+            this.ended = true;
+            this.block = ByteBuffer.allocate(0);
+            return false;
+        }
+        if(rawLength < 0 || storedLength < 0 || storedLength > rawLength || records < 0){
+            throw new IOException("Malformed block header at " + this.position);
+        }
+        ByteBuffer bytes = map(this.position + BinaryBlockOutput.BLOCK_HEADER_SIZE, storedLength);
+        this.position += BinaryBlockOutput.BLOCK_HEADER_SIZE + storedLength;
+        this.recordsLeft = records;
+        if(storedLength == rawLength){
+            this.block = bytes;
+            return true;
+        }
+        if(this.stored.length < storedLength){
+            this.stored = new byte[storedLength];
+        }
+        if(this.inflated.length < rawLength){
+            this.inflated = new byte[rawLength];
+        }
+        bytes.get(this.stored, 0, storedLength);
+        this.inflater.reset();
+        this.inflater.setInput(this.stored, 0, storedLength);
+        try{
+            if(this.inflater.inflate(this.inflated, 0, rawLength) != rawLength || this.inflater.finished() == false){
+                throw new IOException("Corrupt block before " + this.position);
+            }
+        }
+        catch(DataFormatException e){
+            throw new IOException("Corrupt block before " + this.position, e);
+        }
+        this.block = ByteBuffer.wrap(this.inflated, 0, rawLength);
+        return true;
+    }
+
+    //a method that returns the given bytes of the file, mapping a new window when they aren't in the current one
+    private ByteBuffer map(long start, int length) throws IOException {
+        if(start + length > this.fileSize){
+            throw new IOException("Truncated file, " + length + " bytes expected at " + start);
+        }
+        if(this.window == null || start < this.windowStart || start + length > this.windowStart + this.window.capacity()){
+            this.windowStart = start;
+            long size = Math.min(Math.max(WINDOW_SIZE, length), this.fileSize - start);
+            this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+        }
+        ByteBuffer bytes = this.window.duplicate();
+        bytes.position((int) (start - this.windowStart));
+        bytes.limit(bytes.position() + length);
+        return bytes.slice();
+    }
+
+    //a method that releases the inflater (the channel is closed by its owner)
+    public void end(){
+        this.inflater.end();
+    }
+}
@@ -0,0 +1,159 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Writes the records of a binary trace or report in blocks: the fields of a record are varints (zigzag encoded when
+ * they can be negative) appended to the current block, which is deflated and written to the channel once it holds
+ * BLOCK_SIZE bytes, so a reader only ever holds one block at a time
+ *
+ * Every block is written as its raw length, stored length and number of records (3 big endian ints) followed by its
+ * stored bytes, which are the raw bytes themselves when deflating them doesn't make them smaller (or compression is
+ * off), the last block is followed by an empty one (see BinaryBlockInput)
+ */
+public class BinaryBlockOutput {
+
+    //BLOCK_SIZE: the number of raw bytes from which a block is written
+    public static final int BLOCK_SIZE = 1 << 20;
+    //BLOCK_HEADER_SIZE: the number of bytes before the stored bytes of a block
+    public static final int BLOCK_HEADER_SIZE = 12;
+
+    //channel: where the blocks are written
+    private WritableByteChannel channel;
+    //compressed: indicates whether the blocks are deflated
+    private boolean compressed;
+    //deflater: deflates the blocks (null when compression is off)
+    private Deflater deflater;
+    //block: the raw bytes of the current block (grows to fit a record bigger than a block)
+    private byte[] block = new byte[BLOCK_SIZE + 64];
+    //length: the number of bytes in block
+    private int length = 0;
+    //records: the number of records in block
+    private int records = 0;
+    //deflated: the deflated bytes of the block being written
+    private byte[] deflated = new byte[BLOCK_SIZE];
+    //header: the header of the block being written
+    private ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+    //bytesWritten: the number of bytes written to the channel
+    private long bytesWritten = 0;
+
+    public BinaryBlockOutput(WritableByteChannel channel, boolean compressed){
+        this.channel = channel;
+        this.compressed = compressed;
+        this.deflater = compressed ? new Deflater(Deflater.BEST_SPEED) : null;
+    }
+
+    //a method that appends an int that is never negative (any int can be written but a negative one takes 5 bytes)
+    public void writeVarint(int value){
+        ensureRoom(5);
+        while((value & ~0x7F) != 0){
+            this.block[this.length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        this.block[this.length++] = (byte) value;
+    }
+
+    //a method that appends an int that can be negative (small negative ints stay small)
+    public void writeSignedVarint(int value){
+        writeVarint((value << 1) ^ (value >> 31));
+    }
+
+    public void writeDouble(double value){
+        ensureRoom(8);
+        long bits = Double.doubleToRawLongBits(value);
+        for(int shift = 56; shift >= 0; shift -= 8){
+            this.block[this.length++] = (byte) (bits >>> shift);
+        }
+    }
+
+    //a method that appends length bytes of bytes starting at offset, preceded by their number
+    public void writeBytes(byte[] bytes, int offset, int length){
+        writeVarint(length);
+        ensureRoom(length);
+        System.arraycopy(bytes, offset, this.block, this.length, length);
+        this.length += length;
+    }
+
+    //a method that appends the utf-8 bytes of a string, preceded by their number
+    public void writeString(String s){
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    //a method that ends the record being written, the block is written once it is full
+    public void endRecord() throws IOException {
+        this.records++;
+        if(this.length >= BLOCK_SIZE){
+            writeBlock();
+        }
+    }
+
+    //a method that indicates whether the next record starts a new block (the fields delta encoded against the previous
+    //record then start over, so every block can be decoded on its own)
+    public boolean isAtBlockStart(){
+        return this.length == 0;
+    }
+
+    //a method that writes the last block and the empty block that ends the blocks
+    public void finish() throws IOException {
+        writeBlock();
+        write(0, 0, 0, this.block, 0);
+        if(this.deflater != null){
+            this.deflater.end();
+        }
+    }
+
+    //a method that writes the current block, deflated if that makes it smaller
+    private void writeBlock() throws IOException {
+        if(this.records == 0){
+            return;
+        }
+        if(this.compressed){
+            if(this.deflated.length < this.length){
+                this.deflated = new byte[this.length];
+            }
+            this.deflater.reset();
+            this.deflater.setInput(this.block, 0, this.length);
+            this.deflater.finish();
+            int deflatedLength = this.deflater.deflate(this.deflated, 0, this.length);
+            if(this.deflater.finished() && deflatedLength < this.length){
+                write(this.length, deflatedLength, this.records, this.deflated, deflatedLength);
+                this.length = 0;
+                this.records = 0;
+                return;
+            }
+        }
+        write(this.length, this.length, this.records, this.block, this.length);
+        this.length = 0;
+        this.records = 0;
+    }
+
+    private void write(int rawLength, int storedLength, int records, byte[] stored, int length) throws IOException {
+        this.header.clear();
+        this.header.putInt(rawLength).putInt(storedLength).putInt(records).flip();
+        writeFully(this.header);
+        writeFully(ByteBuffer.wrap(stored, 0, length));
+        this.bytesWritten += BLOCK_HEADER_SIZE + length;
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while(buffer.hasRemaining()){
+            this.channel.write(buffer);
+        }
+    }
+
+    //a method that makes sure the block has room for the given number of bytes
+    private void ensureRoom(int bytes){
+        if(this.length + bytes > this.block.length){
+            this.block = Arrays.copyOf(this.block, Math.max(this.block.length * 2, this.length + bytes));
+        }
+    }
+
+    //GETTERS
+    public long getBytesWritten(){ return this.bytesWritten; }
+
+    public boolean isCompressed(){ return this.compressed; }
+}
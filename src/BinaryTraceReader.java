@@ -0,0 +1,174 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads the processes of a binary trace written by BinaryTraceWriter one at a time, WorkloadReader hands a file to it
+ * when the file starts with BinaryTraceWriter.MAGIC so a trace can be used wherever an input file can
+ */
+public class BinaryTraceReader implements AutoCloseable {
+
+    //fileName: the trace being read
+    private String fileName;
+    //channel: the channel the trace is read through
+    private FileChannel channel;
+    //in: the blocks of the trace
+    private BinaryBlockInput in;
+    //numOfCPUs and processCount: the number of cpus and processes given by the header
+    private int numOfCPUs;
+    private long processCount;
+    //processNumber: the number of the process currently being read (starting at 1)
+    private long processNumber = 0;
+    //previousArrivalTime: the arrival time of the previous process of the block
+    private int previousArrivalTime = 0;
+    //numOfIoDevices: the number of io devices processes can request io on (see WorkloadReader.setNumOfIoDevices)
+    private int numOfIoDevices = Integer.MAX_VALUE;
+    //id, ioRequestTimes, ioDurations, ioDevices and ioBlocks: the process being read
+    private byte[] id = new byte[64];
+    private int[] ioRequestTimes = new int[16];
+    private int[] ioDurations = new int[16];
+    private int[] ioDevices = new int[16];
+    private int[] ioBlocks = new int[16];
+
+    public BinaryTraceReader(String fileName) throws IOException {
+        this(fileName, FileChannel.open(Paths.get(fileName), StandardOpenOption.READ));
+    }
+
+    //a constructor that reads a trace through a channel that was already opened (and is closed by close())
+    public BinaryTraceReader(String fileName, FileChannel channel) throws IOException {
+        this.fileName = fileName;
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(BinaryTraceWriter.HEADER_SIZE);
+        while(header.hasRemaining()){
+            if(channel.read(header, header.position()) < 0){
+                throw new IOException(fileName + " is too short to be a binary trace");
+            }
+        }
+        header.flip();
+        if(header.getInt() != BinaryTraceWriter.MAGIC){
+            throw new IOException(fileName + " is not a binary trace");
+        }
+        int version = header.getInt();
+        if(version != BinaryTraceWriter.VERSION){
+            throw new IOException(fileName + " is a binary trace of version " + version + ", only version " +
+                    BinaryTraceWriter.VERSION + " can be read");
+        }
+        this.numOfCPUs = header.getInt();
+        this.processCount = header.getLong();
+        this.in = new BinaryBlockInput(channel, BinaryTraceWriter.HEADER_SIZE);
+    }
+
+    //a method that indicates whether a file starts like a binary trace (the channel's position isn't changed)
+    public static boolean isBinaryTrace(FileChannel channel) throws IOException {
+        ByteBuffer magic = ByteBuffer.allocate(4);
+        while(magic.hasRemaining()){
+            if(channel.read(magic, magic.position()) < 0){
+                return false;
+            }
+        }
+        magic.flip();
+        return magic.getInt() == BinaryTraceWriter.MAGIC;
+    }
+
+    //a method that adds the next process of the trace to the table and returns its index, or returns -1 once every
+    //process was read, a process with a negative arrival time, no execution time, an invalid weight or an invalid io request
+    //throws an InvalidInputException (nothing is added to the table) and calling next() again continues after it
+    public int next(ProcessTable table) throws IOException, InvalidInputException {
+        if(this.in.nextRecord() == false){
+            return -1;
+        }
+        this.processNumber++;
+        try{
+            if(this.in.isAtBlockStart()){
+                this.previousArrivalTime = 0;
+            }
+            int arrivalTime = this.previousArrivalTime + this.in.readSignedVarint();
+            this.previousArrivalTime = arrivalTime;
+            int totalExecTime = this.in.readSignedVarint();
+            int weight = this.in.readVarint();
+            int idLength = this.in.peekBytesLength();
+            if(this.id.length < idLength){
+                this.id = new byte[Math.max(this.id.length * 2, idLength)];
+            }
+            this.in.readBytes(this.id);
+            int io = this.in.readVarint();
+            int ioCount = io >>> 1;
+            boolean attributes = (io & 1) != 0;
+            if(this.ioRequestTimes.length < ioCount){
+                growIoRequests(ioCount);
+            }
+            boolean valid = true;
+            int device = 0;
+            for(int i = 0; i < ioCount; i++){
+                this.ioRequestTimes[i] = i == 0 ? this.in.readSignedVarint() : this.ioRequestTimes[i - 1] + this.in.readVarint();
+                if(attributes){
+                    this.ioDurations[i] = this.in.readVarint();
+                    this.ioDevices[i] = this.in.readVarint();
+                    this.ioBlocks[i] = this.in.readSignedVarint();
+                    valid &= this.ioDurations[i] >= 1 && this.ioDevices[i] >= 0;
+                    device = Math.max(device, this.ioDevices[i]);
+                }
+            }
+            if(arrivalTime < 0){
+                throw new InvalidInputException(location() + "the arrival time of a process can't be negative");
+            }
+            if(totalExecTime < 1){
+                throw new InvalidInputException(location() + "the total execution time of a process must be at least 1 time unit");
+            }
+            if(weight < 1){
+                throw new InvalidInputException(location() + "the weight of a process must be positive");
+            }
+            if(ioCount > 0 && (this.ioRequestTimes[0] < 0 || this.ioRequestTimes[ioCount - 1] > totalExecTime)){
+                throw new InvalidInputException(location() + "an io request is not between 0 and the total execution time " +
+                        totalExecTime);
+            }
+            if(valid == false){
+                throw new InvalidInputException(location() + "an io request has a negative device or lasts less than 1 time unit");
+            }
+            if(device >= this.numOfIoDevices){
+                throw new InvalidInputException(location() + "an io request is on device " + device + " but there are only " +
+                        this.numOfIoDevices + " io devices");
+            }
+            return attributes ?
+                    table.add(this.id, 0, idLength, arrivalTime, totalExecTime, weight, this.ioRequestTimes,
+                            this.ioDurations, this.ioDevices, this.ioBlocks, 0, ioCount) :
+                    table.add(this.id, 0, idLength, arrivalTime, totalExecTime, weight, this.ioRequestTimes, 0, ioCount);
+        }
+        catch(BufferUnderflowException | IllegalStateException | IndexOutOfBoundsException e){
+            throw new IOException(location() + "the record is corrupt", e);
+        }
+    }
+
+    private void growIoRequests(int ioCount){
+        int capacity = Math.max(this.ioRequestTimes.length * 2, ioCount);
+        this.ioRequestTimes = Arrays.copyOf(this.ioRequestTimes, capacity);
+        this.ioDurations = Arrays.copyOf(this.ioDurations, capacity);
+        this.ioDevices = Arrays.copyOf(this.ioDevices, capacity);
+        this.ioBlocks = Arrays.copyOf(this.ioBlocks, capacity);
+    }
+
+    private String location(){
+        return this.fileName + " process " + this.processNumber + ": ";
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.in.end();
+        this.channel.close();
+    }
+
+    //GETTERS
+    public int getNumOfCPUs(){ return this.numOfCPUs; }
+
+    public long getProcessCount(){ return this.processCount; }
+
+    public long getProcessNumber(){ return this.processNumber; }
+
+    public String getFileName(){ return this.fileName; }
+
+    public void setNumOfIoDevices(int numOfIoDevices){ this.numOfIoDevices = numOfIoDevices; }
+}
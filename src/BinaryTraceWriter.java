@@ -0,0 +1,147 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Writes processes to a binary trace, the compact equivalent of an input file that WorkloadReader reads in its place
+ * (and therefore every scheduler and Workload.read)
+ *
+ * A trace starts with a header (MAGIC, VERSION, the number of cpus and the number of processes) followed by the
+ * blocks of a BinaryBlockOutput holding one record per process: the arrival time as a difference from the previous
+ * process of the block, the total execution time, the weight, the utf-8 bytes of the id and the io requests, their
+ * times as differences from the previous request and, only when a request of the process doesn't use the defaults,
+ * the duration, device and block of every request
+ */
+public class BinaryTraceWriter implements AutoCloseable {
+
+    //MAGIC and VERSION: the first two ints of a trace
+    public static final int MAGIC = 0x43505754;
+    public static final int VERSION = 1;
+    //HEADER_SIZE: the number of bytes of the header (magic, version, number of cpus and number of processes)
+    public static final int HEADER_SIZE = 20;
+
+    //channel: the trace file
+    private FileChannel channel;
+    //out: the blocks of the trace
+    private BinaryBlockOutput out;
+    //numOfCPUs: the number of cpus written to the header
+    private int numOfCPUs;
+    //processCount: the number of processes written
+    private long processCount = 0;
+    //previousArrivalTime: the arrival time of the previous process of the block
+    private int previousArrivalTime = 0;
+    //id, ioRequestTimes, ioDurations, ioDevices and ioBlocks: the process being copied from a table
+    private byte[] id = new byte[64];
+    private int[] ioRequestTimes = new int[16];
+    private int[] ioDurations = new int[16];
+    private int[] ioDevices = new int[16];
+    private int[] ioBlocks = new int[16];
+
+    //a constructor that creates (or replaces) a trace with deflated blocks
+    public BinaryTraceWriter(String fileName, int numOfCPUs) throws IOException {
+        this(fileName, numOfCPUs, true);
+    }
+
+    //a constructor that creates (or replaces) a trace, with deflated blocks or raw ones (a bigger file that is decoded
+    //straight from the mapped file)
+    public BinaryTraceWriter(String fileName, int numOfCPUs, boolean compressed) throws IOException {
+        this.channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.numOfCPUs = numOfCPUs;
+        writeHeader();
+        this.channel.position(HEADER_SIZE);
+        this.out = new BinaryBlockOutput(this.channel, compressed);
+    }
+
+    //a method that writes a process, its id is read from idLength bytes of id starting at idOffset and its io requests
+    //from ioCount ints of io starting at ioOffset (they must be sorted) with their durations, devices and blocks in
+    //parallel (any of them can be null to use the defaults)
+    public void write(byte[] id, int idOffset, int idLength, int arrivalTime, int totalExecTime, int weight,
+                      int[] io, int[] ioDurations, int[] ioDevices, int[] ioBlocks, int ioOffset, int ioCount)
+            throws IOException {
+        if(this.out.isAtBlockStart()){
+            this.previousArrivalTime = 0;
+        }
+        this.out.writeSignedVarint(arrivalTime - this.previousArrivalTime);
+        this.previousArrivalTime = arrivalTime;
+        this.out.writeSignedVarint(totalExecTime);
+        this.out.writeVarint(weight);
+        this.out.writeBytes(id, idOffset, idLength);
+
+        boolean attributes = false;
+        for(int i = ioOffset; i < ioOffset + ioCount && attributes == false; i++){
+            attributes = (ioDurations != null && ioDurations[i] != ProcessTable.DEFAULT_IO_DURATION) ||
+                    (ioDevices != null && ioDevices[i] != 0) || (ioBlocks != null && ioBlocks[i] != 0);
+        }
+        this.out.writeVarint(ioCount << 1 | (attributes ? 1 : 0));
+        for(int i = ioOffset; i < ioOffset + ioCount; i++){
+            if(i == ioOffset)
+                this.out.writeSignedVarint(io[i]);
+            else
+                this.out.writeVarint(io[i] - io[i - 1]);
+            if(attributes){
+                this.out.writeVarint(ioDurations == null ? ProcessTable.DEFAULT_IO_DURATION : ioDurations[i]);
+                this.out.writeVarint(ioDevices == null ? 0 : ioDevices[i]);
+                this.out.writeSignedVarint(ioBlocks == null ? 0 : ioBlocks[i]);
+            }
+        }
+        this.out.endRecord();
+        this.processCount++;
+    }
+
+    //a method that writes a process of a table as it was added to the table (whatever it has run since)
+    public void write(ProcessTable table, int index) throws IOException {
+        int idLength = table.getProcessIDLength(index);
+        if(this.id.length < idLength){
+            this.id = new byte[Math.max(this.id.length * 2, idLength)];
+        }
+        table.copyProcessID(index, this.id);
+        int ioCount = table.getIoRequestCount(index);
+        if(this.ioRequestTimes.length < ioCount){
+            int capacity = Math.max(this.ioRequestTimes.length * 2, ioCount);
+            this.ioRequestTimes = Arrays.copyOf(this.ioRequestTimes, capacity);
+            this.ioDurations = Arrays.copyOf(this.ioDurations, capacity);
+            this.ioDevices = Arrays.copyOf(this.ioDevices, capacity);
+            this.ioBlocks = Arrays.copyOf(this.ioBlocks, capacity);
+        }
+        boolean attributes = table.copyIoRequests(index, this.ioRequestTimes, this.ioDurations, this.ioDevices,
+                this.ioBlocks);
+        write(this.id, 0, idLength, table.getArrivalTime(index), table.getTotalExecTime(index), table.getWeight(index),
+                this.ioRequestTimes, attributes ? this.ioDurations : null, attributes ? this.ioDevices : null,
+                attributes ? this.ioBlocks : null, 0, ioCount);
+    }
+
+    //a method that writes the header, with the number of processes written so far
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(this.numOfCPUs).putLong(this.processCount).flip();
+        long position = 0;
+        while(header.hasRemaining()){
+            position += this.channel.write(header, position);
+        }
+    }
+
+    //a method that writes the last block and the final header and closes the trace
+    @Override
+    public void close() throws IOException {
+        try{
+            this.out.finish();
+            writeHeader();
+        }
+        finally{
+            this.channel.close();
+        }
+    }
+
+    //GETTERS
+    public long getProcessCount(){ return this.processCount; }
+
+    public int getNumOfCPUs(){ return this.numOfCPUs; }
+
+    //SETTERS
+    //a method that changes the number of cpus written to the header (e.g. once the numOfCPUs line of a text input was read)
+    public void setNumOfCPUs(int numOfCPUs){ this.numOfCPUs = numOfCPUs; }
+}
@@ -0,0 +1,9 @@
+/**
+ * The distributions a WorkloadGenerator can draw the total execution times of processes from
+ */
+public enum BurstDistribution {
+    //EXPONENTIAL: most processes are short and long ones become rare quickly
+    EXPONENTIAL,
+    //PARETO: heavy tailed, a few very long processes make up a large part of the total execution time
+    PARETO
+}
@@ -1,4 +1,9 @@
-import java.util.ArrayList;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Objects;
 
 public class CPU {
 
@@ -6,46 +11,107 @@ public class CPU {
     private int cpuID;
     //runningProcess: the process that is currently running on this cpu
     private CPUProcess runningProcess = null;
-    //chart: a list indicating which process (if any) was running on the cpu at time i (index i)
-    private ArrayList<String> chart = new ArrayList<>();
+    //chart: a timeline indicating which process (if any) was running on the cpu at each time unit
+    private Timeline chart;
+    //readyQueue: the rows of the processes waiting for this cpu (only used when the scheduler gives every cpu its own
+    //ready queue)
+    private ProcessQueue readyQueue = null;
+    //migrationsIn and migrationsOut: the number of processes moved to and from this cpu's ready queue by load balancing
+    private int migrationsIn = 0;
+    private int migrationsOut = 0;
+    //queueLengthSum: the sum over every sampled time unit of the length of this cpu's ready queue
+    private long queueLengthSum = 0;
+    //imbalanceSum: the sum over every sampled time unit of how far this cpu's ready queue was from the mean length
+    private double imbalanceSum = 0;
+    //sampledTime: the number of time units the ready queue length was sampled for
+    private int sampledTime = 0;
+    //loadedProcess: the index of the process the cpu last switched to (Timeline.IDLE if none), switching to another
+    //process costs time under a SwitchCostModel
+    private int loadedProcess = Timeline.IDLE;
+    //overheadLeft: the time units the cpu still has to spend switching to its running process
+    private int overheadLeft = 0;
+    //switches: the number of times the cpu switched to another process under a SwitchCostModel
+    private int switches = 0;
 
-    public CPU(int cpuID){
+    public CPU(int cpuID, List<String> processNames){
         this.cpuID = cpuID;
+        this.chart = new Timeline(processNames);
     }
 
     //a method that calculates the cpu utilization for this cpu
     public double calculateCPUUtilization(){
-        double utilizationPercentage = 0;
-        for(String s: this.chart){
-            if(s.equals("") == false){
-                utilizationPercentage++;
-            }
-        }
+        double utilizationPercentage = this.chart.getBusyTime();
         utilizationPercentage = (utilizationPercentage/this.chart.size())*100.0;
         return utilizationPercentage;
     }
 
+    //a method that calculates the share of the time this cpu spent switching processes (see SwitchCostModel)
+    public double calculateOverhead(){
+        return this.chart.size() == 0 ? 0 : 100.0 * this.chart.getOverheadTime() / this.chart.size();
+    }
+
+    //a method that starts switching the cpu to a process, which takes the given number of time units
+    public void startSwitch(int processIndex, int overhead){
+        this.loadedProcess = processIndex;
+        this.overheadLeft = overhead;
+        this.switches++;
+    }
+
+    //a method that records the length of this cpu's ready queue for the given number of time units, mean is the mean
+    //length of the ready queues of all cpus over the same time units
+    public void recordReadyQueueLength(int ticks, double mean){
+        int length = this.readyQueue == null ? 0 : this.readyQueue.size();
+        this.queueLengthSum += (long) length * ticks;
+        this.imbalanceSum += Math.abs(length - mean) * ticks;
+        this.sampledTime += ticks;
+    }
+
+    //a method that calculates the average length of this cpu's ready queue
+    public double calculateAvgQueueLength(){
+        return this.sampledTime == 0 ? 0 : (double) this.queueLengthSum / this.sampledTime;
+    }
+
+    //a method that calculates the average distance between the length of this cpu's ready queue and the mean length
+    public double calculateAvgImbalance(){
+        return this.sampledTime == 0 ? 0 : this.imbalanceSum / this.sampledTime;
+    }
+
+    //a method that writes the counters, ready queue samples and switch state of this cpu for a checkpoint
+    public void writeCheckpoint(DataOutput out) throws IOException {
+        out.writeInt(this.migrationsIn);
+        out.writeInt(this.migrationsOut);
+        out.writeLong(this.queueLengthSum);
+        out.writeDouble(this.imbalanceSum);
+        out.writeInt(this.sampledTime);
+        out.writeInt(this.loadedProcess);
+        out.writeInt(this.overheadLeft);
+        out.writeInt(this.switches);
+    }
+
+    //a method that reads the counters written by writeCheckpoint
+    public void readCheckpoint(DataInput in) throws IOException {
+        this.migrationsIn = in.readInt();
+        this.migrationsOut = in.readInt();
+        this.queueLengthSum = in.readLong();
+        this.imbalanceSum = in.readDouble();
+        this.sampledTime = in.readInt();
+        this.loadedProcess = in.readInt();
+        this.overheadLeft = in.readInt();
+        this.switches = in.readInt();
+    }
+
 
     //the toString method for the CPU class will print out the cpu's chart
     @Override
     public String toString(){
-        String gantt = "|";
-        for(int i = 0; i < this.chart.size(); i++){
-            if(i < 10)
-                gantt = gantt + "  " + i + "  | ";
-            else
-                gantt = gantt + " " + i + "  | ";
+        StringBuilder gantt = new StringBuilder();
+        try{
+            this.chart.writeGantt(gantt);
         }
-        gantt = gantt + "\n" + "|";
-        for(String s: this.chart){
-            if(s.equals("")){
-                gantt = gantt + "     | ";
-            }
-            else{
-                gantt = gantt + " " + s + "  | ";
-            }
+        catch(IOException e){
+            throw new UncheckedIOException(e);
         }
-        return gantt;
+        return gantt.toString();
     }
 
     public int getCpuID(){
@@ -56,9 +122,37 @@ public class CPU {
         return runningProcess;
     }
 
+    //a process taken off the cpu before the switch to it is done leaves the cpu holding no process
     public void setRunningProcess(CPUProcess runningProcess) {
+        if(this.overheadLeft > 0 && Objects.equals(runningProcess, this.runningProcess) == false){
+            this.overheadLeft = 0;
+            this.loadedProcess = Timeline.IDLE;
+        }
         this.runningProcess = runningProcess;
     }
 
-    public ArrayList<String> getChart(){ return this.chart; }
+    //returns a read only view of the chart with one entry per time unit
+    public List<String> getChart(){ return this.chart.asList(); }
+
+    public Timeline getTimeline(){ return this.chart; }
+
+    public ProcessQueue getReadyQueue(){ return this.readyQueue; }
+
+    public void setReadyQueue(ProcessQueue readyQueue){ this.readyQueue = readyQueue; }
+
+    public int getMigrationsIn(){ return this.migrationsIn; }
+
+    public void setMigrationsIn(int migrationsIn){ this.migrationsIn = migrationsIn; }
+
+    public int getMigrationsOut(){ return this.migrationsOut; }
+
+    public void setMigrationsOut(int migrationsOut){ this.migrationsOut = migrationsOut; }
+
+    public int getLoadedProcess(){ return this.loadedProcess; }
+
+    public int getOverheadLeft(){ return this.overheadLeft; }
+
+    public void setOverheadLeft(int overheadLeft){ this.overheadLeft = overheadLeft; }
+
+    public int getSwitches(){ return this.switches; }
 }
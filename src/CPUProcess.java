@@ -1,135 +1,208 @@
 import java.util.PriorityQueue;
 
+/**
+ * A view of one row of a ProcessStateTable, the state of the process lives in the table's columns and every row has a
+ * single view that is reused by every process that holds the row, so a view only refers to a process while that
+ * process is in the system (hold on to getIndex() to refer to the process after it finishes)
+ */
 public class CPUProcess {
 
-
-    //processID: the unique identifier of this process
-    private String processID;
-    //arrivalTime: the time at which the process arrives at the readyQueue
-    private int arrivalTime;
-    //totalExecTime: the total amount of time that the process must be on the cpu for
-    private int totalExecTime;
-    //turnaroundTime: the amount of time it takes for the process to complete once it arrives at the readyQueue
-    private int turnaroundTime;
-    //execTime: the amount of time the process has been on the cpu for
-    private int execTime = 0;
-    //waiting: the amount of time the process has been waiting for a cpu or io device
-    private int waiting = 0;
-    //responseTime: the amount of time it took for the process to start executing after it arrived at the readyQueue
-    private int responseTime = 0;
-    //qElapsed: the amount of time the process has been on the cpu for the current stage (it resets to 0 when it is preempted off the cpu)
-    private int qElapsed = 0;
-    //hasStarted: indicates whether the process has started executing or not
-    private boolean hasStarted = false;
-    //remainingTime: the amount of time remaining on the cpu until the process finishes execution
-    private int remainingTime;
-    //ioRequestTimes: a queue of times at which the process needs to perform io (front of queue is earliest io time)
-    private PriorityQueue<Integer> ioRequestTimes;
-    //ioTime: the time at which the process is at during it's current io execution (0 if not performing io)
-    private int ioTime = 0;
+    //table: the table the state of this process is stored in
+    private ProcessStateTable table;
+    //row: the row of the table this view reads
+    private int row;
 
     /**
-     * @param processID - the unique identifier of the CPUProcess
-     * @param arrivalTime - the time at which the CPUProcess arrives at the ReadyQueue in ms
-     * @param totalExecTime - the time that the CPUProcess takes to complete in ms
-     * @param ioRequestTimes - the times at which the CPUProcess needs to access I/O ops
+     * @param table - the ProcessStateTable holding the state of the CPUProcess
+     * @param row - the row of the table holding the CPUProcess
      */
-    public CPUProcess(String processID, int arrivalTime, int totalExecTime, PriorityQueue<Integer> ioRequestTimes){
-        this.processID = processID;
-        this.arrivalTime = arrivalTime;
-        this.totalExecTime = totalExecTime;
-        this.remainingTime = this.totalExecTime;
-        this.ioRequestTimes = ioRequestTimes;
+    public CPUProcess(ProcessStateTable table, int row){
+        this.table = table;
+        this.row = row;
     }
 
     @Override
     public String toString() {
         return "CPUProcess{" +
-                "processID='" + processID + '\'' +
-                ", arrivalTime=" + arrivalTime +
-                ", totalExecTime=" + totalExecTime +
-                ", ioRequestTimes=" + ioRequestTimes +
+                "processID='" + getProcessID() + '\'' +
+                ", arrivalTime=" + getArrivalTime() +
+                ", totalExecTime=" + getTotalExecTime() +
+                ", ioRequestTimes=" + getIoRequestTimes() +
                 '}';
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if(o instanceof CPUProcess == false){
+            return false;
+        }
+        CPUProcess other = (CPUProcess) o;
+        return this.table == other.table && this.row == other.row;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.row;
+    }
+
     //a method that updates the statistics of the cpu process
     public void updateStatistics(){
-        this.setExecTime(this.getExecTime() + 1);
-        this.setTurnaroundTime(this.getTurnaroundTime() + 1);
-        this.setRemainingTime(this.getRemainingTime() - 1);
-        this.setqElapsed(this.getqElapsed() + 1);
+        updateStatistics(1);
+    }
+
+    //a method that updates the statistics of the cpu process after it ran for the given number of time units
+    public void updateStatistics(int elapsed){
+        this.setExecTime(this.getExecTime() + elapsed);
+        this.setTurnaroundTime(this.getTurnaroundTime() + elapsed);
+        this.setRemainingTime(this.getRemainingTime() - elapsed);
+        this.setqElapsed(this.getqElapsed() + elapsed);
+    }
+
+    //a method that adds the time the process spent waiting in the ready queue or io queue (since queuedSince) to its
+    //statistics when it leaves the queue at the given time, the wait only counts towards the response time if the
+    //process is leaving the ready queue and hasn't started yet
+    public void leaveQueue(int time, boolean readyQueue){
+        int waited = time - this.getQueuedSince();
+        if(waited <= 0){
+            return;
+        }
+        this.setWaiting(this.getWaiting() + waited);
+        this.setTurnaroundTime(this.getTurnaroundTime() + waited);
+        if(readyQueue && this.hasStarted() == false){
+            this.setResponseTime(this.getResponseTime() + waited);
+        }
+    }
+
+    //a method that indicates whether the process has to perform io now (its next io request is at its current exec time)
+    public boolean isAtIoRequest(){
+        return this.table.hasIoRequest(this.row) && this.table.getNextIoRequestTime(this.row) == this.getExecTime();
+    }
+
+    //a method that moves the process on to its next io request
+    public void pollIoRequest(){
+        this.table.pollIoRequest(this.row);
     }
 
     //GETTERS
+    //returns the position of the process in the input, used to refer to the process in the charts
+    public int getIndex() { return this.table.getProcessIndex(this.row); }
+
+    public int getRow() { return this.row; }
+
+    public ProcessStateTable getTable() { return this.table; }
+
     public String getProcessID() {
-        return processID;
+        return this.table.getProcessID(this.row);
     }
 
     public int getArrivalTime() {
-        return arrivalTime;
+        return this.table.getArrivalTime(this.row);
     }
 
     public int getTotalExecTime() {
-        return totalExecTime;
+        return this.table.getTotalExecTime(this.row);
     }
 
-    public int getRemainingTime() { return remainingTime; }
+    public int getRemainingTime() { return this.table.getRemainingTime(this.row); }
+
+    public int getExecTime() { return this.table.getExecTime(this.row); }
+
+    public boolean hasIoRequest() { return this.table.hasIoRequest(this.row); }
+
+    //returns the time of the next io request (only valid if hasIoRequest)
+    public int getNextIoRequestTime() { return this.table.getNextIoRequestTime(this.row); }
+
+    //returns the duration of the io request the process is waiting on or performing
+    public int getIoDuration() { return this.table.getIoDuration(this.row); }
 
-    public int getExecTime() { return execTime; }
+    //returns the device of the io request the process is waiting on or performing
+    public int getIoDevice() { return this.table.getIoDevice(this.row); }
 
+    //returns the block (the position on the device) of the io request the process is waiting on or performing
+    public int getIoBlock() { return this.table.getIoBlock(this.row); }
+
+    //returns a copy of the io requests the process has left, changing it does not affect the process
     public PriorityQueue<Integer> getIoRequestTimes() {
+        PriorityQueue<Integer> ioRequestTimes = new PriorityQueue<Integer>();
+        for(int ioRequestTime: this.table.getRemainingIoRequestTimes(this.row)){
+            ioRequestTimes.add(ioRequestTime);
+        }
         return ioRequestTimes;
     }
 
-    public int getIoTime(){ return this.ioTime; }
+    public int getIoTime(){ return this.table.getIoTime(this.row); }
 
-    public int getWaiting(){ return this.waiting; }
+    public int getWaiting(){ return this.table.getWaiting(this.row); }
 
     public int getTurnaroundTime() {
-        return turnaroundTime;
+        return this.table.getTurnaroundTime(this.row);
     }
 
-    public int getResponseTime(){ return this.responseTime; }
+    public int getResponseTime(){ return this.table.getResponseTime(this.row); }
 
     public boolean hasStarted() {
-        return hasStarted;
+        return this.table.hasStarted(this.row);
     }
 
-    public int getqElapsed() { return this.qElapsed; }
+    public int getqElapsed() { return this.table.getqElapsed(this.row); }
+
+    public int getQueuedSince() { return this.table.getQueuedSince(this.row); }
+
+    public int getPriority() { return this.table.getPriority(this.row); }
+
+    public int getWeight() { return this.table.getWeight(this.row); }
+
+    public long getVruntime() { return this.table.getVruntime(this.row); }
+
+    //returns the id of the cpu the process last ran on (-1 if it hasn't run yet)
+    public int getLastCPU() { return this.table.getLastCPU(this.row); }
+
+    //returns the time at which the process last stopped running on a cpu
+    public int getLastRunEnd() { return this.table.getLastRunEnd(this.row); }
 
     //SETTERS
 
     public void setRemainingTime(int remainingTime) {
-        this.remainingTime = remainingTime;
+        this.table.setRemainingTime(this.row, remainingTime);
     }
 
-    public void setArrivalTime(int arrivalTime) { this.arrivalTime = arrivalTime; }
+    public void setArrivalTime(int arrivalTime) { this.table.setArrivalTime(this.row, arrivalTime); }
 
     public void setIoTime(int ioTime) {
-        this.ioTime = ioTime;
+        this.table.setIoTime(this.row, ioTime);
     }
 
     public void setExecTime(int execTime) {
-        this.execTime = execTime;
+        this.table.setExecTime(this.row, execTime);
     }
 
     public void setWaiting(int waiting){
-        this.waiting = waiting;
+        this.table.setWaiting(this.row, waiting);
     }
 
     public void setTurnaroundTime(int turnaroundTime){
-        this.turnaroundTime = turnaroundTime;
+        this.table.setTurnaroundTime(this.row, turnaroundTime);
     }
 
     public void setResponseTime(int responseTime) {
-        this.responseTime = responseTime;
+        this.table.setResponseTime(this.row, responseTime);
     }
 
     public void setHasStarted(boolean hasStarted) {
-        this.hasStarted = hasStarted;
+        this.table.setHasStarted(this.row, hasStarted);
     }
 
     public void setqElapsed(int qElapsed) {
-        this.qElapsed = qElapsed;
+        this.table.setqElapsed(this.row, qElapsed);
+    }
+
+    public void setQueuedSince(int queuedSince) {
+        this.table.setQueuedSince(this.row, queuedSince);
     }
+
+    public void setPriority(int priority) { this.table.setPriority(this.row, priority); }
+
+    public void setVruntime(long vruntime) { this.table.setVruntime(this.row, vruntime); }
+
+    public void setLastRun(int cpuID, int lastRunEnd) { this.table.setLastRun(this.row, cpuID, lastRunEnd); }
 }
@@ -1,14 +1,18 @@
+import java.io.IOException;
+
 public class CPUSchedulerTester {
 
-    public static void main(String[] args){
+    public static void main(String[] args) throws IOException {
         SchedulerStrategy ss;
-        //ss = new SchedulerFCFS("input.txt");
+        //the file is read once and every scheduler runs on its own copy of the processes
+        Workload workload = Workload.read("input.txt", System.out);
+        //ss = new SchedulerFCFS(workload);
         //ss.scheduleProcesses();
-        //ss = new SchedulerSJF("input.txt");
+        //ss = new SchedulerSJF(workload);
         //ss.scheduleProcesses();
-        //ss = new SchedulerSRTF("input.txt");
+        //ss = new SchedulerSRTF(workload);
         //ss.scheduleProcesses();
-        ss = new SchedulerRR(3,"input.txt");
+        ss = new SchedulerRR(3, workload);
         ss.scheduleProcesses();
     }
 
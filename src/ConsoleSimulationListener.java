@@ -0,0 +1,26 @@
+import java.io.PrintStream;
+
+/**
+ * Prints a line for every time a process runs on a cpu or performs io (the text scheduleProcesses() has always printed)
+ */
+public class ConsoleSimulationListener implements SimulationListener {
+
+    //out: the stream the lines are printed to
+    private PrintStream out;
+
+    public ConsoleSimulationListener(PrintStream out){
+        this.out = out;
+    }
+
+    @Override
+    public void onRun(int start, int end, CPU cpu, CPUProcess process) {
+        this.out.println("CPU Process " + process.getProcessID() + " is running on CPU " +
+                cpu.getCpuID() + " at time " + start + "-" + end);
+    }
+
+    @Override
+    public void onIo(int start, int end, CPUProcess process) {
+        this.out.println("CPU Process " + process.getProcessID() + " is performing I/O " +
+                " at time " + start + "-" + end);
+    }
+}
@@ -0,0 +1,109 @@
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+
+/**
+ * An io device queue that serves requests like the arm of a disk (the SCAN or elevator algorithm): the requests are
+ * ordered by block and the queue keeps serving the nearest block in the direction it's moving, turning around once
+ * there are no requests left ahead of it, requests on the same block are served in the order they were made
+ */
+public class ElevatorQueue implements ProcessQueue {
+
+    //processes: the table the rows are in (the block of a request is read from it)
+    private ProcessStateTable processes = null;
+    //blocks: the requests waiting on each block
+    private TreeMap<Integer, ProcessDeque> blocks = new TreeMap<>();
+    //position: the block of the last request served
+    private int position = 0;
+    //ascending: indicates whether the queue is moving towards higher blocks
+    private boolean ascending = true;
+    //size: the number of requests in the queue
+    private int size = 0;
+
+    @Override
+    public void attach(ProcessStateTable processes) {
+        this.processes = processes;
+    }
+
+    @Override
+    public void add(int row) {
+        this.blocks.computeIfAbsent(this.processes.getIoBlock(row), block -> new ProcessDeque()).add(row);
+        this.size++;
+    }
+
+    //removes the first request of the nearest block ahead, turning around if there is none
+    @Override
+    public int poll() {
+        Map.Entry<Integer, ProcessDeque> next = nextBlock(this.ascending);
+        if(next == null){
+            next = nextBlock(this.ascending == false);
+            if(next == null){
+                return NONE;
+            }
+            this.ascending = this.ascending == false;
+        }
+        int row = next.getValue().poll();
+        if(next.getValue().isEmpty()){
+            this.blocks.remove(next.getKey());
+        }
+        this.position = next.getKey();
+        this.size--;
+        return row;
+    }
+
+    @Override
+    public int peek() {
+        Map.Entry<Integer, ProcessDeque> next = nextBlock(this.ascending);
+        if(next == null){
+            next = nextBlock(this.ascending == false);
+        }
+        return next == null ? NONE : next.getValue().peek();
+    }
+
+    //a method that returns the nearest block holding requests from the current position in the given direction
+    private Map.Entry<Integer, ProcessDeque> nextBlock(boolean ascending){
+        return ascending ? this.blocks.ceilingEntry(this.position) : this.blocks.floorEntry(this.position);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public void clear() {
+        this.blocks.clear();
+        this.size = 0;
+    }
+
+    //visits the requests in order of block (not in the order they will be served)
+    @Override
+    public void forEach(IntConsumer action) {
+        for(ProcessDeque requests: this.blocks.values()){
+            requests.forEach(action);
+        }
+    }
+
+    @Override
+    public int[] toArray() {
+        int[] rows = new int[this.size];
+        int position = 0;
+        for(ProcessDeque requests: this.blocks.values()){
+            int[] blockRows = requests.toArray();
+            System.arraycopy(blockRows, 0, rows, position, blockRows.length);
+            position += blockRows.length;
+        }
+        return rows;
+    }
+
+    //GETTERS
+    public int getPosition(){ return this.position; }
+
+    public boolean isAscending(){ return this.ascending; }
+
+    //SETTERS
+    //(used to restore a checkpoint)
+    public void setPosition(int position){ this.position = position; }
+
+    public void setAscending(boolean ascending){ this.ascending = ascending; }
+}
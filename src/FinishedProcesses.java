@@ -0,0 +1,55 @@
+import java.util.Arrays;
+
+/**
+ * The times of the processes that completed execution, in the order they finished, kept in parallel primitive columns
+ * (the state of a process is given back when it finishes so only what the report lists of it is kept)
+ */
+public class FinishedProcesses {
+
+    //INITIAL_CAPACITY: the number of processes the columns have room for before they first grow
+    private static final int INITIAL_CAPACITY = 16;
+
+    //definitions: the definitions the process ids are read from
+    private ProcessTable definitions;
+    //size: the number of finished processes
+    private int size = 0;
+    //processIndex: the process index of each finished process
+    private int[] processIndex = new int[INITIAL_CAPACITY];
+    //waiting, turnaroundTime and responseTime: the times of each finished process
+    private int[] waiting = new int[INITIAL_CAPACITY];
+    private int[] turnaroundTime = new int[INITIAL_CAPACITY];
+    private int[] responseTime = new int[INITIAL_CAPACITY];
+
+    public FinishedProcesses(ProcessTable definitions){
+        this.definitions = definitions;
+    }
+
+    //a method that adds a finished process with its times
+    public void add(int index, int waiting, int turnaroundTime, int responseTime){
+        if(this.size == this.processIndex.length){
+            int capacity = this.size + (this.size >> 1);
+            this.processIndex = Arrays.copyOf(this.processIndex, capacity);
+            this.waiting = Arrays.copyOf(this.waiting, capacity);
+            this.turnaroundTime = Arrays.copyOf(this.turnaroundTime, capacity);
+            this.responseTime = Arrays.copyOf(this.responseTime, capacity);
+        }
+        this.processIndex[this.size] = index;
+        this.waiting[this.size] = waiting;
+        this.turnaroundTime[this.size] = turnaroundTime;
+        this.responseTime[this.size] = responseTime;
+        this.size++;
+    }
+
+    //GETTERS
+    public int size(){ return this.size; }
+
+    public int getProcessIndex(int i){ return this.processIndex[i]; }
+
+    public String getProcessID(int i){ return this.definitions.getProcessID(this.processIndex[i]); }
+
+    public int getWaiting(int i){ return this.waiting[i]; }
+
+    public int getTurnaroundTime(int i){ return this.turnaroundTime[i]; }
+
+    public int getResponseTime(int i){ return this.responseTime[i]; }
+}
@@ -0,0 +1,109 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * An io device with one or more channels that each perform one io request at a time, the requests wait in the
+ * device's queue (ordered by its queue discipline) until a channel is free
+ */
+public class IODevice {
+
+    //deviceID: the unique identifier of the device (the device io requests refer to in the input)
+    private int deviceID;
+    //discipline: the order in which the waiting requests are served
+    private IOQueueDiscipline discipline;
+    //queue: the rows of the processes waiting for a channel of this device
+    private ProcessQueue queue;
+    //channels: the process performing io on each channel (null if the channel is idle)
+    private CPUProcess[] channels;
+    //charts: a timeline per channel indicating which process (if any) was performing io at each time unit
+    private Timeline[] charts;
+    //queueDepthSum: the sum over every sampled time unit of the number of processes waiting in the queue
+    private long queueDepthSum = 0;
+    //maxQueueDepth: the largest number of processes that waited in the queue at once
+    private int maxQueueDepth = 0;
+    //sampledTime: the number of time units the queue depth was sampled for
+    private int sampledTime = 0;
+
+    public IODevice(int deviceID, int numOfChannels, IOQueueDiscipline discipline, ProcessStateTable processes){
+        if(numOfChannels < 1){
+            throw new IllegalArgumentException("An io device needs at least one channel");
+        }
+        this.deviceID = deviceID;
+        this.discipline = discipline;
+        this.queue = discipline.createQueue();
+        this.queue.attach(processes);
+        this.channels = new CPUProcess[numOfChannels];
+        this.charts = new Timeline[numOfChannels];
+        for(int channel = 0; channel < numOfChannels; channel++){
+            this.charts[channel] = new Timeline(processes.getDefinitions().getProcessIDs());
+        }
+    }
+
+    //a method that indicates whether the device has processes waiting or performing io
+    public boolean isBusy(){
+        if(this.queue.isEmpty() == false){
+            return true;
+        }
+        for(CPUProcess cpup: this.channels){
+            if(cpup != null)
+                return true;
+        }
+        return false;
+    }
+
+    //a method that calculates the utilization of the device (the share of channel time spent performing io)
+    public double calculateUtilization(){
+        double busyTime = 0;
+        double totalTime = 0;
+        for(Timeline chart: this.charts){
+            busyTime += chart.getBusyTime();
+            totalTime += chart.size();
+        }
+        return (busyTime/totalTime)*100.0;
+    }
+
+    //a method that records the number of processes waiting in the queue for the given number of time units
+    public void recordQueueDepth(int ticks){
+        this.queueDepthSum += (long) this.queue.size() * ticks;
+        this.maxQueueDepth = Math.max(this.maxQueueDepth, this.queue.size());
+        this.sampledTime += ticks;
+    }
+
+    //a method that calculates the average number of processes waiting in the queue
+    public double calculateAvgQueueDepth(){
+        return this.sampledTime == 0 ? 0 : (double) this.queueDepthSum / this.sampledTime;
+    }
+
+    //a method that writes the queue depth samples of the device for a checkpoint
+    public void writeCheckpoint(DataOutput out) throws IOException {
+        out.writeLong(this.queueDepthSum);
+        out.writeInt(this.maxQueueDepth);
+        out.writeInt(this.sampledTime);
+    }
+
+    //a method that reads the samples written by writeCheckpoint
+    public void readCheckpoint(DataInput in) throws IOException {
+        this.queueDepthSum = in.readLong();
+        this.maxQueueDepth = in.readInt();
+        this.sampledTime = in.readInt();
+    }
+
+    //GETTERS
+    public int getDeviceID(){ return this.deviceID; }
+
+    public IOQueueDiscipline getDiscipline(){ return this.discipline; }
+
+    public ProcessQueue getQueue(){ return this.queue; }
+
+    public int getNumOfChannels(){ return this.channels.length; }
+
+    public CPUProcess getProcess(int channel){ return this.channels[channel]; }
+
+    public Timeline getTimeline(int channel){ return this.charts[channel]; }
+
+    public int getMaxQueueDepth(){ return this.maxQueueDepth; }
+
+    //SETTERS
+    public void setProcess(int channel, CPUProcess cpup){ this.channels[channel] = cpup; }
+}
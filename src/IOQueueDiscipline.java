@@ -0,0 +1,23 @@
+/**
+ * The orders in which an IODevice serves the io requests waiting for one of its channels
+ */
+public enum IOQueueDiscipline {
+    //FIFO: in the order the requests were made
+    FIFO,
+    //SHORTEST_FIRST: the request with the shortest duration first (in the order they were made on ties)
+    SHORTEST_FIRST,
+    //ELEVATOR: the requests are served in order of block, sweeping up then down the device like a disk arm (SCAN)
+    ELEVATOR;
+
+    //a method that creates an empty device queue ordered by this discipline
+    public ProcessQueue createQueue(){
+        switch(this){
+            case SHORTEST_FIRST:
+                return new IndexedProcessHeap(ProcessStateTable::getIoDuration);
+            case ELEVATOR:
+                return new ElevatorQueue();
+            default:
+                return new ProcessDeque();
+        }
+    }
+}
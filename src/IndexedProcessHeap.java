@@ -0,0 +1,251 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/**
+ * A binary min-heap of processes that can be used as a ready queue, the heap is kept in primitive arrays of rows and
+ * every row's slot is indexed by the row so that a queued process can be found, removed or re-keyed in O(log n)
+ *
+ * Processes are ordered by a long key (e.g. the remaining time) read from their row when they are added or updated,
+ * processes with the same key leave the heap in the order they were added to it, or with fifoTies off in the order a
+ * java.util.PriorityQueue would give them (which is not stable, but costs no sequence per slot)
+ */
+public class IndexedProcessHeap implements ProcessQueue {
+
+    /**
+     * The key a process is ordered on, read from its row
+     */
+    public interface Key {
+        long of(ProcessStateTable processes, int row);
+    }
+
+    //key: the function that computes the key a process is ordered on
+    private Key key;
+    //fifoTies: indicates whether processes with the same key leave in the order they were added
+    private boolean fifoTies;
+    //processes: the table the rows are in
+    private ProcessStateTable processes = null;
+    //rows: the row in each slot of the heap
+    private int[] rows = new int[16];
+    //keys: the key of the process in each slot of the heap
+    private long[] keys = new long[16];
+    //sequences: the order in which the process in each slot was added (used to break ties between equal keys, all 0
+    //without fifoTies)
+    private long[] sequences = new long[16];
+    //positions: the slot of each row (-1 if the row is not in the heap)
+    private int[] positions = new int[16];
+    //size: the number of processes in the heap
+    private int size = 0;
+    //nextSequence: the sequence number given to the next process added to the heap
+    private long nextSequence = 0;
+
+    public IndexedProcessHeap(Key key){
+        this(key, true);
+    }
+
+    public IndexedProcessHeap(Key key, boolean fifoTies){
+        this.key = key;
+        this.fifoTies = fifoTies;
+        Arrays.fill(this.positions, -1);
+    }
+
+    @Override
+    public void attach(ProcessStateTable processes) {
+        this.processes = processes;
+    }
+
+    @Override
+    public void add(int row) {
+        if(contains(row)){
+            throw new IllegalArgumentException("Process " + this.processes.getProcessID(row) + " is already in the heap");
+        }
+        ensurePositionCapacity(row);
+        if(this.size == this.rows.length){
+            int capacity = this.size * 2;
+            this.rows = Arrays.copyOf(this.rows, capacity);
+            this.keys = Arrays.copyOf(this.keys, capacity);
+            this.sequences = Arrays.copyOf(this.sequences, capacity);
+        }
+        set(this.size, row, this.key.of(this.processes, row), nextSequence());
+        this.size++;
+        siftUp(this.size - 1);
+    }
+
+    @Override
+    public int poll() {
+        if(this.size == 0){
+            return NONE;
+        }
+        int top = this.rows[0];
+        removeAt(0);
+        return top;
+    }
+
+    @Override
+    public int peek() {
+        return this.size == 0 ? NONE : this.rows[0];
+    }
+
+    //returns the key of the next process (only valid if the heap isn't empty)
+    public long peekKey(){
+        return this.keys[0];
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    public boolean contains(int row){
+        return row >= 0 && row < this.positions.length && this.positions[row] >= 0;
+    }
+
+    //removes a process from anywhere in the heap in O(log n), returns whether it was in the heap
+    public boolean remove(int row){
+        if(contains(row) == false){
+            return false;
+        }
+        removeAt(this.positions[row]);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        for(int slot = 0; slot < this.size; slot++){
+            this.positions[this.rows[slot]] = -1;
+        }
+        this.size = 0;
+    }
+
+    //a method that re-reads the key of a process in the heap after it changed and moves the process to its new place
+    public void update(int row){
+        if(contains(row) == false){
+            throw new NoSuchElementException("Process " + this.processes.getProcessID(row) + " is not in the heap");
+        }
+        int slot = this.positions[row];
+        this.keys[slot] = this.key.of(this.processes, row);
+        if(siftUp(slot) == slot){
+            siftDown(slot);
+        }
+    }
+
+    //a method that removes the head of the heap and adds the given process in a single sift, returns the row of the
+    //old head (the process is added even if it becomes the new head)
+    public int replaceTop(int row){
+        if(this.size == 0){
+            add(row);
+            return NONE;
+        }
+        if(contains(row)){
+            throw new IllegalArgumentException("Process " + this.processes.getProcessID(row) + " is already in the heap");
+        }
+        ensurePositionCapacity(row);
+        int top = this.rows[0];
+        this.positions[top] = -1;
+        set(0, row, this.key.of(this.processes, row), nextSequence());
+        siftDown(0);
+        return top;
+    }
+
+    //visits the processes in heap order (not in priority order)
+    @Override
+    public void forEach(IntConsumer action) {
+        for(int slot = 0; slot < this.size; slot++){
+            action.accept(this.rows[slot]);
+        }
+    }
+
+    //returns the processes in the order they would leave the heap, or without fifoTies in heap order (adding them to an
+    //empty heap in that order gives a heap that breaks ties the same way as this one)
+    @Override
+    public int[] toArray() {
+        if(this.fifoTies == false){
+            return Arrays.copyOf(this.rows, this.size);
+        }
+        Integer[] slots = new Integer[this.size];
+        for(int slot = 0; slot < this.size; slot++){
+            slots[slot] = slot;
+        }
+        Arrays.sort(slots, (a, b) -> isLess(a, this.keys[b], this.sequences[b]) ? -1 : (a.equals(b) ? 0 : 1));
+        int[] ordered = new int[this.size];
+        for(int i = 0; i < this.size; i++){
+            ordered[i] = this.rows[slots[i]];
+        }
+        return ordered;
+    }
+
+    private long nextSequence(){
+        return this.fifoTies ? this.nextSequence++ : 0;
+    }
+
+    //a method that grows the positions array so that it has room for the given row
+    private void ensurePositionCapacity(int row){
+        if(row >= this.positions.length){
+            int oldLength = this.positions.length;
+            this.positions = Arrays.copyOf(this.positions, Math.max(oldLength * 2, row + 1));
+            Arrays.fill(this.positions, oldLength, this.positions.length, -1);
+        }
+    }
+
+    //a method that removes the process in a slot and fills the hole with the last process
+    private void removeAt(int slot){
+        this.positions[this.rows[slot]] = -1;
+        this.size--;
+        if(slot != this.size){
+            set(slot, this.rows[this.size], this.keys[this.size], this.sequences[this.size]);
+            if(siftUp(slot) == slot){
+                siftDown(slot);
+            }
+        }
+    }
+
+    //a method that moves the process in a slot up while it comes before its parent, returns its final slot
+    private int siftUp(int slot){
+        int row = this.rows[slot];
+        long key = this.keys[slot];
+        long sequence = this.sequences[slot];
+        while(slot > 0){
+            int parent = (slot - 1) >>> 1;
+            if(key > this.keys[parent] || (key == this.keys[parent] && sequence >= this.sequences[parent])){
+                break;
+            }
+            set(slot, this.rows[parent], this.keys[parent], this.sequences[parent]);
+            slot = parent;
+        }
+        set(slot, row, key, sequence);
+        return slot;
+    }
+
+    //a method that moves the process in a slot down until its children are larger
+    private void siftDown(int slot){
+        int row = this.rows[slot];
+        long key = this.keys[slot];
+        long sequence = this.sequences[slot];
+        int half = this.size >>> 1;
+        while(slot < half){
+            int child = 2 * slot + 1;
+            int right = child + 1;
+            if(right < this.size && isLess(right, this.keys[child], this.sequences[child])){
+                child = right;
+            }
+            if(isLess(child, key, sequence) == false){
+                break;
+            }
+            set(slot, this.rows[child], this.keys[child], this.sequences[child]);
+            slot = child;
+        }
+        set(slot, row, key, sequence);
+    }
+
+    //a method that indicates whether the process in a slot comes before a process with the given key and sequence
+    private boolean isLess(int slot, long key, long sequence){
+        return this.keys[slot] < key || (this.keys[slot] == key && this.sequences[slot] < sequence);
+    }
+
+    private void set(int slot, int row, long key, long sequence){
+        this.rows[slot] = row;
+        this.keys[slot] = key;
+        this.sequences[slot] = sequence;
+        this.positions[row] = slot;
+    }
+}
@@ -0,0 +1,153 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Counts non negative time values (waiting, turnaround or response times) in a fixed number of buckets so that
+ * percentiles can be computed at any point without keeping the values
+ *
+ * Values below SUB_BUCKETS each have their own bucket (exact percentiles), larger values share buckets whose width
+ * grows with the value so every bucket is within 1/64 (about 1.6%) of the values it holds, the whole histogram takes
+ * BUCKETS longs whatever the number of values recorded
+ */
+public class LatencyHistogram {
+
+    //SUB_BUCKET_BITS: the number of significant bits kept for every value
+    private static final int SUB_BUCKET_BITS = 7;
+    //SUB_BUCKETS: the number of buckets holding a single value (and of buckets per power of two above them, times 2)
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    //HALF_SUB_BUCKETS: the number of buckets per power of two above SUB_BUCKETS
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS >> 1;
+    //BUCKETS: the number of buckets needed to hold any int
+    private static final int BUCKETS = SUB_BUCKETS + (31 - SUB_BUCKET_BITS) * HALF_SUB_BUCKETS;
+
+    //counts: the number of values recorded in each bucket
+    private long[] counts = new long[BUCKETS];
+    //count: the number of values recorded
+    private long count = 0;
+    //sum: the sum of the values recorded (so the mean is exact)
+    private long sum = 0;
+    //min and max: the smallest and largest values recorded
+    private int min = Integer.MAX_VALUE;
+    private int max = 0;
+
+    //a method that records a value (negative values are recorded as 0)
+    public void record(int value){
+        value = Math.max(value, 0);
+        this.counts[bucketOf(value)]++;
+        this.count++;
+        this.sum += value;
+        this.min = Math.min(this.min, value);
+        this.max = Math.max(this.max, value);
+    }
+
+    //a method that adds the values recorded by another histogram to this one
+    public void add(LatencyHistogram other){
+        for(int i = 0; i < BUCKETS; i++){
+            this.counts[i] += other.counts[i];
+        }
+        this.count += other.count;
+        this.sum += other.sum;
+        this.min = Math.min(this.min, other.min);
+        this.max = Math.max(this.max, other.max);
+    }
+
+    //a method that removes every value recorded
+    public void clear(){
+        Arrays.fill(this.counts, 0);
+        this.count = 0;
+        this.sum = 0;
+        this.min = Integer.MAX_VALUE;
+        this.max = 0;
+    }
+
+    //a method that returns the value below or at which the given percentage of the recorded values are (the highest
+    //value of the bucket it falls in, never above the largest value recorded), NaN if no value was recorded
+    public double calculatePercentile(double percentile){
+        if(this.count == 0){
+            return Double.NaN;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * this.count));
+        long seen = 0;
+        for(int i = 0; i < BUCKETS; i++){
+            seen += this.counts[i];
+            if(seen >= rank){
+                return Math.min(highestValueOf(i), this.max);
+            }
+        }
+        return this.max;
+    }
+
+    //a method that calculates the mean of the recorded values, NaN if no value was recorded
+    public double calculateMean(){
+        return (double) this.sum / this.count;
+    }
+
+    //a method that writes the histogram for a checkpoint, only the buckets holding values are written
+    public void writeCheckpoint(DataOutput out) throws IOException {
+        out.writeLong(this.count);
+        out.writeLong(this.sum);
+        out.writeInt(this.min);
+        out.writeInt(this.max);
+        int used = 0;
+        for(long bucketCount: this.counts){
+            if(bucketCount != 0){
+                used++;
+            }
+        }
+        out.writeInt(used);
+        for(int i = 0; i < BUCKETS; i++){
+            if(this.counts[i] != 0){
+                out.writeInt(i);
+                out.writeLong(this.counts[i]);
+            }
+        }
+    }
+
+    //a method that replaces the values recorded by the ones of a histogram written by writeCheckpoint
+    public void readCheckpoint(DataInput in) throws IOException {
+        clear();
+        this.count = in.readLong();
+        this.sum = in.readLong();
+        this.min = in.readInt();
+        this.max = in.readInt();
+        int used = in.readInt();
+        for(int i = 0; i < used; i++){
+            int bucket = in.readInt();
+            if(bucket < 0 || bucket >= BUCKETS){
+                throw new IOException("the checkpoint has a histogram bucket out of range: " + bucket);
+            }
+            this.counts[bucket] = in.readLong();
+        }
+    }
+
+    //a method that returns the bucket of a value
+    private static int bucketOf(int value){
+        if(value < SUB_BUCKETS){
+            return value;
+        }
+        //the shift keeps the SUB_BUCKET_BITS - 1 bits after the highest one
+        int shift = 31 - Integer.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS + ((value >>> shift) - HALF_SUB_BUCKETS);
+    }
+
+    //a method that returns the highest value held by a bucket
+    private static long highestValueOf(int bucket){
+        if(bucket < SUB_BUCKETS){
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+        long lowest = (long) ((bucket - SUB_BUCKETS) % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    //GETTERS
+    public long getCount(){ return this.count; }
+
+    public long getSum(){ return this.sum; }
+
+    public int getMin(){ return this.min; }
+
+    public int getMax(){ return this.max; }
+}
@@ -0,0 +1,774 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs real tasks with the policy of a scheduling strategy (FCFS, SJF, SRTF or RR): every cpu is a worker thread with
+ * its own ready queue (a stripe guarded by its own lock) ordered like the ready queue of the strategy, a task goes to
+ * the least loaded cpu and a cpu with an empty ready queue steals from the longest one, as in multi queue mode with
+ * work stealing
+ *
+ * Every task carries an estimated cost in time units (of timeUnitNanos nanoseconds): SJF runs the task with the
+ * smallest cost first and SRTF the one with the smallest cost left (its cost minus the time it ran). Runnables and
+ * Callables run to completion, a LiveTask gives up its cpu between two steps: with RR once it ran for a quantum while
+ * other tasks are waiting, with SRTF as soon as a task with less cost left is waiting. The waiting, turnaround and
+ * response times are measured from real timestamps in time units, the figures of a simulation of the same policy
+ *
+ * usage: java LiveExecutor inputFile [--strategy FCFS|SJF|SRTF|RR] [--quantum q] [--cpus n] [--time-unit-micros t]
+ * runs the processes of an input file both in the simulator and as busy tasks (their io requests are left out) and
+ * prints the predicted and the measured figures
+ */
+public class LiveExecutor extends AbstractExecutorService {
+
+    //DEFAULT_TIME_UNIT_NANOS: the length of a time unit unless given otherwise (1 microsecond)
+    public static final long DEFAULT_TIME_UNIT_NANOS = 1000;
+    //DEFAULT_ESTIMATED_COST: the estimated cost of the tasks submitted without one (execute and the ExecutorService
+    //submit and invoke methods)
+    public static final int DEFAULT_ESTIMATED_COST = 1;
+
+    //strategy: the name of the scheduling strategy whose policy decides the dispatch
+    private String strategy;
+    //quantum: the time slice of the RR strategy in time units
+    private int quantum;
+    //roundRobin and shortestRemaining: indicate whether the tasks give up their cpu between steps (RR and SRTF)
+    private boolean roundRobin;
+    private boolean shortestRemaining;
+    //timeUnitNanos: the length of a time unit in nanoseconds
+    private long timeUnitNanos;
+    //defaultEstimatedCost: the estimated cost of the tasks submitted without one
+    private volatile int defaultEstimatedCost = DEFAULT_ESTIMATED_COST;
+    //stripes: the ready queue and state of every cpu, indexed by cpu id
+    private Stripe[] stripes;
+    //shutdown and stopped: indicate whether shutdown() and shutdownNow() were called
+    private volatile boolean shutdown = false;
+    private volatile boolean stopped = false;
+    //pending: the number of tasks submitted that haven't finished
+    private AtomicLong pending = new AtomicLong();
+    //submitted: the number of tasks submitted (the id of the next task)
+    private AtomicLong submitted = new AtomicLong();
+    //queueSequence: the number of times a task was added to a ready queue (ties are broken in that order)
+    private AtomicLong queueSequence = new AtomicLong();
+    //terminated: counts down as the workers stop
+    private CountDownLatch terminated;
+    //startNanos: the time the executor was created, the time 0 of the arrival times
+    private long startNanos;
+
+    //metricsLock: guards the figures below
+    private final Object metricsLock = new Object();
+    //waitingTimes, turnaroundTimes and responseTimes: the times of the finished tasks in time units
+    private LatencyHistogram waitingTimes = new LatencyHistogram();
+    private LatencyHistogram turnaroundTimes = new LatencyHistogram();
+    private LatencyHistogram responseTimes = new LatencyHistogram();
+    //finishedCount: the number of finished tasks
+    private long finishedCount = 0;
+    //lastFinishNanos: the time the last task finished
+    private long lastFinishNanos;
+    //executed: the finished tasks as processes (arrival time and the time they ran), null unless they are recorded
+    private ProcessTable executed = null;
+
+    //a constructor that starts numOfCPUs workers running the tasks with the policy of the given strategy, with time
+    //units of DEFAULT_TIME_UNIT_NANOS
+    public LiveExecutor(String strategy, int quantum, int numOfCPUs){
+        this(strategy, quantum, numOfCPUs, DEFAULT_TIME_UNIT_NANOS);
+    }
+
+    public LiveExecutor(String strategy, int quantum, int numOfCPUs, long timeUnitNanos){
+        this.strategy = strategy.toUpperCase();
+        if(Arrays.asList("FCFS", "SJF", "SRTF", "RR").contains(this.strategy) == false){
+            throw new IllegalArgumentException("The live executor runs FCFS, SJF, SRTF or RR, not " + strategy);
+        }
+        if(numOfCPUs < 1 || timeUnitNanos < 1 || (this.strategy.equals("RR") && quantum < 1)){
+            throw new IllegalArgumentException("The cpus, time unit and RR quantum must be at least 1");
+        }
+        this.quantum = quantum;
+        this.roundRobin = this.strategy.equals("RR");
+        this.shortestRemaining = this.strategy.equals("SRTF");
+        this.timeUnitNanos = timeUnitNanos;
+        this.startNanos = System.nanoTime();
+        this.lastFinishNanos = this.startNanos;
+        this.stripes = new Stripe[numOfCPUs];
+        for(int i = 0; i < numOfCPUs; i++){
+            this.stripes[i] = new Stripe(createReadyQueue());
+        }
+        this.terminated = new CountDownLatch(numOfCPUs);
+        for(int i = 0; i < numOfCPUs; i++){
+            int cpu = i;
+            Thread worker = new Thread(() -> work(this.stripes[cpu]), "live-cpu-" + i);
+            this.stripes[i].worker = worker;
+        }
+        for(Stripe stripe: this.stripes){
+            stripe.worker.start();
+        }
+    }
+
+    //a method that creates a ready queue ordered like the one of the strategy (ties in order of arrival to the queue)
+    private Queue<Task> createReadyQueue(){
+        switch(this.strategy){
+            case "SJF":
+                return new PriorityQueue<>(Comparator.comparingLong((Task task) -> task.estimatedCost)
+                        .thenComparingLong(task -> task.queueSequence));
+            case "SRTF":
+                return new PriorityQueue<>(Comparator.comparingLong((Task task) -> task.remainingNanos(0))
+                        .thenComparingLong(task -> task.queueSequence));
+            default:
+                return new ArrayDeque<>();
+        }
+    }
+
+    //SUBMISSION
+    @Override
+    public void execute(Runnable command){
+        submitTask(new Task(command, null, this.defaultEstimatedCost));
+    }
+
+    //a method that submits a task with its estimated cost in time units
+    public Future<?> submit(Runnable task, int estimatedCost){
+        FutureTask<Void> future = new FutureTask<>(task, null);
+        submitTask(new Task(future, null, estimatedCost));
+        return future;
+    }
+
+    public <T> Future<T> submit(Callable<T> task, int estimatedCost){
+        FutureTask<T> future = new FutureTask<>(task);
+        submitTask(new Task(future, null, estimatedCost));
+        return future;
+    }
+
+    //a method that submits a task done in steps, it can give up its cpu between two steps (RR and SRTF), its future is
+    //cancelled if shutdownNow() stops it between two steps
+    public CompletableFuture<Void> submitSteps(LiveTask task, int estimatedCost){
+        Task steps = new Task(null, task, estimatedCost);
+        submitTask(steps);
+        return steps.future;
+    }
+
+    //a method that adds a submitted task to the ready queue of the least loaded cpu
+    private void submitTask(Task task){
+        if(task.estimatedCost < 0){
+            throw new IllegalArgumentException("The estimated cost of a task can't be negative");
+        }
+        //counting the task before looking at shutdown so a worker never stops with a task left to run
+        this.pending.incrementAndGet();
+        if(this.shutdown){
+            this.pending.decrementAndGet();
+            throw new RejectedExecutionException("The live executor is shut down");
+        }
+        task.id = this.submitted.getAndIncrement();
+        task.costNanos = task.estimatedCost * this.timeUnitNanos;
+        task.arrivalNanos = System.nanoTime();
+        Stripe target = leastLoaded();
+        enqueue(target, task, task.arrivalNanos);
+        wake(target);
+    }
+
+    //a method that returns the cpu with the fewest tasks in its ready queue and running (the lowest id on ties)
+    private Stripe leastLoaded(){
+        Stripe leastLoaded = null;
+        int leastLoad = Integer.MAX_VALUE;
+        for(Stripe stripe: this.stripes){
+            int load = stripe.size + (stripe.running ? 1 : 0);
+            if(load < leastLoad){
+                leastLoaded = stripe;
+                leastLoad = load;
+            }
+        }
+        return leastLoaded;
+    }
+
+    //a method that wakes the worker of a cpu a task was added to, or another idle worker (to steal it) if it is busy
+    private void wake(Stripe target){
+        if(target.idle){
+            LockSupport.unpark(target.worker);
+            return;
+        }
+        for(Stripe stripe: this.stripes){
+            if(stripe.idle){
+                LockSupport.unpark(stripe.worker);
+                return;
+            }
+        }
+    }
+
+    //READY QUEUES
+    private void enqueue(Stripe stripe, Task task, long now){
+        stripe.lock.lock();
+        try{
+            task.queuedSince = now;
+            task.queueSequence = this.queueSequence.getAndIncrement();
+            stripe.queue.add(task);
+            stripe.updated();
+        }
+        finally{
+            stripe.lock.unlock();
+        }
+    }
+
+    private Task poll(Stripe stripe){
+        if(stripe.size == 0){
+            return null;
+        }
+        stripe.lock.lock();
+        try{
+            Task task = stripe.queue.poll();
+            stripe.updated();
+            return task;
+        }
+        finally{
+            stripe.lock.unlock();
+        }
+    }
+
+    //a method that lets a cpu with an empty ready queue steal a task from the longest ready queue, the last task of a
+    //FIFO queue and the head of the others (the task keeps waiting, its queuedSince doesn't change)
+    private Task steal(Stripe thief){
+        Stripe victim = null;
+        for(Stripe stripe: this.stripes){
+            if(stripe != thief && stripe.size > 0 && (victim == null || stripe.size > victim.size)){
+                victim = stripe;
+            }
+        }
+        if(victim == null){
+            return null;
+        }
+        victim.lock.lock();
+        try{
+            Task task = victim.queue instanceof Deque ? ((Deque<Task>) victim.queue).pollLast() : victim.queue.poll();
+            victim.updated();
+            if(task != null){
+                victim.stolenFrom++;
+            }
+            return task;
+        }
+        finally{
+            victim.lock.unlock();
+        }
+    }
+
+    //a method that indicates whether any ready queue holds a task
+    private boolean hasQueuedTasks(){
+        for(Stripe stripe: this.stripes){
+            if(stripe.size > 0)
+                return true;
+        }
+        return false;
+    }
+
+    //WORKERS
+    //the loop of the worker of a cpu: run the next task of its ready queue, or steal one, or wait for one
+    private void work(Stripe stripe){
+        try{
+            while(true){
+                Task task = this.stopped ? null : poll(stripe);
+                if(task == null && this.stopped == false){
+                    task = steal(stripe);
+                }
+                if(task != null){
+                    run(stripe, task);
+                    continue;
+                }
+                if(this.stopped || (this.shutdown && this.pending.get() == 0)){
+                    return;
+                }
+                //announcing the cpu as idle before looking at the queues again, so a task added in between wakes it
+                stripe.idle = true;
+                if(hasQueuedTasks() == false && this.stopped == false && (this.shutdown == false || this.pending.get() > 0)){
+                    LockSupport.park(this);
+                }
+                stripe.idle = false;
+            }
+        }
+        finally{
+            this.terminated.countDown();
+        }
+    }
+
+    //a method that runs a task on a cpu until it is done or gives up the cpu (it then goes back to the cpu's queue), a
+    //task done in steps that is stopped by shutdownNow() is abandoned: its future is cancelled and its times aren't recorded
+    private void run(Stripe stripe, Task task){
+        long start = System.nanoTime();
+        task.waitedNanos += start - task.queuedSince;
+        if(task.firstRunNanos < 0){
+            task.firstRunNanos = start;
+        }
+        stripe.running = true;
+        StepsResult result = StepsResult.DONE;
+        Throwable failure = null;
+        try{
+            if(task.steps == null)
+                task.runnable.run();
+            else
+                result = runSteps(stripe, task, start);
+        }
+        catch(Throwable e){
+            failure = e;
+        }
+        long end = System.nanoTime();
+        task.ranNanos += end - start;
+        stripe.busyNanos += end - start;
+        stripe.running = false;
+        //a task giving up its cpu after shutdownNow() drained the queues would never run again, and a step failing
+        //once the executor is stopped was most likely interrupted by shutdownNow()
+        if(task.steps != null && this.stopped && (result == StepsResult.YIELDED || failure != null)){
+            result = StepsResult.ABANDONED;
+        }
+        if(result == StepsResult.YIELDED){
+            enqueue(stripe, task, end);
+            return;
+        }
+        if(result == StepsResult.ABANDONED){
+            if(failure != null)
+                task.future.completeExceptionally(failure);
+            else
+                task.future.cancel(false);
+            release();
+            return;
+        }
+        finish(task, end);
+        if(task.future != null){
+            if(failure != null)
+                task.future.completeExceptionally(failure);
+            else
+                task.future.complete(null);
+        }
+        else if(failure != null){
+            Thread worker = Thread.currentThread();
+            worker.getUncaughtExceptionHandler().uncaughtException(worker, failure);
+        }
+    }
+
+    //a method that runs the steps of a task until it is done, it must give up its cpu (YIELDED: with RR when it used up
+    //its quantum while other tasks wait, otherwise it starts a new quantum, with SRTF when the head of the queue has
+    //less cost left) or the executor is stopped by shutdownNow() (ABANDONED)
+    private StepsResult runSteps(Stripe stripe, Task task, long start) throws Exception {
+        long sliceStart = start;
+        long quantumNanos = this.quantum * this.timeUnitNanos;
+        while(task.steps.step()){
+            if(this.stopped){
+                return StepsResult.ABANDONED;
+            }
+            long now = System.nanoTime();
+            if(this.roundRobin && now - sliceStart >= quantumNanos){
+                if(stripe.size > 0){
+                    return StepsResult.YIELDED;
+                }
+                sliceStart = now;
+            }
+            if(this.shortestRemaining && stripe.headRemainingNanos < task.remainingNanos(now - start)){
+                return StepsResult.YIELDED;
+            }
+        }
+        return StepsResult.DONE;
+    }
+
+    //a method that records the times of a finished task
+    private void finish(Task task, long end){
+        synchronized(this.metricsLock){
+            this.waitingTimes.record(toTimeUnits(task.waitedNanos));
+            this.turnaroundTimes.record(toTimeUnits(end - task.arrivalNanos));
+            this.responseTimes.record(toTimeUnits(task.firstRunNanos - task.arrivalNanos));
+            this.finishedCount++;
+            this.lastFinishNanos = Math.max(this.lastFinishNanos, end);
+            if(this.executed != null){
+                this.executed.add("t" + task.id, toTimeUnits(task.arrivalNanos - this.startNanos),
+                        Math.max(toTimeUnits(task.ranNanos), 1), new int[0]);
+            }
+        }
+        release();
+    }
+
+    //a method that counts a task as no longer pending, the last task of a shut down executor lets the idle workers stop
+    private void release(){
+        if(this.pending.decrementAndGet() == 0 && this.shutdown){
+            for(Stripe stripe: this.stripes){
+                LockSupport.unpark(stripe.worker);
+            }
+        }
+    }
+
+    //a method that converts nanoseconds to the nearest number of time units
+    private int toTimeUnits(long nanos){
+        return (int) Math.min(Integer.MAX_VALUE, (nanos + this.timeUnitNanos / 2) / this.timeUnitNanos);
+    }
+
+    //SHUTDOWN
+    @Override
+    public void shutdown(){
+        this.shutdown = true;
+        for(Stripe stripe: this.stripes){
+            LockSupport.unpark(stripe.worker);
+        }
+    }
+
+    //a method that stops the workers once their current task (or step) is done and returns the tasks that never ran
+    //(the running tasks are interrupted, the tasks done in steps that were running are cancelled)
+    @Override
+    public List<Runnable> shutdownNow(){
+        this.stopped = true;
+        this.shutdown = true;
+        List<Runnable> neverRan = new ArrayList<>();
+        for(Stripe stripe: this.stripes){
+            stripe.lock.lock();
+            try{
+                Task task;
+                while((task = stripe.queue.poll()) != null){
+                    neverRan.add(task.steps == null ? task.runnable : task.asRunnable());
+                    this.pending.decrementAndGet();
+                }
+                stripe.updated();
+            }
+            finally{
+                stripe.lock.unlock();
+            }
+            stripe.worker.interrupt();
+            LockSupport.unpark(stripe.worker);
+        }
+        return neverRan;
+    }
+
+    @Override
+    public boolean isShutdown(){ return this.shutdown; }
+
+    @Override
+    public boolean isTerminated(){ return this.terminated.getCount() == 0; }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return this.terminated.await(timeout, unit);
+    }
+
+    //METRICS
+    //a method that calculates the average waiting time of the finished tasks in time units
+    public double calculateAvgWaitTime(){
+        synchronized(this.metricsLock){
+            return this.waitingTimes.calculateMean();
+        }
+    }
+
+    //a method that calculates the cpu utilization of a cpu (the share of the time since the executor was created until
+    //the last task finished that the cpu spent running tasks)
+    public double calculateCPUUtilization(int cpu){
+        long elapsed;
+        synchronized(this.metricsLock){
+            elapsed = this.lastFinishNanos - this.startNanos;
+        }
+        return elapsed == 0 ? 0 : 100.0 * this.stripes[cpu].busyNanos / elapsed;
+    }
+
+    public double calculateAvgCPUUtilization(){
+        double utilization = 0;
+        for(int cpu = 0; cpu < this.stripes.length; cpu++){
+            utilization += calculateCPUUtilization(cpu);
+        }
+        return utilization / this.stripes.length;
+    }
+
+    //a method that calculates the number of tasks finished per second since the executor was created
+    public double calculateThroughput(){
+        synchronized(this.metricsLock){
+            long elapsed = this.lastFinishNanos - this.startNanos;
+            return elapsed == 0 ? 0 : this.finishedCount * 1e9 / elapsed;
+        }
+    }
+
+    //a method that returns a workload of the finished tasks (one process per task: its arrival time and the time it
+    //ran in time units) to simulate them, the tasks are only recorded after setRecordWorkload(true)
+    public Workload getExecutedWorkload(){
+        ProcessTable processes = new ProcessTable();
+        synchronized(this.metricsLock){
+            if(this.executed != null){
+                for(int i = 0; i < this.executed.size(); i++){
+                    processes.add(this.executed.getProcessID(i), this.executed.getArrivalTime(i),
+                            this.executed.getTotalExecTime(i), new int[0]);
+                }
+            }
+        }
+        return new Workload("live executor", this.stripes.length, processes);
+    }
+
+    //GETTERS
+    public String getStrategy(){ return this.strategy; }
+
+    public int getQuantum(){ return this.quantum; }
+
+    public int getNumOfCPUs(){ return this.stripes.length; }
+
+    public long getTimeUnitNanos(){ return this.timeUnitNanos; }
+
+    public long getStartNanos(){ return this.startNanos; }
+
+    public int getDefaultEstimatedCost(){ return this.defaultEstimatedCost; }
+
+    public long getSubmittedCount(){ return this.submitted.get(); }
+
+    public long getFinishedCount(){
+        synchronized(this.metricsLock){
+            return this.finishedCount;
+        }
+    }
+
+    //returns the time the last task finished at in time units
+    public int getMakespan(){
+        synchronized(this.metricsLock){
+            return toTimeUnits(this.lastFinishNanos - this.startNanos);
+        }
+    }
+
+    //returns copies of the histograms of the times of the finished tasks
+    public LatencyHistogram getWaitingTimes(){ return copyOf(this.waitingTimes); }
+
+    public LatencyHistogram getTurnaroundTimes(){ return copyOf(this.turnaroundTimes); }
+
+    public LatencyHistogram getResponseTimes(){ return copyOf(this.responseTimes); }
+
+    //returns the number of tasks the other cpus stole from the ready queue of a cpu
+    public long getStolenCount(int cpu){
+        this.stripes[cpu].lock.lock();
+        try{
+            return this.stripes[cpu].stolenFrom;
+        }
+        finally{
+            this.stripes[cpu].lock.unlock();
+        }
+    }
+
+    private LatencyHistogram copyOf(LatencyHistogram histogram){
+        LatencyHistogram copy = new LatencyHistogram();
+        synchronized(this.metricsLock){
+            copy.add(histogram);
+        }
+        return copy;
+    }
+
+    //SETTERS
+    public void setDefaultEstimatedCost(int defaultEstimatedCost){ this.defaultEstimatedCost = defaultEstimatedCost; }
+
+    //a method that starts or stops recording the finished tasks for getExecutedWorkload()
+    public void setRecordWorkload(boolean recordWorkload){
+        synchronized(this.metricsLock){
+            if(recordWorkload && this.executed == null)
+                this.executed = new ProcessTable();
+            else if(recordWorkload == false)
+                this.executed = null;
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if(args.length == 0){
+            System.out.println("usage: java LiveExecutor inputFile [--strategy FCFS|SJF|SRTF|RR] [--quantum q] [--cpus n] " +
+                    "[--time-unit-micros t]");
+            return;
+        }
+        String strategy = "RR";
+        int quantum = 3;
+        //0 cpus stands for the number of cpus declared in the input file
+        int numOfCPUs = 0;
+        long timeUnitMicros = 1000;
+        for(int i = 1; i + 1 < args.length; i += 2){
+            switch(args[i]){
+                case "--strategy":
+                    strategy = args[i + 1];
+                    break;
+                case "--quantum":
+                    quantum = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--cpus":
+                    numOfCPUs = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--time-unit-micros":
+                    timeUnitMicros = Long.parseLong(args[i + 1]);
+                    break;
+                default:
+                    System.out.println("Unknown option: " + args[i]);
+            }
+        }
+        Workload input = Workload.read(args[0], System.err);
+        if(numOfCPUs == 0){
+            numOfCPUs = input.getNumOfCPUs();
+        }
+        //the tasks only spin, so the io requests are left out of the simulation as well
+        ProcessTable processes = new ProcessTable();
+        for(int i = 0; i < input.size(); i++){
+            processes.add(input.getProcessID(i), input.getArrivalTime(i), input.getTotalExecTime(i), new int[0]);
+        }
+        Workload workload = new Workload(input.getFileName(), numOfCPUs, processes);
+
+        //the prediction of the simulator, with a ready queue per cpu and work stealing like the live executor
+        SweepConfiguration configuration = new SweepConfiguration(strategy, quantum, numOfCPUs);
+        SchedulerStrategy scheduler = configuration.createScheduler(workload, new PrintStream(new ByteArrayOutputStream()));
+        scheduler.setMultiQueue(true);
+        scheduler.setWorkStealing(true);
+        scheduler.setListener(SimulationListener.NO_OP);
+        scheduler.setKeepFinishedProcesses(false);
+        scheduler.scheduleProcesses();
+        SweepResult predicted = new SweepResult(configuration, scheduler, "");
+
+        //the measured run, every process is submitted at its arrival time and spins for its total execution time
+        Integer[] order = new Integer[workload.size()];
+        for(int i = 0; i < order.length; i++){
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(workload::getArrivalTime));
+        LiveExecutor executor = new LiveExecutor(strategy, quantum, numOfCPUs, timeUnitMicros * 1000);
+        for(int index: order){
+            long arrival = executor.getStartNanos() + workload.getArrivalTime(index) * executor.getTimeUnitNanos();
+            long delay;
+            while((delay = arrival - System.nanoTime()) > 0){
+                LockSupport.parkNanos(delay);
+            }
+            int totalExecTime = workload.getTotalExecTime(index);
+            executor.submitSteps(new SpinTask(totalExecTime, executor.getTimeUnitNanos()), totalExecTime);
+        }
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+
+        System.out.println(String.format(Locale.ROOT, "%-10s %8s %8s %11s %14s %12s %11s %14s %12s %15s", "",
+                "finished", "makespan", "avg_waiting", "avg_turnaround", "avg_response", "p99_waiting", "p99_turnaround",
+                "p99_response", "cpu_utilization"));
+        System.out.println(String.format(Locale.ROOT, "%-10s %8d %8d %11.2f %14.2f %12.2f %11.0f %14.0f %12.0f %14.2f%%",
+                "simulated", predicted.getFinishedProcesses(), predicted.getMakespan(), predicted.getAvgWaitTime(),
+                predicted.getAvgTurnaroundTime(), predicted.getAvgResponseTime(), predicted.getP99WaitTime(),
+                predicted.getP99TurnaroundTime(), predicted.getP99ResponseTime(), predicted.getAvgCPUUtilization()));
+        System.out.println(String.format(Locale.ROOT, "%-10s %8d %8d %11.2f %14.2f %12.2f %11.0f %14.0f %12.0f %14.2f%%",
+                "measured", executor.getFinishedCount(), executor.getMakespan(), executor.calculateAvgWaitTime(),
+                executor.getTurnaroundTimes().calculateMean(), executor.getResponseTimes().calculateMean(),
+                executor.getWaitingTimes().calculatePercentile(99), executor.getTurnaroundTimes().calculatePercentile(99),
+                executor.getResponseTimes().calculatePercentile(99), executor.calculateAvgCPUUtilization()));
+        System.out.println(String.format(Locale.ROOT, "measured throughput: %.2f tasks per second",
+                executor.calculateThroughput()));
+    }
+
+    /**
+     * A task that keeps its cpu busy for a number of time units, one time unit per step
+     */
+    private static final class SpinTask implements LiveTask {
+
+        //remaining: the number of steps left
+        private int remaining;
+        //timeUnitNanos: the length of a step
+        private long timeUnitNanos;
+
+        private SpinTask(int totalExecTime, long timeUnitNanos){
+            this.remaining = totalExecTime;
+            this.timeUnitNanos = timeUnitNanos;
+        }
+
+        @Override
+        public boolean step(){
+            long end = System.nanoTime() + this.timeUnitNanos;
+            while(System.nanoTime() < end);
+            return --this.remaining > 0;
+        }
+    }
+
+    //the ways the steps of a task stop running on a cpu
+    private enum StepsResult { DONE, YIELDED, ABANDONED }
+
+    /**
+     * A task submitted to a LiveExecutor along with its times
+     */
+    private static final class Task {
+
+        //runnable: the task when it runs to completion (null for a task done in steps)
+        private Runnable runnable;
+        //steps and future: the task when it is done in steps and its future (both null otherwise)
+        private LiveTask steps;
+        private CompletableFuture<Void> future;
+        //estimatedCost: the estimated cost of the task in time units
+        private long estimatedCost;
+        //costNanos: the estimated cost in nanoseconds (set by the executor)
+        private long costNanos = -1;
+        //id: the number of tasks submitted before this one
+        private long id;
+        //queueSequence: the order in which the task was last added to a ready queue
+        private long queueSequence;
+        //arrivalNanos, queuedSince and firstRunNanos: the time the task was submitted, last added to a ready queue and
+        //first ran at (-1 until it runs)
+        private long arrivalNanos;
+        private long queuedSince;
+        private long firstRunNanos = -1;
+        //waitedNanos and ranNanos: the time the task spent in ready queues and running
+        private long waitedNanos = 0;
+        private long ranNanos = 0;
+
+        private Task(Runnable runnable, LiveTask steps, int estimatedCost){
+            this.runnable = runnable;
+            this.steps = steps;
+            this.future = steps == null ? null : new CompletableFuture<>();
+            this.estimatedCost = estimatedCost;
+        }
+
+        //a method that returns the estimated cost the task has left after running for another given number of nanoseconds
+        private long remainingNanos(long running){
+            return this.costNanos - this.ranNanos - running;
+        }
+
+        //a method that returns a runnable doing the steps of the task that never ran (for shutdownNow)
+        private Runnable asRunnable(){
+            return () -> {
+                try{
+                    while(this.steps.step());
+                    this.future.complete(null);
+                }
+                catch(Exception e){
+                    this.future.completeExceptionally(e);
+                }
+            };
+        }
+    }
+
+    /**
+     * The ready queue and state of a cpu, the fields a worker reads about the other cpus without taking their lock
+     * (size, running, idle and the remaining cost of the head) are volatile
+     */
+    private final class Stripe {
+
+        //lock: guards the queue
+        private final ReentrantLock lock = new ReentrantLock();
+        //queue: the tasks waiting for the cpu, ordered like the ready queue of the strategy
+        private final Queue<Task> queue;
+        //size: the number of tasks in queue
+        private volatile int size = 0;
+        //headRemainingNanos: the estimated cost left of the head of the queue (SRTF)
+        private volatile long headRemainingNanos = Long.MAX_VALUE;
+        //running and idle: indicate whether the cpu is running a task and whether its worker is waiting for one
+        private volatile boolean running = false;
+        private volatile boolean idle = false;
+        //busyNanos: the time the cpu spent running tasks (only written by its worker)
+        private volatile long busyNanos = 0;
+        //stolenFrom: the number of tasks stolen from the queue
+        private long stolenFrom = 0;
+        //worker: the thread of the cpu
+        private Thread worker;
+
+        private Stripe(Queue<Task> queue){
+            this.queue = queue;
+        }
+
+        //a method that refreshes the volatile view of the queue (with the lock held)
+        private void updated(){
+            this.size = this.queue.size();
+            Task head = this.queue.peek();
+            this.headRemainingNanos = head == null ? Long.MAX_VALUE : head.remainingNanos(0);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+/**
+ * A task of a LiveExecutor that does its work in steps, the executor can only take its cpu away between two steps
+ * (when its round robin time slice is used up or, with SRTF, when a task with less remaining cost is waiting)
+ */
+public interface LiveTask {
+
+    //a method that does the next step of the work, returns false once the work is done
+    boolean step() throws Exception;
+}
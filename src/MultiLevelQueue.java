@@ -0,0 +1,155 @@
+import java.util.function.IntConsumer;
+
+/**
+ * A ready queue made of one FIFO queue per priority level, a process is queued at the level of its priority (0 is the
+ * highest) and leaves the queue from the highest non empty level
+ *
+ * The non empty levels are kept in a two level bitmap (one bit per level and one bit per word of levels) so finding
+ * the highest one takes two find-first-set instructions (Long.numberOfTrailingZeros) whatever the number of levels
+ * and processes, like the Linux O(1) scheduler
+ */
+public class MultiLevelQueue implements ProcessQueue {
+
+    //MAX_LEVELS: the largest number of levels the bitmap can hold (64 words of 64 levels)
+    public static final int MAX_LEVELS = 64 * 64;
+
+    //processes: the table the rows are in (the priority of a process is read from it)
+    private ProcessStateTable processes = null;
+    //levels: the queue of each priority level
+    private ProcessDeque[] levels;
+    //nonEmptyLevels: a bit set for every level holding processes
+    private long[] nonEmptyLevels;
+    //nonEmptyWords: a bit set for every word of nonEmptyLevels that isn't 0
+    private long nonEmptyWords = 0;
+    //size: the number of processes in the queue
+    private int size = 0;
+
+    public MultiLevelQueue(int numOfLevels){
+        if(numOfLevels < 1 || numOfLevels > MAX_LEVELS){
+            throw new IllegalArgumentException("The number of levels must be between 1 and " + MAX_LEVELS);
+        }
+        this.levels = new ProcessDeque[numOfLevels];
+        for(int level = 0; level < numOfLevels; level++){
+            this.levels[level] = new ProcessDeque();
+        }
+        this.nonEmptyLevels = new long[(numOfLevels + 63) >>> 6];
+    }
+
+    @Override
+    public void attach(ProcessStateTable processes) {
+        this.processes = processes;
+    }
+
+    //adds a process at the level of its priority
+    @Override
+    public void add(int row) {
+        int level = this.processes.getPriority(row);
+        if(level < 0 || level >= this.levels.length){
+            throw new IllegalArgumentException("Process " + this.processes.getProcessID(row) + " has priority " + level +
+                    " but the queue only has " + this.levels.length + " levels");
+        }
+        this.levels[level].add(row);
+        this.nonEmptyLevels[level >>> 6] |= 1L << level;
+        this.nonEmptyWords |= 1L << (level >>> 6);
+        this.size++;
+    }
+
+    @Override
+    public int poll() {
+        int level = highestNonEmptyLevel();
+        if(level < 0){
+            return NONE;
+        }
+        int row = this.levels[level].poll();
+        this.size--;
+        if(this.levels[level].isEmpty()){
+            markEmpty(level);
+        }
+        return row;
+    }
+
+    @Override
+    public int peek() {
+        int level = highestNonEmptyLevel();
+        return level < 0 ? NONE : this.levels[level].peek();
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public void clear() {
+        for(ProcessDeque level: this.levels){
+            level.clear();
+        }
+        for(int word = 0; word < this.nonEmptyLevels.length; word++){
+            this.nonEmptyLevels[word] = 0;
+        }
+        this.nonEmptyWords = 0;
+        this.size = 0;
+    }
+
+    //a method that moves every process to the highest level (setting their priority to 0), the processes keep their
+    //order (highest levels first)
+    public void boost(){
+        ProcessDeque top = this.levels[0];
+        for(int level = 1; level < this.levels.length; level++){
+            int row;
+            while((row = this.levels[level].poll()) != NONE){
+                this.processes.setPriority(row, 0);
+                top.add(row);
+            }
+        }
+        for(int word = 0; word < this.nonEmptyLevels.length; word++){
+            this.nonEmptyLevels[word] = 0;
+        }
+        this.nonEmptyWords = 0;
+        if(top.isEmpty() == false){
+            this.nonEmptyLevels[0] = 1L;
+            this.nonEmptyWords = 1L;
+        }
+    }
+
+    //a method that returns the highest (lowest numbered) level holding processes, -1 if the queue is empty
+    public int highestNonEmptyLevel(){
+        if(this.nonEmptyWords == 0){
+            return -1;
+        }
+        int word = Long.numberOfTrailingZeros(this.nonEmptyWords);
+        return (word << 6) + Long.numberOfTrailingZeros(this.nonEmptyLevels[word]);
+    }
+
+    private void markEmpty(int level){
+        this.nonEmptyLevels[level >>> 6] &= ~(1L << level);
+        if(this.nonEmptyLevels[level >>> 6] == 0){
+            this.nonEmptyWords &= ~(1L << (level >>> 6));
+        }
+    }
+
+    //visits the processes from the highest level to the lowest (in the order they would be polled)
+    @Override
+    public void forEach(IntConsumer action) {
+        for(ProcessDeque level: this.levels){
+            level.forEach(action);
+        }
+    }
+
+    @Override
+    public int[] toArray() {
+        int[] rows = new int[this.size];
+        int position = 0;
+        for(ProcessDeque level: this.levels){
+            int[] levelRows = level.toArray();
+            System.arraycopy(levelRows, 0, rows, position, levelRows.length);
+            position += levelRows.length;
+        }
+        return rows;
+    }
+
+    //GETTERS
+    public int getNumOfLevels(){ return this.levels.length; }
+
+    public int getLevelSize(int level){ return this.levels[level].size(); }
+}
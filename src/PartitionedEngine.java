@@ -0,0 +1,352 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+
+/**
+ * Runs the runProcesses phase of a tick with the cpus split into partitions (contiguous ranges of cpus with their own
+ * ready queues) that each run on their own thread, the simulation thread runs the first partition
+ *
+ * A partition only touches its own cpus, ready queues and processes during the phase, whatever would be shared (the
+ * io device queues, the finished processes and histograms, the listener and the decision to chart an idle tick, which
+ * depends on every cpu) is recorded per cpu and applied once every partition is done, one cpu after the other in cpu
+ * order, so the results are the same as running the cpus one after the other on a single thread. The threads only
+ * meet at a barrier at the start and the end of the phase, the ticks in which partitions would share more (work
+ * stealing, strategy events) are run on the simulation thread by SchedulerStrategy
+ */
+public class PartitionedEngine implements AutoCloseable {
+
+    //DISPATCH, RUN, PREEMPT, IO_REQUEST, FINISH and IDLE_TICK: the kinds of events a cpu defers (the listener events,
+    //a process that requests io or finishes and an idle tick that is charted if processes were running)
+    private static final byte DISPATCH = 0;
+    private static final byte RUN = 1;
+    private static final byte PREEMPT = 2;
+    private static final byte IO_REQUEST = 3;
+    private static final byte FINISH = 4;
+    private static final byte IDLE_TICK = 5;
+    //INITIAL_EVENTS: the number of events every cpu has room for before its arrays first grow
+    private static final int INITIAL_EVENTS = 8;
+
+    //numOfPartitions: the number of partitions (and threads) the cpus are split into
+    private int numOfPartitions;
+    //scheduler: the scheduler whose cpus are being run (set for the duration of a phase)
+    private SchedulerStrategy scheduler = null;
+    //cpus: the cpus of the scheduler during the current phase
+    private List<CPU> cpus = null;
+    //eventKinds, eventTimes, eventEnds and eventRows: the events every cpu deferred during the phase, indexed by cpu
+    //id then in the order they happened (the end is only set for RUN events, the row is the row of the process in the
+    //scheduler's ProcessStateTable, or for an IDLE_TICK 1 if processes that haven't arrived count as running), the
+    //arrays are kept from one phase to the next so recording an event allocates nothing
+    private byte[][] eventKinds = new byte[0][];
+    private int[][] eventTimes = new int[0][];
+    private int[][] eventEnds = new int[0][];
+    private int[][] eventRows = new int[0][];
+    //eventCounts: the number of events every cpu deferred during the phase
+    private int[] eventCounts = new int[0];
+    //runningAfter: for every cpu the number of cpus after it that had a running process at the start of the phase
+    private int[] runningAfter = new int[0];
+    //replayedCPU and runningBefore: the cpu whose effects are being applied and the number of cpus before it with a
+    //running process at the end of the phase
+    private int replayedCPU = 0;
+    private int runningBefore = 0;
+    //inPhase: indicates whether the partitions are running (the scheduler then defers its shared effects)
+    private boolean inPhase = false;
+    //listener: the listener the events recorded during the phase are passed on to
+    private SimulationListener listener = SimulationListener.NO_OP;
+    //deferringListener: the listener the scheduler uses during the phase, it records the events of every cpu
+    private SimulationListener deferringListener = new DeferringListener();
+    //barrier: where the threads meet at the start and the end of a phase (null until the threads are started)
+    private CyclicBarrier barrier = null;
+    //workers: the threads running every partition but the first
+    private Thread[] workers = null;
+    //closing: indicates whether the workers must stop at the next barrier
+    private volatile boolean closing = false;
+    //failures: the exception or error thrown by every partition during the phase (null if none)
+    private Throwable[] failures;
+
+    public PartitionedEngine(int numOfPartitions){
+        if(numOfPartitions < 2){
+            throw new IllegalArgumentException("A partitioned engine needs at least 2 partitions");
+        }
+        this.numOfPartitions = numOfPartitions;
+        this.failures = new Throwable[numOfPartitions];
+    }
+
+    //a method that runs runProcesses on every cpu of the scheduler, every partition on its own thread (the scheduler
+    //must be using the deferring listener and defer its shared effects while isInPhase())
+    public void runPartitions(SchedulerStrategy scheduler){
+        this.scheduler = scheduler;
+        this.cpus = scheduler.getCpus();
+        int numOfCPUs = this.cpus.size();
+        if(this.eventCounts.length < numOfCPUs){
+            int numOfAllocated = this.eventCounts.length;
+            this.eventKinds = Arrays.copyOf(this.eventKinds, numOfCPUs);
+            this.eventTimes = Arrays.copyOf(this.eventTimes, numOfCPUs);
+            this.eventEnds = Arrays.copyOf(this.eventEnds, numOfCPUs);
+            this.eventRows = Arrays.copyOf(this.eventRows, numOfCPUs);
+            this.eventCounts = Arrays.copyOf(this.eventCounts, numOfCPUs);
+            for(int i = numOfAllocated; i < numOfCPUs; i++){
+                this.eventKinds[i] = new byte[INITIAL_EVENTS];
+                this.eventTimes[i] = new int[INITIAL_EVENTS];
+                this.eventEnds[i] = new int[INITIAL_EVENTS];
+                this.eventRows[i] = new int[INITIAL_EVENTS];
+            }
+        }
+        if(this.runningAfter.length != numOfCPUs){
+            this.runningAfter = new int[numOfCPUs];
+        }
+        int running = 0;
+        for(int i = numOfCPUs - 1; i >= 0; i--){
+            this.runningAfter[i] = running;
+            if(this.cpus.get(i).getRunningProcess() != null)
+                running++;
+        }
+
+        if(this.workers == null){
+            startWorkers();
+        }
+        this.inPhase = true;
+        await();
+        runPartition(0);
+        await();
+        this.inPhase = false;
+        Throwable failure = null;
+        for(int partition = 0; partition < this.numOfPartitions; partition++){
+            if(failure == null)
+                failure = this.failures[partition];
+            this.failures[partition] = null;
+        }
+        if(failure instanceof RuntimeException)
+            throw (RuntimeException) failure;
+        if(failure instanceof Error)
+            throw (Error) failure;
+        if(failure != null)
+            throw new IllegalStateException("A partition failed", failure);
+    }
+
+    //a method that applies the events the cpus deferred during the last phase in cpu order, passing the listener events
+    //on to listener
+    public void applyDeferred(SimulationListener listener){
+        this.listener = listener;
+        int numOfCPUs = this.cpus.size();
+        ProcessStateTable processes = this.scheduler.getProcessStates();
+        this.runningBefore = 0;
+        for(int i = 0; i < numOfCPUs; i++){
+            this.replayedCPU = i;
+            CPU cpu = this.cpus.get(i);
+            byte[] kinds = this.eventKinds[i];
+            int[] times = this.eventTimes[i];
+            int[] rows = this.eventRows[i];
+            for(int event = 0; event < this.eventCounts[i]; event++){
+                switch(kinds[event]){
+                    case DISPATCH:
+                        listener.onDispatch(times[event], cpu, processes.view(rows[event]));
+                        break;
+                    case RUN:
+                        listener.onRun(times[event], this.eventEnds[i][event], cpu, processes.view(rows[event]));
+                        break;
+                    case PREEMPT:
+                        listener.onPreempt(times[event], cpu, processes.view(rows[event]));
+                        break;
+                    case IO_REQUEST:
+                        this.scheduler.requestIo(cpu, processes.view(rows[event]));
+                        break;
+                    case FINISH:
+                        this.scheduler.finish(cpu, processes.view(rows[event]));
+                        break;
+                    default:
+                        if(processesWereRunning() || (rows[event] == 1 && this.scheduler.unarrivedProcesses.size() > 0))
+                            cpu.getTimeline().append(Timeline.IDLE, 1);
+                }
+            }
+            this.eventCounts[i] = 0;
+            if(cpu.getRunningProcess() != null)
+                this.runningBefore++;
+        }
+        this.listener = SimulationListener.NO_OP;
+        this.scheduler = null;
+        this.cpus = null;
+    }
+
+    //a method that records that a process running on a cpu requests io, its request is queued once the partitions are
+    //done
+    public void deferIoRequest(CPU cpu, CPUProcess process){
+        defer(cpu, IO_REQUEST, 0, 0, process.getRow());
+    }
+
+    //a method that records that a process running on a cpu finished, its times are recorded once the partitions are done
+    public void deferFinish(CPU cpu, CPUProcess process){
+        defer(cpu, FINISH, 0, 0, process.getRow());
+    }
+
+    //a method that records that a cpu is left without a process for a tick, the tick is charted idle once the
+    //partitions are done if processes were running (or, with unarrived, still have to arrive)
+    public void deferIdleTick(CPU cpu, boolean unarrived){
+        defer(cpu, IDLE_TICK, 0, 0, unarrived ? 1 : 0);
+    }
+
+    //a method that records an event of a cpu in its arrays, which are only written by the thread running the cpu
+    private void defer(CPU cpu, byte kind, int time, int end, int row){
+        int i = cpu.getCpuID();
+        int count = this.eventCounts[i];
+        if(count == this.eventKinds[i].length){
+            int capacity = 2 * count;
+            this.eventKinds[i] = Arrays.copyOf(this.eventKinds[i], capacity);
+            this.eventTimes[i] = Arrays.copyOf(this.eventTimes[i], capacity);
+            this.eventEnds[i] = Arrays.copyOf(this.eventEnds[i], capacity);
+            this.eventRows[i] = Arrays.copyOf(this.eventRows[i], capacity);
+        }
+        this.eventKinds[i][count] = kind;
+        this.eventTimes[i][count] = time;
+        this.eventEnds[i][count] = end;
+        this.eventRows[i][count] = row;
+        this.eventCounts[i] = count + 1;
+    }
+
+    //a method that indicates whether processes were running (on a cpu or in io) when the cpu whose effects are being
+    //applied ran, had the cpus run one after the other: the cpus before it as they ended the tick, the ones after it as
+    //they started it and the io devices with the requests of the cpus up to it
+    public boolean processesWereRunning(){
+        if(this.runningBefore > 0 || this.runningAfter[this.replayedCPU] > 0){
+            return true;
+        }
+        for(IODevice device: this.scheduler.getIODevices()){
+            if(device.isBusy())
+                return true;
+        }
+        return false;
+    }
+
+    //a method that runs the cpus of a partition, whatever it throws (errors included) is kept for the simulation thread
+    //so the partition still reaches the barrier at the end of the phase
+    private void runPartition(int partition){
+        int numOfCPUs = this.cpus.size();
+        int from = (int) ((long) partition * numOfCPUs / this.numOfPartitions);
+        int to = (int) ((long) (partition + 1) * numOfCPUs / this.numOfPartitions);
+        try{
+            for(int i = from; i < to; i++){
+                this.scheduler.runProcesses(this.cpus.get(i));
+            }
+        }
+        catch(Throwable e){
+            this.failures[partition] = e;
+        }
+    }
+
+    private void startWorkers(){
+        this.closing = false;
+        this.barrier = new CyclicBarrier(this.numOfPartitions);
+        this.workers = new Thread[this.numOfPartitions - 1];
+        for(int partition = 1; partition < this.numOfPartitions; partition++){
+            int worker = partition;
+            Thread thread = new Thread(() -> work(worker), "simulation-partition-" + partition);
+            thread.setDaemon(true);
+            this.workers[partition - 1] = thread;
+            thread.start();
+        }
+    }
+
+    //the loop of a worker thread: wait for a phase, run its partition, wait for the others to finish, a worker that
+    //stops for any other reason than the engine closing breaks the barrier so the other threads don't wait for it forever
+    private void work(int partition){
+        CyclicBarrier barrier = this.barrier;
+        try{
+            while(true){
+                barrier.await();
+                if(this.closing){
+                    return;
+                }
+                runPartition(partition);
+                barrier.await();
+            }
+        }
+        catch(InterruptedException | BrokenBarrierException e){
+            //the engine is being closed (or another thread broke the barrier)
+        }
+        finally{
+            //an interrupted worker has already broken the barrier for good, resetting it would let the threads that
+            //reach it later wait for this one
+            if(!this.closing && !barrier.isBroken()){
+                barrier.reset();
+            }
+        }
+    }
+
+    private void await(){
+        try{
+            this.barrier.await();
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            abandonWorkers();
+            throw new IllegalStateException("Interrupted while waiting for the partitions", e);
+        }
+        catch(BrokenBarrierException e){
+            abandonWorkers();
+            throw new IllegalStateException("A partition thread stopped", e);
+        }
+    }
+
+    //a method that stops the worker threads once the barrier is broken (the ones still waiting at the barrier or running
+    //their partition are interrupted), the next phase starts new ones
+    private void abandonWorkers(){
+        this.closing = true;
+        this.inPhase = false;
+        for(Thread worker: this.workers){
+            worker.interrupt();
+        }
+        this.workers = null;
+        this.barrier = null;
+    }
+
+    //a method that stops the worker threads (they are started again by the next phase)
+    @Override
+    public void close(){
+        if(this.workers == null){
+            return;
+        }
+        this.closing = true;
+        await();
+        for(Thread worker: this.workers){
+            try{
+                worker.join();
+            }
+            catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        this.workers = null;
+        this.barrier = null;
+    }
+
+    //GETTERS
+    public int getNumOfPartitions(){ return this.numOfPartitions; }
+
+    //indicates whether the partitions are running (the scheduler must then defer its shared effects)
+    public boolean isInPhase(){ return this.inPhase; }
+
+    public SimulationListener getDeferringListener(){ return this.deferringListener; }
+
+    /**
+     * The listener used during a phase, the events of a cpu are recorded in its event arrays and passed on to the
+     * engine's listener when its events are applied (only the events of a cpu can happen during runProcesses)
+     */
+    private class DeferringListener implements SimulationListener {
+
+        @Override
+        public void onDispatch(int time, CPU cpu, CPUProcess process) {
+            defer(cpu, DISPATCH, time, 0, process.getRow());
+        }
+
+        @Override
+        public void onRun(int start, int end, CPU cpu, CPUProcess process) {
+            defer(cpu, RUN, start, end, process.getRow());
+        }
+
+        @Override
+        public void onPreempt(int time, CPU cpu, CPUProcess process) {
+            defer(cpu, PREEMPT, time, 0, process.getRow());
+        }
+    }
+}
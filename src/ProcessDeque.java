@@ -0,0 +1,88 @@
+import java.util.function.IntConsumer;
+
+/**
+ * A FIFO queue of processes kept in a ring buffer of rows (used by the RR strategy, the levels of a MultiLevelQueue
+ * and the FIFO io devices), a load balancer takes the last process added instead of the next one
+ */
+public class ProcessDeque implements ProcessQueue {
+
+    //rows: the ring buffer holding the rows, its length is a power of 2
+    private int[] rows = new int[16];
+    //head: the slot of the next row
+    private int head = 0;
+    //size: the number of rows in the queue
+    private int size = 0;
+
+    @Override
+    public void add(int row) {
+        if(this.size == this.rows.length){
+            int[] rows = new int[this.size * 2];
+            int firstPart = this.size - this.head;
+            System.arraycopy(this.rows, this.head, rows, 0, firstPart);
+            System.arraycopy(this.rows, 0, rows, firstPart, this.head);
+            this.rows = rows;
+            this.head = 0;
+        }
+        this.rows[(this.head + this.size) & (this.rows.length - 1)] = row;
+        this.size++;
+    }
+
+    @Override
+    public int poll() {
+        if(this.size == 0){
+            return NONE;
+        }
+        int row = this.rows[this.head];
+        this.head = (this.head + 1) & (this.rows.length - 1);
+        this.size--;
+        return row;
+    }
+
+    @Override
+    public int peek() {
+        return this.size == 0 ? NONE : this.rows[this.head];
+    }
+
+    //a method that removes the last process added and returns its row (NONE if the queue is empty)
+    public int pollLast(){
+        if(this.size == 0){
+            return NONE;
+        }
+        this.size--;
+        return this.rows[(this.head + this.size) & (this.rows.length - 1)];
+    }
+
+    //the last process of a FIFO queue is the one that would wait the longest for this cpu
+    @Override
+    public int pollForMigration() {
+        return pollLast();
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public void clear() {
+        this.head = 0;
+        this.size = 0;
+    }
+
+    //visits the processes in the order they leave the queue
+    @Override
+    public void forEach(IntConsumer action) {
+        for(int i = 0; i < this.size; i++){
+            action.accept(this.rows[(this.head + i) & (this.rows.length - 1)]);
+        }
+    }
+
+    @Override
+    public int[] toArray() {
+        int[] rows = new int[this.size];
+        for(int i = 0; i < this.size; i++){
+            rows[i] = this.rows[(this.head + i) & (this.rows.length - 1)];
+        }
+        return rows;
+    }
+}
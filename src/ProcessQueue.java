@@ -0,0 +1,45 @@
+import java.util.function.IntConsumer;
+
+/**
+ * A queue of processes (a ready queue or the queue of an io device) that holds the rows of the processes in their
+ * ProcessStateTable instead of objects, the queues that order processes on their state read it from the table they
+ * are attached to
+ */
+public interface ProcessQueue {
+
+    //NONE: the row returned by poll and peek when the queue is empty
+    int NONE = -1;
+
+    //a method that gives the queue the table the rows it holds are in (called before any row is added)
+    default void attach(ProcessStateTable processes){}
+
+    //a method that adds the process in a row to the queue
+    void add(int row);
+
+    //a method that removes the next process from the queue and returns its row (NONE if the queue is empty)
+    int poll();
+
+    //a method that returns the row of the next process without removing it (NONE if the queue is empty)
+    int peek();
+
+    int size();
+
+    default boolean isEmpty(){
+        return size() == 0;
+    }
+
+    void clear();
+
+    //a method that removes the process a load balancer moves to another cpu's queue and returns its row (the next one
+    //unless the queue says otherwise)
+    default int pollForMigration(){
+        return poll();
+    }
+
+    //a method that passes the row of every process in the queue to action, in no particular order
+    void forEach(IntConsumer action);
+
+    //a method that returns the rows in the queue in the order that rebuilds it when they are added back to an empty
+    //queue of the same kind (used to write checkpoints)
+    int[] toArray();
+}
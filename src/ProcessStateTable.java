@@ -0,0 +1,421 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Holds the state of the processes of one run that are in the system (arrived and not finished) in parallel primitive
+ * columns, one row per process, the definitions of the processes are read from a ProcessTable that can be shared by
+ * any number of runs
+ *
+ * A process gets a row when it arrives and gives it back when it finishes, the rows given back are reused by the next
+ * processes to arrive so the table only grows with the number of processes in the system at once, not with the number
+ * of processes run. Every row has one CPUProcess view made when the row is, which is the view of whichever process
+ * holds the row, so the queues hold rows and nothing is allocated per process
+ */
+public class ProcessStateTable {
+
+    //INITIAL_CAPACITY: the number of rows the columns have room for before they first grow
+    private static final int INITIAL_CAPACITY = 16;
+
+    //definitions: the definitions of the processes (ids, execution times, weights and io requests)
+    private ProcessTable definitions;
+    //size: the number of rows holding a process
+    private int size = 0;
+    //rowCount: the number of rows handed out so far (rows from rowCount on have never held a process)
+    private int rowCount = 0;
+    //freeRows and freeCount: the rows given back by finished processes, reused before new rows are handed out
+    private int[] freeRows = new int[INITIAL_CAPACITY];
+    private int freeCount = 0;
+    //views: the view of each row
+    private CPUProcess[] views = new CPUProcess[INITIAL_CAPACITY];
+    //processIndex: the process index of the process in each row (-1 if the row is free)
+    private int[] processIndex = new int[INITIAL_CAPACITY];
+    //arrivalTime: the time at which each process arrives at the readyQueue (again after every io request)
+    private int[] arrivalTime = new int[INITIAL_CAPACITY];
+    //totalExecTime: the total amount of time that each process must be on the cpu for
+    private int[] totalExecTime = new int[INITIAL_CAPACITY];
+    //weight: the share of the cpu each process is entitled to relative to the others (used by the CFS strategy)
+    private int[] weight = new int[INITIAL_CAPACITY];
+    //execTime: the amount of time each process has been on the cpu for
+    private int[] execTime = new int[INITIAL_CAPACITY];
+    //remainingTime: the amount of time remaining on the cpu until each process finishes execution
+    private int[] remainingTime = new int[INITIAL_CAPACITY];
+    //turnaroundTime: the amount of time it takes for each process to complete once it arrives at the readyQueue
+    private int[] turnaroundTime = new int[INITIAL_CAPACITY];
+    //waiting: the amount of time each process has been waiting for a cpu or io device
+    private int[] waiting = new int[INITIAL_CAPACITY];
+    //responseTime: the amount of time it took for each process to start executing after it arrived at the readyQueue
+    private int[] responseTime = new int[INITIAL_CAPACITY];
+    //qElapsed: the amount of time each process has been on the cpu for the current stage
+    private int[] qElapsed = new int[INITIAL_CAPACITY];
+    //ioTime: the time at which each process is at during it's current io execution (0 if not performing io)
+    private int[] ioTime = new int[INITIAL_CAPACITY];
+    //queuedSince: the time from which each process has been waiting in the ready queue or the io queue
+    private int[] queuedSince = new int[INITIAL_CAPACITY];
+    //vruntime: the virtual runtime of each process (used by the CFS strategy)
+    private long[] vruntime = new long[INITIAL_CAPACITY];
+    //priority: the priority level of each process (used by the MLFQ strategy, 0 is the highest)
+    private int[] priority = new int[INITIAL_CAPACITY];
+    //hasStarted: indicates whether each process has started executing or not
+    private boolean[] hasStarted = new boolean[INITIAL_CAPACITY];
+    //lastCPU: the id + 1 of the cpu each process last ran on (0 if it hasn't run yet)
+    private int[] lastCPU = new int[INITIAL_CAPACITY];
+    //lastRunEnd: the time at which each process last stopped running on a cpu (used to cool down its cache)
+    private int[] lastRunEnd = new int[INITIAL_CAPACITY];
+    //ioRequestTimes: the io request times of the process in each row one after the other, copied from the definitions
+    //when the process gets its row (the slices of the rows given back are dropped when the pool is compacted)
+    private int[] ioRequestTimes = new int[INITIAL_CAPACITY * 2];
+    //ioRequestTimesUsed: the number of ints used in ioRequestTimes
+    private int ioRequestTimesUsed = 0;
+    //ioDurations, ioDevices and ioBlocks: the duration, device and block of every io request, parallel to
+    //ioRequestTimes (null if the definitions have none)
+    private int[] ioDurations = null;
+    private int[] ioDevices = null;
+    private int[] ioBlocks = null;
+    //ioStart, ioCursor and ioEnd: the start of the slice of each row in ioRequestTimes, the position of its next io
+    //request and the end of its slice
+    private int[] ioStart = new int[INITIAL_CAPACITY];
+    private int[] ioCursor = new int[INITIAL_CAPACITY];
+    private int[] ioEnd = new int[INITIAL_CAPACITY];
+    //ioRequest: the position in ioRequestTimes of the io request each process is waiting on or performing
+    private int[] ioRequest = new int[INITIAL_CAPACITY];
+
+    public ProcessStateTable(ProcessTable definitions){
+        this.definitions = definitions;
+    }
+
+    //a method that gives a row to a process that arrives, in the state it is in before it runs, and returns the row
+    public int acquire(int index){
+        int row;
+        if(this.freeCount > 0){
+            row = this.freeRows[--this.freeCount];
+        }
+        else{
+            if(this.rowCount == this.processIndex.length){
+                resize(this.rowCount + (this.rowCount >> 1));
+            }
+            row = this.rowCount++;
+            this.views[row] = new CPUProcess(this, row);
+        }
+        this.size++;
+        this.processIndex[row] = index;
+        this.arrivalTime[row] = this.definitions.getArrivalTime(index);
+        this.totalExecTime[row] = this.definitions.getTotalExecTime(index);
+        this.weight[row] = this.definitions.getWeight(index);
+        this.execTime[row] = 0;
+        this.remainingTime[row] = this.totalExecTime[row];
+        this.turnaroundTime[row] = 0;
+        this.waiting[row] = 0;
+        this.responseTime[row] = 0;
+        this.qElapsed[row] = 0;
+        this.ioTime[row] = 0;
+        this.queuedSince[row] = 0;
+        this.vruntime[row] = 0;
+        this.priority[row] = 0;
+        this.hasStarted[row] = false;
+        this.lastCPU[row] = 0;
+        this.lastRunEnd[row] = 0;
+
+        int count = this.definitions.getIoRequestCount(index);
+        if(this.ioRequestTimesUsed + count > this.ioRequestTimes.length){
+            compactIoPools(count);
+        }
+        if(this.ioDurations == null && this.definitions.hasIoAttributes()){
+            //the requests of the rows already in use have the default attributes
+            this.ioDurations = new int[this.ioRequestTimes.length];
+            Arrays.fill(this.ioDurations, ProcessTable.DEFAULT_IO_DURATION);
+            this.ioDevices = new int[this.ioRequestTimes.length];
+            this.ioBlocks = new int[this.ioRequestTimes.length];
+        }
+        this.definitions.copyIoRequests(index, this.ioRequestTimes, this.ioDurations, this.ioDevices, this.ioBlocks,
+                this.ioRequestTimesUsed);
+        this.ioStart[row] = this.ioRequestTimesUsed;
+        this.ioCursor[row] = this.ioRequestTimesUsed;
+        this.ioRequest[row] = this.ioRequestTimesUsed;
+        this.ioRequestTimesUsed += count;
+        this.ioEnd[row] = this.ioRequestTimesUsed;
+        return row;
+    }
+
+    //a method that gives back the row of a process that left the system, the row's view then refers to the next
+    //process to get the row
+    public void release(int row){
+        if(this.processIndex[row] < 0){
+            throw new IllegalArgumentException("Row " + row + " holds no process");
+        }
+        this.processIndex[row] = -1;
+        if(this.freeCount == this.freeRows.length){
+            this.freeRows = Arrays.copyOf(this.freeRows, this.freeCount * 2);
+        }
+        this.freeRows[this.freeCount++] = row;
+        this.size--;
+    }
+
+    //a method that gives back every row
+    public void clear(){
+        for(int row = 0; row < this.rowCount; row++){
+            if(this.processIndex[row] >= 0){
+                release(row);
+            }
+        }
+        this.ioRequestTimesUsed = 0;
+    }
+
+    //a method that copies the io requests of the rows in use to the start of pools with room for count more requests
+    //(the pools are only grown if the rows in use fill more than half of them)
+    private void compactIoPools(int count){
+        int live = 0;
+        for(int row = 0; row < this.rowCount; row++){
+            if(this.processIndex[row] >= 0){
+                live += this.ioEnd[row] - this.ioStart[row];
+            }
+        }
+        int capacity = Math.max(INITIAL_CAPACITY, 2 * (live + count));
+        if(capacity < this.ioRequestTimes.length){
+            capacity = this.ioRequestTimes.length;
+        }
+        int[] times = new int[capacity];
+        int[] durations = this.ioDurations == null ? null : new int[capacity];
+        int[] devices = this.ioDevices == null ? null : new int[capacity];
+        int[] blocks = this.ioBlocks == null ? null : new int[capacity];
+        int used = 0;
+        for(int row = 0; row < this.rowCount; row++){
+            if(this.processIndex[row] < 0){
+                continue;
+            }
+            int start = this.ioStart[row];
+            int length = this.ioEnd[row] - start;
+            System.arraycopy(this.ioRequestTimes, start, times, used, length);
+            if(durations != null){
+                System.arraycopy(this.ioDurations, start, durations, used, length);
+                System.arraycopy(this.ioDevices, start, devices, used, length);
+                System.arraycopy(this.ioBlocks, start, blocks, used, length);
+            }
+            int shift = used - start;
+            this.ioStart[row] += shift;
+            this.ioCursor[row] += shift;
+            this.ioEnd[row] += shift;
+            this.ioRequest[row] += shift;
+            used += length;
+        }
+        this.ioRequestTimes = times;
+        this.ioDurations = durations;
+        this.ioDevices = devices;
+        this.ioBlocks = blocks;
+        this.ioRequestTimesUsed = used;
+    }
+
+    //a method that copies every column into arrays of the given capacity
+    private void resize(int capacity){
+        this.views = Arrays.copyOf(this.views, capacity);
+        this.processIndex = Arrays.copyOf(this.processIndex, capacity);
+        this.arrivalTime = Arrays.copyOf(this.arrivalTime, capacity);
+        this.totalExecTime = Arrays.copyOf(this.totalExecTime, capacity);
+        this.weight = Arrays.copyOf(this.weight, capacity);
+        this.execTime = Arrays.copyOf(this.execTime, capacity);
+        this.remainingTime = Arrays.copyOf(this.remainingTime, capacity);
+        this.turnaroundTime = Arrays.copyOf(this.turnaroundTime, capacity);
+        this.waiting = Arrays.copyOf(this.waiting, capacity);
+        this.responseTime = Arrays.copyOf(this.responseTime, capacity);
+        this.qElapsed = Arrays.copyOf(this.qElapsed, capacity);
+        this.ioTime = Arrays.copyOf(this.ioTime, capacity);
+        this.queuedSince = Arrays.copyOf(this.queuedSince, capacity);
+        this.vruntime = Arrays.copyOf(this.vruntime, capacity);
+        this.priority = Arrays.copyOf(this.priority, capacity);
+        this.hasStarted = Arrays.copyOf(this.hasStarted, capacity);
+        this.lastCPU = Arrays.copyOf(this.lastCPU, capacity);
+        this.lastRunEnd = Arrays.copyOf(this.lastRunEnd, capacity);
+        this.ioStart = Arrays.copyOf(this.ioStart, capacity);
+        this.ioCursor = Arrays.copyOf(this.ioCursor, capacity);
+        this.ioEnd = Arrays.copyOf(this.ioEnd, capacity);
+        this.ioRequest = Arrays.copyOf(this.ioRequest, capacity);
+    }
+
+    //IO REQUESTS
+    //a method that indicates whether a process has io requests left
+    public boolean hasIoRequest(int row){
+        return this.ioCursor[row] < this.ioEnd[row];
+    }
+
+    //a method that returns the time of the next io request of a process (only valid if hasIoRequest)
+    public int getNextIoRequestTime(int row){
+        return this.ioRequestTimes[this.ioCursor[row]];
+    }
+
+    //a method that moves a process on to its next io request, the request it leaves is the one it performs next
+    //(see getIoDuration, getIoDevice and getIoBlock)
+    public void pollIoRequest(int row){
+        this.ioRequest[row] = this.ioCursor[row]++;
+    }
+
+    //a method that returns the duration of the io request a process is waiting on or performing
+    public int getIoDuration(int row){
+        return this.ioDurations == null ? ProcessTable.DEFAULT_IO_DURATION : this.ioDurations[this.ioRequest[row]];
+    }
+
+    //a method that returns the device of the io request a process is waiting on or performing
+    public int getIoDevice(int row){
+        return this.ioDevices == null ? 0 : this.ioDevices[this.ioRequest[row]];
+    }
+
+    //a method that returns the block (the position on the device) of the io request a process is waiting on or performing
+    public int getIoBlock(int row){
+        return this.ioBlocks == null ? 0 : this.ioBlocks[this.ioRequest[row]];
+    }
+
+    //a method that returns a copy of the io request times a process has left
+    public int[] getRemainingIoRequestTimes(int row){
+        return Arrays.copyOfRange(this.ioRequestTimes, this.ioCursor[row], this.ioEnd[row]);
+    }
+
+    //CHECKPOINTS
+    //a method that writes every row holding a process, with the columns that change while it runs (the ones that never
+    //change are read from the definitions when the checkpoint is restored), the io cursors are written relative to the
+    //end of its slice
+    public void writeCheckpoint(DataOutput out) throws IOException {
+        out.writeInt(this.size);
+        for(int row = 0; row < this.rowCount; row++){
+            if(this.processIndex[row] < 0){
+                continue;
+            }
+            out.writeInt(this.processIndex[row]);
+            out.writeInt(this.arrivalTime[row]);
+            out.writeInt(this.execTime[row]);
+            out.writeInt(this.remainingTime[row]);
+            out.writeInt(this.turnaroundTime[row]);
+            out.writeInt(this.waiting[row]);
+            out.writeInt(this.responseTime[row]);
+            out.writeInt(this.qElapsed[row]);
+            out.writeInt(this.ioTime[row]);
+            out.writeInt(this.queuedSince[row]);
+            out.writeLong(this.vruntime[row]);
+            out.writeInt(this.priority[row]);
+            out.writeBoolean(this.hasStarted[row]);
+            out.writeInt(this.lastCPU[row]);
+            out.writeInt(this.lastRunEnd[row]);
+            out.writeInt(this.ioEnd[row] - this.ioCursor[row]);
+            out.writeInt(this.ioEnd[row] - this.ioRequest[row]);
+        }
+    }
+
+    //a method that reads the processes written by writeCheckpoint into rows of their own and puts the row of each of
+    //them in rows by process index (the processes must not be in the table already)
+    public void readCheckpoint(DataInput in, Map<Integer, Integer> rows) throws IOException {
+        int count = in.readInt();
+        if(count < 0){
+            throw new IOException("the checkpoint has " + count + " processes in the system");
+        }
+        for(int i = 0; i < count; i++){
+            int index = in.readInt();
+            if(index < this.definitions.getBase() || index >= this.definitions.size()){
+                throw new IOException("the checkpoint refers to process " + index + " which isn't in the workload");
+            }
+            if(rows.containsKey(index)){
+                throw new IOException("the checkpoint has process " + index + " in the system twice");
+            }
+            int row = acquire(index);
+            rows.put(index, row);
+            this.arrivalTime[row] = in.readInt();
+            this.execTime[row] = in.readInt();
+            this.remainingTime[row] = in.readInt();
+            this.turnaroundTime[row] = in.readInt();
+            this.waiting[row] = in.readInt();
+            this.responseTime[row] = in.readInt();
+            this.qElapsed[row] = in.readInt();
+            this.ioTime[row] = in.readInt();
+            this.queuedSince[row] = in.readInt();
+            this.vruntime[row] = in.readLong();
+            this.priority[row] = in.readInt();
+            this.hasStarted[row] = in.readBoolean();
+            this.lastCPU[row] = in.readInt();
+            this.lastRunEnd[row] = in.readInt();
+            int cursor = this.ioEnd[row] - in.readInt();
+            int request = this.ioEnd[row] - in.readInt();
+            if(cursor < this.ioStart[row] || cursor > this.ioEnd[row] || request < this.ioStart[row] ||
+                    request > this.ioEnd[row]){
+                throw new IOException("the checkpoint has io requests process " + index + " doesn't have");
+            }
+            this.ioCursor[row] = cursor;
+            this.ioRequest[row] = request;
+        }
+    }
+
+    //GETTERS
+    //returns the number of rows holding a process
+    public int size(){ return this.size; }
+
+    public ProcessTable getDefinitions(){ return this.definitions; }
+
+    //returns the view of the process in a row
+    public CPUProcess view(int row){ return this.views[row]; }
+
+    public int getProcessIndex(int row){ return this.processIndex[row]; }
+
+    public String getProcessID(int row){ return this.definitions.getProcessID(this.processIndex[row]); }
+
+    public int getArrivalTime(int row){ return this.arrivalTime[row]; }
+
+    public int getTotalExecTime(int row){ return this.totalExecTime[row]; }
+
+    public int getExecTime(int row){ return this.execTime[row]; }
+
+    public int getRemainingTime(int row){ return this.remainingTime[row]; }
+
+    public int getTurnaroundTime(int row){ return this.turnaroundTime[row]; }
+
+    public int getWaiting(int row){ return this.waiting[row]; }
+
+    public int getResponseTime(int row){ return this.responseTime[row]; }
+
+    public int getqElapsed(int row){ return this.qElapsed[row]; }
+
+    public int getIoTime(int row){ return this.ioTime[row]; }
+
+    public int getQueuedSince(int row){ return this.queuedSince[row]; }
+
+    public int getWeight(int row){ return this.weight[row]; }
+
+    public long getVruntime(int row){ return this.vruntime[row]; }
+
+    public int getPriority(int row){ return this.priority[row]; }
+
+    public boolean hasStarted(int row){ return this.hasStarted[row]; }
+
+    //returns the id of the cpu the process last ran on (-1 if it hasn't run yet)
+    public int getLastCPU(int row){ return this.lastCPU[row] - 1; }
+
+    public int getLastRunEnd(int row){ return this.lastRunEnd[row]; }
+
+    //SETTERS
+    public void setArrivalTime(int row, int arrivalTime){ this.arrivalTime[row] = arrivalTime; }
+
+    public void setExecTime(int row, int execTime){ this.execTime[row] = execTime; }
+
+    public void setRemainingTime(int row, int remainingTime){ this.remainingTime[row] = remainingTime; }
+
+    public void setTurnaroundTime(int row, int turnaroundTime){ this.turnaroundTime[row] = turnaroundTime; }
+
+    public void setWaiting(int row, int waiting){ this.waiting[row] = waiting; }
+
+    public void setResponseTime(int row, int responseTime){ this.responseTime[row] = responseTime; }
+
+    public void setqElapsed(int row, int qElapsed){ this.qElapsed[row] = qElapsed; }
+
+    public void setIoTime(int row, int ioTime){ this.ioTime[row] = ioTime; }
+
+    public void setQueuedSince(int row, int queuedSince){ this.queuedSince[row] = queuedSince; }
+
+    public void setVruntime(int row, long vruntime){ this.vruntime[row] = vruntime; }
+
+    public void setPriority(int row, int priority){ this.priority[row] = priority; }
+
+    public void setHasStarted(int row, boolean hasStarted){ this.hasStarted[row] = hasStarted; }
+
+    //a method that records that the process ran on the cpu until the given time
+    public void setLastRun(int row, int cpuID, int lastRunEnd){
+        this.lastCPU[row] = cpuID + 1;
+        this.lastRunEnd[row] = lastRunEnd;
+    }
+}
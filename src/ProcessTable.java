@@ -0,0 +1,372 @@
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Holds the definitions of the processes of a workload (what the input says about them, which never changes while they
+ * run) in parallel primitive columns addressed by process index instead of one object per process, the state of the
+ * processes of a run lives in a ProcessStateTable that only has rows for the processes in the system
+ *
+ * The process ids are kept as utf-8 bytes in a shared pool and the io request times of every process are a sorted
+ * slice of a shared int pool, the duration, device and block of every io request are kept in pools parallel to the io
+ * request times that are only allocated once a request that doesn't use the defaults is added, and the weights are only
+ * allocated once a process that doesn't have the default weight is added
+ *
+ * A streamed workload can discard the definitions of the processes that arrived (see discardBefore), only their ids
+ * are kept so that the charts and reports can still name them
+ */
+public class ProcessTable {
+
+    //INITIAL_CAPACITY: the number of processes the columns have room for before they first grow
+    private static final int INITIAL_CAPACITY = 16;
+    //DEFAULT_WEIGHT: the weight of a process whose weight isn't given in the input (the weight of a nice 0 linux task)
+    public static final int DEFAULT_WEIGHT = 1024;
+    //DEFAULT_IO_DURATION: the number of time units an io request lasts when its duration isn't given in the input
+    public static final int DEFAULT_IO_DURATION = 2;
+
+    //size: the number of processes in the table
+    private int size = 0;
+    //base: the index of the first process whose definition is kept (the columns below idStart are indexed by
+    //process index - base)
+    private int base = 0;
+    //idBytes: the utf-8 bytes of every process id one after the other
+    private byte[] idBytes = new byte[INITIAL_CAPACITY * 8];
+    //idBytesUsed: the number of bytes used in idBytes
+    private int idBytesUsed = 0;
+    //idStart: where the id of each process starts in idBytes (it ends where the id of the next process starts)
+    private int[] idStart = new int[INITIAL_CAPACITY];
+    //arrivalTime: the time at which each process arrives at the readyQueue
+    private int[] arrivalTime = new int[INITIAL_CAPACITY];
+    //totalExecTime: the total amount of time that each process must be on the cpu for
+    private int[] totalExecTime = new int[INITIAL_CAPACITY];
+    //weight: the share of the cpu each process is entitled to relative to the others (null while every process has
+    //DEFAULT_WEIGHT)
+    private int[] weight = null;
+    //ioRequestTimes: the io request times of every process one after the other (sorted within each process)
+    private int[] ioRequestTimes = new int[INITIAL_CAPACITY * 2];
+    //ioRequestTimesUsed: the number of ints used in ioRequestTimes
+    private int ioRequestTimesUsed = 0;
+    //ioDurations, ioDevices and ioBlocks: the duration, device and block of every io request, parallel to
+    //ioRequestTimes (null until a request that doesn't last DEFAULT_IO_DURATION on block 0 of device 0 is added)
+    private int[] ioDurations = null;
+    private int[] ioDevices = null;
+    private int[] ioBlocks = null;
+    //numOfIoDevices: the number of io devices the io requests of the processes need (the highest device id + 1)
+    private int numOfIoDevices = 1;
+    //ioEnd: the end of the slice of each process in ioRequestTimes (it starts where the slice of the previous process ends)
+    private int[] ioEnd = new int[INITIAL_CAPACITY];
+
+    public ProcessTable(){
+    }
+
+    //a method that adds a process to the table and returns its index, the id is read from idLength bytes of id
+    //starting at idOffset and the io request times from ioCount ints of io starting at ioOffset (they must be sorted)
+    public int add(byte[] id, int idOffset, int idLength, int arrivalTime, int totalExecTime,
+                   int[] io, int ioOffset, int ioCount){
+        return add(id, idOffset, idLength, arrivalTime, totalExecTime, DEFAULT_WEIGHT, io, ioOffset, ioCount);
+    }
+
+    //a method that adds a process with the given weight to the table and returns its index
+    public int add(byte[] id, int idOffset, int idLength, int arrivalTime, int totalExecTime, int weight,
+                   int[] io, int ioOffset, int ioCount){
+        return add(id, idOffset, idLength, arrivalTime, totalExecTime, weight, io, null, null, null, ioOffset, ioCount);
+    }
+
+    //a method that adds a process with the given weight to the table and returns its index, the duration, device and
+    //block of each io request are read from ioDurations, ioDevices and ioBlocks in parallel with io (any of them can
+    //be null to use the defaults)
+    public int add(byte[] id, int idOffset, int idLength, int arrivalTime, int totalExecTime, int weight,
+                   int[] io, int[] ioDurations, int[] ioDevices, int[] ioBlocks, int ioOffset, int ioCount){
+        if(weight < 1){
+            throw new IllegalArgumentException("The weight of a process must be positive");
+        }
+        if(this.size == this.idStart.length){
+            this.idStart = Arrays.copyOf(this.idStart, grownCapacity(this.idStart.length));
+        }
+        if(this.size - this.base == this.arrivalTime.length){
+            resize(grownCapacity(this.arrivalTime.length));
+        }
+        int index = this.size++;
+        int row = index - this.base;
+
+        if(this.idBytesUsed + idLength > this.idBytes.length){
+            this.idBytes = Arrays.copyOf(this.idBytes, Math.max(this.idBytes.length * 2, this.idBytesUsed + idLength));
+        }
+        System.arraycopy(id, idOffset, this.idBytes, this.idBytesUsed, idLength);
+        this.idStart[index] = this.idBytesUsed;
+        this.idBytesUsed += idLength;
+
+        if(this.ioRequestTimesUsed + ioCount > this.ioRequestTimes.length){
+            resizeIoPools(Math.max(this.ioRequestTimes.length * 2, this.ioRequestTimesUsed + ioCount));
+        }
+        System.arraycopy(io, ioOffset, this.ioRequestTimes, this.ioRequestTimesUsed, ioCount);
+        if(this.ioDurations == null && (ioDurations != null || ioDevices != null || ioBlocks != null)){
+            allocateIoAttributes();
+        }
+        if(this.ioDurations != null){
+            copyIoAttribute(ioDurations, DEFAULT_IO_DURATION, this.ioDurations, ioOffset, ioCount);
+            copyIoAttribute(ioDevices, 0, this.ioDevices, ioOffset, ioCount);
+            copyIoAttribute(ioBlocks, 0, this.ioBlocks, ioOffset, ioCount);
+            for(int i = 0; ioDevices != null && i < ioCount; i++){
+                this.numOfIoDevices = Math.max(this.numOfIoDevices, ioDevices[ioOffset + i] + 1);
+            }
+        }
+        this.ioRequestTimesUsed += ioCount;
+        this.ioEnd[row] = this.ioRequestTimesUsed;
+
+        this.arrivalTime[row] = arrivalTime;
+        this.totalExecTime[row] = totalExecTime;
+        if(this.weight == null && weight != DEFAULT_WEIGHT){
+            this.weight = new int[this.arrivalTime.length];
+            Arrays.fill(this.weight, DEFAULT_WEIGHT);
+        }
+        if(this.weight != null){
+            this.weight[row] = weight;
+        }
+        return index;
+    }
+
+    //a method that adds a process to the table and returns its index (the io request times can be in any order)
+    public int add(String processID, int arrivalTime, int totalExecTime, int[] ioRequestTimes){
+        byte[] id = processID.getBytes(StandardCharsets.UTF_8);
+        int[] io = ioRequestTimes.clone();
+        Arrays.sort(io);
+        return add(id, 0, id.length, arrivalTime, totalExecTime, io, 0, io.length);
+    }
+
+    //a method that allocates the io attribute pools, the requests already in the table get the default attributes
+    private void allocateIoAttributes(){
+        this.ioDurations = new int[this.ioRequestTimes.length];
+        Arrays.fill(this.ioDurations, DEFAULT_IO_DURATION);
+        this.ioDevices = new int[this.ioRequestTimes.length];
+        this.ioBlocks = new int[this.ioRequestTimes.length];
+    }
+
+    //a method that copies the attribute of ioCount io requests into its pool (or the default if source is null)
+    private void copyIoAttribute(int[] source, int defaultValue, int[] pool, int offset, int count){
+        if(source == null){
+            Arrays.fill(pool, this.ioRequestTimesUsed, this.ioRequestTimesUsed + count, defaultValue);
+        }
+        else{
+            System.arraycopy(source, offset, pool, this.ioRequestTimesUsed, count);
+        }
+    }
+
+    //a method that drops the definitions (but not the ids) of the processes before the given index, whose rows in the
+    //state table of a streamed run were made when they arrived (the definitions that are kept are moved to the start
+    //of the columns, a scheduler only keeps the few that haven't arrived yet)
+    public void discardBefore(int index){
+        if(index <= this.base){
+            return;
+        }
+        if(index > this.size){
+            throw new IllegalArgumentException("The table only has " + this.size + " processes");
+        }
+        int discarded = index - this.base;
+        int kept = this.size - index;
+        int ioDiscarded = this.ioEnd[discarded - 1];
+        System.arraycopy(this.arrivalTime, discarded, this.arrivalTime, 0, kept);
+        System.arraycopy(this.totalExecTime, discarded, this.totalExecTime, 0, kept);
+        if(this.weight != null){
+            System.arraycopy(this.weight, discarded, this.weight, 0, kept);
+        }
+        for(int row = 0; row < kept; row++){
+            this.ioEnd[row] = this.ioEnd[discarded + row] - ioDiscarded;
+        }
+        this.ioRequestTimesUsed -= ioDiscarded;
+        System.arraycopy(this.ioRequestTimes, ioDiscarded, this.ioRequestTimes, 0, this.ioRequestTimesUsed);
+        if(this.ioDurations != null){
+            System.arraycopy(this.ioDurations, ioDiscarded, this.ioDurations, 0, this.ioRequestTimesUsed);
+            System.arraycopy(this.ioDevices, ioDiscarded, this.ioDevices, 0, this.ioRequestTimesUsed);
+            System.arraycopy(this.ioBlocks, ioDiscarded, this.ioBlocks, 0, this.ioRequestTimesUsed);
+        }
+        this.base = index;
+    }
+
+    //a method that shrinks every column (and the id and io pools) to the number of processes in the table
+    public void trimToSize(){
+        if(this.idStart.length != this.size){
+            this.idStart = Arrays.copyOf(this.idStart, this.size);
+        }
+        if(this.arrivalTime.length != this.size - this.base){
+            resize(this.size - this.base);
+        }
+        if(this.idBytes.length != this.idBytesUsed){
+            this.idBytes = Arrays.copyOf(this.idBytes, this.idBytesUsed);
+        }
+        if(this.ioRequestTimes.length != this.ioRequestTimesUsed){
+            resizeIoPools(this.ioRequestTimesUsed);
+        }
+    }
+
+    //a method that returns the capacity a column grows to, by half (rather than doubling it, so less room is left
+    //unused in tables of millions of processes)
+    private static int grownCapacity(int capacity){
+        return Math.max(capacity + (capacity >> 1), INITIAL_CAPACITY);
+    }
+
+    //a method that copies every column kept for the processes from base on into arrays of the given capacity
+    private void resize(int capacity){
+        this.arrivalTime = Arrays.copyOf(this.arrivalTime, capacity);
+        this.totalExecTime = Arrays.copyOf(this.totalExecTime, capacity);
+        if(this.weight != null){
+            int oldLength = this.weight.length;
+            this.weight = Arrays.copyOf(this.weight, capacity);
+            if(capacity > oldLength){
+                Arrays.fill(this.weight, oldLength, capacity, DEFAULT_WEIGHT);
+            }
+        }
+        this.ioEnd = Arrays.copyOf(this.ioEnd, capacity);
+    }
+
+    //a method that copies the io request times (and their attributes) into pools of the given capacity
+    private void resizeIoPools(int capacity){
+        this.ioRequestTimes = Arrays.copyOf(this.ioRequestTimes, capacity);
+        if(this.ioDurations != null){
+            this.ioDurations = Arrays.copyOf(this.ioDurations, capacity);
+            this.ioDevices = Arrays.copyOf(this.ioDevices, capacity);
+            this.ioBlocks = Arrays.copyOf(this.ioBlocks, capacity);
+        }
+    }
+
+    //a method that returns a read only list of the process ids indexed by process index (ids are decoded when read)
+    public List<String> getProcessIDs(){
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return getProcessID(index);
+            }
+
+            @Override
+            public int size() {
+                return ProcessTable.this.size;
+            }
+        };
+    }
+
+    //IO REQUESTS
+    //a method that indicates whether the io requests of the processes have a duration, device or block
+    public boolean hasIoAttributes(){
+        return this.ioDurations != null;
+    }
+
+    //a method that returns a copy of the io request times of a process
+    public int[] getIoRequestTimes(int index){
+        int row = index - this.base;
+        return Arrays.copyOfRange(this.ioRequestTimes, ioStart(row), this.ioEnd[row]);
+    }
+
+    //a method that returns the number of io requests of a process
+    public int getIoRequestCount(int index){
+        int row = index - this.base;
+        return this.ioEnd[row] - ioStart(row);
+    }
+
+    //a method that copies the time, duration, device and block of every io request of a process to the start of the
+    //given arrays, which must have room for getIoRequestCount ints, returns whether any request doesn't last
+    //DEFAULT_IO_DURATION on block 0 of device 0
+    public boolean copyIoRequests(int index, int[] times, int[] durations, int[] devices, int[] blocks){
+        copyIoRequests(index, times, durations, devices, blocks, 0);
+        int count = getIoRequestCount(index);
+        boolean attributes = false;
+        for(int i = 0; i < count; i++){
+            attributes |= durations[i] != DEFAULT_IO_DURATION || devices[i] != 0 || blocks[i] != 0;
+        }
+        return attributes;
+    }
+
+    //a method that copies the time, duration, device and block of every io request of a process to the given arrays
+    //starting at offset (the durations, devices and blocks are left out if their array is null)
+    public void copyIoRequests(int index, int[] times, int[] durations, int[] devices, int[] blocks, int offset){
+        int row = index - this.base;
+        int start = ioStart(row);
+        int count = this.ioEnd[row] - start;
+        System.arraycopy(this.ioRequestTimes, start, times, offset, count);
+        copyIoAttribute(this.ioDurations, DEFAULT_IO_DURATION, start, durations, offset, count);
+        copyIoAttribute(this.ioDevices, 0, start, devices, offset, count);
+        copyIoAttribute(this.ioBlocks, 0, start, blocks, offset, count);
+    }
+
+    //a method that copies count attributes of a pool starting at start to target (or the default if pool is null)
+    private static void copyIoAttribute(int[] pool, int defaultValue, int start, int[] target, int offset, int count){
+        if(target == null){
+            return;
+        }
+        if(pool == null){
+            Arrays.fill(target, offset, offset + count, defaultValue);
+        }
+        else{
+            System.arraycopy(pool, start, target, offset, count);
+        }
+    }
+
+    //a method that returns where the io requests of a process (by its row in the columns) start in ioRequestTimes
+    //(the processes are added one after the other so the slice of a process starts where the one of the previous
+    //process ends)
+    private int ioStart(int row){
+        return row == 0 ? 0 : this.ioEnd[row - 1];
+    }
+
+    //TRACES
+    //a method that returns the number of utf-8 bytes of the id of a process
+    public int getProcessIDLength(int index){
+        return idEnd(index) - this.idStart[index];
+    }
+
+    //a method that copies the utf-8 bytes of the id of a process to the start of bytes (which must have room for them)
+    public void copyProcessID(int index, byte[] bytes){
+        System.arraycopy(this.idBytes, this.idStart[index], bytes, 0, getProcessIDLength(index));
+    }
+
+    //a method that returns where the id of a process ends in idBytes
+    private int idEnd(int index){
+        return index + 1 == this.size ? this.idBytesUsed : this.idStart[index + 1];
+    }
+
+    //RESULT CACHE
+    //a method that writes the definition of every process (its id, arrival time, execution time, weight and every io
+    //request with its duration, device and block), two tables write the same bytes only if they hold the same workload
+    //(see ResultCache)
+    public void writeDefinitions(DataOutput out) throws IOException {
+        if(this.base > 0){
+            throw new IllegalStateException("The definitions of the processes that arrived were discarded");
+        }
+        out.writeInt(this.size);
+        for(int index = 0; index < this.size; index++){
+            out.writeInt(getProcessIDLength(index));
+            out.write(this.idBytes, this.idStart[index], getProcessIDLength(index));
+            out.writeInt(this.arrivalTime[index]);
+            out.writeInt(this.totalExecTime[index]);
+            out.writeInt(getWeight(index));
+            int start = ioStart(index);
+            out.writeInt(this.ioEnd[index] - start);
+            for(int i = start; i < this.ioEnd[index]; i++){
+                out.writeInt(this.ioRequestTimes[i]);
+                out.writeInt(this.ioDurations == null ? DEFAULT_IO_DURATION : this.ioDurations[i]);
+                out.writeInt(this.ioDevices == null ? 0 : this.ioDevices[i]);
+                out.writeInt(this.ioBlocks == null ? 0 : this.ioBlocks[i]);
+            }
+        }
+    }
+
+    //GETTERS
+    public int size(){ return this.size; }
+
+    //returns the index of the first process whose definition is kept (0 unless some were discarded)
+    public int getBase(){ return this.base; }
+
+    public int getNumOfIoDevices(){ return this.numOfIoDevices; }
+
+    public String getProcessID(int index){
+        return new String(this.idBytes, this.idStart[index], getProcessIDLength(index), StandardCharsets.UTF_8);
+    }
+
+    public int getArrivalTime(int index){ return this.arrivalTime[index - this.base]; }
+
+    public int getTotalExecTime(int index){ return this.totalExecTime[index - this.base]; }
+
+    public int getWeight(int index){ return this.weight == null ? DEFAULT_WEIGHT : this.weight[index - this.base]; }
+}
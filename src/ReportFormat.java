@@ -0,0 +1,14 @@
+/**
+ * The formats in which a ReportWriter can export the results of a simulation
+ */
+public enum ReportFormat {
+    //TEXT: the human readable report with gantt charts that scheduleProcesses() prints
+    TEXT,
+    //CSV: one comma separated record per chart interval, per process and per utilization figure
+    CSV,
+    //JSON_LINES: the same records as CSV with one JSON object per line
+    JSON_LINES,
+    //BINARY: the same records as CSV as varints in deflated blocks (written to an OutputStream, see
+    //ReportWriter.writeFromBinary to turn them back into CSV or JSON lines)
+    BINARY
+}
@@ -0,0 +1,483 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streams the results of a simulation (cpu charts, io chart and per process statistics) to an Appendable in a single
+ * pass, nothing is buffered so the size of the report does not limit the length of the simulation that can be exported
+ *
+ * The BINARY format starts with BINARY_MAGIC and BINARY_VERSION followed by the blocks of a BinaryBlockOutput, every
+ * record starts with its type: the id of a process the first time it is referred to (NAME_RECORD), the resource of
+ * the intervals that follow it (RESOURCE_RECORD), an interval (start as a difference from the end of the previous
+ * interval, length and process index + 1, 0 when idle and the number of processes + 1 for switch overhead), the times
+ * of a finished process and a figure, the records must be read in order
+ */
+public class ReportWriter {
+
+    //PERCENTILES: the percentiles of the waiting, turnaround and response times that are reported
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    //CSV_HEADER: the column names of the CSV format
+    private static final String CSV_HEADER = "record,resource,process,start,length,waiting,turnaround,response,value";
+    //BINARY_MAGIC and BINARY_VERSION: the first two ints of a binary report
+    public static final int BINARY_MAGIC = 0x43505252;
+    public static final int BINARY_VERSION = 1;
+    //NAME_RECORD, RESOURCE_RECORD, INTERVAL_RECORD, PROCESS_RECORD and VALUE_RECORD: the types of the binary records
+    private static final int NAME_RECORD = 0;
+    private static final int RESOURCE_RECORD = 1;
+    private static final int INTERVAL_RECORD = 2;
+    private static final int PROCESS_RECORD = 3;
+    private static final int VALUE_RECORD = 4;
+
+    //out: where the report is written to (null in the BINARY format)
+    private Appendable out;
+    //format: the format the report is written in
+    private ReportFormat format;
+    //binaryOut: where the BINARY report is written to (null in the other formats)
+    private OutputStream binaryOut = null;
+    //binary: the blocks of the BINARY report being written
+    private BinaryBlockOutput binary = null;
+    //namesWritten: the indexes of the processes whose id was written to the BINARY report
+    private BitSet namesWritten = null;
+    //overheadIndex: the process index the switch overhead of the cpu charts is written under in the BINARY report
+    private int overheadIndex;
+
+    //a constructor that writes the report to out in the TEXT, CSV or JSON_LINES format
+    public ReportWriter(Appendable out, ReportFormat format){
+        if(format == ReportFormat.BINARY){
+            throw new IllegalArgumentException("A binary report is written to an OutputStream");
+        }
+        this.out = out;
+        this.format = format;
+    }
+
+    //a constructor that writes the report to out in the BINARY format
+    public ReportWriter(OutputStream out){
+        this.binaryOut = out;
+        this.format = ReportFormat.BINARY;
+    }
+
+    //a method that writes the report of a completed simulation
+    public void write(SchedulerStrategy scheduler) throws IOException {
+        switch(this.format){
+            case TEXT:
+                writeText(scheduler);
+                break;
+            case CSV:
+                this.out.append(CSV_HEADER).append('\n');
+                writeRecords(scheduler);
+                break;
+            case BINARY:
+                writeBinary(scheduler);
+                break;
+            default:
+                writeRecords(scheduler);
+        }
+    }
+
+    //a method that writes the human readable report
+    private void writeText(SchedulerStrategy scheduler) throws IOException {
+        //the average waiting time
+        String avgWaitTime = String.format("%.2f", scheduler.calculateAvgWaitTime());
+        this.out.append("\nAverage Waiting Time: ").append(avgWaitTime).append(" time units\n");
+
+        //the cpu utilization and chart of each cpu individually
+        for(CPU cpu: scheduler.getCpus()){
+            String result = String.format("%.2f", cpu.calculateCPUUtilization());
+            this.out.append("\nCPU Utilization for CPU ").append(Integer.toString(cpu.getCpuID())).append(": ")
+                    .append(result).append("%\n");
+            if(scheduler.getSwitchCosts() != null){
+                this.out.append("Switch Overhead for CPU ").append(Integer.toString(cpu.getCpuID())).append(": ")
+                        .append(String.format("%.2f", cpu.calculateOverhead())).append("% (")
+                        .append(Integer.toString(cpu.getSwitches())).append(" switches)\n");
+            }
+            if(scheduler.isMultiQueue()){
+                this.out.append("Migrations for CPU ").append(Integer.toString(cpu.getCpuID())).append(": ")
+                        .append(Integer.toString(cpu.getMigrationsIn())).append(" in, ")
+                        .append(Integer.toString(cpu.getMigrationsOut())).append(" out, average queue length ")
+                        .append(String.format("%.2f", cpu.calculateAvgQueueLength())).append(", imbalance ")
+                        .append(String.format("%.2f", cpu.calculateAvgImbalance())).append('\n');
+            }
+            cpu.getTimeline().writeGantt(this.out);
+            this.out.append('\n');
+        }
+
+        //the io chart (when processes were completing io), or the utilization, queue depth and charts of every io
+        //device once they were configured
+        if(scheduler.isIODevicesConfigured() == false){
+            this.out.append("\nI/O Utilization\n");
+            scheduler.getIOChart().writeGantt(this.out);
+            this.out.append('\n');
+        }
+        else{
+            for(IODevice device: scheduler.getIODevices()){
+                this.out.append("\nI/O Utilization for Device ").append(Integer.toString(device.getDeviceID()))
+                        .append(": ").append(String.format("%.2f", device.calculateUtilization())).append("%\n");
+                this.out.append("Queue Depth for Device ").append(Integer.toString(device.getDeviceID()))
+                        .append(": average ").append(String.format("%.2f", device.calculateAvgQueueDepth()))
+                        .append(", maximum ").append(Integer.toString(device.getMaxQueueDepth())).append(" (")
+                        .append(device.getDiscipline().toString()).append(")\n");
+                for(int channel = 0; channel < device.getNumOfChannels(); channel++){
+                    this.out.append("Channel ").append(Integer.toString(channel)).append('\n');
+                    device.getTimeline(channel).writeGantt(this.out);
+                    this.out.append('\n');
+                }
+            }
+        }
+
+        //the average cpu utilization for all cpus
+        String result = String.format("%.2f", scheduler.calculateAvgCPUUtilization());
+        this.out.append("\nAverage CPU Utilization for all CPUs: ").append(result).append("%\n");
+        if(scheduler.getSwitchCosts() != null){
+            this.out.append("Average Switch Overhead for all CPUs: ")
+                    .append(String.format("%.2f", scheduler.calculateAvgOverhead())).append("% (")
+                    .append(scheduler.getSwitchCosts().toString()).append(")\n");
+        }
+
+        //the percentiles of the times of the finished processes
+        this.out.append('\n');
+        writePercentiles("Waiting Time", scheduler.getWaitingTimes());
+        writePercentiles("Turnaround Time", scheduler.getTurnaroundTimes());
+        writePercentiles("Response Time", scheduler.getResponseTimes());
+
+        //the fairness of the cfs strategy
+        if(scheduler instanceof SchedulerCFS){
+            SchedulerCFS cfs = (SchedulerCFS) scheduler;
+            this.out.append("\nMaximum Vruntime Spread: ").append(String.format("%.2f", cfs.calculateMaxVruntimeSpread()))
+                    .append(" time units\n");
+            for(Map.Entry<Integer, Double> share: cfs.calculateCpuShareByWeight().entrySet()){
+                this.out.append("CPU Share for Weight ").append(Integer.toString(share.getKey())).append(": ")
+                        .append(String.format("%.2f", share.getValue())).append("%\n");
+            }
+        }
+
+        //the turnaround time and response time of each process
+        FinishedProcesses finished = scheduler.getFinishedProcesses();
+        for(int i = 0; i < finished.size(); i++){
+            this.out.append("\nTurnaround Time for Process ").append(finished.getProcessID(i)).append(": ")
+                    .append(Integer.toString(finished.getTurnaroundTime(i))).append(" time units\n");
+            this.out.append("Response Time for Process ").append(finished.getProcessID(i)).append(": ")
+                    .append(Integer.toString(finished.getResponseTime(i))).append(" time units\n");
+        }
+    }
+
+    //a method that writes one line with the percentiles of a histogram
+    private void writePercentiles(String name, LatencyHistogram histogram) throws IOException {
+        this.out.append(name).append(" Percentiles:");
+        for(int i = 0; i < PERCENTILES.length; i++){
+            this.out.append(i == 0 ? " " : ", ").append(percentileName(PERCENTILES[i])).append(' ')
+                    .append(String.format("%.0f", histogram.calculatePercentile(PERCENTILES[i])));
+        }
+        this.out.append(" time units\n");
+    }
+
+    //a method that returns the name of a percentile (p50, p99.9...)
+    private static String percentileName(double percentile){
+        return percentile == Math.rint(percentile) ? "p" + (int) percentile : "p" + percentile;
+    }
+
+    //a method that writes the records of the report in the BINARY format
+    private void writeBinary(SchedulerStrategy scheduler) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(8);
+        header.putInt(BINARY_MAGIC).putInt(BINARY_VERSION);
+        this.binaryOut.write(header.array());
+        this.binary = new BinaryBlockOutput(Channels.newChannel(this.binaryOut), true);
+        this.namesWritten = new BitSet();
+        writeRecords(scheduler);
+        this.binary.finish();
+        this.binaryOut.flush();
+        this.binary = null;
+        this.namesWritten = null;
+    }
+
+    //a method that writes the records of a BINARY report file in this writer's format (CSV or JSON_LINES), giving the
+    //same output as writing the report of the simulation directly
+    public void writeFromBinary(String fileName) throws IOException {
+        if(this.format != ReportFormat.CSV && this.format != ReportFormat.JSON_LINES){
+            throw new IllegalStateException("Only CSV and JSON lines can be written from a binary report");
+        }
+        try(FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)){
+            ByteBuffer header = ByteBuffer.allocate(8);
+            while(header.hasRemaining() && channel.read(header) >= 0);
+            header.flip();
+            if(header.remaining() < 8 || header.getInt() != BINARY_MAGIC || header.getInt() != BINARY_VERSION){
+                throw new IOException(fileName + " is not a binary report of version " + BINARY_VERSION);
+            }
+            BinaryBlockInput in = new BinaryBlockInput(channel, 8);
+            try{
+                if(this.format == ReportFormat.CSV){
+                    this.out.append(CSV_HEADER).append('\n');
+                }
+                copyRecords(in);
+            }
+            catch(RuntimeException e){
+                throw new IOException(fileName + " is corrupt", e);
+            }
+            finally{
+                in.end();
+            }
+        }
+    }
+
+    //a method that writes the records read from a binary report
+    private void copyRecords(BinaryBlockInput in) throws IOException {
+        List<String> names = new ArrayList<>();
+        String resource = null;
+        int previousEnd = 0;
+        while(in.nextRecord()){
+            int record = in.readVarint();
+            switch(record){
+                case NAME_RECORD:
+                    int index = in.readVarint();
+                    while(names.size() <= index){
+                        names.add(null);
+                    }
+                    names.set(index, in.readString());
+                    break;
+                case RESOURCE_RECORD:
+                    resource = in.readString();
+                    previousEnd = 0;
+                    break;
+                case INTERVAL_RECORD:
+                    int start = previousEnd + in.readSignedVarint();
+                    int length = in.readVarint();
+                    int processIndex = in.readVarint() - 1;
+                    previousEnd = start + length;
+                    writeInterval(resource, processIndex == Timeline.IDLE ? null : names.get(processIndex), start, length);
+                    break;
+                case PROCESS_RECORD:
+                    String processID = names.get(in.readVarint());
+                    int waiting = in.readSignedVarint();
+                    int turnaround = in.readSignedVarint();
+                    writeProcess(processID, waiting, turnaround, in.readSignedVarint());
+                    break;
+                case VALUE_RECORD:
+                    String name = in.readString();
+                    String valueResource = in.readString();
+                    writeValue(name, valueResource, in.readDouble());
+                    break;
+                default:
+                    throw new IOException("Unknown record type " + record);
+            }
+        }
+    }
+
+    //a method that writes the report as CSV, JSON lines or binary records
+    private void writeRecords(SchedulerStrategy scheduler) throws IOException {
+        List<CPU> cpus = scheduler.getCpus();
+        //the switch overhead of the cpu charts is written to the BINARY format as the process after the last one
+        this.overheadIndex = scheduler.getProcessTable().size();
+        for(CPU cpu: cpus){
+            writeIntervals("cpu" + cpu.getCpuID(), cpu.getTimeline());
+        }
+        if(scheduler.isIODevicesConfigured() == false){
+            writeIntervals("io", scheduler.getIOChart());
+        }
+        else{
+            for(IODevice device: scheduler.getIODevices()){
+                for(int channel = 0; channel < device.getNumOfChannels(); channel++){
+                    writeIntervals("io" + device.getDeviceID() + "." + channel, device.getTimeline(channel));
+                }
+            }
+        }
+
+        FinishedProcesses finished = scheduler.getFinishedProcesses();
+        for(int i = 0; i < finished.size(); i++){
+            if(this.format == ReportFormat.BINARY){
+                writeName(finished.getProcessIndex(i), finished.getProcessID(i));
+                this.binary.writeVarint(PROCESS_RECORD);
+                this.binary.writeVarint(finished.getProcessIndex(i));
+                this.binary.writeSignedVarint(finished.getWaiting(i));
+                this.binary.writeSignedVarint(finished.getTurnaroundTime(i));
+                this.binary.writeSignedVarint(finished.getResponseTime(i));
+                this.binary.endRecord();
+            }
+            else{
+                writeProcess(finished.getProcessID(i), finished.getWaiting(i), finished.getTurnaroundTime(i),
+                        finished.getResponseTime(i));
+            }
+        }
+
+        for(CPU cpu: cpus){
+            writeValue("utilization", "cpu" + cpu.getCpuID(), cpu.calculateCPUUtilization());
+            if(scheduler.getSwitchCosts() != null){
+                writeValue("switch_overhead", "cpu" + cpu.getCpuID(), cpu.calculateOverhead());
+                writeValue("switches", "cpu" + cpu.getCpuID(), cpu.getSwitches());
+            }
+            if(scheduler.isMultiQueue()){
+                writeValue("migrations_in", "cpu" + cpu.getCpuID(), cpu.getMigrationsIn());
+                writeValue("migrations_out", "cpu" + cpu.getCpuID(), cpu.getMigrationsOut());
+                writeValue("average_queue_length", "cpu" + cpu.getCpuID(), cpu.calculateAvgQueueLength());
+                writeValue("imbalance", "cpu" + cpu.getCpuID(), cpu.calculateAvgImbalance());
+            }
+        }
+        if(scheduler.isIODevicesConfigured()){
+            for(IODevice device: scheduler.getIODevices()){
+                writeValue("io_utilization", "io" + device.getDeviceID(), device.calculateUtilization());
+                writeValue("average_queue_depth", "io" + device.getDeviceID(), device.calculateAvgQueueDepth());
+                writeValue("max_queue_depth", "io" + device.getDeviceID(), device.getMaxQueueDepth());
+            }
+        }
+        writeValue("utilization", "all", scheduler.calculateAvgCPUUtilization());
+        if(scheduler.getSwitchCosts() != null){
+            writeValue("switch_overhead", "all", scheduler.calculateAvgOverhead());
+        }
+        writeValue("average_waiting", "all", scheduler.calculateAvgWaitTime());
+        for(double percentile: PERCENTILES){
+            String name = percentileName(percentile);
+            writeValue("waiting_" + name, "all", scheduler.getWaitingTimes().calculatePercentile(percentile));
+            writeValue("turnaround_" + name, "all", scheduler.getTurnaroundTimes().calculatePercentile(percentile));
+            writeValue("response_" + name, "all", scheduler.getResponseTimes().calculatePercentile(percentile));
+        }
+        if(scheduler instanceof SchedulerCFS){
+            SchedulerCFS cfs = (SchedulerCFS) scheduler;
+            writeValue("vruntime_spread", "all", cfs.calculateMaxVruntimeSpread());
+            for(Map.Entry<Integer, Double> share: cfs.calculateCpuShareByWeight().entrySet()){
+                writeValue("cpu_share", "weight" + share.getKey(), share.getValue());
+            }
+        }
+    }
+
+    //a method that writes one record per interval of a chart
+    private void writeIntervals(String resource, Timeline chart) throws IOException {
+        if(this.format == ReportFormat.BINARY){
+            this.binary.writeVarint(RESOURCE_RECORD);
+            this.binary.writeString(resource);
+            this.binary.endRecord();
+        }
+        int previousEnd = 0;
+        for(int i = 0; i < chart.getIntervalCount(); i++){
+            int start = chart.getStart(i);
+            int length = chart.getLength(i);
+            int processIndex = chart.getProcessIndex(i);
+            if(this.format == ReportFormat.BINARY){
+                if(processIndex == Timeline.OVERHEAD)
+                    writeName(this.overheadIndex, Timeline.OVERHEAD_NAME);
+                else if(processIndex != Timeline.IDLE)
+                    writeName(processIndex, chart.nameOf(processIndex));
+                this.binary.writeVarint(INTERVAL_RECORD);
+                this.binary.writeSignedVarint(start - previousEnd);
+                this.binary.writeVarint(length);
+                this.binary.writeVarint((processIndex == Timeline.OVERHEAD ? this.overheadIndex : processIndex) + 1);
+                this.binary.endRecord();
+                previousEnd = start + length;
+            }
+            else{
+                writeInterval(resource, processIndex == Timeline.IDLE ? null : chart.nameOf(processIndex), start, length);
+            }
+        }
+    }
+
+    //a method that writes the id of a process to the BINARY report the first time it is referred to
+    private void writeName(int processIndex, String processID) throws IOException {
+        if(this.namesWritten.get(processIndex)){
+            return;
+        }
+        this.namesWritten.set(processIndex);
+        this.binary.writeVarint(NAME_RECORD);
+        this.binary.writeVarint(processIndex);
+        this.binary.writeString(processID);
+        this.binary.endRecord();
+    }
+
+    //a method that writes a CSV or JSON lines record for an interval of a chart (process is null when idle)
+    private void writeInterval(String resource, String process, int start, int length) throws IOException {
+        if(this.format == ReportFormat.CSV){
+            this.out.append("interval,").append(resource).append(',');
+            appendCsv(process == null ? "" : process);
+            this.out.append(',').append(Integer.toString(start)).append(',').append(Integer.toString(length))
+                    .append(",,,,\n");
+        }
+        else{
+            this.out.append("{\"record\":\"interval\",\"resource\":\"").append(resource).append("\",\"process\":");
+            if(process == null)
+                this.out.append("null");
+            else
+                appendJson(process);
+            this.out.append(",\"start\":").append(Integer.toString(start)).append(",\"length\":")
+                    .append(Integer.toString(length)).append("}\n");
+        }
+    }
+
+    //a method that writes a CSV or JSON lines record for the times of a finished process
+    private void writeProcess(String processID, int waiting, int turnaround, int response) throws IOException {
+        if(this.format == ReportFormat.CSV){
+            this.out.append("process,,");
+            appendCsv(processID);
+            this.out.append(",,,").append(Integer.toString(waiting))
+                    .append(',').append(Integer.toString(turnaround))
+                    .append(',').append(Integer.toString(response)).append(",\n");
+        }
+        else{
+            this.out.append("{\"record\":\"process\",\"process\":");
+            appendJson(processID);
+            this.out.append(",\"waiting\":").append(Integer.toString(waiting))
+                    .append(",\"turnaround\":").append(Integer.toString(turnaround))
+                    .append(",\"response\":").append(Integer.toString(response)).append("}\n");
+        }
+    }
+
+    //a method that writes a record holding a single figure
+    private void writeValue(String record, String resource, double value) throws IOException {
+        if(this.format == ReportFormat.BINARY){
+            this.binary.writeVarint(VALUE_RECORD);
+            this.binary.writeString(record);
+            this.binary.writeString(resource);
+            this.binary.writeDouble(value);
+            this.binary.endRecord();
+            return;
+        }
+        String formatted = String.format(Locale.ROOT, "%.2f", value);
+        if(this.format == ReportFormat.CSV){
+            this.out.append(record).append(',').append(resource).append(",,,,,,,").append(formatted).append('\n');
+        }
+        else{
+            this.out.append("{\"record\":\"").append(record).append("\",\"resource\":\"").append(resource)
+                    .append("\",\"value\":").append(Double.isNaN(value) ? "null" : formatted).append("}\n");
+        }
+    }
+
+    //a method that writes a CSV field, quoting it if it contains a separator or a quote
+    private void appendCsv(String field) throws IOException {
+        if(field.indexOf(',') < 0 && field.indexOf('"') < 0){
+            this.out.append(field);
+            return;
+        }
+        this.out.append('"');
+        for(int i = 0; i < field.length(); i++){
+            char c = field.charAt(i);
+            if(c == '"'){
+                this.out.append('"');
+            }
+            this.out.append(c);
+        }
+        this.out.append('"');
+    }
+
+    //a method that writes a JSON string
+    private void appendJson(String s) throws IOException {
+        this.out.append('"');
+        for(int i = 0; i < s.length(); i++){
+            char c = s.charAt(i);
+            if(c == '"' || c == '\\'){
+                this.out.append('\\').append(c);
+            }
+            else if(c < ' '){
+                this.out.append(String.format("\\u%04x", (int) c));
+            }
+            else{
+                this.out.append(c);
+            }
+        }
+        this.out.append('"');
+    }
+}
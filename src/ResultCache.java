@@ -0,0 +1,297 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UTFDataFormatException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the results of simulations so that a simulation that was already run is answered without being simulated
+ * again, the results are addressed by a SHA-256 key of everything scheduleProcesses() depends on: the processes of the
+ * workload (see ProcessTable.writeDefinitions) and the settings of the scheduler (see SchedulerStrategy.writeConfiguration),
+ * so a result is only ever found for a simulation that would give the same figures
+ *
+ * The results are kept in two tiers: the last maxEntries results used are held in memory, and if the cache has a
+ * directory every result is also written to its own file there, the files least recently used are deleted once they
+ * take more than maxDiskBytes, so the results outlive the process and can be shared by the runs of a pipeline
+ */
+public class ResultCache {
+
+    //MAGIC: the first int of every result file
+    private static final int MAGIC = 0x52534c54;
+    //VERSION: the version of the keys and of the result format, changing it leaves every result already written out
+    private static final int VERSION = 1;
+    //SUFFIX: the end of the name of every result file
+    private static final String SUFFIX = ".result";
+
+    //maxEntries: the number of results held in memory
+    private int maxEntries;
+    //memory: the encoded results held in memory by key, from the least to the most recently used
+    private LinkedHashMap<String, byte[]> memory;
+    //directory: the directory the results are written to (null to only keep them in memory)
+    private Path directory = null;
+    //maxDiskBytes: the number of bytes the result files can take before the least recently used are deleted
+    private long maxDiskBytes = 0;
+    //diskEntries: the size of every result file by key, from the least to the most recently used
+    private LinkedHashMap<String, Long> diskEntries = new LinkedHashMap<>(16, 0.75f, true);
+    //diskBytes: the number of bytes the result files take
+    private long diskBytes = 0;
+    //hits and misses: the number of results found and not found
+    private long hits = 0;
+    private long misses = 0;
+
+    //a constructor that makes a cache that only keeps the last maxEntries results used in memory
+    public ResultCache(int maxEntries){
+        if(maxEntries < 0){
+            throw new IllegalArgumentException("The number of results held in memory can't be negative");
+        }
+        this.maxEntries = maxEntries;
+        this.memory = new LinkedHashMap<String, byte[]>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                return size() > ResultCache.this.maxEntries;
+            }
+        };
+    }
+
+    //a constructor that makes a cache that also writes every result to the given directory (created if needed), the
+    //results already there are found again
+    public ResultCache(int maxEntries, String directory, long maxDiskBytes) throws IOException {
+        this(maxEntries);
+        if(maxDiskBytes < 0){
+            throw new IllegalArgumentException("The number of bytes the result files can take can't be negative");
+        }
+        this.directory = Paths.get(directory);
+        this.maxDiskBytes = maxDiskBytes;
+        Files.createDirectories(this.directory);
+
+        //the files already in the directory are used from the oldest to the newest modified
+        List<Path> files = new ArrayList<>();
+        try(DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory, "*" + SUFFIX)){
+            for(Path file: stream){
+                files.add(file);
+            }
+        }
+        Map<Path, FileTime> times = new HashMap<>();
+        for(Path file: files){
+            times.put(file, Files.getLastModifiedTime(file));
+        }
+        files.sort(Comparator.comparing(times::get));
+        for(Path file: files){
+            String name = file.getFileName().toString();
+            long size = Files.size(file);
+            this.diskEntries.put(name.substring(0, name.length() - SUFFIX.length()), size);
+            this.diskBytes += size;
+        }
+        evict();
+    }
+
+    //a method that returns the key of a scheduler that hasn't run yet, for schedulers of the same workload the
+    //workload can be digested once with digest(Workload) and passed to key(byte[], SchedulerStrategy)
+    public static String key(SchedulerStrategy scheduler) throws IOException {
+        MessageDigest digest = newDigest();
+        DataOutputStream out = digestStream(digest);
+        scheduler.getProcessTable().writeDefinitions(out);
+        out.flush();
+        return key(digest.digest(), scheduler);
+    }
+
+    //a method that returns the key of a scheduler that hasn't run yet and runs the processes of the workload digested
+    //by workloadDigest
+    public static String key(byte[] workloadDigest, SchedulerStrategy scheduler) throws IOException {
+        MessageDigest digest = newDigest();
+        DataOutputStream out = digestStream(digest);
+        out.writeInt(VERSION);
+        out.write(workloadDigest);
+        scheduler.writeConfiguration(out);
+        out.flush();
+        StringBuilder key = new StringBuilder(64);
+        for(byte b: digest.digest()){
+            key.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return key.toString();
+    }
+
+    //a method that returns the SHA-256 digest of every process of a workload
+    public static byte[] digest(Workload workload) throws IOException {
+        MessageDigest digest = newDigest();
+        DataOutputStream out = digestStream(digest);
+        workload.writeDefinitions(out);
+        out.flush();
+        return digest.digest();
+    }
+
+    private static MessageDigest newDigest(){
+        try{
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch(NoSuchAlgorithmException e){
+            //every java platform has SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    //a method that returns a stream whose bytes are only added to a digest
+    private static DataOutputStream digestStream(MessageDigest digest){
+        OutputStream discard = new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        };
+        return new DataOutputStream(new BufferedOutputStream(new DigestOutputStream(discard, digest), 1 << 16));
+    }
+
+    //a method that returns the result stored under a key as the result of the given configuration (null if there is
+    //none, or if it has no cpu charts and withCharts), processNames are the process ids of the workload, a result
+    //found on disk is held in memory again and a result file that can't be read is deleted
+    public synchronized SweepResult get(String key, SweepConfiguration configuration, List<String> processNames,
+                                        boolean withCharts) throws IOException {
+        byte[] encoded = this.memory.get(key);
+        if(encoded == null && this.diskEntries.containsKey(key)){
+            encoded = readFile(key);
+            if(encoded != null){
+                this.memory.put(key, encoded);
+            }
+        }
+        if(encoded != null){
+            try{
+                SweepResult result = SweepResult.read(configuration, new DataInputStream(new ByteArrayInputStream(encoded)),
+                        processNames);
+                if(withCharts == false || result.hasCpuCharts()){
+                    this.hits++;
+                    return result;
+                }
+            }
+            catch(IOException e){
+                //a result that doesn't match the workload is never returned
+                remove(key);
+            }
+        }
+        this.misses++;
+        return null;
+    }
+
+    //a method that stores the result of a simulation under its key (replacing the result already there)
+    public synchronized void put(String key, SweepResult result) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer);
+        result.write(out);
+        out.flush();
+        byte[] encoded = buffer.toByteArray();
+        this.memory.put(key, encoded);
+        if(this.directory != null){
+            writeFile(key, encoded);
+        }
+    }
+
+    //a method that removes the result stored under a key from both tiers
+    public synchronized void remove(String key) throws IOException {
+        this.memory.remove(key);
+        Long size = this.diskEntries.remove(key);
+        if(size != null){
+            this.diskBytes -= size;
+            Files.deleteIfExists(fileOf(key));
+        }
+    }
+
+    //a method that writes a result file next to its final name and then moves it there, so that another run never
+    //reads half a result, and deletes the least recently used files if needed
+    private void writeFile(String key, byte[] encoded) throws IOException {
+        Path file = fileOf(key);
+        Path tempFile = file.resolveSibling(key + ".tmp");
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))){
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(key);
+            out.writeInt(encoded.length);
+            out.write(encoded);
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        long size = Files.size(file);
+        Long replaced = this.diskEntries.put(key, size);
+        this.diskBytes += size - (replaced == null ? 0 : replaced);
+        evict();
+    }
+
+    //a method that reads the encoded result of a result file and marks the file as the most recently used (null if the
+    //file is gone or isn't a result of this key and version, it's then deleted)
+    private byte[] readFile(String key) throws IOException {
+        Path file = fileOf(key);
+        try(InputStream stream = Files.newInputStream(file)){
+            DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+            if(in.readInt() == MAGIC && in.readInt() == VERSION && in.readUTF().equals(key)){
+                int length = in.readInt();
+                if(length >= 0 && length <= this.diskEntries.get(key)){
+                    byte[] encoded = new byte[length];
+                    in.readFully(encoded);
+                    Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+                    return encoded;
+                }
+            }
+        }
+        catch(NoSuchFileException e){
+            //the file was deleted by another run
+        }
+        catch(EOFException | UTFDataFormatException e){
+            //the file was cut short or isn't a result file
+        }
+        remove(key);
+        return null;
+    }
+
+    //a method that deletes the least recently used result files until they take no more than maxDiskBytes
+    private void evict() throws IOException {
+        Iterator<Map.Entry<String, Long>> iterator = this.diskEntries.entrySet().iterator();
+        while(this.diskBytes > this.maxDiskBytes && iterator.hasNext()){
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            this.diskBytes -= eldest.getValue();
+            Files.deleteIfExists(fileOf(eldest.getKey()));
+        }
+    }
+
+    private Path fileOf(String key){
+        return this.directory.resolve(key + SUFFIX);
+    }
+
+    //GETTERS
+    public int getMaxEntries(){ return this.maxEntries; }
+
+    public synchronized int getMemoryEntries(){ return this.memory.size(); }
+
+    public synchronized int getDiskEntries(){ return this.diskEntries.size(); }
+
+    public synchronized long getDiskBytes(){ return this.diskBytes; }
+
+    public long getMaxDiskBytes(){ return this.maxDiskBytes; }
+
+    public synchronized long getHits(){ return this.hits; }
+
+    public synchronized long getMisses(){ return this.misses; }
+}
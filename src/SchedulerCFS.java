@@ -0,0 +1,196 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.*;
+
+/**
+ * Completely Fair Scheduler strategy (modelled on the Linux CFS)
+ *
+ * Every process accumulates a virtual runtime, the time it spent on a cpu scaled down by its weight, and the process
+ * with the smallest vruntime runs next. Instead of a fixed quantum a process runs for its share (by weight) of the
+ * target latency, but never less than the minimum granularity, and is then preempted if a process with a smaller or
+ * equal vruntime is waiting
+ */
+public class SchedulerCFS extends SchedulerStrategy{
+
+    //DEFAULT_TARGET_LATENCY: the target latency used when none is given
+    public static final int DEFAULT_TARGET_LATENCY = 6;
+    //DEFAULT_MIN_GRANULARITY: the minimum granularity used when none is given
+    public static final int DEFAULT_MIN_GRANULARITY = 1;
+    //VRUNTIME_SCALE: the vruntime a process of the default weight accumulates per time unit on a cpu
+    public static final long VRUNTIME_SCALE = 1024;
+
+    //targetLatency: the period in which every waiting process should get to run once
+    private int targetLatency;
+    //minGranularity: the shortest time a process runs before it can be preempted
+    private int minGranularity;
+    //cpuShareSums: for every weight, the sum of the cpu shares (in percent) of the finished processes of that weight and
+    //their number (kept as they finish so the table doesn't need to be read again and checkpoints can hold them)
+    private SortedMap<Integer, double[]> cpuShareSums = new TreeMap<>();
+
+    public SchedulerCFS(int targetLatency, int minGranularity, String fileName){
+        this(targetLatency, minGranularity, fileName, System.out);
+    }
+
+    //constructor printing the messages and report of the scheduler to out instead of System.out
+    public SchedulerCFS(int targetLatency, int minGranularity, String fileName, PrintStream out){
+        super(newReadyQueue(targetLatency), fileName, out);
+        init(targetLatency, minGranularity);
+    }
+
+    //constructor running the processes of a workload that was already read (the workload can be shared)
+    public SchedulerCFS(int targetLatency, int minGranularity, Workload workload){
+        this(targetLatency, minGranularity, workload, System.out);
+    }
+
+    public SchedulerCFS(int targetLatency, int minGranularity, Workload workload, PrintStream out){
+        super(newReadyQueue(targetLatency), workload, out);
+        init(targetLatency, minGranularity);
+    }
+
+    //streaming constructor, the processes are read from the reader as they arrive
+    public SchedulerCFS(int targetLatency, int minGranularity, WorkloadReader workloadReader){
+        super(newReadyQueue(targetLatency), workloadReader);
+        init(targetLatency, minGranularity);
+    }
+
+    private void init(int targetLatency, int minGranularity){
+        if(targetLatency < 1 || minGranularity < 1){
+            throw new IllegalArgumentException("The target latency and minimum granularity must be positive");
+        }
+        this.targetLatency = targetLatency;
+        this.minGranularity = minGranularity;
+        this.out.println("\nSuccessfully created new SchedulerCFS with target latency " + this.targetLatency +
+                " and minimum granularity " + this.minGranularity + "\n");
+    }
+
+    //GETTERS
+    public int getTargetLatency(){ return this.targetLatency; }
+
+    public int getMinGranularity(){ return this.minGranularity; }
+
+    @Override
+    public void runProcesses(CPU cpu) {
+
+        //the vruntime of the process on the cpu is brought up to date whenever its time on the cpu ends (io, finished
+        //or end of its time slice), once its slice is used up it's preempted if a process with a smaller or equal
+        //vruntime is waiting and otherwise starts a new slice
+        if(cpu.getRunningProcess() != null) {
+            CPUProcess cpup = cpu.getRunningProcess();
+            VruntimeQueue queue = (VruntimeQueue) readyQueueFor(cpu);
+            if(cpup.isAtIoRequest() || cpup.getExecTime() == cpup.getTotalExecTime()){
+                chargeVruntime(cpup);
+                queue.updateMinVruntime(cpup.getVruntime());
+            }
+            else if(cpup.getqElapsed() >= timeSlice(queue, cpup)){
+                chargeVruntime(cpup);
+                cpup.setqElapsed(0);
+                queue.updateMinVruntime(cpup.getVruntime());
+                CPUProcess next = peekReadyQueue(cpu);
+                if(next != null && next.getVruntime() <= cpup.getVruntime()){
+                    addToReadyQueue(cpu, cpup, this.time);
+                    cpu.setRunningProcess(null);
+                    this.listener.onPreempt(this.time, cpu, cpup);
+                }
+            }
+        }
+
+        runCPU(cpu);
+    }
+
+    //the cpu share of a finished process is added to the sums of its weight
+    @Override
+    protected void onProcessFinished(CPUProcess cpup) {
+        if(cpup.getTurnaroundTime() == 0){
+            return;
+        }
+        double[] sum = this.cpuShareSums.computeIfAbsent(cpup.getWeight(), weight -> new double[2]);
+        sum[0] += 100.0 * cpup.getTotalExecTime() / cpup.getTurnaroundTime();
+        sum[1]++;
+    }
+
+    //the cpu share sums are the only state CFS keeps on top of the scheduler's (the vruntimes are in the process table
+    //and the minimum vruntime of each ready queue is written with the queue)
+    @Override
+    protected void writeStrategyState(DataOutput out) throws IOException {
+        out.writeInt(this.cpuShareSums.size());
+        for(Map.Entry<Integer, double[]> entry: this.cpuShareSums.entrySet()){
+            out.writeInt(entry.getKey());
+            out.writeDouble(entry.getValue()[0]);
+            out.writeDouble(entry.getValue()[1]);
+        }
+    }
+
+    @Override
+    protected void readStrategyState(DataInput in) throws IOException {
+        this.cpuShareSums.clear();
+        int size = in.readInt();
+        for(int i = 0; i < size; i++){
+            this.cpuShareSums.put(in.readInt(), new double[]{in.readDouble(), in.readDouble()});
+        }
+    }
+
+    @Override
+    protected void writeStrategyConfiguration(DataOutput out) throws IOException {
+        out.writeInt(this.targetLatency);
+        out.writeInt(this.minGranularity);
+    }
+
+    //a method that adds the time a process has been on the cpu since its vruntime was last charged (its qElapsed) to
+    //its vruntime, scaled by its weight
+    private void chargeVruntime(CPUProcess cpup){
+        cpup.setVruntime(cpup.getVruntime() + cpup.getqElapsed() * VRUNTIME_SCALE * ProcessTable.DEFAULT_WEIGHT / cpup.getWeight());
+    }
+
+    //a method that returns the time slice of a process running from the given queue: its share (by weight) of the
+    //target latency, stretched so that every runnable process gets at least the minimum granularity
+    private long timeSlice(VruntimeQueue queue, CPUProcess cpup){
+        long runnable = queue.size() + 1;
+        long totalWeight = queue.getTotalWeight() + cpup.getWeight();
+        long period = Math.max(this.targetLatency, runnable * this.minGranularity);
+        return Math.max(period * cpup.getWeight() / totalWeight, this.minGranularity);
+    }
+
+    //CFS keeps the ready queue in an indexed heap ordered by vruntime, a process coming back from io or arriving can be placed
+    //at most half the target latency behind the others
+    private static ProcessQueue newReadyQueue(int targetLatency){
+        return new VruntimeQueue(targetLatency * VRUNTIME_SCALE / 2);
+    }
+
+    @Override
+    protected ProcessQueue createReadyQueue() {
+        return newReadyQueue(this.targetLatency);
+    }
+
+    //the running process may be preempted once it has used up its time slice
+    @Override
+    protected int ticksUntilPreemption(CPU cpu) {
+        CPUProcess cpup = cpu.getRunningProcess();
+        long slice = timeSlice((VruntimeQueue) readyQueueFor(cpu), cpup);
+        return (int) Math.max(slice - cpup.getqElapsed(), 0);
+    }
+
+    //FAIRNESS
+    //a method that returns the largest difference between the vruntimes of two processes waiting in the same ready
+    //queue during the simulation, in time units of a process of the default weight
+    public double calculateMaxVruntimeSpread(){
+        long spread = ((VruntimeQueue) this.readyQueue).getMaxSpread();
+        if(this.multiQueue){
+            for(CPU cpu: this.cpus){
+                spread = Math.max(spread, ((VruntimeQueue) cpu.getReadyQueue()).getMaxSpread());
+            }
+        }
+        return (double) spread / VRUNTIME_SCALE;
+    }
+
+    //a method that returns, for every weight, the average share of the cpu the finished processes of that weight got
+    //while they were in the system (their execution time over their turnaround time, in percent)
+    public SortedMap<Integer, Double> calculateCpuShareByWeight(){
+        SortedMap<Integer, Double> shares = new TreeMap<>();
+        for(Map.Entry<Integer, double[]> entry: this.cpuShareSums.entrySet()){
+            shares.put(entry.getKey(), entry.getValue()[0] / entry.getValue()[1]);
+        }
+        return shares;
+    }
+}
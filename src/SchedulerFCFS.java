@@ -1,20 +1,49 @@
-import java.util.Comparator;
-import java.util.PriorityQueue;
+import java.io.PrintStream;
 
 /**
  * First Come First Server Scheduler strategy
  */
 public class SchedulerFCFS extends SchedulerStrategy{
 
-    //FCFS uses a priority queue ordered on the arrival time of the process
+    //FCFS uses an indexed heap ordered on the arrival time of the process (ties are broken the way a binary heap
+    //without sequence numbers breaks them)
     public SchedulerFCFS(String fileName){
-        super(new PriorityQueue<>(11, Comparator.comparingInt(CPUProcess::getArrivalTime)), fileName);
-        System.out.println("\nSuccessfully created new SchedulerFCFS\n");
+        this(fileName, System.out);
+    }
+
+    //constructor printing the messages and report of the scheduler to out instead of System.out
+    public SchedulerFCFS(String fileName, PrintStream out){
+        super(newReadyQueue(), fileName, out);
+        this.out.println("\nSuccessfully created new SchedulerFCFS\n");
+    }
+
+    //constructor running the processes of a workload that was already read (the workload can be shared)
+    public SchedulerFCFS(Workload workload){
+        this(workload, System.out);
+    }
+
+    public SchedulerFCFS(Workload workload, PrintStream out){
+        super(newReadyQueue(), workload, out);
+        this.out.println("\nSuccessfully created new SchedulerFCFS\n");
+    }
+
+    //streaming constructor, the processes are read from the reader as they arrive
+    public SchedulerFCFS(WorkloadReader workloadReader){
+        super(newReadyQueue(), workloadReader);
+        this.out.println("\nSuccessfully created new SchedulerFCFS\n");
+    }
+
+    private static ProcessQueue newReadyQueue(){
+        return new IndexedProcessHeap(ProcessStateTable::getArrivalTime, false);
+    }
+
+    @Override
+    protected ProcessQueue createReadyQueue() {
+        return newReadyQueue();
     }
 
     @Override
     public void runProcesses(CPU cpu) {
-        addArrivedProcesses();
         runCPU(cpu);
     }
 }
@@ -0,0 +1,203 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Multi Level Feedback Queue Scheduler strategy
+ *
+ * Every process starts at the highest priority level (0), a process that uses up the quantum of its level moves down
+ * a level, a process coming back from io moves up a level and every boostInterval time units every process goes back
+ * to the highest level, a running process is preempted as soon as a process of a higher level is ready
+ */
+public class SchedulerMLFQ extends SchedulerStrategy{
+
+    //DEFAULT_BOOST_INTERVAL: the boost interval used when none is given
+    public static final int DEFAULT_BOOST_INTERVAL = 100;
+
+    //quanta: the quantum of each priority level (the first level is the highest priority)
+    private int[] quanta;
+    //boostInterval: the time between two boosts of every process to the highest level (0 to never boost)
+    private int boostInterval;
+    //lastBoostTime: the time of the last boost (so it happens once per boost time whatever the number of cpus)
+    private int lastBoostTime = 0;
+
+    public SchedulerMLFQ(int[] quanta, int boostInterval, String fileName){
+        this(quanta, boostInterval, fileName, System.out);
+    }
+
+    //constructor printing the messages and report of the scheduler to out instead of System.out
+    public SchedulerMLFQ(int[] quanta, int boostInterval, String fileName, PrintStream out){
+        super(newReadyQueue(checkQuanta(quanta)), fileName, out);
+        init(quanta, boostInterval);
+    }
+
+    //constructor running the processes of a workload that was already read (the workload can be shared)
+    public SchedulerMLFQ(int[] quanta, int boostInterval, Workload workload){
+        this(quanta, boostInterval, workload, System.out);
+    }
+
+    public SchedulerMLFQ(int[] quanta, int boostInterval, Workload workload, PrintStream out){
+        super(newReadyQueue(checkQuanta(quanta)), workload, out);
+        init(quanta, boostInterval);
+    }
+
+    //streaming constructor, the processes are read from the reader as they arrive
+    public SchedulerMLFQ(int[] quanta, int boostInterval, WorkloadReader workloadReader){
+        super(newReadyQueue(checkQuanta(quanta)), workloadReader);
+        init(quanta, boostInterval);
+    }
+
+    private void init(int[] quanta, int boostInterval){
+        if(boostInterval < 0){
+            throw new IllegalArgumentException("The boost interval can't be negative");
+        }
+        this.quanta = quanta.clone();
+        this.boostInterval = boostInterval;
+        this.out.println("\nSuccessfully created new SchedulerMLFQ with quanta " + Arrays.toString(this.quanta) +
+                " and boost interval " + this.boostInterval + "\n");
+    }
+
+    //a method that checks that there is at least one level and that every quantum is positive, returns quanta
+    private static int[] checkQuanta(int[] quanta){
+        if(quanta.length == 0 || quanta.length > MultiLevelQueue.MAX_LEVELS){
+            throw new IllegalArgumentException("The number of levels must be between 1 and " + MultiLevelQueue.MAX_LEVELS);
+        }
+        for(int quantum: quanta){
+            if(quantum < 1){
+                throw new IllegalArgumentException("Every quantum must be positive");
+            }
+        }
+        return quanta;
+    }
+
+    //GETTERS
+    public int[] getQuanta(){ return this.quanta.clone(); }
+
+    public int getNumOfLevels(){ return this.quanta.length; }
+
+    public int getBoostInterval(){ return this.boostInterval; }
+
+    @Override
+    public void runProcesses(CPU cpu) {
+        if(this.boostInterval > 0 && this.time % this.boostInterval == 0 && this.time != this.lastBoostTime){
+            boost();
+        }
+
+        //if the process on the cpu has used up the quantum of its level (and is not about to be pushed to the ioQueue
+        //or finished) it moves down a level, if a process of a higher level is ready it takes the cpu (the preempted
+        //process keeps what it used of its quantum), either way the process goes back to the ready queue
+        if(cpu.getRunningProcess() != null) {
+            CPUProcess cpup = cpu.getRunningProcess();
+            if(cpup.isAtIoRequest() == false && cpup.getExecTime() != cpup.getTotalExecTime()){
+                boolean demote = cpup.getqElapsed() >= this.quanta[cpup.getPriority()];
+                CPUProcess next = peekReadyQueue(cpu);
+                if(demote){
+                    cpup.setPriority(Math.min(cpup.getPriority() + 1, this.quanta.length - 1));
+                    cpup.setqElapsed(0);
+                }
+                if(demote || (next != null && next.getPriority() < cpup.getPriority())){
+                    addToReadyQueue(cpu, cpup, this.time);
+                    cpu.setRunningProcess(null);
+                    this.listener.onPreempt(this.time, cpu, cpup);
+                }
+            }
+        }
+
+        runCPU(cpu);
+    }
+
+    //the time of the last boost is the only state MLFQ keeps on top of the scheduler's
+    @Override
+    protected void writeStrategyState(DataOutput out) throws IOException {
+        out.writeInt(this.lastBoostTime);
+    }
+
+    @Override
+    protected void readStrategyState(DataInput in) throws IOException {
+        this.lastBoostTime = in.readInt();
+    }
+
+    @Override
+    protected void writeStrategyConfiguration(DataOutput out) throws IOException {
+        out.writeInt(this.quanta.length);
+        for(int quantum: this.quanta){
+            out.writeInt(quantum);
+        }
+        out.writeInt(this.boostInterval);
+    }
+
+    //a process coming back from io moves up a level
+    @Override
+    protected void onIoComplete(CPUProcess cpup) {
+        if(cpup.getPriority() > 0){
+            cpup.setPriority(cpup.getPriority() - 1);
+        }
+    }
+
+    //a method that moves every process that has started back to the highest level with a fresh quantum (the processes
+    //that haven't arrived yet are already there)
+    private void boost(){
+        this.lastBoostTime = this.time;
+        if(this.multiQueue){
+            for(CPU cpu: this.cpus){
+                boost(cpu.getReadyQueue());
+            }
+        }
+        else{
+            boost(this.readyQueue);
+        }
+        for(CPU cpu: this.cpus){
+            if(cpu.getRunningProcess() != null){
+                cpu.getRunningProcess().setPriority(0);
+                cpu.getRunningProcess().setqElapsed(0);
+            }
+        }
+        for(IODevice device: this.ioDevices){
+            device.getQueue().forEach(row -> this.processStates.setPriority(row, 0));
+            for(int channel = 0; channel < device.getNumOfChannels(); channel++){
+                if(device.getProcess(channel) != null){
+                    device.getProcess(channel).setPriority(0);
+                }
+            }
+        }
+    }
+
+    private void boost(ProcessQueue queue){
+        queue.forEach(row -> this.processStates.setqElapsed(row, 0));
+        ((MultiLevelQueue) queue).boost();
+    }
+
+    //MLFQ uses one FIFO queue per level
+    private static ProcessQueue newReadyQueue(int[] quanta){
+        return new MultiLevelQueue(quanta.length);
+    }
+
+    @Override
+    protected ProcessQueue createReadyQueue() {
+        return newReadyQueue(this.quanta);
+    }
+
+    //the running process is preempted once it has used up the quantum of its level, or right away if a process of a
+    //higher level is ready
+    @Override
+    protected int ticksUntilPreemption(CPU cpu) {
+        CPUProcess cpup = cpu.getRunningProcess();
+        CPUProcess next = peekReadyQueue(cpu);
+        if(next != null && next.getPriority() < cpup.getPriority()){
+            return 0;
+        }
+        return this.quanta[cpup.getPriority()] - cpup.getqElapsed();
+    }
+
+    //the boosts change the priority of the processes
+    @Override
+    protected int ticksUntilStrategyEvent() {
+        if(this.boostInterval == 0){
+            return Integer.MAX_VALUE;
+        }
+        int sinceBoost = this.time % this.boostInterval;
+        return sinceBoost == 0 && this.time != this.lastBoostTime ? 0 : this.boostInterval - sinceBoost;
+    }
+}
@@ -1,4 +1,6 @@
-import java.util.*;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.PrintStream;
 
 /**
  * Round Robin Scheduler strategy
@@ -9,31 +11,75 @@ public class SchedulerRR extends SchedulerStrategy{
     private int quantum;
 
     public SchedulerRR(int quantum, String fileName){
-        super(new LinkedList<CPUProcess>(), fileName);
+        this(quantum, fileName, System.out);
+    }
+
+    //constructor printing the messages and report of the scheduler to out instead of System.out
+    public SchedulerRR(int quantum, String fileName, PrintStream out){
+        super(newReadyQueue(), fileName, out);
+        this.quantum = quantum;
+        this.out.println("\nSuccessfully created new SchedulerRR with quantum " + this.quantum + "\n");
+    }
+
+    //constructor running the processes of a workload that was already read (the workload can be shared)
+    public SchedulerRR(int quantum, Workload workload){
+        this(quantum, workload, System.out);
+    }
+
+    public SchedulerRR(int quantum, Workload workload, PrintStream out){
+        super(newReadyQueue(), workload, out);
+        this.quantum = quantum;
+        this.out.println("\nSuccessfully created new SchedulerRR with quantum " + this.quantum + "\n");
+    }
+
+    //streaming constructor, the processes are read from the reader as they arrive
+    public SchedulerRR(int quantum, WorkloadReader workloadReader){
+        super(newReadyQueue(), workloadReader);
         this.quantum = quantum;
-        System.out.println("\nSuccessfully created new SchedulerRR with quantum " + this.quantum + "\n");
+        this.out.println("\nSuccessfully created new SchedulerRR with quantum " + this.quantum + "\n");
     }
 
+    public int getQuantum(){ return this.quantum; }
+
     @Override
     public void runProcesses(CPU cpu) {
 
-        addArrivedProcesses();
-
         //if there is a process that's currently on the cpu that has elapsed its quantum and is not about to be pushed
         //to the ioQueue or has finished executing then we need to preempt it from the cpu, add it to the ready queue
         //and reset its qElapsed
         if(cpu.getRunningProcess() != null) {
             CPUProcess cpup = cpu.getRunningProcess();
             if(cpup.getqElapsed() == this.quantum &&
-                    (cpup.getIoRequestTimes().peek() == null ||
-                    cpup.getExecTime() != cpup.getIoRequestTimes().peek())
+                    cpup.isAtIoRequest() == false
                     && cpup.getExecTime() != cpup.getTotalExecTime()){
-                this.readyQueue.add(cpup);
+                addToReadyQueue(cpu, cpup, this.time);
                 cpup.setqElapsed(0);
                 cpu.setRunningProcess(null);
+                this.listener.onPreempt(this.time, cpu, cpup);
             }
         }
 
         runCPU(cpu);
     }
+
+    //RR uses a FIFO queue
+    private static ProcessQueue newReadyQueue(){
+        return new ProcessDeque();
+    }
+
+    @Override
+    protected ProcessQueue createReadyQueue() {
+        return newReadyQueue();
+    }
+
+    //the running process is preempted once it has used up its quantum
+    @Override
+    protected int ticksUntilPreemption(CPU cpu) {
+        return this.quantum - cpu.getRunningProcess().getqElapsed();
+    }
+
+    @Override
+    protected void writeStrategyConfiguration(DataOutput out) throws IOException {
+        out.writeInt(this.quantum);
+    }
 }
@@ -1,20 +1,48 @@
-import java.util.Comparator;
-import java.util.PriorityQueue;
+import java.io.PrintStream;
 
 /**
  * Shortest Job First Scheduler strategy
  */
 public class SchedulerSJF extends SchedulerStrategy{
 
-    //SJF uses a priority queue ordered on the remaining time of the process
+    //SJF uses an indexed heap ordered on the remaining time of the process (ties are broken in order of arrival to the queue)
     public SchedulerSJF(String fileName){
-        super(new PriorityQueue<>(11, Comparator.comparingInt(CPUProcess::getRemainingTime)), fileName);
-        System.out.println("\nSuccessfully created new SchedulerSJF\n");
+        this(fileName, System.out);
+    }
+
+    //constructor printing the messages and report of the scheduler to out instead of System.out
+    public SchedulerSJF(String fileName, PrintStream out){
+        super(newReadyQueue(), fileName, out);
+        this.out.println("\nSuccessfully created new SchedulerSJF\n");
+    }
+
+    //constructor running the processes of a workload that was already read (the workload can be shared)
+    public SchedulerSJF(Workload workload){
+        this(workload, System.out);
+    }
+
+    public SchedulerSJF(Workload workload, PrintStream out){
+        super(newReadyQueue(), workload, out);
+        this.out.println("\nSuccessfully created new SchedulerSJF\n");
+    }
+
+    //streaming constructor, the processes are read from the reader as they arrive
+    public SchedulerSJF(WorkloadReader workloadReader){
+        super(newReadyQueue(), workloadReader);
+        this.out.println("\nSuccessfully created new SchedulerSJF\n");
+    }
+
+    private static ProcessQueue newReadyQueue(){
+        return new IndexedProcessHeap(ProcessStateTable::getRemainingTime);
+    }
+
+    @Override
+    protected ProcessQueue createReadyQueue() {
+        return newReadyQueue();
     }
 
     @Override
     public void runProcesses(CPU cpu) {
-        addArrivedProcesses();
         runCPU(cpu);
     }
 }
@@ -1,34 +1,73 @@
-import java.util.Comparator;
-import java.util.PriorityQueue;
+import java.io.PrintStream;
 
 /**
  * Shortest Remaining Time First Scheduler strategy
  */
 public class SchedulerSRTF extends SchedulerStrategy{
 
+    //SRTF uses an indexed heap ordered on the remaining time of the process (ties are broken in order of arrival to the queue)
     public SchedulerSRTF(String fileName){
-        super(new PriorityQueue<>(11, Comparator.comparingInt(CPUProcess::getRemainingTime)), fileName);
-        System.out.println("\nSuccessfully created new SchedulerSRTF\n");
+        this(fileName, System.out);
+    }
+
+    //constructor printing the messages and report of the scheduler to out instead of System.out
+    public SchedulerSRTF(String fileName, PrintStream out){
+        super(newReadyQueue(), fileName, out);
+        this.out.println("\nSuccessfully created new SchedulerSRTF\n");
+    }
+
+    //constructor running the processes of a workload that was already read (the workload can be shared)
+    public SchedulerSRTF(Workload workload){
+        this(workload, System.out);
+    }
+
+    public SchedulerSRTF(Workload workload, PrintStream out){
+        super(newReadyQueue(), workload, out);
+        this.out.println("\nSuccessfully created new SchedulerSRTF\n");
+    }
+
+    //streaming constructor, the processes are read from the reader as they arrive
+    public SchedulerSRTF(WorkloadReader workloadReader){
+        super(newReadyQueue(), workloadReader);
+        this.out.println("\nSuccessfully created new SchedulerSRTF\n");
+    }
+
+    private static ProcessQueue newReadyQueue(){
+        return new IndexedProcessHeap(ProcessStateTable::getRemainingTime);
     }
 
     @Override
-    public void runProcesses(CPU cpu) {
+    protected ProcessQueue createReadyQueue() {
+        return newReadyQueue();
+    }
 
-        addArrivedProcesses();
+    @Override
+    public void runProcesses(CPU cpu) {
 
         //if there is a process on the current cpu then we must check if there is a process in the ready queue
         //with a shorter remaining time, if there is then that process will preempt the current process
         if(cpu.getRunningProcess() != null) {
             CPUProcess cpup = cpu.getRunningProcess();
-            if(this.readyQueue.peek() != null &&
-                    cpup.getRemainingTime() > this.readyQueue.peek().getRemainingTime() &&
-                    (cpup.getIoRequestTimes().peek() == null ||
-                    cpup.getExecTime() != cpup.getIoRequestTimes().peek())){
-                cpu.setRunningProcess(this.readyQueue.poll());
-                this.readyQueue.add(cpup);
+            CPUProcess next = peekReadyQueue(cpu);
+            if(next != null && cpup.getRemainingTime() > next.getRemainingTime() &&
+                    cpup.isAtIoRequest() == false){
+                cpu.setRunningProcess(swapWithReadyQueueHead(cpu, cpup));
+                this.listener.onPreempt(this.time, cpu, cpup);
+                this.listener.onDispatch(this.time, cpu, cpu.getRunningProcess());
             }
         }
 
         runCPU(cpu);
     }
+
+    //the running process only gets shorter while it runs, so it is either preempted right away or not until the
+    //ready queue changes
+    @Override
+    protected int ticksUntilPreemption(CPU cpu) {
+        CPUProcess next = peekReadyQueue(cpu);
+        if(next != null && cpu.getRunningProcess().getRemainingTime() > next.getRemainingTime()){
+            return 0;
+        }
+        return Integer.MAX_VALUE;
+    }
 }
@@ -1,241 +1,1152 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
 import java.util.*;
 
 public abstract class SchedulerStrategy implements Scheduler{
 
-    //readyQueue: a queue of processes that are ready to run on a cpu (the priority sorting will depend on the algorithm chosen)
-    protected Queue<CPUProcess> readyQueue;
-    //ioQueue: a queue of processes that are waiting to perform io
-    protected Queue<CPUProcess> ioQueue = new LinkedList<CPUProcess>();
-    //unarrivedProcesses: a queue of processes (ordered by arrival time) that have not yet arrived for execution yet
-    protected Queue<CPUProcess> unarrivedProcesses = new PriorityQueue<>(11,
-            Comparator.comparingInt(CPUProcess::getArrivalTime));
-    //ioProcess: the CPUProcess that is currently performing io
-    protected CPUProcess ioProcess = null;
+    //readyQueue: a queue of the rows of the processes that are ready to run on a cpu (the priority sorting will depend
+    //on the algorithm chosen)
+    protected ProcessQueue readyQueue;
+    //unarrivedProcesses: the indexes of the processes (ordered by arrival time, then by input order) that have not yet arrived for execution yet
+    protected ArrivalQueue unarrivedProcesses;
     //cpus: the list of available cpus
     protected ArrayList<CPU> cpus;
-    //finishedProcesses: the list of processes that have completed execution
-    protected ArrayList<CPUProcess> finishedProcesses = new ArrayList<>();
+    //finishedProcesses: the times of the processes that have completed execution (empty unless keepFinishedProcesses)
+    protected FinishedProcesses finishedProcesses;
+    //keepFinishedProcesses: indicates whether finished processes are kept in finishedProcesses (and listed in the
+    //report) or only counted in the histograms, so that memory doesn't grow with the number of processes finished
+    protected boolean keepFinishedProcesses = true;
+    //printReport: indicates whether scheduleProcesses() prints the report to out once every process has finished
+    protected boolean printReport = true;
+    //waitingTimes, turnaroundTimes and responseTimes: the histograms of the times of every finished process
+    protected LatencyHistogram waitingTimes = new LatencyHistogram();
+    protected LatencyHistogram turnaroundTimes = new LatencyHistogram();
+    protected LatencyHistogram responseTimes = new LatencyHistogram();
     //numOfCPUs: the number of cpus in the system
     protected int numOfCPUs;
     //time: the current time unit in the execution of the system
     protected int time = 0;
-    //ioChart: a list containing information about what process (if any) was performing io at time i (index i)
-    private ArrayList<String> ioChart = new ArrayList<>();
+    //processTable: the definitions of the processes read from the file, indexed by process index (shared with every
+    //scheduler running the same Workload, never changed by a run)
+    protected ProcessTable processTable;
+    //processStates: the state of the processes in the system (arrived and not finished), a process gets a row when it
+    //arrives and gives it back when it finishes
+    protected ProcessStateTable processStates;
+    //ioDevices: the io devices processes perform io on, indexed by the device ids of the io requests (a single FIFO
+    //device with one channel unless configured otherwise)
+    protected ArrayList<IODevice> ioDevices;
+    //ioDevicesConfigured: indicates whether the io devices were configured (the report then describes every device)
+    private boolean ioDevicesConfigured = false;
+    //out: where the messages and the final report of this scheduler are printed (every scheduler can have its own so
+    //that simulations running at the same time don't share any output)
+    protected PrintStream out = System.out;
+    //listener: receives the events of the simulation (dispatches, preemptions, io and completions)
+    protected SimulationListener listener;
+    //workloadReader: the reader of the file the processes are streamed from (null once every process has been read,
+    //or when the file was read all at once)
+    private WorkloadReader workloadReader = null;
+    //streamed: indicates whether the processes are streamed from a file (only the definitions of the processes that
+    //haven't arrived are then kept)
+    private boolean streamed = false;
+    //lastReadArrivalTime: the arrival time of the last process read from the workload reader
+    private int lastReadArrivalTime = Integer.MIN_VALUE;
+    //eventDriven: indicates whether scheduleProcesses() jumps over ticks in which no process changes state
+    //(arrivals, burst completions, io requests, io completions and preemptions) instead of simulating them one by one
+    protected boolean eventDriven = false;
+    //multiQueue: indicates whether each cpu has its own ready queue (ordered like readyQueue) instead of sharing readyQueue
+    protected boolean multiQueue = false;
+    //balanceInterval: the number of ticks between two push migrations between the cpu ready queues (0 to never push)
+    protected int balanceInterval = 0;
+    //workStealing: indicates whether an idle cpu with an empty ready queue steals a process from the longest ready queue
+    protected boolean workStealing = false;
+    //checkpointer: writes a checkpoint of the simulation every checkpointInterval ticks (null to write none)
+    private SimulationCheckpointer checkpointer = null;
+    private int checkpointInterval = 0;
+    //nextCheckpointTime: the time from which the next checkpoint is written
+    private int nextCheckpointTime = 0;
+    //metrics: counts the steps, events and phase times of the simulation (null when it isn't instrumented)
+    private SimulationMetrics metrics = null;
+    //stepsUntilSample: the number of steps until the next step whose phases and queue depths are sampled
+    private int stepsUntilSample = 0;
+    //partitions: runs the cpus in partitions on their own threads in multi queue mode (null to run them all on the
+    //simulation thread)
+    private PartitionedEngine partitions = null;
+    //switchCosts: the time a cpu spends switching processes (null for free switches)
+    protected SwitchCostModel switchCosts = null;
+    //affinityAware: indicates whether a process that would pay more to refill its cache on another cpu than it waits
+    //for the cpu it last ran on is left to that cpu (only with switch costs)
+    protected boolean affinityAware = false;
 
-    public SchedulerStrategy(Queue readyQueue, String fileName){
-        System.out.println("\nEntering constructor of SchedulerStrategy");
+    //NO_QUEUE_STATE, VRUNTIME_QUEUE_STATE and ELEVATOR_QUEUE_STATE: what a queue written to a checkpoint keeps on top
+    //of its processes (nothing, the minimum vruntime and spread of a VruntimeQueue or the position of an ElevatorQueue)
+    private static final byte NO_QUEUE_STATE = 0;
+    private static final byte VRUNTIME_QUEUE_STATE = 1;
+    private static final byte ELEVATOR_QUEUE_STATE = 2;
+
+    public SchedulerStrategy(ProcessQueue readyQueue, String fileName){
+        this(readyQueue, fileName, System.out);
+    }
+
+    //constructor printing the messages and report of the scheduler (and the events of the default listener) to out
+    public SchedulerStrategy(ProcessQueue readyQueue, String fileName, PrintStream out){
+        this.out = out;
+        this.listener = new ConsoleSimulationListener(out);
+        this.out.println("\nEntering constructor of SchedulerStrategy");
+        Workload workload;
+        try{
+            workload = Workload.read(fileName, out);
+        }
+        catch(IOException e){
+            throw new UncheckedIOException("The processes could not be read from " + fileName, e);
+        }
+        runWorkload(readyQueue, workload);
+    }
+
+    //streaming constructor: processes are read from the reader as the simulated time reaches their arrival time instead
+    //of all at once, so the file must list the processes in order of arrival time, the state and definitions of a
+    //process are only held while it is in the system (the ids the charts name the processes by and the finished
+    //processes are kept as results, the finished processes only unless setKeepFinishedProcesses(false) is called)
+    public SchedulerStrategy(ProcessQueue readyQueue, WorkloadReader workloadReader){
+        this.listener = new ConsoleSimulationListener(this.out);
+        this.out.println("\nEntering constructor of SchedulerStrategy");
+        this.processTable = new ProcessTable();
+        this.workloadReader = workloadReader;
+        this.streamed = true;
+        createProcessTables(readyQueue, new ArrivalQueue(this.processTable));
+        this.out.println("\nStreaming processes from text file: " + workloadReader.getFileName());
+        //reading the processes that arrive at time 0 (the numOfCPUs line must come before the first process)
+        readArrivedProcesses();
+        releaseArrivedProcesses();
+        discardArrivedDefinitions();
+        this.numOfCPUs = workloadReader.getNumOfCPUs();
+        createDefaultIODevices();
+        createCPUs();
+        this.out.println("\nSuccessfully created new SchedulerStrategy with " + this.numOfCPUs + " CPUs and " + this.readyQueue.size() + " processes");
+    }
+
+    //constructor running the processes of a workload that was already read (the workload is not modified and its
+    //definitions are shared, this scheduler only keeps the state of its processes so a workload can be shared by
+    //several schedulers)
+    public SchedulerStrategy(ProcessQueue readyQueue, Workload workload, PrintStream out){
+        this.out = out;
+        this.listener = new ConsoleSimulationListener(out);
+        this.out.println("\nEntering constructor of SchedulerStrategy");
+        runWorkload(readyQueue, workload);
+    }
+
+    //a method that sets the scheduler up to run the processes of a workload, the processes that arrive at time 0 are
+    //put in the ready queue
+    private void runWorkload(ProcessQueue readyQueue, Workload workload){
+        this.processTable = workload.getProcessTable();
+        createProcessTables(readyQueue, new ArrivalQueue(this.processTable, workload.getArrivalOrder()));
+        createDefaultIODevices();
+        releaseArrivedProcesses();
+        this.numOfCPUs = workload.getNumOfCPUs();
+        createCPUs();
+        this.out.println("\nSuccessfully created new SchedulerStrategy with " + this.numOfCPUs + " CPUs and " + this.readyQueue.size() + " processes");
+    }
+
+    //a method that creates the state table, finished processes and ready queue of the processes of processTable
+    private void createProcessTables(ProcessQueue readyQueue, ArrivalQueue unarrivedProcesses){
+        this.processStates = new ProcessStateTable(this.processTable);
+        this.finishedProcesses = new FinishedProcesses(this.processTable);
+        this.unarrivedProcesses = unarrivedProcesses;
         this.readyQueue = readyQueue;
-        extractProcessesFromFile(fileName);
+        this.readyQueue.attach(this.processStates);
+    }
+
+    //a method that creates numOfCPUs idle cpus
+    private void createCPUs(){
         this.cpus = new ArrayList<>(this.numOfCPUs);
         for(int i = 0; i < this.numOfCPUs; i++){
-            this.cpus.add(new CPU(i));
+            this.cpus.add(new CPU(i, this.processTable.getProcessIDs()));
         }
-        System.out.println("\nSuccessfully created new SchedulerStrategy with " + this.numOfCPUs + " CPUs and " + this.readyQueue.size() + " processes");
     }
 
-    //a method that extracts cpu and process data from a file following a specific format
-    private void extractProcessesFromFile(String fileName){
-        try(BufferedReader br = new BufferedReader(new FileReader(fileName))){
-            System.out.println("\nReading from text file: " + fileName);
+    //a method that creates numOfDevices idle io devices with the given number of channels and queue discipline, the
+    //processes streamed from now on can only request io on these devices
+    private void createIODevices(int numOfDevices, int numOfChannels, IOQueueDiscipline discipline){
+        this.ioDevices = new ArrayList<>(numOfDevices);
+        for(int i = 0; i < numOfDevices; i++){
+            this.ioDevices.add(new IODevice(i, numOfChannels, discipline, this.processStates));
+        }
+        if(this.workloadReader != null){
+            this.workloadReader.setNumOfIoDevices(numOfDevices);
+        }
+    }
 
-            String fileLine = br.readLine();
-            while(fileLine != null){
-                //splitting the fileLine on all whitespace
-                String[] splitLine = fileLine.split("\\s+");
+    //a method that creates a FIFO io device with one channel for every device the processes read so far request io on
+    //(the report describes every device when there are several), a streamed process that arrives later and requests
+    //io on another device is invalid input unless the devices are configured
+    private void createDefaultIODevices(){
+        createIODevices(this.processTable.getNumOfIoDevices(), 1, IOQueueDiscipline.FIFO);
+        this.ioDevicesConfigured = this.ioDevices.size() > 1;
+    }
 
-                //if the numOfCPUs attribute is 0 then we haven't initialized it with the value from the txt file yet so we check the current line
-                if(this.numOfCPUs == 0) {
-                    if (splitLine[0].contains("numOfCPUs")) {
-                        this.numOfCPUs = Integer.parseInt(splitLine[1]);
-                        fileLine = br.readLine();
-                        continue;
-                    }
-                }
-                //if the current line starts with a double slash we must skip it since it's a comment
-                //if the current line is just white space then we must skip it since it's irrelevant
-                if(splitLine[0].contains("//") || fileLine.length() == 0){
-                    fileLine = br.readLine();
-                    continue;
+    //a method that reads the next process from a file and returns its index (-1 at the end of the file), malformed
+    //lines are reported and skipped
+    private int readProcess(WorkloadReader reader) throws java.io.IOException {
+        while(true){
+            try{
+                return reader.next(this.processTable);
+            }
+            catch(InvalidInputException e){
+                this.out.println("Invalid input: " + e.getMessage());
+            }
+        }
+    }
+
+    //a method that reads processes from the workload reader (streaming mode) until the next process to arrive is
+    //known, it stays in unarrivedProcesses so that only the processes that have arrived are held in memory, a file
+    //that can't be read stops the run with an UncheckedIOException
+    private void readArrivedProcesses(){
+        try{
+            while(this.workloadReader != null && this.lastReadArrivalTime <= this.time){
+                int index = readProcess(this.workloadReader);
+                if(index < 0){
+                    this.workloadReader.close();
+                    this.workloadReader = null;
                 }
-                //otherwise it's a line we must process
                 else{
-                    //the index will keep track of which part of the cpu process we are reading from the splitLine
-                    int index = 0;
-
-                    //The following variables will be updated in the loop with the values from the file and used to construct a new CPUProcess
-                    String processID = "";
-                    int arrivalTime = -1;
-                    int totalExecTime = -1;
-                    PriorityQueue<Integer> ioRequestTimes = new PriorityQueue<Integer>();
-
-                    for(String s: splitLine){
-                        switch(index){
-                            case 0:
-                                processID = s;
-                                break;
-                            case 1:
-                                arrivalTime = Integer.parseInt(s);
-                                break;
-                            case 2:
-                                totalExecTime = Integer.parseInt(s);
-                                break;
-                            default:
-                                ioRequestTimes.add(Integer.parseInt(s));
-                        }
-                        index++;
+                    int arrivalTime = this.processTable.getArrivalTime(index);
+                    if(arrivalTime < this.time){
+                        this.out.println("Invalid input: " + this.workloadReader.getFileName() + " line " +
+                                this.workloadReader.getLineNumber() + ": process " + this.processTable.getProcessID(index) +
+                                " arrives at time " + arrivalTime + " but was only read at time " + this.time +
+                                ", streamed processes must be sorted by arrival time");
                     }
-                    //if the values are unchanged from their initial state then an error occurred, throw exception
-                    if(processID.equals("") || arrivalTime == -1 || totalExecTime == -1)
-                        throw new InvalidInputException("Invalid input format, some values were not initialized");
-                    addProcess(new CPUProcess(processID, arrivalTime, totalExecTime, ioRequestTimes));
+                    this.lastReadArrivalTime = arrivalTime;
+                    this.unarrivedProcesses.add(index);
                 }
-                fileLine = br.readLine();
             }
-            System.out.println("\nSuccessfully read from text file: " + fileName);
         }
         catch(java.io.IOException e){
-            System.out.println("DEBUG: IOException");
-            e.printStackTrace();
-        }
-        catch(NumberFormatException e){
-            System.out.println("DEBUG: Integer.parseInt() threw an exception");
-            e.printStackTrace();
+            //the run stops rather than carrying on with the processes read so far
+            String fileName = this.workloadReader.getFileName();
+            try{
+                this.workloadReader.close();
+            }
+            catch(java.io.IOException closeFailure){
+                e.addSuppressed(closeFailure);
+            }
+            this.workloadReader = null;
+            if(this.partitions != null){
+                this.partitions.close();
+            }
+            throw new UncheckedIOException("The processes streamed from " + fileName + " could not be read at time " +
+                    this.time, e);
         }
-        catch(InvalidInputException e){
-            e.getMessage();
-            e.printStackTrace();
+    }
+
+    //a method that gives every process that has arrived a row in processStates and adds it to the ready queue
+    //(unarrivedProcesses is ordered by arrival time so only its head needs to be looked at)
+    private void releaseArrivedProcesses(){
+        while(this.unarrivedProcesses.isEmpty() == false && this.unarrivedProcesses.peekArrivalTime() <= this.time){
+            int row = this.processStates.acquire(this.unarrivedProcesses.poll());
+            addToReadyQueue(this.processStates.view(row), this.time);
         }
     }
 
-    //method to add a process to the ready queue if it's arrival time is 0
-    private void addProcess(CPUProcess cpup){
-        if(cpup.getArrivalTime() == 0)
-            this.readyQueue.add(cpup);
-        else
-            this.unarrivedProcesses.add(cpup);
+    //a method that drops the definitions of the streamed processes that have arrived (their state is in processStates
+    //from then on), so the definitions held are only those of the processes read ahead of the simulated time
+    private void discardArrivedDefinitions(){
+        if(this.streamed){
+            this.processTable.discardBefore(this.unarrivedProcesses.lowestPendingIndex());
+        }
     }
 
     @Override
     public void scheduleProcesses() {
-        //the scheduling strategy (run processes is implemented by each scheduling algorithm class
-        while(readyQueue.size() > 0 || processesAreRunning() || this.unarrivedProcesses.size() > 0) {
-            for(CPU cpu: this.cpus) {
-                runProcesses(cpu);
+        //the scheduling strategy (run processes is implemented by each scheduling algorithm class, the partition threads
+        //are stopped even when a step fails)
+        try{
+            while(step()) {
+                if(this.checkpointer != null && this.time >= this.nextCheckpointTime){
+                    checkpoint();
+                }
+            }
+        }
+        finally{
+            if(this.partitions != null){
+                this.partitions.close();
             }
-            waitProcesses();
-            runIO();
-            this.time++;
         }
 
         //trimming down charts to avoid ones with extra spaces at the end
         for(CPU c: this.cpus){
-            if(c.getChart().size() == this.time){
-                c.getChart().remove(c.getChart().size() -1);
+            if(c.getTimeline().size() == this.time){
+                c.getTimeline().truncate(this.time - 1);
             }
         }
 
-        if(this.ioChart.size() == this.time){
-            this.ioChart.remove(this.ioChart.size() -1);
+        for(IODevice device: this.ioDevices){
+            for(int channel = 0; channel < device.getNumOfChannels(); channel++){
+                if(device.getTimeline(channel).size() == this.time){
+                    device.getTimeline(channel).truncate(this.time - 1);
+                }
+            }
         }
 
-        //Printing out the average waiting time
-        String avgWaitTime = String.format("%.2f", calculateAvgWaitTime());
-        System.out.println("\nAverage Waiting Time: " + avgWaitTime + " time units");
+        this.listener.onSimulationEnd(this.time);
 
-        //Printing out the average cpu utilization for each cpu individually
-        double avgCpuUtilization = 0;
-        for(CPU cpu: this.cpus) {
-            double cpuUtilization = cpu.calculateCPUUtilization();
-            String result = String.format("%.2f", cpuUtilization);
-            System.out.println("\nCPU Utilization for CPU " + cpu.getCpuID() + ": " + result + "%");
-            System.out.println(cpu);
-            avgCpuUtilization += cpuUtilization;
+        //Printing out the report (average waiting time, cpu utilization, charts, turnaround and response times)
+        if(this.printReport == false){
+            return;
+        }
+        try{
+            writeReport(this.out, ReportFormat.TEXT);
         }
+        catch(java.io.IOException e){
+            this.out.println("DEBUG: IOException");
+            e.printStackTrace(this.out);
+        }
+    }
 
-        //Printing out the IOChart (when processes were completing IO
-        System.out.println("\nI/O Utilization\n" + printIOChart());
+    //a method that simulates the next tick (or in event driven mode the next ticks in which no process changes state)
+    //returns false without doing anything once every process has finished
+    //with metrics the step is counted, and once every sample interval steps its phases are timed and the queue depths read
+    public boolean step(){
+        if(readyProcessCount() == 0 && processesAreRunning() == false && this.unarrivedProcesses.size() == 0){
+            return false;
+        }
+        int startTime = this.time;
+        boolean sampled = this.metrics != null && --this.stepsUntilSample <= 0;
+        long mark = sampled ? startSample() : 0;
+        //in event driven mode we skip straight to the next tick at which some process changes state
+        if(this.eventDriven){
+            int steadyTicks = steadyTicks();
+            if(steadyTicks > 0){
+                advanceSteadyTicks(steadyTicks);
+                if(sampled)
+                    this.metrics.recordPhase(SimulationMetrics.Phase.ADVANCE_STEADY_TICKS, mark);
+                if(this.metrics != null)
+                    this.metrics.recordStep(this.time - startTime);
+                return true;
+            }
+        }
+        addArrivedProcesses();
+        if(sampled)
+            mark = this.metrics.recordPhase(SimulationMetrics.Phase.ADD_ARRIVED_PROCESSES, mark);
+        if(this.multiQueue && this.balanceInterval > 0 && this.time % this.balanceInterval == 0){
+            pushMigrate();
+            if(sampled)
+                mark = this.metrics.recordPhase(SimulationMetrics.Phase.PUSH_MIGRATE, mark);
+        }
+        if(this.partitions != null && partitionsAreIndependent()){
+            runPartitions();
+        }
+        else{
+            for(CPU cpu: this.cpus) {
+                runProcesses(cpu);
+            }
+        }
+        sampleReadyQueues(1);
+        if(sampled)
+            mark = this.metrics.recordRunProcesses(getClass().getSimpleName(), mark);
+        runIO();
+        if(sampled)
+            this.metrics.recordPhase(SimulationMetrics.Phase.RUN_IO, mark);
+        this.time++;
+        if(this.metrics != null)
+            this.metrics.recordStep(1);
+        return true;
+    }
 
-        //Printing out average CPU utilization for all cpus
-        avgCpuUtilization = (avgCpuUtilization/this.numOfCPUs);
-        String result = String.format("%.2f", avgCpuUtilization);
-        System.out.println("\nAverage CPU Utilization for all CPUs: " + result + "%");
+    //a method that runs the cpus of every partition on its own thread, the events they fire are recorded by the
+    //partitions and passed on to the listener in cpu order along with the other effects they defer
+    private void runPartitions(){
+        SimulationListener listener = this.listener;
+        this.listener = this.partitions.getDeferringListener();
+        try{
+            this.partitions.runPartitions(this);
+        }
+        finally{
+            this.listener = listener;
+        }
+        this.partitions.applyDeferred(listener);
+    }
 
-        //Printing out turnaround time and response time for each process
-        for(CPUProcess cpup: this.finishedProcesses){
-            System.out.println("\nTurnaround Time for Process " + cpup.getProcessID() + ": " + cpup.getTurnaroundTime() + " time units");
-            System.out.println("Response Time for Process " + cpup.getProcessID() + ": " + cpup.getResponseTime() + " time units");
+    //a method that indicates whether the cpus of the partitions can run the current tick on their own threads: in multi
+    //queue mode, without a strategy event (which may touch every cpu) and without an idle cpu that may steal work from
+    //another partition (a cpu with an empty ready queue whose process may stop this tick)
+    private boolean partitionsAreIndependent(){
+        if(this.multiQueue == false || ticksUntilStrategyEvent() == 0){
+            return false;
+        }
+        if(this.workStealing){
+            for(CPU cpu: this.cpus){
+                if(cpu.getReadyQueue().isEmpty() && mayStop(cpu))
+                    return false;
+            }
         }
+        return true;
+    }
+
+    //a method that indicates whether the cpu may be left without a running process this tick (it has none, or its
+    //process reaches its next io request, completes or may be preempted)
+    private boolean mayStop(CPU cpu){
+        CPUProcess cpup = cpu.getRunningProcess();
+        return cpup == null || cpup.isAtIoRequest() || cpup.getExecTime() == cpup.getTotalExecTime() ||
+                ticksUntilPreemption(cpu) <= 0;
+    }
+
+    //a method that records the queue depths of a sampled step and returns the time its phases are timed from
+    private long startSample(){
+        this.stepsUntilSample = this.metrics.getSampleInterval();
+        this.metrics.recordDepths(readyProcessCount(), ioQueueDepth(), this.unarrivedProcesses.size());
+        return System.nanoTime();
+    }
+
+    //a method that returns the number of processes waiting in the queues of the io devices
+    private int ioQueueDepth(){
+        int depth = 0;
+        for(IODevice device: this.ioDevices){
+            depth += device.getQueue().size();
+        }
+        return depth;
+    }
+
+    //a method that streams the results of the simulation to out in the given format
+    public void writeReport(Appendable out, ReportFormat format) throws java.io.IOException {
+        new ReportWriter(out, format).write(this);
+    }
+
+    //a method that streams the results of the simulation to out in the BINARY format
+    public void writeReport(java.io.OutputStream out) throws java.io.IOException {
+        new ReportWriter(out).write(this);
     }
 
     //the method to be implemented by each scheduling strategy
     public abstract void runProcesses(CPU cpu);
 
-    //a method that runs IO for processes
-    private void runIO(){
-        if(this.ioProcess == null){
-            if(this.ioQueue.peek() != null){
-                this.ioProcess = this.ioQueue.poll();
+    //the method that creates an empty ready queue ordered the way the scheduling strategy needs (used to give every cpu
+    //its own ready queue in multi queue mode)
+    protected abstract ProcessQueue createReadyQueue();
+
+    //a method that returns the number of ticks the process running on the cpu can keep running before the strategy
+    //preempts it, strategies that preempt processes must override it so the event driven engine stops skipping ticks in time
+    protected int ticksUntilPreemption(CPU cpu){
+        return Integer.MAX_VALUE;
+    }
+
+    //a method that returns the number of ticks until the strategy changes the state of processes on its own (e.g. a
+    //periodic priority boost), strategies with such events must override it so the event driven engine stops at them
+    protected int ticksUntilStrategyEvent(){
+        return Integer.MAX_VALUE;
+    }
+
+    //a method called when a process completes its io, right before it goes back to the ready queue (strategies can
+    //override it to change the priority of the process)
+    protected void onIoComplete(CPUProcess cpup){
+    }
+
+    //a method called when a process completes execution, after its times are recorded (strategies can override it to
+    //keep statistics of their own)
+    protected void onProcessFinished(CPUProcess cpup){
+    }
+
+    //a method that returns the number of upcoming ticks (starting at the current time) in which no process changes state
+    //0 means that something happens at the current tick and it must be simulated normally
+    private int steadyTicks(){
+        int steadyTicks = Integer.MAX_VALUE;
+
+        //the next arrival
+        if(this.unarrivedProcesses.isEmpty() == false){
+            steadyTicks = Math.min(steadyTicks, this.unarrivedProcesses.peekArrivalTime() - this.time);
+        }
+
+        //the next event of the strategy
+        steadyTicks = Math.min(steadyTicks, ticksUntilStrategyEvent());
+
+        //the next push migration
+        if(this.multiQueue && this.balanceInterval > 0){
+            int sinceBalance = this.time % this.balanceInterval;
+            steadyTicks = Math.min(steadyTicks, sinceBalance == 0 ? 0 : this.balanceInterval - sinceBalance);
+        }
+
+        for(CPU cpu: this.cpus){
+            CPUProcess cpup = cpu.getRunningProcess();
+            //an idle cpu will pick up the next ready process as soon as it is eligible (or steal one right away)
+            if(cpup == null){
+                CPUProcess nextReady = peekReadyQueue(cpu);
+                if(nextReady != null){
+                    steadyTicks = Math.min(steadyTicks, nextReady.getArrivalTime() - this.time);
+                }
+                else if(this.multiQueue && this.workStealing && readyProcessCount() > 0){
+                    steadyTicks = 0;
+                }
+                continue;
+            }
+            //the running process stops at its next io request or when it completes, whichever comes first, once the
+            //cpu is done switching to it
+            steadyTicks = Math.min(steadyTicks, cpu.getOverheadLeft() + ticksUntilStop(cpup));
+            steadyTicks = Math.min(steadyTicks, ticksUntilPreemption(cpu));
+        }
+
+        //every channel of the io devices either picks up the next waiting process or completes its current request
+        for(IODevice device: this.ioDevices){
+            for(int channel = 0; channel < device.getNumOfChannels(); channel++){
+                CPUProcess cpup = device.getProcess(channel);
+                if(cpup != null){
+                    steadyTicks = Math.min(steadyTicks, cpup.getIoDuration() - 1 - cpup.getIoTime());
+                }
+                else if(device.getQueue().isEmpty() == false){
+                    steadyTicks = 0;
+                }
+            }
+        }
+
+        return Math.max(steadyTicks, 0);
+    }
+
+    //a method that applies the effect of the given number of steady ticks (see steadyTicks()) in one step
+    //it updates the statistics and charts exactly as the same number of calls to runProcesses, waitProcesses and runIO would
+    private void advanceSteadyTicks(int ticks){
+        for(CPU cpu: this.cpus){
+            CPUProcess cpup = cpu.getRunningProcess();
+            if(cpup != null){
+                //the first ticks can still be spent switching to the process
+                int overhead = Math.min(ticks, cpu.getOverheadLeft());
+                if(overhead > 0){
+                    cpu.getTimeline().append(Timeline.OVERHEAD, overhead);
+                    cpu.setOverheadLeft(cpu.getOverheadLeft() - overhead);
+                    cpup.setTurnaroundTime(cpup.getTurnaroundTime() + overhead);
+                }
+                if(ticks > overhead){
+                    cpu.getTimeline().append(cpup.getIndex(), ticks - overhead);
+                    cpup.updateStatistics(ticks - overhead);
+                    if(this.switchCosts != null)
+                        cpup.setLastRun(cpu.getCpuID(), this.time + ticks);
+                    this.listener.onRun(this.time + overhead, this.time + ticks, cpu, cpup);
+                }
+            }
+            else if(this.processesAreRunning() || this.unarrivedProcesses.size() > 0){
+                cpu.getTimeline().append(Timeline.IDLE, ticks);
+            }
+        }
+        sampleReadyQueues(ticks);
+
+        for(IODevice device: this.ioDevices){
+            for(int channel = 0; channel < device.getNumOfChannels(); channel++){
+                CPUProcess cpup = device.getProcess(channel);
+                if(cpup != null){
+                    this.listener.onIo(this.time, this.time + ticks, cpup);
+                    device.getTimeline(channel).append(cpup.getIndex(), ticks);
+                    cpup.setTurnaroundTime(cpup.getTurnaroundTime() + ticks);
+                    cpup.setIoTime(cpup.getIoTime() + ticks);
+                }
+                else if(this.processesAreRunning() || this.unarrivedProcesses.size() > 0){
+                    device.getTimeline(channel).append(Timeline.IDLE, ticks);
+                }
+            }
+            device.recordQueueDepth(ticks);
+        }
+        this.time += ticks;
+    }
+
+    //a method that runs IO for processes on every channel of every io device
+    protected void runIO(){
+        for(IODevice device: this.ioDevices){
+            for(int channel = 0; channel < device.getNumOfChannels(); channel++){
+                runIO(device, channel);
+            }
+            device.recordQueueDepth(1);
+        }
+    }
+
+    //a method that runs one channel of an io device for a tick, an idle channel first picks up the next process waiting
+    //for the device
+    private void runIO(IODevice device, int channel){
+        CPUProcess cpup = device.getProcess(channel);
+        if(cpup == null){
+            if(device.getQueue().isEmpty() == false){
+                cpup = this.processStates.view(device.getQueue().poll());
+                device.setProcess(channel, cpup);
+                cpup.leaveQueue(this.time, false);
+                this.listener.onIoStart(this.time, cpup);
             }
         }
 
-        if(this.ioProcess != null){
-            System.out.println("CPU Process " + this.ioProcess.getProcessID() + " is performing I/O " +
-                    " at time " + this.time + "-" + (this.time + 1));
-            this.ioChart.add(this.ioProcess.getProcessID());
-            this.ioProcess.setTurnaroundTime(this.ioProcess.getTurnaroundTime() + 1);
-            this.ioProcess.setIoTime(this.ioProcess.getIoTime() + 1);
-            if(this.ioProcess.getIoTime() == 2){
-                this.ioProcess.setIoTime(0);
-                this.ioProcess.setArrivalTime(this.time + 1);
-                this.readyQueue.add(this.ioProcess);
-                this.ioProcess = null;
+        if(cpup != null){
+            this.listener.onIo(this.time, this.time + 1, cpup);
+            device.getTimeline(channel).append(cpup.getIndex(), 1);
+            cpup.setTurnaroundTime(cpup.getTurnaroundTime() + 1);
+            cpup.setIoTime(cpup.getIoTime() + 1);
+            if(cpup.getIoTime() == cpup.getIoDuration()){
+                cpup.setIoTime(0);
+                cpup.setArrivalTime(this.time + 1);
+                onIoComplete(cpup);
+                addToReadyQueue(cpup, this.time + 1);
+                this.listener.onIoEnd(this.time + 1, cpup);
+                device.setProcess(channel, null);
             }
         }
         else{
             if(this.processesAreRunning() || this.unarrivedProcesses.size() > 0)
-                this.ioChart.add("");
+                device.getTimeline(channel).append(Timeline.IDLE, 1);
         }
+    }
 
-        if(this.ioQueue.peek() != null){
+    //a method that returns the io device the io request a process is about to wait on is for
+    private IODevice ioDeviceFor(CPUProcess cpup){
+        int deviceID = cpup.getIoDevice();
+        if(deviceID >= this.ioDevices.size()){
+            throw new IllegalStateException("Process " + cpup.getProcessID() + " requests io on device " + deviceID +
+                    " but only " + this.ioDevices.size() + " io devices are configured");
+        }
+        return this.ioDevices.get(deviceID);
+    }
 
-            //increasing waiting time for the processes that didn't get assigned to a processor
-            for(CPUProcess c: this.ioQueue){
-                c.setWaiting(c.getWaiting() + 1);
-                c.setTurnaroundTime(c.getTurnaroundTime() + 1);
+    //a method that adds a process to the ready queue, the process starts waiting at time queuedSince (its waiting time
+    //is added to its statistics when it leaves the queue instead of every tick it spends in it)
+    //in multi queue mode the process goes to the ready queue of the least loaded cpu, or with affinity aware dispatch
+    //to the empty ready queue of the cpu it last ran on if it saves more refilling its cache there than it waits
+    protected void addToReadyQueue(CPUProcess cpup, int queuedSince){
+        cpup.setQueuedSince(queuedSince);
+        if(this.multiQueue){
+            CPU lastCPU = affinityCPU(cpup);
+            if(lastCPU != null && lastCPU.getReadyQueue().isEmpty() &&
+                    this.switchCosts.affinitySaving(cpup, this.time) > ticksUntilFree(lastCPU)){
+                lastCPU.getReadyQueue().add(cpup.getRow());
+            }
+            else{
+                leastLoadedCPU().getReadyQueue().add(cpup.getRow());
             }
         }
+        else{
+            this.readyQueue.add(cpup.getRow());
+        }
     }
 
-    //a method that updates statistics for processes in the ready queue
-    private void waitProcesses(){
-        //increasing waiting time for the processes that didn't get assigned to a processor
-        for(CPUProcess c: this.readyQueue){
-            if(c.getArrivalTime() <= this.time) {
-                c.setWaiting(c.getWaiting() + 1);
-                c.setTurnaroundTime(c.getTurnaroundTime() + 1);
-                if(c.hasStarted() == false){
-                    c.setResponseTime(c.getResponseTime() + 1);
-                }
+    //a method that adds a process taken off a cpu back to the ready queue of that cpu (the shared ready queue unless
+    //in multi queue mode)
+    protected void addToReadyQueue(CPU cpu, CPUProcess cpup, int queuedSince){
+        cpup.setQueuedSince(queuedSince);
+        readyQueueFor(cpu).add(cpup.getRow());
+    }
+
+    //a method that returns the ready queue a cpu takes its processes from
+    protected ProcessQueue readyQueueFor(CPU cpu){
+        return this.multiQueue ? cpu.getReadyQueue() : this.readyQueue;
+    }
+
+    //a method that returns the number of processes waiting in the ready queue(s)
+    protected int readyProcessCount(){
+        if(this.multiQueue == false){
+            return this.readyQueue.size();
+        }
+        int count = this.readyQueue.size();
+        for(CPU cpu: this.cpus){
+            count += cpu.getReadyQueue().size();
+        }
+        return count;
+    }
+
+    //a method that returns the cpu with the fewest processes in its ready queue and on it (the lowest id on ties)
+    private CPU leastLoadedCPU(){
+        CPU leastLoaded = null;
+        int leastLoad = Integer.MAX_VALUE;
+        for(CPU cpu: this.cpus){
+            int load = cpu.getReadyQueue().size() + (cpu.getRunningProcess() == null ? 0 : 1);
+            if(load < leastLoad){
+                leastLoaded = cpu;
+                leastLoad = load;
+            }
+        }
+        return leastLoaded;
+    }
+
+    //a method that returns the cpu a process last ran on when dispatch is affinity aware (null otherwise, or if the
+    //process hasn't run yet)
+    private CPU affinityCPU(CPUProcess cpup){
+        if(this.affinityAware == false || this.switchCosts == null){
+            return null;
+        }
+        int lastCPU = cpup.getLastCPU();
+        return lastCPU < 0 || lastCPU >= this.numOfCPUs ? null : this.cpus.get(lastCPU);
+    }
+
+    //a method that indicates whether a cpu with a shared ready queue leaves the process at its head to the cpu it last
+    //ran on, with affinity aware dispatch when the process saves more refilling its cache there than it waits for it
+    private boolean leftToLastCPU(CPU cpu, CPUProcess cpup){
+        CPU lastCPU = affinityCPU(cpup);
+        return this.multiQueue == false && lastCPU != null && lastCPU != cpu &&
+                this.switchCosts.affinitySaving(cpup, this.time) > ticksUntilFree(lastCPU);
+    }
+
+    //a method that returns the number of ticks until a cpu can take another process: until its running process (once
+    //the cpu is done switching to it) reaches its next io request, completes or is preempted
+    private int ticksUntilFree(CPU cpu){
+        CPUProcess cpup = cpu.getRunningProcess();
+        if(cpup == null){
+            return 0;
+        }
+        return cpu.getOverheadLeft() + Math.min(ticksUntilStop(cpup), ticksUntilPreemption(cpu));
+    }
+
+    //a method that returns the number of ticks a running process runs for until its next io request or until it
+    //completes, whichever comes first
+    private int ticksUntilStop(CPUProcess cpup){
+        int ticksUntilStop = cpup.getTotalExecTime() - cpup.getExecTime();
+        if(cpup.hasIoRequest() && cpup.getNextIoRequestTime() >= cpup.getExecTime()){
+            ticksUntilStop = Math.min(ticksUntilStop, cpup.getNextIoRequestTime() - cpup.getExecTime());
+        }
+        return ticksUntilStop;
+    }
+
+    //a method that moves processes from the longest ready queues to the shortest ones until their lengths differ by
+    //at most one
+    private void pushMigrate(){
+        while(true){
+            CPU longest = this.cpus.get(0);
+            CPU shortest = this.cpus.get(0);
+            for(CPU cpu: this.cpus){
+                if(cpu.getReadyQueue().size() > longest.getReadyQueue().size())
+                    longest = cpu;
+                if(cpu.getReadyQueue().size() < shortest.getReadyQueue().size())
+                    shortest = cpu;
             }
+            if(longest.getReadyQueue().size() - shortest.getReadyQueue().size() <= 1){
+                return;
+            }
+            migrate(longest, shortest);
         }
     }
 
+    //a method that lets an idle cpu with an empty ready queue steal a process from the longest ready queue
+    private void stealWork(CPU cpu){
+        CPU victim = null;
+        for(CPU other: this.cpus){
+            if(other != cpu && other.getReadyQueue().size() > 0 &&
+                    (victim == null || other.getReadyQueue().size() > victim.getReadyQueue().size())){
+                victim = other;
+            }
+        }
+        if(victim != null){
+            migrate(victim, cpu);
+        }
+    }
+
+    //a method that moves one process from the ready queue of a cpu to the ready queue of another, the process keeps
+    //waiting (its queuedSince doesn't change), the last process of a FIFO queue is moved and the head of the others
+    private void migrate(CPU from, CPU to){
+        int row = from.getReadyQueue().pollForMigration();
+        to.getReadyQueue().add(row);
+        from.setMigrationsOut(from.getMigrationsOut() + 1);
+        to.setMigrationsIn(to.getMigrationsIn() + 1);
+        this.listener.onMigrate(this.time, from, to, this.processStates.view(row));
+    }
+
+    //a method that records the length of every cpu's ready queue for the given number of ticks (multi queue mode only)
+    private void sampleReadyQueues(int ticks){
+        if(this.multiQueue == false){
+            return;
+        }
+        double mean = (double) readyProcessCount() / this.numOfCPUs;
+        for(CPU cpu: this.cpus){
+            cpu.recordReadyQueueLength(ticks, mean);
+        }
+    }
+
+    //a method that puts a process preempted by the head of the ready queue in the ready queue and returns that head
+    //(an indexed heap does this in a single sift instead of a poll and an add)
+    protected CPUProcess swapWithReadyQueueHead(CPU cpu, CPUProcess cpup){
+        int next;
+        ProcessQueue queue = readyQueueFor(cpu);
+        cpup.setQueuedSince(this.time);
+        if(queue instanceof IndexedProcessHeap){
+            next = ((IndexedProcessHeap) queue).replaceTop(cpup.getRow());
+        }
+        else{
+            next = queue.poll();
+            queue.add(cpup.getRow());
+        }
+        CPUProcess nextProcess = this.processStates.view(next);
+        nextProcess.leaveQueue(this.time, true);
+        return nextProcess;
+    }
+
+    //a method that removes the next process from the ready queue of a cpu and adds the time it waited to its statistics
+    protected CPUProcess pollReadyQueue(CPU cpu){
+        int row = readyQueueFor(cpu).poll();
+        if(row == ProcessQueue.NONE){
+            return null;
+        }
+        CPUProcess cpup = this.processStates.view(row);
+        cpup.leaveQueue(this.time, true);
+        return cpup;
+    }
+
+    //a method that returns the process at the head of the ready queue of a cpu without removing it (null if the queue
+    //is empty)
+    protected CPUProcess peekReadyQueue(CPU cpu){
+        int row = readyQueueFor(cpu).peek();
+        return row == ProcessQueue.NONE ? null : this.processStates.view(row);
+    }
+
+    //a method that records the times of a process that completed execution (keeping them if keepFinishedProcesses) and
+    //gives its row back to processStates
+    private void finish(CPUProcess cpup){
+        this.waitingTimes.record(cpup.getWaiting());
+        this.turnaroundTimes.record(cpup.getTurnaroundTime());
+        this.responseTimes.record(cpup.getResponseTime());
+        if(this.keepFinishedProcesses){
+            this.finishedProcesses.add(cpup.getIndex(), cpup.getWaiting(), cpup.getTurnaroundTime(), cpup.getResponseTime());
+        }
+        onProcessFinished(cpup);
+        this.listener.onFinish(this.time, cpup);
+        this.processStates.release(cpup.getRow());
+    }
+
+    //a method that writes a checkpoint with the checkpointer and schedules the next one, a checkpoint that can't be
+    //written stops the run (scheduleProcesses() throws an UncheckedIOException) instead of carrying on without it
+    private void checkpoint(){
+        try{
+            this.checkpointer.checkpoint(this);
+        }
+        catch(IOException e){
+            if(this.partitions != null){
+                this.partitions.close();
+            }
+            throw new UncheckedIOException("The checkpoint at time " + this.time + " could not be written to " +
+                    this.checkpointer.getFileName(), e);
+        }
+        this.nextCheckpointTime = this.time + this.checkpointInterval;
+    }
+
+    //CHECKPOINTS
+    //a method that writes the live state of the simulation for SimulationCheckpointer: the settings, the processes
+    //that arrived and haven't finished with the queues they are in, the cpus, the io devices, the histograms and the
+    //state of the strategy, its size doesn't grow with the time simulated (the charts and the finished processes that
+    //are kept are journaled by the checkpointer and the processes that haven't arrived are read from the workload again)
+    public void writeCheckpoint(DataOutput out) throws IOException {
+        out.writeInt(this.time);
+        out.writeInt(this.numOfCPUs);
+        out.writeBoolean(this.eventDriven);
+        out.writeBoolean(this.multiQueue);
+        out.writeInt(this.balanceInterval);
+        out.writeBoolean(this.workStealing);
+        out.writeBoolean(this.keepFinishedProcesses);
+        out.writeBoolean(this.switchCosts != null);
+        if(this.switchCosts != null){
+            out.writeInt(this.switchCosts.getContextSwitchCost());
+            out.writeInt(this.switchCosts.getMigrationPenalty());
+            out.writeInt(this.switchCosts.getCacheHalfLife());
+        }
+        out.writeBoolean(this.affinityAware);
+        out.writeInt(this.lastReadArrivalTime);
+        out.writeInt(this.processTable.size());
+        out.writeInt(this.unarrivedProcesses.size());
+        out.writeBoolean(this.ioDevicesConfigured);
+        out.writeInt(this.ioDevices.size());
+        for(IODevice device: this.ioDevices){
+            out.writeInt(device.getNumOfChannels());
+            out.writeUTF(device.getDiscipline().name());
+        }
+
+        //the state of the processes in the system, then where each of them is
+        this.processStates.writeCheckpoint(out);
+
+        writeQueue(out, this.readyQueue);
+        for(CPU cpu: this.cpus){
+            out.writeInt(cpu.getRunningProcess() == null ? -1 : cpu.getRunningProcess().getIndex());
+            if(this.multiQueue)
+                writeQueue(out, cpu.getReadyQueue());
+            cpu.writeCheckpoint(out);
+        }
+        for(IODevice device: this.ioDevices){
+            writeQueue(out, device.getQueue());
+            for(int channel = 0; channel < device.getNumOfChannels(); channel++){
+                out.writeInt(device.getProcess(channel) == null ? -1 : device.getProcess(channel).getIndex());
+            }
+            device.writeCheckpoint(out);
+        }
+        this.waitingTimes.writeCheckpoint(out);
+        this.turnaroundTimes.writeCheckpoint(out);
+        this.responseTimes.writeCheckpoint(out);
+
+        //the state of the strategy is only read back by a scheduler of the same strategy
+        ByteArrayOutputStream strategyState = new ByteArrayOutputStream();
+        writeStrategyState(new DataOutputStream(strategyState));
+        out.writeUTF(getClass().getName());
+        out.writeInt(strategyState.size());
+        out.write(strategyState.toByteArray());
+    }
+
+    //a method that restores the live state written by writeCheckpoint into this scheduler, which must not have run yet
+    //and must hold the same workload, it can be of another strategy (e.g. to run several strategies from the same
+    //point) in which case the queues are rebuilt in the order they were written and the strategy state is left out
+    public void readCheckpoint(DataInput in) throws IOException {
+        if(this.time != 0 || getFinishedCount() != 0){
+            throw new IllegalStateException("A checkpoint can only be restored into a scheduler that hasn't run yet");
+        }
+        int time = in.readInt();
+        int numOfCPUs = in.readInt();
+        boolean eventDriven = in.readBoolean();
+        boolean multiQueue = in.readBoolean();
+        int balanceInterval = in.readInt();
+        boolean workStealing = in.readBoolean();
+        boolean keepFinishedProcesses = in.readBoolean();
+        SwitchCostModel switchCosts = null;
+        if(in.readBoolean()){
+            try{
+                switchCosts = new SwitchCostModel(in.readInt(), in.readInt(), in.readInt());
+            }
+            catch(IllegalArgumentException e){
+                throw new IOException("the checkpoint has invalid switch costs: " + e.getMessage(), e);
+            }
+        }
+        boolean affinityAware = in.readBoolean();
+        int lastReadArrivalTime = in.readInt();
+        int processCount = in.readInt();
+        int unarrivedCount = in.readInt();
+        boolean ioDevicesConfigured = in.readBoolean();
+        int numOfDevices = in.readInt();
+        if(numOfCPUs < 1 || numOfDevices < 1){
+            throw new IOException("the checkpoint has " + numOfCPUs + " cpus and " + numOfDevices + " io devices");
+        }
+
+        //a streamed workload is read up to the last process read before the checkpoint
+        if(this.workloadReader != null){
+            this.workloadReader.setNumOfIoDevices(numOfDevices);
+        }
+        while(this.workloadReader != null && this.processTable.size() < processCount){
+            int index = readProcess(this.workloadReader);
+            if(index < 0){
+                this.workloadReader.close();
+                this.workloadReader = null;
+            }
+            else{
+                this.unarrivedProcesses.add(index);
+            }
+        }
+        if(this.processTable.size() != processCount){
+            throw new IOException("the checkpoint was written for a workload of " + processCount +
+                    " processes but this one has " + this.processTable.size());
+        }
+
+        //the processes that haven't arrived yet are still in unarrivedProcesses, the others are put back from the checkpoint
+        while(this.unarrivedProcesses.isEmpty() == false && this.unarrivedProcesses.peekArrivalTime() < time){
+            this.unarrivedProcesses.poll();
+        }
+        if(this.unarrivedProcesses.size() != unarrivedCount){
+            throw new IOException("the checkpoint has " + unarrivedCount + " processes left to arrive at time " + time +
+                    " but this workload has " + this.unarrivedProcesses.size());
+        }
+        setMultiQueue(false);
+        this.readyQueue.clear();
+        this.processStates.clear();
+        this.numOfCPUs = numOfCPUs;
+        createCPUs();
+        setMultiQueue(multiQueue);
+        this.ioDevices = new ArrayList<>(numOfDevices);
+        for(int i = 0; i < numOfDevices; i++){
+            int numOfChannels = in.readInt();
+            String discipline = in.readUTF();
+            try{
+                this.ioDevices.add(new IODevice(i, numOfChannels, IOQueueDiscipline.valueOf(discipline),
+                        this.processStates));
+            }
+            catch(IllegalArgumentException e){
+                throw new IOException("the checkpoint has an invalid io device: " + e.getMessage(), e);
+            }
+        }
+
+        //the row each process in the system is given, by process index
+        Map<Integer, Integer> rows = new HashMap<>();
+        this.processStates.readCheckpoint(in, rows);
+
+        readQueue(in, this.readyQueue, rows);
+        for(CPU cpu: this.cpus){
+            cpu.setRunningProcess(readProcessIndex(in, rows));
+            if(multiQueue)
+                readQueue(in, cpu.getReadyQueue(), rows);
+            cpu.readCheckpoint(in);
+        }
+        for(IODevice device: this.ioDevices){
+            readQueue(in, device.getQueue(), rows);
+            for(int channel = 0; channel < device.getNumOfChannels(); channel++){
+                device.setProcess(channel, readProcessIndex(in, rows));
+            }
+            device.readCheckpoint(in);
+        }
+        this.waitingTimes.readCheckpoint(in);
+        this.turnaroundTimes.readCheckpoint(in);
+        this.responseTimes.readCheckpoint(in);
+
+        String strategy = in.readUTF();
+        byte[] strategyState = new byte[in.readInt()];
+        in.readFully(strategyState);
+        if(strategy.equals(getClass().getName())){
+            readStrategyState(new DataInputStream(new ByteArrayInputStream(strategyState)));
+        }
+
+        this.time = time;
+        this.eventDriven = eventDriven;
+        this.balanceInterval = balanceInterval;
+        this.workStealing = workStealing;
+        this.keepFinishedProcesses = keepFinishedProcesses;
+        this.switchCosts = switchCosts;
+        this.affinityAware = affinityAware;
+        this.lastReadArrivalTime = lastReadArrivalTime;
+        this.ioDevicesConfigured = ioDevicesConfigured;
+        this.nextCheckpointTime = time + this.checkpointInterval;
+        discardArrivedDefinitions();
+    }
+
+    //a method that writes the state a strategy keeps on top of the scheduler's to a checkpoint (strategies with such
+    //state must override it and readStrategyState)
+    protected void writeStrategyState(DataOutput out) throws IOException {
+    }
+
+    //a method that reads the state written by writeStrategyState when a checkpoint is restored
+    protected void readStrategyState(DataInput in) throws IOException {
+    }
+
+    //RESULT CACHE
+    //a method that writes every setting of a scheduler that hasn't run yet that changes what scheduleProcesses()
+    //reports: the strategy, its parameters, the cpus and their queues, the switch costs and the io devices (the
+    //processes are written apart by ProcessTable.writeDefinitions), the settings that only change how the simulation
+    //is run (event driven mode, partitions, checkpoints, metrics and the listener) are left out
+    public void writeConfiguration(DataOutput out) throws IOException {
+        if(this.time != 0 || getFinishedCount() != 0){
+            throw new IllegalStateException("The configuration of a scheduler can only be written before it runs");
+        }
+        if(this.workloadReader != null){
+            throw new IllegalStateException("The processes of a streamed workload aren't known before they are read");
+        }
+        out.writeUTF(getClass().getName());
+        out.writeInt(this.numOfCPUs);
+        out.writeBoolean(this.multiQueue);
+        out.writeInt(this.balanceInterval);
+        out.writeBoolean(this.workStealing);
+        out.writeBoolean(this.keepFinishedProcesses);
+        out.writeBoolean(this.switchCosts != null);
+        if(this.switchCosts != null){
+            out.writeInt(this.switchCosts.getContextSwitchCost());
+            out.writeInt(this.switchCosts.getMigrationPenalty());
+            out.writeInt(this.switchCosts.getCacheHalfLife());
+        }
+        out.writeBoolean(this.affinityAware);
+        out.writeBoolean(this.ioDevicesConfigured);
+        out.writeInt(this.ioDevices.size());
+        for(IODevice device: this.ioDevices){
+            out.writeInt(device.getNumOfChannels());
+            out.writeUTF(device.getDiscipline().name());
+        }
+        writeStrategyConfiguration(out);
+    }
+
+    //a method that writes the parameters of a strategy for writeConfiguration (strategies with parameters must
+    //override it)
+    protected void writeStrategyConfiguration(DataOutput out) throws IOException {
+    }
+
+    //a method that writes the process indexes of a queue in the order that rebuilds it when they are added back to an
+    //empty queue of the same kind (see ProcessQueue.toArray) and its state
+    private void writeQueue(DataOutput out, ProcessQueue queue) throws IOException {
+        int[] rows = queue.toArray();
+        out.writeInt(rows.length);
+        for(int row: rows){
+            out.writeInt(this.processStates.getProcessIndex(row));
+        }
+        if(queue instanceof VruntimeQueue){
+            out.writeByte(VRUNTIME_QUEUE_STATE);
+            out.writeLong(((VruntimeQueue) queue).getMinVruntime());
+            out.writeLong(((VruntimeQueue) queue).getMaxSpread());
+        }
+        else if(queue instanceof ElevatorQueue){
+            out.writeByte(ELEVATOR_QUEUE_STATE);
+            out.writeInt(((ElevatorQueue) queue).getPosition());
+            out.writeBoolean(((ElevatorQueue) queue).isAscending());
+        }
+        else{
+            out.writeByte(NO_QUEUE_STATE);
+        }
+    }
+
+    //a method that adds the processes of a queue written by writeQueue to an empty queue, its state is only restored
+    //if the queue is of the same kind
+    private void readQueue(DataInput in, ProcessQueue queue, Map<Integer, Integer> rows) throws IOException {
+        int size = in.readInt();
+        for(int i = 0; i < size; i++){
+            CPUProcess cpup = readProcessIndex(in, rows);
+            if(cpup == null){
+                throw new IOException("the checkpoint has a queue holding no process");
+            }
+            queue.add(cpup.getRow());
+        }
+        byte state = in.readByte();
+        if(state == VRUNTIME_QUEUE_STATE){
+            long minVruntime = in.readLong();
+            long maxSpread = in.readLong();
+            if(queue instanceof VruntimeQueue){
+                ((VruntimeQueue) queue).setMinVruntime(minVruntime);
+                ((VruntimeQueue) queue).setMaxSpread(maxSpread);
+            }
+        }
+        else if(state == ELEVATOR_QUEUE_STATE){
+            int position = in.readInt();
+            boolean ascending = in.readBoolean();
+            if(queue instanceof ElevatorQueue){
+                ((ElevatorQueue) queue).setPosition(position);
+                ((ElevatorQueue) queue).setAscending(ascending);
+            }
+        }
+        else if(state != NO_QUEUE_STATE){
+            throw new IOException("the checkpoint has an unknown queue state: " + state);
+        }
+    }
+
+    //a method that reads a process index from a checkpoint and returns a view of the process (null for -1), rows holds
+    //the row of every process in the system
+    private CPUProcess readProcessIndex(DataInput in, Map<Integer, Integer> rows) throws IOException {
+        int index = in.readInt();
+        if(index == -1){
+            return null;
+        }
+        Integer row = rows.get(index);
+        if(row == null){
+            throw new IOException("the checkpoint refers to process " + index + " which isn't in the system");
+        }
+        return this.processStates.view(row);
+    }
+
     //a method that calculates the average wait time
-    private double calculateAvgWaitTime(){
-        double avgWaitTime = 0;
-        for(CPUProcess cpup: this.finishedProcesses){
-            avgWaitTime += cpup.getWaiting();
+    public double calculateAvgWaitTime(){
+        return this.waitingTimes.calculateMean();
+    }
+
+    //a method that calculates the average cpu utilization for all cpus
+    public double calculateAvgCPUUtilization(){
+        double avgCpuUtilization = 0;
+        for(CPU cpu: this.cpus) {
+            avgCpuUtilization += cpu.calculateCPUUtilization();
+        }
+        return avgCpuUtilization/this.numOfCPUs;
+    }
+
+    //a method that calculates the average share of the time the cpus spent switching processes
+    public double calculateAvgOverhead(){
+        double overhead = 0;
+        for(CPU cpu: this.cpus){
+            overhead += cpu.calculateOverhead();
         }
-        avgWaitTime = avgWaitTime/this.finishedProcesses.size();
-        return avgWaitTime;
+        return overhead / this.cpus.size();
     }
 
     //a method that indicates whether processes are running or not (on a cpu or in io)
     protected boolean processesAreRunning(){
-        if(this.ioQueue.size() > 0 || this.ioProcess != null){
-            return true;
+        for(IODevice device: this.ioDevices){
+            if(device.isBusy())
+                return true;
         }
         for(CPU c: this.cpus){
             if(c.getRunningProcess() != null)
@@ -244,39 +1155,199 @@ public abstract class SchedulerStrategy implements Scheduler{
         return false;
     }
 
-    //a method that adds processes that have just arrived to the ready queue
+    //a method that adds processes that have just arrived to the ready queue, unarrivedProcesses is ordered by arrival
+    //time so only its head needs to be looked at (scheduleProcesses() calls it once at the start of every tick)
     protected void addArrivedProcesses(){
-        Iterator<CPUProcess> itr = this.unarrivedProcesses.iterator();
-        while(itr.hasNext()){
-            CPUProcess cpup = itr.next();
-            if(cpup.getArrivalTime() <= this.time) {
-                this.readyQueue.add(cpup);
-                itr.remove();
-            }
+        readArrivedProcesses();
+        releaseArrivedProcesses();
+        discardArrivedDefinitions();
+    }
+
+    public List<CPU> getCpus(){ return this.cpus; }
+
+    public FinishedProcesses getFinishedProcesses(){ return this.finishedProcesses; }
+
+    //returns the number of processes that completed execution (whether they were kept or not)
+    public long getFinishedCount(){ return this.waitingTimes.getCount(); }
+
+    public LatencyHistogram getWaitingTimes(){ return this.waitingTimes; }
+
+    public LatencyHistogram getTurnaroundTimes(){ return this.turnaroundTimes; }
+
+    public LatencyHistogram getResponseTimes(){ return this.responseTimes; }
+
+    public boolean isKeepFinishedProcesses(){ return this.keepFinishedProcesses; }
+
+    public void setKeepFinishedProcesses(boolean keepFinishedProcesses){ this.keepFinishedProcesses = keepFinishedProcesses; }
+
+    public boolean isPrintReport(){ return this.printReport; }
+
+    public void setPrintReport(boolean printReport){ this.printReport = printReport; }
+
+    //returns the chart of the first channel of the first io device
+    public Timeline getIOChart(){ return this.ioDevices.get(0).getTimeline(0); }
+
+    public List<IODevice> getIODevices(){ return this.ioDevices; }
+
+    public boolean isIODevicesConfigured(){ return this.ioDevicesConfigured; }
+
+    //a method that replaces the io devices by numOfDevices devices with the given number of channels and queue
+    //discipline (before scheduleProcesses() is called), there must be a device for every device the processes request
+    //io on
+    public void setIODevices(int numOfDevices, int numOfChannels, IOQueueDiscipline discipline){
+        if(numOfDevices < 1){
+            throw new IllegalArgumentException("There must be at least one io device");
         }
+        if(numOfDevices < this.processTable.getNumOfIoDevices()){
+            throw new IllegalArgumentException("The processes request io on " + this.processTable.getNumOfIoDevices() +
+                    " io devices but only " + numOfDevices + " are configured");
+        }
+        createIODevices(numOfDevices, numOfChannels, discipline);
+        this.ioDevicesConfigured = true;
     }
 
-    //a method that prints out the io chart
-    private String printIOChart(){
-        String gantt = "|";
-        for(int i = 0; i < this.ioChart.size(); i++){
-            if(i < 10)
-                gantt = gantt + "  " + i + "  | ";
-            else
-                gantt = gantt + " " + i + "  | ";
+    //a method that replaces the io device with the given id, or adds it if it's the next id (before scheduleProcesses()
+    //is called)
+    public void setIODevice(int deviceID, int numOfChannels, IOQueueDiscipline discipline){
+        if(deviceID < 0 || deviceID > this.ioDevices.size()){
+            throw new IllegalArgumentException("The io device ids must go from 0 to " + this.ioDevices.size());
+        }
+        IODevice device = new IODevice(deviceID, numOfChannels, discipline, this.processStates);
+        if(deviceID == this.ioDevices.size())
+            this.ioDevices.add(device);
+        else
+            this.ioDevices.set(deviceID, device);
+        if(this.workloadReader != null){
+            this.workloadReader.setNumOfIoDevices(this.ioDevices.size());
         }
-        gantt = gantt + "\n" + "|";
-        for(String s: this.ioChart){
-            if(s.equals("")){
-                gantt = gantt + "     | ";
+        this.ioDevicesConfigured = true;
+    }
+
+    public int getTime(){ return this.time; }
+
+    public ProcessTable getProcessTable(){ return this.processTable; }
+
+    public ProcessStateTable getProcessStates(){ return this.processStates; }
+
+    public SimulationCheckpointer getCheckpointer(){ return this.checkpointer; }
+
+    //a method that makes scheduleProcesses() write a checkpoint with the checkpointer every checkpointInterval ticks
+    //(null to stop writing checkpoints)
+    public void setCheckpointer(SimulationCheckpointer checkpointer, int checkpointInterval){
+        if(checkpointer != null && checkpointInterval < 1){
+            throw new IllegalArgumentException("The checkpoint interval must be at least 1 tick");
+        }
+        this.checkpointer = checkpointer;
+        this.checkpointInterval = checkpointInterval;
+        this.nextCheckpointTime = this.time + checkpointInterval;
+    }
+
+    //returns the listener the events are passed on to (not the one counting them in the metrics)
+    public SimulationListener getListener(){
+        if(this.listener instanceof SimulationMetrics.CountingListener){
+            return ((SimulationMetrics.CountingListener) this.listener).getListener();
+        }
+        return this.listener;
+    }
+
+    public void setListener(SimulationListener listener){
+        this.listener = this.metrics == null ? listener : this.metrics.countEvents(listener);
+    }
+
+    public SimulationMetrics getMetrics(){ return this.metrics; }
+
+    //a method that records the steps, events and phase times of the simulation in the metrics (null to stop, the metrics
+    //can be shared by several schedulers)
+    public void setMetrics(SimulationMetrics metrics){
+        SimulationListener listener = getListener();
+        this.metrics = metrics;
+        this.stepsUntilSample = 0;
+        setListener(listener);
+    }
+
+    public PrintStream getOut(){ return this.out; }
+
+    public void setOut(PrintStream out){ this.out = out; }
+
+    public int getNumOfCPUs(){ return this.numOfCPUs; }
+
+    //a method that replaces the cpus read from the file by the given number of cpus (before scheduleProcesses() is called)
+    public void setNumOfCPUs(int numOfCPUs){
+        boolean multiQueue = this.multiQueue;
+        setMultiQueue(false);
+        this.numOfCPUs = numOfCPUs;
+        createCPUs();
+        setMultiQueue(multiQueue);
+    }
+
+    public boolean isMultiQueue(){ return this.multiQueue; }
+
+    //a method that switches between one ready queue shared by all cpus and one ready queue per cpu, the processes that
+    //are already ready are moved to the new queue(s)
+    public void setMultiQueue(boolean multiQueue){
+        if(multiQueue == this.multiQueue){
+            return;
+        }
+        this.multiQueue = multiQueue;
+        if(multiQueue){
+            for(CPU cpu: this.cpus){
+                ProcessQueue queue = createReadyQueue();
+                queue.attach(this.processStates);
+                cpu.setReadyQueue(queue);
             }
-            else{
-                gantt = gantt + " " + s + "  | ";
+            while(this.readyQueue.isEmpty() == false){
+                leastLoadedCPU().getReadyQueue().add(this.readyQueue.poll());
+            }
+        }
+        else{
+            for(CPU cpu: this.cpus){
+                for(int row: cpu.getReadyQueue().toArray()){
+                    this.readyQueue.add(row);
+                }
+                cpu.setReadyQueue(null);
             }
         }
-        return gantt;
     }
 
+    public int getBalanceInterval(){ return this.balanceInterval; }
+
+    public void setBalanceInterval(int balanceInterval){ this.balanceInterval = balanceInterval; }
+
+    public boolean isWorkStealing(){ return this.workStealing; }
+
+    public void setWorkStealing(boolean workStealing){ this.workStealing = workStealing; }
+
+    public SwitchCostModel getSwitchCosts(){ return this.switchCosts; }
+
+    //a method that makes the cpus spend time switching processes as given by the model (null for free switches)
+    public void setSwitchCosts(SwitchCostModel switchCosts){ this.switchCosts = switchCosts; }
+
+    public boolean isAffinityAware(){ return this.affinityAware; }
+
+    //a method that makes the dispatch prefer the cpu a process last ran on when refilling its cache on another cpu
+    //would cost it more than it waits for that cpu (only with switch costs): a cpu with a shared ready queue leaves
+    //such a process to its last cpu and in multi queue mode it goes back to the ready queue of its last cpu
+    public void setAffinityAware(boolean affinityAware){ this.affinityAware = affinityAware; }
+
+    public boolean isEventDriven(){ return this.eventDriven; }
+
+    public int getNumOfPartitions(){ return this.partitions == null ? 1 : this.partitions.getNumOfPartitions(); }
+
+    //a method that splits the cpus into the given number of partitions, each run on its own thread during the ticks in
+    //which they don't share anything (multi queue mode only, 1 runs every cpu on the simulation thread), the results
+    //are the same whatever the number of partitions
+    public void setNumOfPartitions(int numOfPartitions){
+        if(numOfPartitions < 1){
+            throw new IllegalArgumentException("The number of partitions must be at least 1");
+        }
+        if(this.partitions != null){
+            this.partitions.close();
+        }
+        this.partitions = numOfPartitions == 1 ? null : new PartitionedEngine(numOfPartitions);
+    }
+
+    public void setEventDriven(boolean eventDriven){ this.eventDriven = eventDriven; }
+
     //a method that runs a process on the cpu
     protected void runCPU(CPU cpu){
 
@@ -284,52 +1355,112 @@ public abstract class SchedulerStrategy implements Scheduler{
         if(cpu.getRunningProcess() != null){
             CPUProcess cpup = cpu.getRunningProcess();
 
+            //if the cpu is still switching to the process then it spends the tick on the switch
+            if(cpu.getOverheadLeft() > 0){
+                runOverheadTick(cpu, cpup);
+            }
             //if it's time for io then we push the process to the ioReadyQueue and remove it from the cpu
-            if(cpup.getIoRequestTimes().peek() != null && cpup.getExecTime() == cpup.getIoRequestTimes().peek()){
-                cpup.getIoRequestTimes().poll();
+            else if(cpup.isAtIoRequest()){
+                cpup.pollIoRequest();
                 cpup.setqElapsed(0);
-                this.ioQueue.add(cpup);
+                cpup.setQueuedSince(this.time);
+                requestIo(cpu, cpup);
                 cpu.setRunningProcess(null);
             }
             //otherwise if the process has completed we add it to the finished processes list and remove it from the cpu
             else if(cpup.getExecTime() == cpup.getTotalExecTime()){
                 cpu.setRunningProcess(null);
-                this.finishedProcesses.add(cpup);
+                finish(cpu, cpup);
             }
             //otherwise, the process will continue to run on the cpu and we will update the process' statistics
             else{
-                cpu.getChart().add(cpup.getProcessID());
-                cpup.updateStatistics();
-                System.out.println("CPU Process " + cpup.getProcessID() + " is running on CPU " +
-                        cpu.getCpuID() + " at time " + this.time + "-" + (this.time+1));
+                runTick(cpu, cpup);
             }
         }
 
         //if the cpu doesn't have any running processes then we must add the next process from the ready queue (if available)
         if(cpu.getRunningProcess() == null){
-            CPUProcess cpup = this.readyQueue.peek();
-            if(cpup != null && cpup.getArrivalTime() <= this.time){
-                this.readyQueue.poll();
+            if(this.multiQueue && this.workStealing && cpu.getReadyQueue().isEmpty()){
+                stealWork(cpu);
+            }
+            CPUProcess cpup = peekReadyQueue(cpu);
+            if(cpup != null && cpup.getArrivalTime() <= this.time && leftToLastCPU(cpu, cpup) == false){
+                pollReadyQueue(cpu);
                 if(cpup.getExecTime() == cpup.getTotalExecTime()){
-                    this.finishedProcesses.add(cpup);
-                    if(this.processesAreRunning()) {
-                        cpu.getChart().add("");
-                    }
+                    finish(cpu, cpup);
+                    appendIdleTick(cpu, false);
                 }
                 else {
-                    cpu.getChart().add(cpup.getProcessID());
                     cpu.setRunningProcess(cpup);
                     cpup.setHasStarted(true);
-                    cpup.updateStatistics();
-                    System.out.println("CPU Process " + cpup.getProcessID() + " is running on CPU " +
-                            cpu.getCpuID() + " at time " + this.time + "-" + (this.time + 1));
+                    this.listener.onDispatch(this.time, cpu, cpup);
+                    runTick(cpu, cpup);
                 }
             }
             else {
-                if(this.processesAreRunning() || this.unarrivedProcesses.size() > 0) {
-                    cpu.getChart().add("");
-                }
+                appendIdleTick(cpu, true);
             }
         }
     }
+
+    //a method that runs a process on the cpu for a tick, with switch costs a cpu switching to another process than the
+    //last one it switched to spends this tick (and the next ones) on the switch instead
+    private void runTick(CPU cpu, CPUProcess cpup){
+        if(this.switchCosts != null && cpu.getLoadedProcess() != cpup.getIndex()){
+            cpu.startSwitch(cpup.getIndex(), this.switchCosts.switchCost(cpu, cpup, this.time));
+            if(cpu.getOverheadLeft() > 0){
+                runOverheadTick(cpu, cpup);
+                return;
+            }
+        }
+        cpu.getTimeline().append(cpup.getIndex(), 1);
+        cpup.updateStatistics();
+        if(this.switchCosts != null){
+            cpup.setLastRun(cpu.getCpuID(), this.time + 1);
+        }
+        this.listener.onRun(this.time, this.time + 1, cpu, cpup);
+    }
+
+    //a method that spends a tick of the cpu switching to its process, the process doesn't run but the tick counts
+    //towards its turnaround time
+    private void runOverheadTick(CPU cpu, CPUProcess cpup){
+        cpu.getTimeline().append(Timeline.OVERHEAD, 1);
+        cpu.setOverheadLeft(cpu.getOverheadLeft() - 1);
+        cpup.setTurnaroundTime(cpup.getTurnaroundTime() + 1);
+    }
+
+    //a method that puts a process in the queue of the io device its request is for, while the partitions run it is
+    //done once they are done (the queue is shared by every partition, PartitionedEngine calls it back then)
+    void requestIo(CPU cpu, CPUProcess cpup){
+        if(this.partitions != null && this.partitions.isInPhase()){
+            this.partitions.deferIoRequest(cpu, cpup);
+        }
+        else{
+            ioDeviceFor(cpup).getQueue().add(cpup.getRow());
+        }
+    }
+
+    //a method that records the times of a process that completed execution on a cpu, while the partitions run it is
+    //done once they are done (the histograms and finished processes are shared by every partition, PartitionedEngine
+    //calls it back then)
+    void finish(CPU cpu, CPUProcess cpup){
+        if(this.partitions != null && this.partitions.isInPhase()){
+            this.partitions.deferFinish(cpu, cpup);
+        }
+        else{
+            finish(cpup);
+        }
+    }
+
+    //a method that charts an idle tick on a cpu left without a process if processes are still running (or, with
+    //unarrived, still have to arrive), while the partitions run it is decided once they are done from what the cpu
+    //would have seen running the cpus one after the other
+    private void appendIdleTick(CPU cpu, boolean unarrived){
+        if(this.partitions != null && this.partitions.isInPhase()){
+            this.partitions.deferIdleTick(cpu, unarrived);
+        }
+        else if(this.processesAreRunning() || (unarrived && this.unarrivedProcesses.size() > 0)){
+            cpu.getTimeline().append(Timeline.IDLE, 1);
+        }
+    }
 }
@@ -0,0 +1,269 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes checkpoints of a running simulation and restores them, a scheduler restored from a checkpoint of another
+ * scheduler (of the same workload) gives the same results as the other scheduler would have if it kept running
+ *
+ * A checkpoint is made of two files: the snapshot, holding the live state of the scheduler (see
+ * SchedulerStrategy.writeCheckpoint), which is rewritten by every checkpoint, and the history (the snapshot's name
+ * followed by .history), an append only journal of the chart intervals and finished processes, every checkpoint only
+ * appends what changed since the last one so the cost of a checkpoint doesn't grow with the time already simulated.
+ * The snapshot is replaced atomically and records the length of the history it goes with, so a run interrupted while
+ * writing a checkpoint resumes from the previous one
+ */
+public class SimulationCheckpointer implements AutoCloseable {
+
+    //MAGIC: the first int of every snapshot
+    private static final int MAGIC = 0x43505343;
+    //VERSION: the version of the snapshot and history format
+    private static final int VERSION = 3;
+    //INTERVAL_RECORD and FINISHED_RECORD: the kinds of records in the history (ticks added to a chart, a finished process)
+    private static final byte INTERVAL_RECORD = 0;
+    private static final byte FINISHED_RECORD = 1;
+
+    //snapshotFile and historyFile: the files the checkpoints are written to
+    private Path snapshotFile;
+    private Path historyFile;
+    //history: the channel the history is appended to (null until the first checkpoint or resume)
+    private FileChannel history = null;
+    //historyOut: the buffered stream over history
+    private DataOutputStream historyOut = null;
+    //journaledIntervals: the number of intervals of every chart (cpus first, then the channels of every io device)
+    //already in the history
+    private int[] journaledIntervals = null;
+    //journaledLength: the length of the last interval of every chart already in the history
+    private int[] journaledLength = null;
+    //journaledFinished: the number of finished processes already in the history
+    private int journaledFinished = 0;
+    //checkpointCount: the number of checkpoints written
+    private int checkpointCount = 0;
+
+    public SimulationCheckpointer(String fileName){
+        this.snapshotFile = Paths.get(fileName);
+        this.historyFile = Paths.get(fileName + ".history");
+    }
+
+    //a method that writes a checkpoint of the scheduler (between two steps), the first checkpoint of a checkpointer
+    //that didn't resume a run starts a new history
+    public void checkpoint(SchedulerStrategy scheduler) throws IOException {
+        List<Timeline> charts = chartsOf(scheduler);
+        if(this.history == null){
+            openHistory(0);
+            this.journaledIntervals = new int[charts.size()];
+            this.journaledLength = new int[charts.size()];
+        }
+        if(charts.size() != this.journaledIntervals.length){
+            throw new IllegalStateException("The cpus and io devices can't change between checkpoints");
+        }
+
+        //the ticks added to the last interval journaled, then the new intervals
+        for(int resource = 0; resource < charts.size(); resource++){
+            Timeline chart = charts.get(resource);
+            int journaled = this.journaledIntervals[resource];
+            if(journaled > 0 && chart.getLength(journaled - 1) > this.journaledLength[resource]){
+                writeInterval(resource, chart.getProcessIndex(journaled - 1),
+                        chart.getLength(journaled - 1) - this.journaledLength[resource]);
+            }
+            for(int interval = journaled; interval < chart.getIntervalCount(); interval++){
+                writeInterval(resource, chart.getProcessIndex(interval), chart.getLength(interval));
+            }
+            this.journaledIntervals[resource] = chart.getIntervalCount();
+            this.journaledLength[resource] = chart.getIntervalCount() == 0 ? 0 : chart.getLength(chart.getIntervalCount() - 1);
+        }
+        FinishedProcesses finished = scheduler.getFinishedProcesses();
+        for(int i = this.journaledFinished; i < finished.size(); i++){
+            this.historyOut.writeByte(FINISHED_RECORD);
+            this.historyOut.writeInt(finished.getProcessIndex(i));
+            this.historyOut.writeInt(finished.getWaiting(i));
+            this.historyOut.writeInt(finished.getTurnaroundTime(i));
+            this.historyOut.writeInt(finished.getResponseTime(i));
+        }
+        this.journaledFinished = finished.size();
+        this.historyOut.flush();
+        this.history.force(false);
+
+        //the snapshot is written next to the old one and then moved over it
+        Path tempFile = this.snapshotFile.resolveSibling(this.snapshotFile.getFileName() + ".tmp");
+        try(FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)){
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(this.history.position());
+            scheduler.writeCheckpoint(out);
+            out.flush();
+            channel.force(false);
+        }
+        Files.move(tempFile, this.snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        this.checkpointCount++;
+    }
+
+    //a method that restores the last checkpoint into a scheduler that hasn't run yet and continues its history, so
+    //that the checkpoints written after it extend the ones written before
+    public void resume(SchedulerStrategy scheduler) throws IOException {
+        if(this.history != null){
+            throw new IllegalStateException("The checkpointer already started writing checkpoints");
+        }
+        long historyLength = restore(scheduler, this.snapshotFile, this.historyFile);
+        openHistory(historyLength);
+        List<Timeline> charts = chartsOf(scheduler);
+        this.journaledIntervals = new int[charts.size()];
+        this.journaledLength = new int[charts.size()];
+        for(int resource = 0; resource < charts.size(); resource++){
+            Timeline chart = charts.get(resource);
+            this.journaledIntervals[resource] = chart.getIntervalCount();
+            this.journaledLength[resource] = chart.getIntervalCount() == 0 ? 0 : chart.getLength(chart.getIntervalCount() - 1);
+        }
+        this.journaledFinished = scheduler.getFinishedProcesses().size();
+    }
+
+    //a method that restores the checkpoint written to the given file into a scheduler that hasn't run yet, the files
+    //are only read so several schedulers (of any strategy) can start from the same checkpoint
+    public static void restore(SchedulerStrategy scheduler, String fileName) throws IOException {
+        restore(scheduler, Paths.get(fileName), Paths.get(fileName + ".history"));
+    }
+
+    //a method that restores the snapshot into the scheduler, replays the part of the history the snapshot goes with
+    //and returns its length
+    private static long restore(SchedulerStrategy scheduler, Path snapshotFile, Path historyFile) throws IOException {
+        long historyLength;
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))){
+            if(in.readInt() != MAGIC){
+                throw new IOException(snapshotFile + " is not a checkpoint");
+            }
+            int version = in.readInt();
+            if(version != VERSION){
+                throw new IOException(snapshotFile + " is a version " + version + " checkpoint, only version " +
+                        VERSION + " is supported");
+            }
+            historyLength = in.readLong();
+            scheduler.readCheckpoint(in);
+        }
+
+        List<Timeline> charts = chartsOf(scheduler);
+        try(InputStream historyIn = Files.newInputStream(historyFile)){
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new BoundedInputStream(historyIn, historyLength)));
+            int kind;
+            while((kind = in.read()) != -1){
+                if(kind == INTERVAL_RECORD){
+                    int resource = in.readInt();
+                    int processIndex = in.readInt();
+                    int ticks = in.readInt();
+                    if(resource < 0 || resource >= charts.size()){
+                        throw new IOException(historyFile + " refers to chart " + resource + " which doesn't exist");
+                    }
+                    charts.get(resource).append(processIndex, ticks);
+                }
+                else if(kind == FINISHED_RECORD){
+                    int index = in.readInt();
+                    if(index < 0 || index >= scheduler.getProcessTable().size()){
+                        throw new IOException(historyFile + " refers to process " + index + " which isn't in the workload");
+                    }
+                    scheduler.getFinishedProcesses().add(index, in.readInt(), in.readInt(), in.readInt());
+                }
+                else{
+                    throw new IOException(historyFile + " has an unknown record: " + kind);
+                }
+            }
+        }
+        return historyLength;
+    }
+
+    //a method that returns the charts journaled in the history: the charts of the cpus then those of every channel of
+    //every io device
+    private static List<Timeline> chartsOf(SchedulerStrategy scheduler){
+        List<Timeline> charts = new ArrayList<>();
+        for(CPU cpu: scheduler.getCpus()){
+            charts.add(cpu.getTimeline());
+        }
+        for(IODevice device: scheduler.getIODevices()){
+            for(int channel = 0; channel < device.getNumOfChannels(); channel++){
+                charts.add(device.getTimeline(channel));
+            }
+        }
+        return charts;
+    }
+
+    //a method that opens the history for appending after its first length bytes (anything after them was written
+    //after the last complete checkpoint and is dropped)
+    private void openHistory(long length) throws IOException {
+        this.history = FileChannel.open(this.historyFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        this.history.truncate(length);
+        this.history.position(length);
+        this.historyOut = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(this.history)));
+    }
+
+    private void writeInterval(int resource, int processIndex, int ticks) throws IOException {
+        this.historyOut.writeByte(INTERVAL_RECORD);
+        this.historyOut.writeInt(resource);
+        this.historyOut.writeInt(processIndex);
+        this.historyOut.writeInt(ticks);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(this.history != null){
+            this.historyOut.flush();
+            this.history.close();
+            this.history = null;
+        }
+    }
+
+    //GETTERS
+    public String getFileName(){ return this.snapshotFile.toString(); }
+
+    public int getCheckpointCount(){ return this.checkpointCount; }
+
+    /**
+     * An input stream that ends after the given number of bytes of the stream it reads from
+     */
+    private static class BoundedInputStream extends FilterInputStream {
+
+        //remaining: the number of bytes left before the end
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long length){
+            super(in);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if(this.remaining <= 0){
+                return -1;
+            }
+            int b = super.read();
+            if(b != -1){
+                this.remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if(this.remaining <= 0){
+                return -1;
+            }
+            int read = super.read(b, off, (int) Math.min(len, this.remaining));
+            if(read > 0){
+                this.remaining -= read;
+            }
+            return read;
+        }
+    }
+}
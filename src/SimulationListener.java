@@ -0,0 +1,36 @@
+/**
+ * Receives the events of a simulation as it runs, every method does nothing by default so a listener only needs to
+ * override the events it is interested in (the arguments are never formatted or copied before being passed on)
+ */
+public interface SimulationListener {
+
+    //NO_OP: a listener that ignores every event
+    SimulationListener NO_OP = new SimulationListener() {};
+
+    //called when a process is put on a cpu
+    default void onDispatch(int time, CPU cpu, CPUProcess process){}
+
+    //called when a process ran on a cpu from time start until time end
+    default void onRun(int start, int end, CPU cpu, CPUProcess process){}
+
+    //called when a process is taken off a cpu by the scheduling strategy before it needs io or finishes
+    default void onPreempt(int time, CPU cpu, CPUProcess process){}
+
+    //called when load balancing moves a waiting process from the ready queue of one cpu to the ready queue of another
+    default void onMigrate(int time, CPU from, CPU to, CPUProcess process){}
+
+    //called when the io device starts serving a process
+    default void onIoStart(int time, CPUProcess process){}
+
+    //called when a process performed io from time start until time end
+    default void onIo(int start, int end, CPUProcess process){}
+
+    //called when a process completes its io and goes back to the ready queue
+    default void onIoEnd(int time, CPUProcess process){}
+
+    //called when a process completes execution
+    default void onFinish(int time, CPUProcess process){}
+
+    //called once scheduleProcesses() has run every process
+    default void onSimulationEnd(int time){}
+}
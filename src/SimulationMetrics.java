@@ -0,0 +1,362 @@
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counts what the simulation loop does (ticks, steps, dispatches, preemptions, migrations, io and completions) and
+ * where its time goes (the phases of a step and the runProcesses of every strategy), the metrics can be read through
+ * JMX (see SimulationMetricsMXBean) and printed as a periodic progress line
+ *
+ * One instance can be shared by every scheduler of a sweep, the counters are LongAdders so the threads running the
+ * simulations don't contend on them. A scheduler only reads the clock and the queue depths on one step out of
+ * sampleInterval, the phase times are estimated from those steps, and a scheduler without metrics only checks a null
+ * field once per step
+ */
+public class SimulationMetrics implements SimulationMetricsMXBean, AutoCloseable {
+
+    //DEFAULT_SAMPLE_INTERVAL: the number of steps between two sampled steps when none is given
+    public static final int DEFAULT_SAMPLE_INTERVAL = 64;
+
+    /**
+     * The phases of a step, named after the methods of SchedulerStrategy that run them
+     */
+    public enum Phase {
+        ADD_ARRIVED_PROCESSES("addArrivedProcesses"),
+        PUSH_MIGRATE("pushMigrate"),
+        RUN_PROCESSES("runProcesses"),
+        RUN_IO("runIO"),
+        ADVANCE_STEADY_TICKS("advanceSteadyTicks");
+
+        //methodName: the method of SchedulerStrategy the phase is spent in
+        private String methodName;
+
+        Phase(String methodName){
+            this.methodName = methodName;
+        }
+
+        public String getMethodName(){ return this.methodName; }
+    }
+
+    //sampleInterval: the number of steps between two sampled steps
+    private int sampleInterval;
+    //ticks, steps and sampledSteps: the number of ticks simulated, of steps taken and of steps sampled
+    private LongAdder ticks = new LongAdder();
+    private LongAdder steps = new LongAdder();
+    private LongAdder sampledSteps = new LongAdder();
+    //dispatches, preemptions, migrations, ioStarts and finished: the number of events of each kind
+    private LongAdder dispatches = new LongAdder();
+    private LongAdder preemptions = new LongAdder();
+    private LongAdder migrations = new LongAdder();
+    private LongAdder ioStarts = new LongAdder();
+    private LongAdder finished = new LongAdder();
+    //phaseNanos: the time spent in every phase of the sampled steps
+    private EnumMap<Phase, LongAdder> phaseNanos = new EnumMap<>(Phase.class);
+    //strategyNanos: the time spent in runProcesses during the sampled steps by strategy name
+    private ConcurrentHashMap<String, LongAdder> strategyNanos = new ConcurrentHashMap<>();
+    //readyDepthSum, ioDepthSum and unarrivedDepthSum: the sums of the queue depths of the sampled steps
+    private LongAdder readyDepthSum = new LongAdder();
+    private LongAdder ioDepthSum = new LongAdder();
+    private LongAdder unarrivedDepthSum = new LongAdder();
+    //readyDepth, ioDepth and unarrivedDepth: the queue depths of the last sampled step (of any scheduler)
+    private volatile int readyDepth = 0;
+    private volatile int ioDepth = 0;
+    private volatile int unarrivedDepth = 0;
+    //startNanos: the time the metrics were created or reset
+    private volatile long startNanos = System.nanoTime();
+    //objectName: the name the metrics are registered under in the platform MBean server (null if they aren't)
+    private ObjectName objectName = null;
+    //progressThread: the thread printing the progress line (null if it isn't printed)
+    private ScheduledThreadPoolExecutor progressThread = null;
+    //lastProgressTicks and lastProgressNanos: the ticks simulated and the time when the last progress line was printed
+    private long lastProgressTicks = 0;
+    private long lastProgressNanos = 0;
+
+    public SimulationMetrics(){
+        this(DEFAULT_SAMPLE_INTERVAL);
+    }
+
+    public SimulationMetrics(int sampleInterval){
+        if(sampleInterval < 1){
+            throw new IllegalArgumentException("The sample interval must be at least 1 step");
+        }
+        this.sampleInterval = sampleInterval;
+        for(Phase phase: Phase.values()){
+            this.phaseNanos.put(phase, new LongAdder());
+        }
+    }
+
+    //RECORDING
+    //a method that records a step that simulated the given number of ticks
+    public void recordStep(int ticks){
+        this.ticks.add(ticks);
+        this.steps.increment();
+    }
+
+    //a method that records the queue depths of a sampled step
+    public void recordDepths(int readyDepth, int ioDepth, int unarrivedDepth){
+        this.sampledSteps.increment();
+        this.readyDepthSum.add(readyDepth);
+        this.ioDepthSum.add(ioDepth);
+        this.unarrivedDepthSum.add(unarrivedDepth);
+        this.readyDepth = readyDepth;
+        this.ioDepth = ioDepth;
+        this.unarrivedDepth = unarrivedDepth;
+    }
+
+    //a method that adds the time since start (a System.nanoTime()) to a phase and returns the current time, so the
+    //phases of a step can be timed one after the other
+    public long recordPhase(Phase phase, long start){
+        long now = System.nanoTime();
+        this.phaseNanos.get(phase).add(now - start);
+        return now;
+    }
+
+    //a method that adds the time since start to the runProcesses phase and to the given strategy, returns the current time
+    public long recordRunProcesses(String strategy, long start){
+        long now = System.nanoTime();
+        this.phaseNanos.get(Phase.RUN_PROCESSES).add(now - start);
+        this.strategyNanos.computeIfAbsent(strategy, name -> new LongAdder()).add(now - start);
+        return now;
+    }
+
+    //a method that returns a listener counting the events of a simulation before passing them on to listener
+    public SimulationListener countEvents(SimulationListener listener){
+        return new CountingListener(this, listener);
+    }
+
+    //JMX
+    //a method that registers the metrics with the platform MBean server under the given name
+    public void registerMBean(String name) throws JMException {
+        this.objectName = new ObjectName("SchedulerSimulation:type=SimulationMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, this.objectName);
+    }
+
+    //PROGRESS
+    //a method that prints the progress line to out every periodMillis milliseconds (from a daemon thread) until close()
+    public void startProgress(PrintStream out, long periodMillis){
+        if(this.progressThread != null){
+            throw new IllegalStateException("The progress line is already printed");
+        }
+        this.lastProgressTicks = this.ticks.sum();
+        this.lastProgressNanos = System.nanoTime();
+        this.progressThread = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "simulation-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.progressThread.scheduleAtFixedRate(() -> out.println(formatProgress()), periodMillis, periodMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    //a method that returns the progress line: the ticks simulated and the rate since the last line, the events, the
+    //average queue depths and the share of the sampled time spent in every phase
+    public synchronized String formatProgress(){
+        long ticks = this.ticks.sum();
+        long now = System.nanoTime();
+        double rate = now == this.lastProgressNanos ? 0 : (ticks - this.lastProgressTicks) * 1e9 / (now - this.lastProgressNanos);
+        this.lastProgressTicks = ticks;
+        this.lastProgressNanos = now;
+        StringBuilder line = new StringBuilder();
+        line.append(String.format(Locale.ROOT, "progress: %d ticks (%.0f ticks/s), %d steps, %d finished, " +
+                        "%d dispatches, %d preemptions, %d migrations, %d io, depths ready %.1f io %.1f unarrived %.1f",
+                ticks, rate, getSteps(), getFinished(), getDispatches(), getPreemptions(), getMigrations(),
+                getIoStarts(), getAvgReadyDepth(), getAvgIoDepth(), getAvgUnarrivedDepth()));
+        long total = 0;
+        for(LongAdder nanos: this.phaseNanos.values()){
+            total += nanos.sum();
+        }
+        if(total > 0){
+            for(Phase phase: Phase.values()){
+                line.append(String.format(Locale.ROOT, ", %s %.0f%%", phase.getMethodName(),
+                        100.0 * this.phaseNanos.get(phase).sum() / total));
+            }
+        }
+        return line.toString();
+    }
+
+    //a method that stops the progress line and unregisters the metrics from the MBean server
+    @Override
+    public void close() throws JMException {
+        if(this.progressThread != null){
+            this.progressThread.shutdownNow();
+            this.progressThread = null;
+        }
+        if(this.objectName != null){
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(this.objectName);
+            this.objectName = null;
+        }
+    }
+
+    //a method that scales a time measured on the sampled steps up to every step
+    private long estimate(long sampledNanos){
+        long sampled = this.sampledSteps.sum();
+        return sampled == 0 ? 0 : (long) ((double) sampledNanos * this.steps.sum() / sampled);
+    }
+
+    //a method that returns the average of a depth over the sampled steps
+    private double average(LongAdder depthSum){
+        long sampled = this.sampledSteps.sum();
+        return sampled == 0 ? 0 : (double) depthSum.sum() / sampled;
+    }
+
+    @Override
+    public void reset(){
+        for(LongAdder adder: new LongAdder[]{this.ticks, this.steps, this.sampledSteps, this.dispatches,
+                this.preemptions, this.migrations, this.ioStarts, this.finished, this.readyDepthSum, this.ioDepthSum,
+                this.unarrivedDepthSum}){
+            adder.reset();
+        }
+        for(LongAdder nanos: this.phaseNanos.values()){
+            nanos.reset();
+        }
+        this.strategyNanos.clear();
+        this.startNanos = System.nanoTime();
+    }
+
+    //GETTERS
+    @Override
+    public long getTicks(){ return this.ticks.sum(); }
+
+    @Override
+    public long getSteps(){ return this.steps.sum(); }
+
+    @Override
+    public double getTicksPerSecond(){
+        long elapsed = System.nanoTime() - this.startNanos;
+        return elapsed == 0 ? 0 : this.ticks.sum() * 1e9 / elapsed;
+    }
+
+    @Override
+    public long getDispatches(){ return this.dispatches.sum(); }
+
+    @Override
+    public long getPreemptions(){ return this.preemptions.sum(); }
+
+    @Override
+    public long getMigrations(){ return this.migrations.sum(); }
+
+    @Override
+    public long getIoStarts(){ return this.ioStarts.sum(); }
+
+    @Override
+    public long getFinished(){ return this.finished.sum(); }
+
+    @Override
+    public Map<String, Long> getPhaseNanos(){
+        Map<String, Long> nanos = new TreeMap<>();
+        for(Phase phase: Phase.values()){
+            nanos.put(phase.getMethodName(), estimate(this.phaseNanos.get(phase).sum()));
+        }
+        return nanos;
+    }
+
+    @Override
+    public Map<String, Long> getRunProcessesNanosByStrategy(){
+        Map<String, Long> nanos = new TreeMap<>();
+        for(Map.Entry<String, LongAdder> entry: this.strategyNanos.entrySet()){
+            nanos.put(entry.getKey(), estimate(entry.getValue().sum()));
+        }
+        return nanos;
+    }
+
+    @Override
+    public int getReadyDepth(){ return this.readyDepth; }
+
+    @Override
+    public int getIoDepth(){ return this.ioDepth; }
+
+    @Override
+    public int getUnarrivedDepth(){ return this.unarrivedDepth; }
+
+    @Override
+    public double getAvgReadyDepth(){ return average(this.readyDepthSum); }
+
+    @Override
+    public double getAvgIoDepth(){ return average(this.ioDepthSum); }
+
+    @Override
+    public double getAvgUnarrivedDepth(){ return average(this.unarrivedDepthSum); }
+
+    @Override
+    public int getSampleInterval(){ return this.sampleInterval; }
+
+    /**
+     * A listener that counts the events of a simulation in the metrics and passes them on to another listener
+     */
+    public static class CountingListener implements SimulationListener {
+
+        //metrics: the metrics the events are counted in
+        private SimulationMetrics metrics;
+        //listener: the listener the events are passed on to
+        private SimulationListener listener;
+
+        public CountingListener(SimulationMetrics metrics, SimulationListener listener){
+            this.metrics = metrics;
+            this.listener = listener;
+        }
+
+        @Override
+        public void onDispatch(int time, CPU cpu, CPUProcess process) {
+            this.metrics.dispatches.increment();
+            this.listener.onDispatch(time, cpu, process);
+        }
+
+        @Override
+        public void onRun(int start, int end, CPU cpu, CPUProcess process) {
+            this.listener.onRun(start, end, cpu, process);
+        }
+
+        @Override
+        public void onPreempt(int time, CPU cpu, CPUProcess process) {
+            this.metrics.preemptions.increment();
+            this.listener.onPreempt(time, cpu, process);
+        }
+
+        @Override
+        public void onMigrate(int time, CPU from, CPU to, CPUProcess process) {
+            this.metrics.migrations.increment();
+            this.listener.onMigrate(time, from, to, process);
+        }
+
+        @Override
+        public void onIoStart(int time, CPUProcess process) {
+            this.metrics.ioStarts.increment();
+            this.listener.onIoStart(time, process);
+        }
+
+        @Override
+        public void onIo(int start, int end, CPUProcess process) {
+            this.listener.onIo(start, end, process);
+        }
+
+        @Override
+        public void onIoEnd(int time, CPUProcess process) {
+            this.listener.onIoEnd(time, process);
+        }
+
+        @Override
+        public void onFinish(int time, CPUProcess process) {
+            this.metrics.finished.increment();
+            this.listener.onFinish(time, process);
+        }
+
+        @Override
+        public void onSimulationEnd(int time) {
+            this.listener.onSimulationEnd(time);
+        }
+
+        //GETTERS
+        public SimulationMetrics getMetrics(){ return this.metrics; }
+
+        public SimulationListener getListener(){ return this.listener; }
+    }
+}
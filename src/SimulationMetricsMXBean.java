@@ -0,0 +1,53 @@
+import java.util.Map;
+
+/**
+ * The management interface of SimulationMetrics, registered with the platform MBean server so the counters of running
+ * simulations can be read from JConsole or any JMX client
+ */
+public interface SimulationMetricsMXBean {
+
+    //the number of ticks simulated
+    long getTicks();
+
+    //the number of steps taken (a step simulates one tick, or several steady ticks in event driven mode)
+    long getSteps();
+
+    //the number of ticks simulated per second of wall clock time since the metrics were created or reset
+    double getTicksPerSecond();
+
+    long getDispatches();
+
+    long getPreemptions();
+
+    long getMigrations();
+
+    long getIoStarts();
+
+    long getFinished();
+
+    //the estimated time spent in every phase of a step, in nanoseconds, by method name
+    Map<String, Long> getPhaseNanos();
+
+    //the estimated time spent in runProcesses, in nanoseconds, by scheduling strategy
+    Map<String, Long> getRunProcessesNanosByStrategy();
+
+    //the number of processes in the ready queues, io queues and waiting to arrive at the last sampled step
+    int getReadyDepth();
+
+    int getIoDepth();
+
+    int getUnarrivedDepth();
+
+    //the average of the same depths over the sampled steps
+    double getAvgReadyDepth();
+
+    double getAvgIoDepth();
+
+    double getAvgUnarrivedDepth();
+
+    //the number of steps between two sampled steps
+    int getSampleInterval();
+
+    //a method that sets every counter back to 0
+    void reset();
+}
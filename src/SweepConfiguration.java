@@ -0,0 +1,73 @@
+import java.io.PrintStream;
+
+/**
+ * One point of a parameter sweep: the scheduling strategy, its quantum (only used by RR and MLFQ) and the number of cpus
+ */
+public class SweepConfiguration {
+
+    //strategy: the name of the scheduling strategy (FCFS, SJF, SRTF, RR, MLFQ or CFS)
+    private String strategy;
+    //quantum: the quantum of the RR strategy and of the highest MLFQ level (ignored by the other strategies)
+    private int quantum;
+    //numOfCPUs: the number of cpus to simulate (0 to use the number of cpus declared in the input file)
+    private int numOfCPUs;
+
+    public SweepConfiguration(String strategy, int quantum, int numOfCPUs){
+        this.strategy = strategy.toUpperCase();
+        this.quantum = quantum;
+        this.numOfCPUs = numOfCPUs;
+    }
+
+    //a method that creates a new scheduler for this configuration running the processes of the given workload, the
+    //scheduler prints its messages and report to out
+    public SchedulerStrategy createScheduler(Workload workload, PrintStream out){
+        SchedulerStrategy scheduler;
+        switch(this.strategy){
+            case "FCFS":
+                scheduler = new SchedulerFCFS(workload, out);
+                break;
+            case "SJF":
+                scheduler = new SchedulerSJF(workload, out);
+                break;
+            case "SRTF":
+                scheduler = new SchedulerSRTF(workload, out);
+                break;
+            case "RR":
+                scheduler = new SchedulerRR(this.quantum, workload, out);
+                break;
+            case "MLFQ":
+                //three levels, the quantum doubles at each level down
+                scheduler = new SchedulerMLFQ(new int[]{this.quantum, 2 * this.quantum, 4 * this.quantum},
+                        SchedulerMLFQ.DEFAULT_BOOST_INTERVAL, workload, out);
+                break;
+            case "CFS":
+                scheduler = new SchedulerCFS(SchedulerCFS.DEFAULT_TARGET_LATENCY, SchedulerCFS.DEFAULT_MIN_GRANULARITY,
+                        workload, out);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown scheduling strategy: " + this.strategy);
+        }
+        if(this.numOfCPUs > 0){
+            scheduler.setNumOfCPUs(this.numOfCPUs);
+        }
+        return scheduler;
+    }
+
+    @Override
+    public String toString() {
+        return this.strategy + (usesQuantum(this.strategy) ? " q=" + this.quantum : "") +
+                (this.numOfCPUs > 0 ? " cpus=" + this.numOfCPUs : "");
+    }
+
+    //a method that indicates whether the given strategy uses the quantum (the other strategies ignore it)
+    public static boolean usesQuantum(String strategy){
+        return strategy.equalsIgnoreCase("RR") || strategy.equalsIgnoreCase("MLFQ");
+    }
+
+    //GETTERS
+    public String getStrategy(){ return this.strategy; }
+
+    public int getQuantum(){ return this.quantum; }
+
+    public int getNumOfCPUs(){ return this.numOfCPUs; }
+}
@@ -0,0 +1,175 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The figures of one simulation of a parameter sweep, along with everything the simulation printed and optionally the
+ * charts of its cpus
+ */
+public class SweepResult {
+
+    //configuration: the configuration that was simulated
+    private SweepConfiguration configuration;
+    //numOfCPUs: the number of cpus that were simulated
+    private int numOfCPUs;
+    //finishedProcesses: the number of processes that completed execution
+    private long finishedProcesses;
+    //makespan: the time at which the simulation ended
+    private int makespan;
+    //avgWaitTime, avgTurnaroundTime and avgResponseTime: the averages over every finished process
+    private double avgWaitTime;
+    private double avgTurnaroundTime;
+    private double avgResponseTime;
+    //p99WaitTime, p99TurnaroundTime and p99ResponseTime: the 99th percentiles over every finished process
+    private double p99WaitTime;
+    private double p99TurnaroundTime;
+    private double p99ResponseTime;
+    //avgCPUUtilization: the average cpu utilization for all cpus
+    private double avgCPUUtilization;
+    //avgOverhead: the average share of the time the cpus spent switching processes
+    private double avgOverhead;
+    //output: the messages and report printed by the simulation ("" if it wasn't kept or for a result read from a
+    //ResultCache)
+    private String output;
+    //cpuCharts: the charts of the cpus indexed by cpu id (null if they weren't kept)
+    private List<Timeline> cpuCharts = null;
+    //cached: indicates whether the result was read from a ResultCache instead of simulated
+    private boolean cached = false;
+
+    //a method that collects the figures of a scheduler after scheduleProcesses() returned
+    public SweepResult(SweepConfiguration configuration, SchedulerStrategy scheduler, String output){
+        this(configuration, scheduler, output, false);
+    }
+
+    //a method that collects the figures of a scheduler after scheduleProcesses() returned, and the charts of its cpus
+    //if keepCharts
+    public SweepResult(SweepConfiguration configuration, SchedulerStrategy scheduler, String output, boolean keepCharts){
+        this.configuration = configuration;
+        this.numOfCPUs = scheduler.getNumOfCPUs();
+        this.finishedProcesses = scheduler.getFinishedCount();
+        this.makespan = scheduler.getTime();
+        this.avgWaitTime = scheduler.calculateAvgWaitTime();
+        this.avgTurnaroundTime = scheduler.getTurnaroundTimes().calculateMean();
+        this.avgResponseTime = scheduler.getResponseTimes().calculateMean();
+        this.p99WaitTime = scheduler.getWaitingTimes().calculatePercentile(99);
+        this.p99TurnaroundTime = scheduler.getTurnaroundTimes().calculatePercentile(99);
+        this.p99ResponseTime = scheduler.getResponseTimes().calculatePercentile(99);
+        this.avgCPUUtilization = scheduler.calculateAvgCPUUtilization();
+        this.avgOverhead = scheduler.calculateAvgOverhead();
+        this.output = output;
+        if(keepCharts){
+            this.cpuCharts = new ArrayList<>(scheduler.getCpus().size());
+            for(CPU cpu: scheduler.getCpus()){
+                this.cpuCharts.add(cpu.getTimeline());
+            }
+        }
+    }
+
+    private SweepResult(SweepConfiguration configuration){
+        this.configuration = configuration;
+        this.output = "";
+        this.cached = true;
+    }
+
+    //a method that writes the figures and the cpu charts (if kept) for a ResultCache, the output is left out
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(this.numOfCPUs);
+        out.writeLong(this.finishedProcesses);
+        out.writeInt(this.makespan);
+        out.writeDouble(this.avgWaitTime);
+        out.writeDouble(this.avgTurnaroundTime);
+        out.writeDouble(this.avgResponseTime);
+        out.writeDouble(this.p99WaitTime);
+        out.writeDouble(this.p99TurnaroundTime);
+        out.writeDouble(this.p99ResponseTime);
+        out.writeDouble(this.avgCPUUtilization);
+        out.writeDouble(this.avgOverhead);
+        out.writeBoolean(this.cpuCharts != null);
+        if(this.cpuCharts != null){
+            out.writeInt(this.cpuCharts.size());
+            for(Timeline chart: this.cpuCharts){
+                out.writeInt(chart.getIntervalCount());
+                for(int interval = 0; interval < chart.getIntervalCount(); interval++){
+                    out.writeInt(chart.getProcessIndex(interval));
+                    out.writeInt(chart.getLength(interval));
+                }
+            }
+        }
+    }
+
+    //a method that reads a result written by write as the result of the given configuration, the cpu charts name the
+    //processes with processNames (the ids of the workload that was simulated)
+    public static SweepResult read(SweepConfiguration configuration, DataInput in, List<String> processNames) throws IOException {
+        SweepResult result = new SweepResult(configuration);
+        result.numOfCPUs = in.readInt();
+        result.finishedProcesses = in.readLong();
+        result.makespan = in.readInt();
+        result.avgWaitTime = in.readDouble();
+        result.avgTurnaroundTime = in.readDouble();
+        result.avgResponseTime = in.readDouble();
+        result.p99WaitTime = in.readDouble();
+        result.p99TurnaroundTime = in.readDouble();
+        result.p99ResponseTime = in.readDouble();
+        result.avgCPUUtilization = in.readDouble();
+        result.avgOverhead = in.readDouble();
+        if(in.readBoolean()){
+            int numOfCharts = in.readInt();
+            if(numOfCharts != result.numOfCPUs){
+                throw new IOException("the result has " + numOfCharts + " cpu charts for " + result.numOfCPUs + " cpus");
+            }
+            result.cpuCharts = new ArrayList<>(numOfCharts);
+            for(int cpu = 0; cpu < numOfCharts; cpu++){
+                Timeline chart = new Timeline(processNames);
+                int intervalCount = in.readInt();
+                for(int interval = 0; interval < intervalCount; interval++){
+                    int processIndex = in.readInt();
+                    int length = in.readInt();
+                    if(processIndex < Timeline.OVERHEAD || processIndex >= processNames.size() || length < 1){
+                        throw new IOException("the result has an invalid chart interval of " + length +
+                                " time units for process " + processIndex);
+                    }
+                    chart.append(processIndex, length);
+                }
+                result.cpuCharts.add(chart);
+            }
+        }
+        return result;
+    }
+
+    //GETTERS
+    public SweepConfiguration getConfiguration(){ return this.configuration; }
+
+    public int getNumOfCPUs(){ return this.numOfCPUs; }
+
+    public long getFinishedProcesses(){ return this.finishedProcesses; }
+
+    public int getMakespan(){ return this.makespan; }
+
+    public double getAvgWaitTime(){ return this.avgWaitTime; }
+
+    public double getAvgTurnaroundTime(){ return this.avgTurnaroundTime; }
+
+    public double getAvgResponseTime(){ return this.avgResponseTime; }
+
+    public double getP99WaitTime(){ return this.p99WaitTime; }
+
+    public double getP99TurnaroundTime(){ return this.p99TurnaroundTime; }
+
+    public double getP99ResponseTime(){ return this.p99ResponseTime; }
+
+    public double getAvgCPUUtilization(){ return this.avgCPUUtilization; }
+
+    public double getAvgOverhead(){ return this.avgOverhead; }
+
+    public String getOutput(){ return this.output; }
+
+    public boolean hasCpuCharts(){ return this.cpuCharts != null; }
+
+    //returns a read only list of the cpu charts indexed by cpu id (null if they weren't kept)
+    public List<Timeline> getCpuCharts(){ return this.cpuCharts == null ? null : Collections.unmodifiableList(this.cpuCharts); }
+
+    public boolean isCached(){ return this.cached; }
+}
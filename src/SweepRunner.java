@@ -0,0 +1,380 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import javax.management.JMException;
+
+/**
+ * Runs a grid of scheduler configurations against the same workload in parallel on a ForkJoinPool and collects the
+ * results into a single comparison table
+ * The input file is parsed once, every run has its own scheduler (and so its own process state copied from the shared
+ * workload) and prints to its own buffer, so runs don't share any mutable state and their output never interleaves,
+ * the output (and the report, whose charts grow with the time simulated) is only kept with setKeepOutput(true)
+ *
+ * usage: java SweepRunner inputFile [--strategies FCFS,SJF,SRTF,RR,MLFQ,CFS] [--quanta 1,2,3] [--cpus 1,2,4]
+ *                         [--format text|csv|json_lines] [--threads n] [--progress seconds]
+ *                         [--switch-costs contextSwitch,migrationPenalty,cacheHalfLife] [--affinity true|false]
+ *                         [--cache directory] [--cache-megabytes n]
+ *                         [--io-devices devices,channels[,FIFO|SHORTEST_FIRST|ELEVATOR]]
+ *
+ * With --progress the runs share a SimulationMetrics that prints a progress line to System.err every given number
+ * of seconds and can be read through JMX while the sweep runs, with --switch-costs every run charges the time the
+ * cpus spend switching processes (see SwitchCostModel) so the quanta can be compared on their real throughput, with
+ * --cache the results are kept in the given directory (see ResultCache) and a configuration that was already run
+ * against the same workload isn't simulated again
+ */
+public class SweepRunner {
+
+    //TABLE_COLUMNS: the column names of the comparison table
+    private static final String[] TABLE_COLUMNS = {"strategy", "quantum", "cpus", "finished", "makespan",
+            "avg_waiting", "avg_turnaround", "avg_response", "p99_waiting", "p99_turnaround", "p99_response",
+            "cpu_utilization", "switch_overhead"};
+    //CACHE_ENTRIES: the number of results the cache of the command line holds in memory
+    private static final int CACHE_ENTRIES = 1024;
+    //DEFAULT_CACHE_MEGABYTES: the size of the cache directory of the command line when --cache-megabytes is left out
+    private static final long DEFAULT_CACHE_MEGABYTES = 256;
+    //DISCARD: the stream the runs print to when their output isn't kept
+    private static final OutputStream DISCARD = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    //workload: the processes every configuration is run against
+    private Workload workload;
+    //parallelism: the number of simulations run at the same time
+    private int parallelism;
+    //metrics: the metrics every run records its steps and events in (null if the runs aren't instrumented)
+    private SimulationMetrics metrics = null;
+    //switchCosts and affinityAware: the switch costs and dispatch of every run (null for free switches)
+    private SwitchCostModel switchCosts = null;
+    private boolean affinityAware = false;
+    //numOfIoDevices, numOfChannels and ioDiscipline: the io devices of every run (0 devices for the default devices,
+    //see SchedulerStrategy.setIODevices)
+    private int numOfIoDevices = 0;
+    private int numOfChannels = 1;
+    private IOQueueDiscipline ioDiscipline = IOQueueDiscipline.FIFO;
+    //keepOutput: indicates whether the results hold the messages and report printed by their simulation (the report
+    //has the charts of every cpu and io device so it grows with the time simulated)
+    private boolean keepOutput = false;
+    //cache: the results of the configurations already simulated (null to simulate every configuration)
+    private ResultCache cache = null;
+    //keepCpuCharts: indicates whether the results hold the charts of the cpus
+    private boolean keepCpuCharts = false;
+    //workloadDigest: the digest of the workload for the cache keys (null until the first run with a cache)
+    private byte[] workloadDigest = null;
+
+    public SweepRunner(Workload workload, int parallelism){
+        this.workload = workload;
+        this.parallelism = parallelism;
+    }
+
+    //a method that returns every combination of strategy, quantum and number of cpus (the quanta only multiply the RR
+    //and MLFQ configurations since the other strategies ignore them)
+    public static List<SweepConfiguration> grid(List<String> strategies, List<Integer> quanta, List<Integer> cpus){
+        List<SweepConfiguration> configurations = new ArrayList<>();
+        for(String strategy: strategies){
+            for(int numOfCPUs: cpus){
+                if(SweepConfiguration.usesQuantum(strategy)){
+                    for(int quantum: quanta){
+                        configurations.add(new SweepConfiguration(strategy, quantum, numOfCPUs));
+                    }
+                }
+                else{
+                    configurations.add(new SweepConfiguration(strategy, 0, numOfCPUs));
+                }
+            }
+        }
+        return configurations;
+    }
+
+    //a method that simulates every configuration and returns their results in the same order
+    public List<SweepResult> run(List<SweepConfiguration> configurations){
+        if(this.cache != null && this.workloadDigest == null){
+            try{
+                this.workloadDigest = ResultCache.digest(this.workload);
+            }
+            catch(IOException e){
+                throw new UncheckedIOException(e);
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+        try{
+            List<ForkJoinTask<SweepResult>> tasks = new ArrayList<>(configurations.size());
+            for(SweepConfiguration configuration: configurations){
+                tasks.add(pool.submit(() -> runConfiguration(configuration)));
+            }
+            List<SweepResult> results = new ArrayList<>(tasks.size());
+            for(ForkJoinTask<SweepResult> task: tasks){
+                results.add(task.join());
+            }
+            return results;
+        }
+        finally{
+            pool.shutdown();
+        }
+    }
+
+    //a method that simulates one configuration (or reads its result from the cache), the per tick events and the
+    //finished processes are not kept (only the final figures and histograms are)
+    private SweepResult runConfiguration(SweepConfiguration configuration){
+        ByteArrayOutputStream buffer = this.keepOutput ? new ByteArrayOutputStream() : null;
+        PrintStream out = new PrintStream(this.keepOutput ? buffer : DISCARD);
+        SchedulerStrategy scheduler = configuration.createScheduler(this.workload, out);
+        scheduler.setPrintReport(this.keepOutput);
+        scheduler.setListener(SimulationListener.NO_OP);
+        scheduler.setMetrics(this.metrics);
+        scheduler.setSwitchCosts(this.switchCosts);
+        scheduler.setAffinityAware(this.affinityAware);
+        if(this.numOfIoDevices > 0){
+            scheduler.setIODevices(this.numOfIoDevices, this.numOfChannels, this.ioDiscipline);
+        }
+        scheduler.setKeepFinishedProcesses(false);
+        try{
+            String key = null;
+            if(this.cache != null){
+                key = ResultCache.key(this.workloadDigest, scheduler);
+                SweepResult cached = this.cache.get(key, configuration, this.workload.getProcessIDs(), this.keepCpuCharts);
+                if(cached != null){
+                    return cached;
+                }
+            }
+            scheduler.scheduleProcesses();
+            out.flush();
+            SweepResult result = new SweepResult(configuration, scheduler, this.keepOutput ? buffer.toString() : "",
+                    this.keepCpuCharts);
+            if(this.cache != null){
+                this.cache.put(key, result);
+            }
+            return result;
+        }
+        catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public SimulationMetrics getMetrics(){ return this.metrics; }
+
+    public void setMetrics(SimulationMetrics metrics){ this.metrics = metrics; }
+
+    public SwitchCostModel getSwitchCosts(){ return this.switchCosts; }
+
+    public void setSwitchCosts(SwitchCostModel switchCosts){ this.switchCosts = switchCosts; }
+
+    public boolean isAffinityAware(){ return this.affinityAware; }
+
+    public void setAffinityAware(boolean affinityAware){ this.affinityAware = affinityAware; }
+
+    public int getNumOfIoDevices(){ return this.numOfIoDevices; }
+
+    public int getNumOfChannels(){ return this.numOfChannels; }
+
+    public IOQueueDiscipline getIoDiscipline(){ return this.ioDiscipline; }
+
+    //a method that gives every run numOfDevices io devices with the given number of channels and queue discipline
+    //(0 devices for the default devices), there must be a device for every device the processes request io on
+    public void setIODevices(int numOfDevices, int numOfChannels, IOQueueDiscipline discipline){
+        if(numOfDevices > 0 && numOfDevices < this.workload.getNumOfIoDevices()){
+            throw new IllegalArgumentException("The processes request io on " + this.workload.getNumOfIoDevices() +
+                    " io devices but only " + numOfDevices + " are configured");
+        }
+        if(numOfChannels < 1){
+            throw new IllegalArgumentException("Every io device needs at least one channel");
+        }
+        this.numOfIoDevices = numOfDevices;
+        this.numOfChannels = numOfChannels;
+        this.ioDiscipline = discipline;
+    }
+
+    public ResultCache getCache(){ return this.cache; }
+
+    public void setCache(ResultCache cache){ this.cache = cache; }
+
+    public boolean isKeepOutput(){ return this.keepOutput; }
+
+    //a method that makes the results hold the messages and report printed by their simulation
+    public void setKeepOutput(boolean keepOutput){ this.keepOutput = keepOutput; }
+
+    public boolean isKeepCpuCharts(){ return this.keepCpuCharts; }
+
+    public void setKeepCpuCharts(boolean keepCpuCharts){ this.keepCpuCharts = keepCpuCharts; }
+
+    //a method that writes the results as a table with one row per configuration
+    public static void writeTable(Appendable out, List<SweepResult> results, ReportFormat format) throws IOException {
+        if(format == ReportFormat.BINARY){
+            throw new IllegalArgumentException("The results of a sweep have no binary format");
+        }
+        if(format == ReportFormat.TEXT){
+            out.append(String.format("%-8s %7s %4s %8s %8s %11s %14s %12s %11s %14s %12s %15s %15s%n",
+                    (Object[]) TABLE_COLUMNS));
+        }
+        else if(format == ReportFormat.CSV){
+            out.append(String.join(",", TABLE_COLUMNS)).append('\n');
+        }
+        for(SweepResult result: results){
+            SweepConfiguration configuration = result.getConfiguration();
+            String quantum = SweepConfiguration.usesQuantum(configuration.getStrategy()) ? Integer.toString(configuration.getQuantum()) : "";
+            Object[] row = {configuration.getStrategy(), quantum, result.getNumOfCPUs(), result.getFinishedProcesses(),
+                    result.getMakespan(), result.getAvgWaitTime(), result.getAvgTurnaroundTime(),
+                    result.getAvgResponseTime(), result.getP99WaitTime(), result.getP99TurnaroundTime(),
+                    result.getP99ResponseTime(), result.getAvgCPUUtilization(), result.getAvgOverhead()};
+            switch(format){
+                case TEXT:
+                    out.append(String.format(Locale.ROOT,
+                            "%-8s %7s %4d %8d %8d %11.2f %14.2f %12.2f %11.0f %14.0f %12.0f %14.2f%% %14.2f%%%n", row));
+                    break;
+                case CSV:
+                    out.append(String.format(Locale.ROOT, "%s,%s,%d,%d,%d,%.2f,%.2f,%.2f,%.0f,%.0f,%.0f,%.2f,%.2f%n", row));
+                    break;
+                default:
+                    out.append("{");
+                    for(int i = 0; i < TABLE_COLUMNS.length; i++){
+                        out.append(i == 0 ? "" : ",").append('"').append(TABLE_COLUMNS[i]).append("\":");
+                        if(row[i] instanceof String){
+                            out.append(((String) row[i]).isEmpty() ? "null" : "\"" + row[i] + "\"");
+                        }
+                        else if(row[i] instanceof Double){
+                            double value = (Double) row[i];
+                            out.append(Double.isNaN(value) ? "null" : String.format(Locale.ROOT, "%.2f", value));
+                        }
+                        else{
+                            out.append(row[i].toString());
+                        }
+                    }
+                    out.append("}\n");
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if(args.length == 0){
+            System.out.println("usage: java SweepRunner inputFile [--strategies FCFS,SJF,SRTF,RR,MLFQ,CFS] [--quanta 1,2,3] " +
+                    "[--cpus 1,2,4] [--format text|csv|json_lines] [--threads n] [--progress seconds] " +
+                    "[--switch-costs contextSwitch,migrationPenalty,cacheHalfLife] [--affinity true|false] " +
+                    "[--cache directory] [--cache-megabytes n] " +
+                    "[--io-devices devices,channels[,FIFO|SHORTEST_FIRST|ELEVATOR]]");
+            return;
+        }
+        List<String> strategies = Arrays.asList("FCFS", "SJF", "SRTF", "RR");
+        List<Integer> quanta = Arrays.asList(1, 2, 3);
+        //0 cpus stands for the number of cpus declared in the input file
+        List<Integer> cpus = Arrays.asList(0);
+        ReportFormat format = ReportFormat.TEXT;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int progressSeconds = 0;
+        SwitchCostModel switchCosts = null;
+        boolean affinityAware = false;
+        String cacheDirectory = null;
+        long cacheMegabytes = DEFAULT_CACHE_MEGABYTES;
+        String ioDevices = null;
+        for(int i = 1; i + 1 < args.length; i += 2){
+            switch(args[i]){
+                case "--strategies":
+                    strategies = Arrays.asList(args[i + 1].split(","));
+                    break;
+                case "--quanta":
+                    quanta = parseInts(args[i + 1]);
+                    break;
+                case "--cpus":
+                    cpus = parseInts(args[i + 1]);
+                    break;
+                case "--format":
+                    format = ReportFormat.valueOf(args[i + 1].toUpperCase());
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--progress":
+                    progressSeconds = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--switch-costs":
+                    List<Integer> costs = parseInts(args[i + 1]);
+                    if(costs.size() != 3){
+                        System.out.println("--switch-costs takes the context switch cost, migration penalty and cache half life");
+                        return;
+                    }
+                    switchCosts = new SwitchCostModel(costs.get(0), costs.get(1), costs.get(2));
+                    break;
+                case "--affinity":
+                    affinityAware = Boolean.parseBoolean(args[i + 1]);
+                    break;
+                case "--cache":
+                    cacheDirectory = args[i + 1];
+                    break;
+                case "--cache-megabytes":
+                    cacheMegabytes = Long.parseLong(args[i + 1]);
+                    break;
+                case "--io-devices":
+                    ioDevices = args[i + 1];
+                    break;
+                default:
+                    System.out.println("Unknown option: " + args[i]);
+            }
+        }
+        //the messages about the input file go to System.err so that System.out only holds the table
+        Workload workload = Workload.read(args[0], System.err);
+        SweepRunner runner = new SweepRunner(workload, threads);
+        runner.setSwitchCosts(switchCosts);
+        runner.setAffinityAware(affinityAware);
+        if(ioDevices != null){
+            String[] device = ioDevices.split(",");
+            try{
+                runner.setIODevices(Integer.parseInt(device[0].trim()), device.length > 1 ? Integer.parseInt(device[1].trim()) : 1,
+                        device.length > 2 ? IOQueueDiscipline.valueOf(device[2].trim().toUpperCase()) : IOQueueDiscipline.FIFO);
+            }
+            catch(IllegalArgumentException e){
+                System.out.println("--io-devices takes the number of devices, of channels per device and the queue discipline: " +
+                        e.getMessage());
+                return;
+            }
+        }
+        if(cacheDirectory != null){
+            runner.setCache(new ResultCache(CACHE_ENTRIES, cacheDirectory, cacheMegabytes << 20));
+        }
+        if(progressSeconds > 0){
+            SimulationMetrics metrics = new SimulationMetrics();
+            try{
+                metrics.registerMBean("sweep");
+            }
+            catch(JMException e){
+                System.err.println("The metrics could not be registered with JMX: " + e.getMessage());
+            }
+            metrics.startProgress(System.err, progressSeconds * 1000L);
+            runner.setMetrics(metrics);
+        }
+        List<SweepResult> results = runner.run(grid(strategies, quanta, cpus));
+        if(runner.getMetrics() != null){
+            System.err.println(runner.getMetrics().formatProgress());
+            try{
+                runner.getMetrics().close();
+            }
+            catch(JMException e){
+                System.err.println("The metrics could not be unregistered from JMX: " + e.getMessage());
+            }
+        }
+        if(runner.getCache() != null){
+            System.err.println("Result cache: " + runner.getCache().getHits() + " hits, " + runner.getCache().getMisses() +
+                    " misses, " + runner.getCache().getDiskEntries() + " results in " + cacheDirectory);
+        }
+        writeTable(System.out, results, format);
+    }
+
+    private static List<Integer> parseInts(String list){
+        List<Integer> ints = new ArrayList<>();
+        for(String s: list.split(",")){
+            ints.add(Integer.parseInt(s.trim()));
+        }
+        return ints;
+    }
+}
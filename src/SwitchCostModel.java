@@ -0,0 +1,71 @@
+/**
+ * The cost of switching a cpu from one process to another, in time units the cpu spends on the switch instead of
+ * running the process (charted as Timeline.OVERHEAD): a context switch cost whenever a cpu starts running another
+ * process than the last one it ran, plus the cost of refilling the cache of the process, in full when it resumes on
+ * another cpu than the one it last ran on (the migration penalty) and in part when it resumes on the same cpu after
+ * its cache there cooled down (half of it is lost every cacheHalfLife time units off the cpu)
+ */
+public class SwitchCostModel {
+
+    //contextSwitchCost: the time units a cpu spends switching to another process
+    private final int contextSwitchCost;
+    //migrationPenalty: the time units a process spends refilling a cold cache
+    private final int migrationPenalty;
+    //cacheHalfLife: the time units off the cpu after which half of the cache a process left on the cpu is lost
+    private final int cacheHalfLife;
+
+    public SwitchCostModel(int contextSwitchCost, int migrationPenalty, int cacheHalfLife){
+        if(contextSwitchCost < 0 || migrationPenalty < 0){
+            throw new IllegalArgumentException("The context switch cost and migration penalty can't be negative");
+        }
+        if(cacheHalfLife < 1){
+            throw new IllegalArgumentException("The cache half life must be at least 1 time unit");
+        }
+        this.contextSwitchCost = contextSwitchCost;
+        this.migrationPenalty = migrationPenalty;
+        this.cacheHalfLife = cacheHalfLife;
+    }
+
+    //a method that returns the time units a cpu spends switching to a process at the given time
+    public int switchCost(CPU cpu, CPUProcess cpup, int time){
+        return this.contextSwitchCost + refillCost(cpu.getCpuID(), cpup, time);
+    }
+
+    //a method that returns the time units a process spends refilling its cache when it resumes on a cpu at the given
+    //time (nothing for a process that hasn't run yet, its cache is cold wherever it starts)
+    public int refillCost(int cpuID, CPUProcess cpup, int time){
+        int lastCPU = cpup.getLastCPU();
+        if(lastCPU < 0 || this.migrationPenalty == 0){
+            return 0;
+        }
+        if(lastCPU != cpuID){
+            return this.migrationPenalty;
+        }
+        int offCPU = time - cpup.getLastRunEnd();
+        if(offCPU <= 0){
+            return 0;
+        }
+        double warmth = Math.pow(0.5, (double) offCPU / this.cacheHalfLife);
+        return (int) Math.round(this.migrationPenalty * (1 - warmth));
+    }
+
+    //a method that returns the time units a process would save by resuming on the cpu it last ran on rather than on
+    //another one at the given time (0 for a process that hasn't run yet)
+    public int affinitySaving(CPUProcess cpup, int time){
+        int lastCPU = cpup.getLastCPU();
+        return lastCPU < 0 ? 0 : this.migrationPenalty - refillCost(lastCPU, cpup, time);
+    }
+
+    @Override
+    public String toString() {
+        return "context switch " + this.contextSwitchCost + ", migration penalty " + this.migrationPenalty +
+                ", cache half life " + this.cacheHalfLife;
+    }
+
+    //GETTERS
+    public int getContextSwitchCost(){ return this.contextSwitchCost; }
+
+    public int getMigrationPenalty(){ return this.migrationPenalty; }
+
+    public int getCacheHalfLife(){ return this.cacheHalfLife; }
+}
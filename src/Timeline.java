@@ -0,0 +1,198 @@
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A run-length encoded Gantt chart, consecutive time units spent on the same process are stored as a single
+ * (processIndex, start, length) interval so memory grows with the number of scheduling decisions instead of with time
+ */
+public class Timeline {
+
+    //IDLE: the process index used for the time units in which no process was running
+    public static final int IDLE = -1;
+    //OVERHEAD: the process index used for the time units a cpu spent switching processes (see SwitchCostModel)
+    public static final int OVERHEAD = -2;
+    //OVERHEAD_NAME: the name of the OVERHEAD time units in the reports (it has a space so no process id can match it)
+    public static final String OVERHEAD_NAME = "context switch";
+
+    //processNames: the ids of the processes indexed by their process index (used to render the chart)
+    private final List<String> processNames;
+    //processIndexes: the index of the process of each interval (IDLE if nothing was running)
+    private int[] processIndexes = new int[16];
+    //starts: the time at which each interval starts
+    private int[] starts = new int[16];
+    //lengths: the number of time units that each interval lasts
+    private int[] lengths = new int[16];
+    //intervalCount: the number of intervals in use in the arrays above
+    private int intervalCount = 0;
+    //size: the total number of time units in the timeline
+    private int size = 0;
+    //busyTime: the number of time units in which a process was running
+    private int busyTime = 0;
+    //overheadTime: the number of OVERHEAD time units
+    private int overheadTime = 0;
+
+    public Timeline(List<String> processNames){
+        this.processNames = processNames;
+    }
+
+    //a method that appends the given number of time units for a process (IDLE if nothing ran) to the end of the timeline
+    public void append(int processIndex, int ticks){
+        if(ticks <= 0){
+            return;
+        }
+        if(this.intervalCount > 0 && this.processIndexes[this.intervalCount - 1] == processIndex){
+            this.lengths[this.intervalCount - 1] += ticks;
+        }
+        else{
+            if(this.intervalCount == this.starts.length){
+                int capacity = this.intervalCount * 2;
+                this.processIndexes = Arrays.copyOf(this.processIndexes, capacity);
+                this.starts = Arrays.copyOf(this.starts, capacity);
+                this.lengths = Arrays.copyOf(this.lengths, capacity);
+            }
+            this.processIndexes[this.intervalCount] = processIndex;
+            this.starts[this.intervalCount] = this.size;
+            this.lengths[this.intervalCount] = ticks;
+            this.intervalCount++;
+        }
+        this.size += ticks;
+        if(processIndex >= 0){
+            this.busyTime += ticks;
+        }
+        else if(processIndex == OVERHEAD){
+            this.overheadTime += ticks;
+        }
+    }
+
+    //a method that cuts the timeline down to the given number of time units
+    public void truncate(int newSize){
+        while(this.size > newSize){
+            int last = this.intervalCount - 1;
+            int removed = Math.min(this.lengths[last], this.size - newSize);
+            this.lengths[last] -= removed;
+            this.size -= removed;
+            if(this.processIndexes[last] >= 0){
+                this.busyTime -= removed;
+            }
+            else if(this.processIndexes[last] == OVERHEAD){
+                this.overheadTime -= removed;
+            }
+            if(this.lengths[last] == 0){
+                this.intervalCount--;
+            }
+        }
+    }
+
+    //a method that returns the index of the process (IDLE if none) that was running at the given time
+    public int processAt(int time){
+        if(time < 0 || time >= this.size){
+            throw new IndexOutOfBoundsException("Time " + time + " is outside of the timeline of size " + this.size);
+        }
+        int low = 0;
+        int high = this.intervalCount - 1;
+        while(low < high){
+            int mid = (low + high + 1) >>> 1;
+            if(this.starts[mid] <= time)
+                low = mid;
+            else
+                high = mid - 1;
+        }
+        return this.processIndexes[low];
+    }
+
+    //a method that returns the id shown in the chart for a process index ("" when idle)
+    public String nameOf(int processIndex){
+        if(processIndex == IDLE){
+            return "";
+        }
+        if(processIndex == OVERHEAD){
+            return OVERHEAD_NAME;
+        }
+        return this.processNames.get(processIndex);
+    }
+
+    //a method that writes the timeline as a two row text gantt chart (time units on top, process ids below)
+    public void writeGantt(Appendable out) throws IOException {
+        out.append('|');
+        for(int i = 0; i < this.size; i++){
+            if(i < 10)
+                out.append("  ");
+            else
+                out.append(' ');
+            out.append(Integer.toString(i)).append("  | ");
+        }
+        out.append('\n').append('|');
+        for(int interval = 0; interval < this.intervalCount; interval++){
+            int processIndex = this.processIndexes[interval];
+            //the time units spent switching processes are shown as cs
+            String cell = processIndex == IDLE ? "     | " :
+                    processIndex == OVERHEAD ? " cs  | " : " " + nameOf(processIndex) + "  | ";
+            for(int i = 0; i < this.lengths[interval]; i++){
+                out.append(cell);
+            }
+        }
+    }
+
+    //a method that returns a read only view of the timeline with one entry per time unit, entries are only
+    //expanded when they are read
+    public List<String> asList(){
+        return new AbstractList<String>() {
+            @Override
+            public String get(int time) {
+                return nameOf(processAt(time));
+            }
+
+            @Override
+            public int size() {
+                return Timeline.this.size;
+            }
+
+            @Override
+            public Iterator<String> iterator() {
+                return new Iterator<String>() {
+                    //interval: the interval of the next entry and offset: the position of the next entry in that interval
+                    private int interval = 0;
+                    private int offset = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return this.interval < Timeline.this.intervalCount;
+                    }
+
+                    @Override
+                    public String next() {
+                        if(hasNext() == false){
+                            throw new NoSuchElementException();
+                        }
+                        String name = nameOf(Timeline.this.processIndexes[this.interval]);
+                        this.offset++;
+                        if(this.offset == Timeline.this.lengths[this.interval]){
+                            this.interval++;
+                            this.offset = 0;
+                        }
+                        return name;
+                    }
+                };
+            }
+        };
+    }
+
+    //GETTERS
+    public int size(){ return this.size; }
+
+    public int getBusyTime(){ return this.busyTime; }
+
+    public int getOverheadTime(){ return this.overheadTime; }
+
+    public int getIntervalCount(){ return this.intervalCount; }
+
+    public int getProcessIndex(int interval){ return this.processIndexes[interval]; }
+
+    public int getStart(int interval){ return this.starts[interval]; }
+
+    public int getLength(int interval){ return this.lengths[interval]; }
+}
@@ -0,0 +1,151 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Converts input files to binary traces and back, and binary reports to CSV or JSON lines, the kind of file is told
+ * by its first bytes: a text input file becomes a binary trace, a binary trace becomes a text input file and a binary
+ * report (see ReportFormat.BINARY) becomes a CSV or JSON lines report
+ * The processes are converted one at a time so the memory used does not depend on the number of processes
+ *
+ * usage: java TraceConverter inputFile outputFile [--blocks deflated|raw] [--format csv|json_lines]
+ */
+public class TraceConverter {
+
+    //BATCH_SIZE: the number of processes read into a table before a new table is started
+    private static final int BATCH_SIZE = 1 << 16;
+    //BUFFER_SIZE: the size of the buffer a text file is written through
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    //a method that writes the processes of an input file (text or binary trace) to a binary trace, malformed processes
+    //are reported to System.err and skipped, returns the number of processes written
+    public static long toBinaryTrace(String inputFile, String traceFile, boolean compressed) throws IOException {
+        try(WorkloadReader reader = new WorkloadReader(inputFile);
+            BinaryTraceWriter writer = new BinaryTraceWriter(traceFile, 0, compressed)){
+            ProcessTable table = new ProcessTable();
+            int index;
+            while((index = readProcess(reader, table)) >= 0){
+                writer.write(table, index);
+                if(table.size() == BATCH_SIZE){
+                    table = new ProcessTable();
+                }
+            }
+            writer.setNumOfCPUs(reader.getNumOfCPUs());
+            return writer.getProcessCount();
+        }
+    }
+
+    //a method that writes the processes of an input file (text or binary trace) to a text input file, returns the
+    //number of processes written
+    public static long toText(String inputFile, String textFile) throws IOException {
+        try(WorkloadReader reader = new WorkloadReader(inputFile);
+            Writer out = new BufferedWriter(Files.newBufferedWriter(Paths.get(textFile), StandardCharsets.UTF_8), BUFFER_SIZE)){
+            ProcessTable table = new ProcessTable();
+            //the first process is read first so that the number of cpus of a text file is known
+            int index = readProcess(reader, table);
+            out.write("numOfCPUs:\t" + reader.getNumOfCPUs() + "\n\n");
+            int[] times = new int[16];
+            int[] durations = new int[16];
+            int[] devices = new int[16];
+            int[] blocks = new int[16];
+            long count = 0;
+            for(; index >= 0; index = readProcess(reader, table)){
+                int ioCount = table.getIoRequestCount(index);
+                if(times.length < ioCount){
+                    times = new int[ioCount];
+                    durations = new int[ioCount];
+                    devices = new int[ioCount];
+                    blocks = new int[ioCount];
+                }
+                table.copyIoRequests(index, times, durations, devices, blocks);
+                out.write(table.getProcessID(index));
+                out.write('\t');
+                out.write(Integer.toString(table.getArrivalTime(index)));
+                out.write('\t');
+                out.write(Integer.toString(table.getTotalExecTime(index)));
+                for(int i = 0; i < ioCount; i++){
+                    out.write('\t');
+                    out.write(Integer.toString(times[i]));
+                    if(durations[i] != ProcessTable.DEFAULT_IO_DURATION)
+                        out.write(":" + durations[i]);
+                    if(devices[i] != 0)
+                        out.write("@" + devices[i]);
+                    if(blocks[i] != 0)
+                        out.write("#" + blocks[i]);
+                }
+                if(table.getWeight(index) != ProcessTable.DEFAULT_WEIGHT){
+                    out.write("\tweight=" + table.getWeight(index));
+                }
+                out.write('\n');
+                count++;
+                if(table.size() == BATCH_SIZE){
+                    table = new ProcessTable();
+                }
+            }
+            return count;
+        }
+    }
+
+    //a method that reads the next process into the table and returns its index (-1 at the end), malformed processes
+    //are reported and skipped
+    private static int readProcess(WorkloadReader reader, ProcessTable table) throws IOException {
+        while(true){
+            try{
+                return reader.next(table);
+            }
+            catch(InvalidInputException e){
+                System.err.println("Invalid input: " + e.getMessage());
+            }
+        }
+    }
+
+    //a method that returns the first int of a file (0 if it is shorter than that)
+    private static int magicOf(String fileName) throws IOException {
+        try(FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)){
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while(magic.hasRemaining() && channel.read(magic) >= 0);
+            magic.flip();
+            return magic.remaining() == 4 ? magic.getInt() : 0;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if(args.length < 2){
+            System.out.println("usage: java TraceConverter inputFile outputFile [--blocks deflated|raw] " +
+                    "[--format csv|json_lines]");
+            return;
+        }
+        boolean compressed = true;
+        ReportFormat format = ReportFormat.CSV;
+        for(int i = 2; i + 1 < args.length; i += 2){
+            switch(args[i]){
+                case "--blocks":
+                    compressed = args[i + 1].equals("raw") == false;
+                    break;
+                case "--format":
+                    format = ReportFormat.valueOf(args[i + 1].toUpperCase());
+                    break;
+                default:
+                    System.out.println("Unknown option: " + args[i]);
+            }
+        }
+        long start = System.nanoTime();
+        int magic = magicOf(args[0]);
+        if(magic == ReportWriter.BINARY_MAGIC){
+            try(Writer out = new BufferedWriter(Files.newBufferedWriter(Paths.get(args[1]), StandardCharsets.UTF_8), BUFFER_SIZE)){
+                new ReportWriter(out, format).writeFromBinary(args[0]);
+            }
+            System.out.println("Converted the binary report " + args[0] + " to " + args[1]);
+            return;
+        }
+        long count = magic == BinaryTraceWriter.MAGIC ? toText(args[0], args[1]) : toBinaryTrace(args[0], args[1], compressed);
+        System.out.println(String.format("Converted %d processes from %s to %s in %.2f s", count, args[0], args[1],
+                (System.nanoTime() - start) / 1e9));
+    }
+}
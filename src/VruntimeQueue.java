@@ -0,0 +1,110 @@
+import java.util.function.IntConsumer;
+
+/**
+ * A ready queue that keeps processes ordered by virtual runtime in an IndexedProcessHeap, so the process with the
+ * smallest vruntime is found in O(1) and removed or added in O(log n), processes with the same vruntime leave in the
+ * order they were added
+ *
+ * The queue also keeps the total weight of its processes and a minimum vruntime that never decreases, a process added
+ * to the queue is placed no further than placementWindow behind that minimum so a process that was waiting on io or
+ * just arrived can't keep the cpu to itself until it catches up with the others
+ */
+public class VruntimeQueue implements ProcessQueue {
+
+    //heap: the processes ordered by their vruntime then the order they were added
+    private IndexedProcessHeap heap = new IndexedProcessHeap(ProcessStateTable::getVruntime);
+    //processes: the table the rows are in
+    private ProcessStateTable processes = null;
+    //placementWindow: how far behind minVruntime a process can be placed when it is added
+    private long placementWindow;
+    //minVruntime: the smallest vruntime of the processes that ran from this queue (it never decreases)
+    private long minVruntime = 0;
+    //maxVruntime: the largest vruntime of the processes in the queue (a process that leaves the queue is the one with
+    //the smallest vruntime, so it only changes when a process is added)
+    private long maxVruntime = 0;
+    //totalWeight: the sum of the weights of the processes in the queue
+    private long totalWeight = 0;
+    //maxSpread: the largest difference between the vruntimes of two processes in the queue at the same time
+    private long maxSpread = 0;
+
+    public VruntimeQueue(long placementWindow){
+        this.placementWindow = placementWindow;
+    }
+
+    @Override
+    public void attach(ProcessStateTable processes) {
+        this.processes = processes;
+        this.heap.attach(processes);
+    }
+
+    //adds a process to the queue, its vruntime is first moved up to placementWindow behind minVruntime if it's lower
+    @Override
+    public void add(int row) {
+        long vruntime = Math.max(this.processes.getVruntime(row), this.minVruntime - this.placementWindow);
+        this.processes.setVruntime(row, vruntime);
+        this.maxVruntime = this.heap.isEmpty() ? vruntime : Math.max(this.maxVruntime, vruntime);
+        this.heap.add(row);
+        this.totalWeight += this.processes.getWeight(row);
+        this.maxSpread = Math.max(this.maxSpread, this.maxVruntime - this.heap.peekKey());
+    }
+
+    //removes the process with the smallest vruntime, the minimum vruntime moves up to it
+    @Override
+    public int poll() {
+        int row = this.heap.poll();
+        if(row != NONE){
+            this.totalWeight -= this.processes.getWeight(row);
+            this.minVruntime = Math.max(this.minVruntime, this.processes.getVruntime(row));
+        }
+        return row;
+    }
+
+    @Override
+    public int peek() {
+        return this.heap.peek();
+    }
+
+    @Override
+    public int size() {
+        return this.heap.size();
+    }
+
+    @Override
+    public void clear() {
+        this.heap.clear();
+        this.totalWeight = 0;
+    }
+
+    //a method that moves the minimum vruntime up to the vruntime of a running process (or to the smallest vruntime in
+    //the queue if that's lower) so processes added later are placed relative to the processes actually running
+    public void updateMinVruntime(long runningVruntime){
+        long vruntime = this.heap.isEmpty() ? runningVruntime : Math.min(runningVruntime, this.heap.peekKey());
+        this.minVruntime = Math.max(this.minVruntime, vruntime);
+    }
+
+    @Override
+    public void forEach(IntConsumer action) {
+        this.heap.forEach(action);
+    }
+
+    //returns the processes in vruntime order
+    @Override
+    public int[] toArray() {
+        return this.heap.toArray();
+    }
+
+    //GETTERS
+    public long getMinVruntime(){ return this.minVruntime; }
+
+    public long getTotalWeight(){ return this.totalWeight; }
+
+    public long getMaxSpread(){ return this.maxSpread; }
+
+    public long getPlacementWindow(){ return this.placementWindow; }
+
+    //SETTERS
+    //(used to restore a checkpoint, the processes are added back first)
+    public void setMinVruntime(long minVruntime){ this.minVruntime = minVruntime; }
+
+    public void setMaxSpread(long maxSpread){ this.maxSpread = maxSpread; }
+}
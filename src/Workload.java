@@ -0,0 +1,113 @@
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The processes of an input file (their ids, arrival times, execution times and io request times) and the number of
+ * cpus, parsed once and never modified afterwards so the same workload can be shared by any number of schedulers,
+ * one after the other or at the same time
+ *
+ * Every scheduler created from a workload reads the definitions of its processes from the workload's ProcessTable
+ * and keeps the state of the processes in the system in a ProcessStateTable of its own
+ */
+public class Workload {
+
+    //fileName: the file the workload was read from
+    private String fileName;
+    //numOfCPUs: the number of cpus declared in the file
+    private int numOfCPUs;
+    //processes: the definitions of the processes (never added to once the workload is built)
+    private ProcessTable processes;
+    //arrivalOrder: the process indexes ordered by arrival time then by index (null if the processes are in that order)
+    private int[] arrivalOrder;
+
+    //a constructor that makes a workload of the processes of a table (the table must not be changed afterwards),
+    //fileName names where the processes came from
+    public Workload(String fileName, int numOfCPUs, ProcessTable processes){
+        this.fileName = fileName;
+        this.numOfCPUs = numOfCPUs;
+        this.processes = processes;
+        this.processes.trimToSize();
+        this.arrivalOrder = arrivalOrderOf(processes);
+    }
+
+    //a method that returns the process indexes of a table ordered by arrival time then by index, or null if the
+    //processes are already in that order
+    private static int[] arrivalOrderOf(ProcessTable processes){
+        int size = processes.size();
+        boolean sorted = true;
+        for(int index = 1; index < size && sorted; index++){
+            sorted = processes.getArrivalTime(index - 1) <= processes.getArrivalTime(index);
+        }
+        if(sorted){
+            return null;
+        }
+        //the arrival times can't be negative so sorting them with the index in the low bits sorts on both
+        long[] keys = new long[size];
+        for(int index = 0; index < size; index++){
+            keys[index] = ((long) processes.getArrivalTime(index) << 32) | index;
+        }
+        Arrays.sort(keys);
+        int[] order = new int[size];
+        for(int i = 0; i < size; i++){
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    //a method that reads a workload from a file, malformed lines are reported to out and skipped
+    public static Workload read(String fileName, PrintStream out) throws IOException {
+        ProcessTable processes = new ProcessTable();
+        try(WorkloadReader reader = new WorkloadReader(fileName)){
+            out.println("\nReading from text file: " + fileName);
+            while(true){
+                try{
+                    if(reader.next(processes) < 0){
+                        break;
+                    }
+                }
+                catch(InvalidInputException e){
+                    out.println("Invalid input: " + e.getMessage());
+                }
+            }
+            out.println("\nSuccessfully read from text file: " + fileName);
+            return new Workload(fileName, reader.getNumOfCPUs(), processes);
+        }
+    }
+
+    //a method that writes every process of the workload for a ResultCache key (see ProcessTable.writeDefinitions)
+    public void writeDefinitions(DataOutput out) throws IOException {
+        this.processes.writeDefinitions(out);
+    }
+
+    //GETTERS
+    public String getFileName(){ return this.fileName; }
+
+    public int getNumOfCPUs(){ return this.numOfCPUs; }
+
+    public int size(){ return this.processes.size(); }
+
+    //returns the definitions of the processes, which must not be changed
+    public ProcessTable getProcessTable(){ return this.processes; }
+
+    //returns the process indexes ordered by arrival time then by index (null if the processes are in that order), the
+    //array is shared and must not be changed
+    public int[] getArrivalOrder(){ return this.arrivalOrder; }
+
+    //returns the number of io devices the io requests of the processes need
+    public int getNumOfIoDevices(){ return this.processes.getNumOfIoDevices(); }
+
+    public String getProcessID(int index){ return this.processes.getProcessID(index); }
+
+    public int getArrivalTime(int index){ return this.processes.getArrivalTime(index); }
+
+    public int getTotalExecTime(int index){ return this.processes.getTotalExecTime(index); }
+
+    //returns a copy of the io request times of a process
+    public int[] getIoRequestTimes(int index){ return this.processes.getIoRequestTimes(index); }
+
+    //returns a read only list of the process ids indexed by process index
+    public List<String> getProcessIDs(){ return this.processes.getProcessIDs(); }
+}
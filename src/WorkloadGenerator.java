@@ -0,0 +1,360 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Generates synthetic workloads from a seed, the same settings and seed always give the same processes
+ * The processes are generated one at a time and written as they are generated (in the input file format read by
+ * SchedulerStrategy), so the memory used does not depend on the number of processes, or they can be generated
+ * straight into a Workload
+ *
+ * usage: java WorkloadGenerator outputFile|- [--processes n] [--seed s] [--cpus n]
+ *                               [--arrivals poisson|bursty|diurnal] [--interarrival t] [--burst-size n]
+ *                               [--period t] [--amplitude a] [--bursts exponential|pareto] [--mean-burst t]
+ *                               [--pareto-shape a] [--max-burst t] [--io-density d]
+ */
+public class WorkloadGenerator {
+
+    //BUFFER_SIZE: the size of the buffer the generated file is written through
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    //seed: the seed of the random numbers
+    private long seed = 0;
+    //numOfProcesses: the number of processes to generate
+    private long numOfProcesses = 1000;
+    //numOfCPUs: the number of cpus of the workload
+    private int numOfCPUs = 1;
+    //arrivalProcess: how the arrivals are spread over time
+    private ArrivalProcess arrivalProcess = ArrivalProcess.POISSON;
+    //meanInterarrivalTime: the average time between two arrivals
+    private double meanInterarrivalTime = 5;
+    //burstSize: the average number of processes arriving together in a burst (BURSTY arrivals only)
+    private double burstSize = 10;
+    //period: the length of a cycle of the arrival rate (DIURNAL arrivals only)
+    private double period = 1440;
+    //amplitude: how far the arrival rate swings above and below its average, as a fraction of it (DIURNAL arrivals only)
+    private double amplitude = 0.8;
+    //burstDistribution: the distribution of the total execution times
+    private BurstDistribution burstDistribution = BurstDistribution.EXPONENTIAL;
+    //meanBurstLength: the average total execution time
+    private double meanBurstLength = 10;
+    //paretoShape: the shape (alpha) of the PARETO distribution, the lower the heavier the tail (it must be above 1)
+    private double paretoShape = 1.5;
+    //maxBurstLength: the longest total execution time generated (longer ones are cut down to it)
+    private int maxBurstLength = 1_000_000;
+    //ioDensity: the probability that a process requests io after each time unit of execution (0 for no io)
+    private double ioDensity = 0;
+
+    //random: the random numbers of the generation in progress
+    private SplittableRandom random;
+    //clock: the (continuous) time of the last arrival
+    private double clock;
+    //generated: the number of processes generated so far
+    private long generated;
+    //leftInBurst: the number of processes left to arrive in the current burst (BURSTY arrivals only)
+    private long leftInBurst;
+    //arrivalTime, totalExecTime, ioRequestTimes and ioCount: the last process generated
+    private int arrivalTime;
+    private int totalExecTime;
+    private int[] ioRequestTimes = new int[16];
+    private int ioCount;
+    //line: the characters of the line of the last process
+    private char[] line = new char[64];
+    private int lineLength;
+
+    //a method that writes the workload to out in the input file format, one line per process as they are generated
+    public void generate(Writer out) throws IOException {
+        start();
+        out.write("numOfCPUs: " + this.numOfCPUs + "\n");
+        while(nextProcess()){
+            this.lineLength = 0;
+            appendChar('p');
+            appendNumber(this.generated);
+            appendChar(' ');
+            appendNumber(this.arrivalTime);
+            appendChar(' ');
+            appendNumber(this.totalExecTime);
+            for(int i = 0; i < this.ioCount; i++){
+                appendChar(' ');
+                appendNumber(this.ioRequestTimes[i]);
+            }
+            appendChar('\n');
+            out.write(this.line, 0, this.lineLength);
+        }
+    }
+
+    //a method that writes the workload to a file
+    public void generate(String fileName) throws IOException {
+        try(Writer out = Files.newBufferedWriter(Paths.get(fileName), StandardCharsets.UTF_8)){
+            generate(out);
+        }
+    }
+
+    //a method that generates the workload straight into memory
+    public Workload generateWorkload(){
+        start();
+        ProcessTable processes = new ProcessTable();
+        byte[] id = new byte[20];
+        while(nextProcess()){
+            //the id is "p" followed by the number of the process, written right to left
+            int idStart = id.length;
+            long n = this.generated;
+            do{
+                id[--idStart] = (byte) ('0' + n % 10);
+                n /= 10;
+            } while(n > 0);
+            id[--idStart] = 'p';
+            processes.add(id, idStart, id.length - idStart, this.arrivalTime, this.totalExecTime,
+                    this.ioRequestTimes, 0, this.ioCount);
+        }
+        return new Workload("generated (seed " + this.seed + ")", this.numOfCPUs, processes);
+    }
+
+    //a method that starts a new generation from the seed
+    private void start(){
+        this.random = new SplittableRandom(this.seed);
+        this.clock = 0;
+        this.generated = 0;
+        this.leftInBurst = 0;
+    }
+
+    //a method that generates the next process, returns false once numOfProcesses processes have been generated
+    private boolean nextProcess(){
+        if(this.generated == this.numOfProcesses){
+            return false;
+        }
+        this.generated++;
+        nextArrival();
+        if(this.clock > Integer.MAX_VALUE){
+            throw new IllegalStateException("Process " + this.generated + " arrives after the last time unit that can be " +
+                    "simulated, use a shorter interarrival time or fewer processes");
+        }
+        this.arrivalTime = (int) this.clock;
+        this.totalExecTime = nextBurstLength();
+
+        //the io requests are drawn by skipping straight to the next time unit that has one (geometric gaps)
+        this.ioCount = 0;
+        if(this.ioDensity > 0){
+            long t = 0;
+            while(true){
+                t += this.ioDensity >= 1 ? 1 : geometric(this.ioDensity);
+                if(t >= this.totalExecTime){
+                    break;
+                }
+                if(this.ioCount == this.ioRequestTimes.length){
+                    this.ioRequestTimes = Arrays.copyOf(this.ioRequestTimes, this.ioCount * 2);
+                }
+                this.ioRequestTimes[this.ioCount++] = (int) t;
+            }
+        }
+        return true;
+    }
+
+    //a method that moves the clock to the time of the next arrival
+    private void nextArrival(){
+        switch(this.arrivalProcess){
+            case POISSON:
+                this.clock += exponential(this.meanInterarrivalTime);
+                break;
+            case BURSTY:
+                //the processes of a burst arrive burstSize times faster than average, and the quiet period before the
+                //burst makes up for it so the average interarrival time stays the same
+                if(this.leftInBurst == 0){
+                    this.leftInBurst = this.burstSize > 1 ? geometric(1 / this.burstSize) : 1;
+                    this.clock += exponential(this.meanInterarrivalTime * Math.max(this.burstSize - 1, 0));
+                }
+                this.leftInBurst--;
+                this.clock += exponential(this.meanInterarrivalTime / Math.max(this.burstSize, 1));
+                break;
+            default:
+                //a poisson process at the highest rate, thinned down to the rate of the time of each candidate arrival
+                double maxRate = (1 + this.amplitude) / this.meanInterarrivalTime;
+                while(true){
+                    this.clock += exponential(1 / maxRate);
+                    double rate = (1 + this.amplitude * Math.sin(2 * Math.PI * this.clock / this.period))
+                            / this.meanInterarrivalTime;
+                    if(this.random.nextDouble() * maxRate < rate){
+                        break;
+                    }
+                }
+        }
+    }
+
+    //a method that draws a total execution time (at least 1 and at most maxBurstLength)
+    private int nextBurstLength(){
+        double length;
+        if(this.burstDistribution == BurstDistribution.PARETO){
+            //the scale is chosen so that the mean is meanBurstLength
+            double scale = this.meanBurstLength * (this.paretoShape - 1) / this.paretoShape;
+            length = scale / Math.pow(1 - this.random.nextDouble(), 1 / this.paretoShape);
+        }
+        else{
+            length = exponential(this.meanBurstLength);
+        }
+        return (int) Math.max(1, Math.min(Math.ceil(length), this.maxBurstLength));
+    }
+
+    private double exponential(double mean){
+        return -Math.log(1 - this.random.nextDouble()) * mean;
+    }
+
+    //a method that draws the number of trials up to and including the first success (at least 1)
+    private long geometric(double probability){
+        return 1 + (long) (Math.log(1 - this.random.nextDouble()) / Math.log(1 - probability));
+    }
+
+    private void appendChar(char c){
+        if(this.lineLength == this.line.length){
+            this.line = Arrays.copyOf(this.line, this.lineLength * 2);
+        }
+        this.line[this.lineLength++] = c;
+    }
+
+    private void appendNumber(long n){
+        if(this.lineLength + 20 > this.line.length){
+            this.line = Arrays.copyOf(this.line, this.line.length * 2);
+        }
+        int end = this.lineLength;
+        do{
+            this.line[end++] = (char) ('0' + n % 10);
+            n /= 10;
+        } while(n > 0);
+        //the digits were written right to left
+        for(int i = this.lineLength, j = end - 1; i < j; i++, j--){
+            char c = this.line[i];
+            this.line[i] = this.line[j];
+            this.line[j] = c;
+        }
+        this.lineLength = end;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if(args.length == 0){
+            System.out.println("usage: java WorkloadGenerator outputFile|- [--processes n] [--seed s] [--cpus n] " +
+                    "[--arrivals poisson|bursty|diurnal] [--interarrival t] [--burst-size n] [--period t] " +
+                    "[--amplitude a] [--bursts exponential|pareto] [--mean-burst t] [--pareto-shape a] " +
+                    "[--max-burst t] [--io-density d]");
+            return;
+        }
+        WorkloadGenerator generator = new WorkloadGenerator();
+        for(int i = 1; i + 1 < args.length; i += 2){
+            String value = args[i + 1];
+            switch(args[i]){
+                case "--processes":
+                    generator.setNumOfProcesses(Long.parseLong(value));
+                    break;
+                case "--seed":
+                    generator.setSeed(Long.parseLong(value));
+                    break;
+                case "--cpus":
+                    generator.setNumOfCPUs(Integer.parseInt(value));
+                    break;
+                case "--arrivals":
+                    generator.setArrivalProcess(ArrivalProcess.valueOf(value.toUpperCase()));
+                    break;
+                case "--interarrival":
+                    generator.setMeanInterarrivalTime(Double.parseDouble(value));
+                    break;
+                case "--burst-size":
+                    generator.setBurstSize(Double.parseDouble(value));
+                    break;
+                case "--period":
+                    generator.setPeriod(Double.parseDouble(value));
+                    break;
+                case "--amplitude":
+                    generator.setAmplitude(Double.parseDouble(value));
+                    break;
+                case "--bursts":
+                    generator.setBurstDistribution(BurstDistribution.valueOf(value.toUpperCase()));
+                    break;
+                case "--mean-burst":
+                    generator.setMeanBurstLength(Double.parseDouble(value));
+                    break;
+                case "--pareto-shape":
+                    generator.setParetoShape(Double.parseDouble(value));
+                    break;
+                case "--max-burst":
+                    generator.setMaxBurstLength(Integer.parseInt(value));
+                    break;
+                case "--io-density":
+                    generator.setIoDensity(Double.parseDouble(value));
+                    break;
+                default:
+                    System.out.println("Unknown option: " + args[i]);
+            }
+        }
+        if(args[0].equals("-")){
+            Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            generator.generate(out);
+            out.flush();
+        }
+        else{
+            generator.generate(args[0]);
+        }
+    }
+
+    //GETTERS
+    public long getSeed(){ return this.seed; }
+
+    public long getNumOfProcesses(){ return this.numOfProcesses; }
+
+    public int getNumOfCPUs(){ return this.numOfCPUs; }
+
+    public ArrivalProcess getArrivalProcess(){ return this.arrivalProcess; }
+
+    public double getMeanInterarrivalTime(){ return this.meanInterarrivalTime; }
+
+    public double getBurstSize(){ return this.burstSize; }
+
+    public double getPeriod(){ return this.period; }
+
+    public double getAmplitude(){ return this.amplitude; }
+
+    public BurstDistribution getBurstDistribution(){ return this.burstDistribution; }
+
+    public double getMeanBurstLength(){ return this.meanBurstLength; }
+
+    public double getParetoShape(){ return this.paretoShape; }
+
+    public int getMaxBurstLength(){ return this.maxBurstLength; }
+
+    public double getIoDensity(){ return this.ioDensity; }
+
+    //SETTERS
+    public void setSeed(long seed){ this.seed = seed; }
+
+    public void setNumOfProcesses(long numOfProcesses){ this.numOfProcesses = numOfProcesses; }
+
+    public void setNumOfCPUs(int numOfCPUs){ this.numOfCPUs = numOfCPUs; }
+
+    public void setArrivalProcess(ArrivalProcess arrivalProcess){ this.arrivalProcess = arrivalProcess; }
+
+    public void setMeanInterarrivalTime(double meanInterarrivalTime){ this.meanInterarrivalTime = meanInterarrivalTime; }
+
+    public void setBurstSize(double burstSize){ this.burstSize = burstSize; }
+
+    public void setPeriod(double period){ this.period = period; }
+
+    public void setAmplitude(double amplitude){ this.amplitude = amplitude; }
+
+    public void setBurstDistribution(BurstDistribution burstDistribution){ this.burstDistribution = burstDistribution; }
+
+    public void setMeanBurstLength(double meanBurstLength){ this.meanBurstLength = meanBurstLength; }
+
+    public void setParetoShape(double paretoShape){
+        if(paretoShape <= 1){
+            throw new IllegalArgumentException("The pareto shape must be above 1 for the mean burst length to exist");
+        }
+        this.paretoShape = paretoShape;
+    }
+
+    public void setMaxBurstLength(int maxBurstLength){ this.maxBurstLength = maxBurstLength; }
+
+    public void setIoDensity(double ioDensity){ this.ioDensity = ioDensity; }
+}
@@ -0,0 +1,381 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads the processes of an input file one at a time, the file is read through a fixed size NIO buffer and lines
+ * are tokenized byte by byte (no regex and no String per line) so memory does not depend on the size of the file
+ *
+ * The input format is the one read by SchedulerStrategy: a "numOfCPUs: n" line, comment lines starting with //,
+ * and one "processID arrivalTime totalExecTime [ioRequestTime ...] [weight=w]" line per process (the weight is only
+ * used by the CFS strategy and defaults to ProcessTable.DEFAULT_WEIGHT)
+ *
+ * An io request can be followed by its duration, device and block: "time[:duration][@device][#block]", e.g. 5:3@1
+ * is a request at execution time 5 that lasts 3 time units on device 1 (the defaults are
+ * ProcessTable.DEFAULT_IO_DURATION time units on block 0 of device 0)
+ *
+ * A file starting with BinaryTraceWriter.MAGIC is a binary trace and is read by a BinaryTraceReader instead
+ */
+public class WorkloadReader implements AutoCloseable {
+
+    //BUFFER_SIZE: the number of bytes read from the file at once
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    //fileName: the file being read
+    private String fileName;
+    //channel: the channel the file is read through
+    private FileChannel channel;
+    //buffer: the bytes read from the file that have not been parsed yet
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    //line: the bytes of the line currently being parsed (grows to fit the longest line)
+    private byte[] line = new byte[256];
+    //lineLength: the number of bytes in line
+    private int lineLength = 0;
+    //tokenStart and tokenEnd: the bounds of the last token found by nextToken()
+    private int tokenStart = 0;
+    private int tokenEnd = 0;
+    //lineNumber: the number of the line currently being parsed (starting at 1)
+    private int lineNumber = 0;
+    //numOfCPUs: the number of cpus declared in the file (0 until the numOfCPUs line is read)
+    private int numOfCPUs = 0;
+    //ioRequestTimes: the io request times of the line being parsed
+    private int[] ioRequestTimes = new int[16];
+    //ioDurations, ioDevices and ioBlocks: the attributes of the io requests of the line being parsed
+    private int[] ioDurations = new int[16];
+    private int[] ioDevices = new int[16];
+    private int[] ioBlocks = new int[16];
+    //ioOrder: the io requests of the line being parsed packed as (time << 32 | position) to sort them with their attributes
+    private long[] ioOrder = new long[16];
+    //numOfIoDevices: the number of io devices processes can request io on, a process requesting io on another device
+    //is invalid input
+    private int numOfIoDevices = Integer.MAX_VALUE;
+    //binaryReader: reads the file when it is a binary trace (null for a text file)
+    private BinaryTraceReader binaryReader = null;
+
+    public WorkloadReader(String fileName) throws IOException {
+        this.fileName = fileName;
+        this.channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+        //the buffer starts out empty
+        this.buffer.flip();
+        if(BinaryTraceReader.isBinaryTrace(this.channel)){
+            this.binaryReader = new BinaryTraceReader(fileName, this.channel);
+        }
+    }
+
+    //a method that adds the next process in the file to the table and returns its index, or returns -1 once the end of
+    //the file is reached, a malformed line throws an InvalidInputException with its line number (nothing is added to the
+    //table) and calling next() again continues after it
+    public int next(ProcessTable table) throws IOException, InvalidInputException {
+        if(this.binaryReader != null){
+            return this.binaryReader.next(table);
+        }
+        while(readLine()){
+            int position = nextToken(0);
+            //if the current line is just white space then we must skip it since it's irrelevant
+            if(position < 0){
+                continue;
+            }
+            //if the numOfCPUs attribute is 0 then we haven't initialized it with the value from the file yet so we check the current line
+            if(this.numOfCPUs == 0 && tokenContains("numOfCPUs")){
+                if(nextToken(position) < 0){
+                    throw new InvalidInputException(location() + "numOfCPUs has no value");
+                }
+                this.numOfCPUs = parseToken();
+                continue;
+            }
+            //if the current line starts with a double slash we must skip it since it's a comment
+            if(tokenContains("//")){
+                continue;
+            }
+            //otherwise it's a process: processID arrivalTime totalExecTime [ioRequestTime ...] [weight=w]
+            int idStart = this.tokenStart;
+            int idLength = this.tokenEnd - this.tokenStart;
+            position = nextToken(position);
+            if(position < 0){
+                throw new InvalidInputException(location() + "process " +
+                        new String(this.line, idStart, idLength, StandardCharsets.UTF_8) + " has no arrival time");
+            }
+            int arrivalTime = parseToken();
+            if(arrivalTime < 0){
+                throw new InvalidInputException(location() + "the arrival time of a process can't be negative");
+            }
+            position = nextToken(position);
+            if(position < 0){
+                throw new InvalidInputException(location() + "process " +
+                        new String(this.line, idStart, idLength, StandardCharsets.UTF_8) + " has no total execution time");
+            }
+            int totalExecTime = parseToken();
+            if(totalExecTime < 1){
+                throw new InvalidInputException(location() + "the total execution time of a process must be at least 1 time unit");
+            }
+            int ioCount = 0;
+            boolean ioAttributes = false;
+            int weight = ProcessTable.DEFAULT_WEIGHT;
+            while((position = nextToken(position)) >= 0){
+                if(tokenStartsWith("weight=")){
+                    this.tokenStart += "weight=".length();
+                    weight = parseToken();
+                    if(weight < 1){
+                        throw new InvalidInputException(location() + "the weight of a process must be positive");
+                    }
+                    continue;
+                }
+                if(ioCount == this.ioRequestTimes.length){
+                    growIoRequests();
+                }
+                ioAttributes |= parseIoRequest(ioCount++, totalExecTime);
+            }
+            if(ioAttributes == false){
+                Arrays.sort(this.ioRequestTimes, 0, ioCount);
+                return table.add(this.line, idStart, idLength, arrivalTime, totalExecTime, weight,
+                        this.ioRequestTimes, 0, ioCount);
+            }
+            sortIoRequests(ioCount);
+            return table.add(this.line, idStart, idLength, arrivalTime, totalExecTime, weight,
+                    this.ioRequestTimes, this.ioDurations, this.ioDevices, this.ioBlocks, 0, ioCount);
+        }
+        return -1;
+    }
+
+    //a method that parses the current token as the io request at the given position of the line's io requests (of a
+    //process running for totalExecTime), returns whether the request has a duration, device or block
+    private boolean parseIoRequest(int position, int totalExecTime) throws InvalidInputException {
+        int end = markerAfter(this.tokenStart);
+        this.ioRequestTimes[position] = parseInt(this.tokenStart, end);
+        if(this.ioRequestTimes[position] < 0 || this.ioRequestTimes[position] > totalExecTime){
+            throw new InvalidInputException(location() + "io request '" + tokenText() + "' is not between 0 and the " +
+                    "total execution time " + totalExecTime);
+        }
+        this.ioDurations[position] = ProcessTable.DEFAULT_IO_DURATION;
+        this.ioDevices[position] = 0;
+        this.ioBlocks[position] = 0;
+        boolean attributes = false;
+        while(end < this.tokenEnd){
+            byte marker = this.line[end];
+            int start = end + 1;
+            end = markerAfter(start);
+            int value = parseInt(start, end);
+            if(marker == ':'){
+                if(value < 1){
+                    throw new InvalidInputException(location() + "io request '" + tokenText() + "' must last at least 1 time unit");
+                }
+                this.ioDurations[position] = value;
+            }
+            else if(marker == '@'){
+                if(value < 0){
+                    throw new InvalidInputException(location() + "io request '" + tokenText() + "' has a negative device");
+                }
+                if(value >= this.numOfIoDevices){
+                    throw new InvalidInputException(location() + "io request '" + tokenText() + "' is on device " + value +
+                            " but there are only " + this.numOfIoDevices + " io devices");
+                }
+                this.ioDevices[position] = value;
+            }
+            else{
+                this.ioBlocks[position] = value;
+            }
+            attributes = true;
+        }
+        return attributes;
+    }
+
+    //a method that returns the position of the first io attribute marker (:, @ or #) of the current token at or after
+    //the given position, or the end of the token
+    private int markerAfter(int position){
+        while(position < this.tokenEnd && this.line[position] != ':' && this.line[position] != '@' &&
+                this.line[position] != '#'){
+            position++;
+        }
+        return position;
+    }
+
+    //a method that doubles the room for the io requests of a line
+    private void growIoRequests(){
+        int capacity = this.ioRequestTimes.length * 2;
+        this.ioRequestTimes = Arrays.copyOf(this.ioRequestTimes, capacity);
+        this.ioDurations = Arrays.copyOf(this.ioDurations, capacity);
+        this.ioDevices = Arrays.copyOf(this.ioDevices, capacity);
+        this.ioBlocks = Arrays.copyOf(this.ioBlocks, capacity);
+        this.ioOrder = Arrays.copyOf(this.ioOrder, capacity);
+    }
+
+    //a method that sorts the io requests of the line by time, keeping their attributes with them (requests at the same
+    //time stay in the order of the line)
+    private void sortIoRequests(int ioCount){
+        for(int i = 0; i < ioCount; i++){
+            this.ioOrder[i] = ((long) this.ioRequestTimes[i] << 32) | i;
+        }
+        Arrays.sort(this.ioOrder, 0, ioCount);
+        int[] durations = Arrays.copyOf(this.ioDurations, ioCount);
+        int[] devices = Arrays.copyOf(this.ioDevices, ioCount);
+        int[] blocks = Arrays.copyOf(this.ioBlocks, ioCount);
+        for(int i = 0; i < ioCount; i++){
+            int from = (int) this.ioOrder[i];
+            this.ioRequestTimes[i] = (int) (this.ioOrder[i] >> 32);
+            this.ioDurations[i] = durations[from];
+            this.ioDevices[i] = devices[from];
+            this.ioBlocks[i] = blocks[from];
+        }
+    }
+
+    //a method that reads the next line of the file into line, returns false once the end of the file is reached
+    private boolean readLine() throws IOException {
+        this.lineLength = 0;
+        boolean readAnything = false;
+        while(true){
+            if(this.buffer.hasRemaining() == false){
+                this.buffer.clear();
+                int read = this.channel.read(this.buffer);
+                this.buffer.flip();
+                if(read < 0){
+                    if(readAnything){
+                        this.lineNumber++;
+                    }
+                    return readAnything;
+                }
+            }
+            readAnything = true;
+            byte[] bytes = this.buffer.array();
+            int start = this.buffer.position();
+            int end = start;
+            while(end < this.buffer.limit() && bytes[end] != '\n'){
+                end++;
+            }
+            int length = end - start;
+            if(this.lineLength + length > this.line.length){
+                this.line = Arrays.copyOf(this.line, Math.max(this.line.length * 2, this.lineLength + length));
+            }
+            System.arraycopy(bytes, start, this.line, this.lineLength, length);
+            this.lineLength += length;
+            if(end < this.buffer.limit()){
+                this.buffer.position(end + 1);
+                this.lineNumber++;
+                return true;
+            }
+            this.buffer.position(end);
+        }
+    }
+
+    //a method that finds the next token of the line starting at the given position
+    //returns the position after the token or -1 if there are no more tokens
+    private int nextToken(int position){
+        while(position < this.lineLength && isWhitespace(this.line[position])){
+            position++;
+        }
+        if(position == this.lineLength){
+            return -1;
+        }
+        this.tokenStart = position;
+        while(position < this.lineLength && isWhitespace(this.line[position]) == false){
+            position++;
+        }
+        this.tokenEnd = position;
+        return position;
+    }
+
+    private static boolean isWhitespace(byte b){
+        return b == ' ' || b == '\t' || b == '\r' || b == '\f' || b == 0x0B;
+    }
+
+    //a method that indicates whether the current token contains the given ascii text
+    private boolean tokenContains(String text){
+        for(int start = this.tokenStart; start + text.length() <= this.tokenEnd; start++){
+            int i = 0;
+            while(i < text.length() && this.line[start + i] == text.charAt(i)){
+                i++;
+            }
+            if(i == text.length()){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //a method that indicates whether the current token starts with the given ascii text
+    private boolean tokenStartsWith(String text){
+        if(this.tokenEnd - this.tokenStart < text.length()){
+            return false;
+        }
+        for(int i = 0; i < text.length(); i++){
+            if(this.line[this.tokenStart + i] != text.charAt(i)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //a method that parses the current token as an int
+    private int parseToken() throws InvalidInputException {
+        return parseInt(this.tokenStart, this.tokenEnd);
+    }
+
+    //a method that parses the bytes of the line between start and end (part of the current token) as an int
+    private int parseInt(int start, int end) throws InvalidInputException {
+        int position = start;
+        boolean negative = position < end && this.line[position] == '-';
+        if(negative || (position < end && this.line[position] == '+')){
+            position++;
+        }
+        if(position >= end){
+            throw new InvalidInputException(location() + "'" + tokenText() + "' is not a valid integer");
+        }
+        long value = 0;
+        for(; position < end; position++){
+            int digit = this.line[position] - '0';
+            if(digit < 0 || digit > 9){
+                throw new InvalidInputException(location() + "'" + tokenText() + "' is not a valid integer");
+            }
+            value = value * 10 + digit;
+            if(value > (long) Integer.MAX_VALUE + 1){
+                throw new InvalidInputException(location() + "'" + tokenText() + "' is out of range");
+            }
+        }
+        value = negative ? -value : value;
+        if(value > Integer.MAX_VALUE){
+            throw new InvalidInputException(location() + "'" + tokenText() + "' is out of range");
+        }
+        return (int) value;
+    }
+
+    private String tokenText(){
+        return new String(this.line, this.tokenStart, this.tokenEnd - this.tokenStart, StandardCharsets.UTF_8);
+    }
+
+    private String location(){
+        return this.fileName + " line " + this.lineNumber + ": ";
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(this.binaryReader != null){
+            this.binaryReader.close();
+        }
+        this.channel.close();
+    }
+
+    //GETTERS
+    public int getNumOfCPUs() { return this.binaryReader != null ? this.binaryReader.getNumOfCPUs() : this.numOfCPUs; }
+
+    //returns the number of the line being parsed, or of the process being read from a binary trace
+    public int getLineNumber() {
+        return this.binaryReader != null ? (int) this.binaryReader.getProcessNumber() : this.lineNumber;
+    }
+
+    public boolean isBinaryTrace() { return this.binaryReader != null; }
+
+    public String getFileName() { return this.fileName; }
+
+    public int getNumOfIoDevices() { return this.numOfIoDevices; }
+
+    //a method that limits the io devices the processes read from now on can request io on
+    public void setNumOfIoDevices(int numOfIoDevices) {
+        this.numOfIoDevices = numOfIoDevices;
+        if(this.binaryReader != null){
+            this.binaryReader.setNumOfIoDevices(numOfIoDevices);
+        }
+    }
+}